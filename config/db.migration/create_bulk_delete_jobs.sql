@@ -0,0 +1,37 @@
+-- Background bulk deletes (POST /api/users/bulk-delete)
+--
+-- Requires create_change_feed.sql (deleted users leave tombstones).
+--
+-- One row per job. BulkDeleteService claims QUEUED jobs, deletes matching
+-- users in small committed chunks walking up the primary key, and records
+-- the last deleted id in cursor_id after every chunk so a restarted worker
+-- resumes where the previous one stopped. RUNNING jobs whose heartbeat_at
+-- is older than app.bulk-delete.lease-ms are taken over by another instance.
+
+CREATE TABLE IF NOT EXISTS bulk_delete_jobs (
+    job_id bigserial PRIMARY KEY,
+    status varchar(10) NOT NULL DEFAULT 'QUEUED',   -- QUEUED / RUNNING / COMPLETED / CANCELLED / FAILED
+    ids bigint[],
+    email_domain varchar(255),
+    created_before timestamp,
+    chunk_size int NOT NULL,
+    cursor_id bigint NOT NULL DEFAULT 0,
+    deleted_count bigint NOT NULL DEFAULT 0,
+    chunks int NOT NULL DEFAULT 0,
+    cancel_requested boolean NOT NULL DEFAULT false,
+    error text,
+    created_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at timestamp,
+    heartbeat_at timestamp,
+    finished_at timestamp
+);
+
+CREATE INDEX IF NOT EXISTS idx_bulk_delete_jobs_active
+    ON bulk_delete_jobs (job_id) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Domain jobs walk (domain, id): each chunk reads only matching rows in id
+-- order and stops at its LIMIT, however rare the domain. Without it a chunk
+-- scans the primary key past every non-matching row, holding its locks.
+-- Same expression as UserRepository.deleteUsersChunk.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_domain_id
+    ON users (lower(split_part(email, '@', 2)), id);
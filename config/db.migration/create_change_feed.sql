@@ -0,0 +1,44 @@
+-- Delta-sync change feed (GET /api/users/changes)
+--
+-- Requires create_user_changes.sql.
+--
+-- users gets updated_at / version, bumped by UserRepository.updateUser;
+-- UserRepository.deleteUser leaves a tombstone so deletes can be reported
+-- with their final version. Feed ordering is (tx_id, change_id): only rows
+-- whose transaction id is below the current snapshot xmin are served, so a
+-- change that commits late can never land behind a token already handed out.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS updated_at timestamp DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 1;
+
+UPDATE users SET updated_at = created_at WHERE updated_at IS NULL OR updated_at < created_at;
+
+CREATE TABLE IF NOT EXISTS user_tombstones (
+    user_id bigint PRIMARY KEY,
+    version bigint NOT NULL,
+    deleted_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- transaction id of the writer, as a plain bigint (xid8 without epoch games)
+ALTER TABLE user_changes ADD COLUMN IF NOT EXISTS tx_id bigint NOT NULL DEFAULT 0;
+ALTER TABLE user_changes ALTER COLUMN tx_id SET DEFAULT pg_current_xact_id()::text::bigint;
+
+CREATE INDEX IF NOT EXISTS idx_user_changes_tx_change ON user_changes (tx_id, change_id);
+CREATE INDEX IF NOT EXISTS idx_user_changes_changed_at ON user_changes (changed_at);
+
+-- last (tx_id, change_id) removed by retention, in feed order; tokens behind
+-- it must resync (change_id alone does not follow the feed order)
+CREATE TABLE IF NOT EXISTS user_changes_pruned (
+    id int PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    up_to_tx_id bigint NOT NULL DEFAULT 0,
+    up_to_change_id bigint NOT NULL DEFAULT 0
+);
+
+INSERT INTO user_changes_pruned (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
+
+-- horizons recorded as a bare change_id cannot be placed in feed order:
+-- expire every token issued before this point once
+ALTER TABLE user_changes_pruned ADD COLUMN IF NOT EXISTS up_to_tx_id bigint NOT NULL DEFAULT 0;
+UPDATE user_changes_pruned
+SET up_to_tx_id = pg_current_xact_id()::text::bigint, up_to_change_id = 0
+WHERE up_to_tx_id = 0 AND up_to_change_id > 0;
@@ -0,0 +1,78 @@
+-- Duplicate emails without an exception round trip
+--
+-- Requires create_id_generator.sql (procedure signature with p_id).
+--
+-- ON CONFLICT (email) DO NOTHING turns a duplicate email into new_id = NULL
+-- instead of a unique_violation, so neither Postgres, the driver nor Spring's
+-- exception translation builds an error for the expected conflict;
+-- UserService maps the NULL to DuplicateEmailException. The conflict target
+-- is explicit so a primary key collision (e.g. two Snowflake nodes sharing a
+-- node id) still raises instead of passing for a duplicate email.
+--
+-- This unique index is the only thing that keeps emails unique; UserService
+-- has no pre-check. On the hash-partitioned table (partition_users.sql) the
+-- index cannot exist and user_email_keys takes over.
+--
+-- create_table.sql has no email constraint, so existing duplicates must go
+-- first: CREATE UNIQUE INDEX CONCURRENTLY would fail on them and leave an
+-- INVALID index behind. The check below aborts with a sample of them. To
+-- move every duplicate but the lowest id per email into
+-- users_duplicate_emails (full rows, for manual follow-up) instead, run with
+--   SET app.dedupe_emails = 'on';
+-- Duplicates inserted while the index builds still fail it; the invalid
+-- index is dropped on the next run.
+
+DO $$
+DECLARE
+    v_duplicates bigint;
+    v_sample text;
+BEGIN
+    SELECT count(*), string_agg(email, ', ') FILTER (WHERE n <= 10)
+    INTO v_duplicates, v_sample
+    FROM (SELECT email, row_number() OVER (ORDER BY email) AS n
+          FROM users GROUP BY email HAVING count(*) > 1) d;
+
+    IF v_duplicates = 0 THEN
+        RETURN;
+    END IF;
+
+    IF coalesce(current_setting('app.dedupe_emails', true), '') <> 'on' THEN
+        RAISE EXCEPTION '% emails are used by more than one user (e.g. %); resolve them or SET app.dedupe_emails = ''on''',
+            v_duplicates, v_sample;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS users_duplicate_emails (LIKE users INCLUDING DEFAULTS);
+    ALTER TABLE users_duplicate_emails ADD COLUMN IF NOT EXISTS moved_at timestamp DEFAULT CURRENT_TIMESTAMP;
+
+    WITH moved AS (
+        DELETE FROM users u
+        WHERE EXISTS (SELECT 1 FROM users k WHERE k.email = u.email AND k.id < u.id)
+        RETURNING u.*
+    )
+    INSERT INTO users_duplicate_emails SELECT moved.*, CURRENT_TIMESTAMP FROM moved;
+
+    RAISE NOTICE 'Moved duplicates of % emails to users_duplicate_emails', v_duplicates;
+END
+$$;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_index
+               WHERE indexrelid = to_regclass('public.idx_users_email_unique') AND NOT indisvalid) THEN
+        DROP INDEX idx_users_email_unique;
+    END IF;
+END
+$$;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_unique ON users (email);
+
+CREATE OR REPLACE PROCEDURE public.create_user_procedure(IN p_first_name character varying, IN p_last_name character varying, IN p_email character varying, IN p_phone character varying, IN p_id bigint, OUT new_id bigint)
+ LANGUAGE plpgsql
+AS $procedure$
+BEGIN
+INSERT INTO users (id, first_name, last_name, email, phone)
+VALUES (COALESCE(p_id, nextval('users_id_seq')), p_first_name, p_last_name, p_email, p_phone)
+    ON CONFLICT (email) DO NOTHING
+    RETURNING id INTO new_id;
+END;
+$procedure$;
@@ -0,0 +1,38 @@
+-- Exact lookups by email and phone (GET /api/users/by-email/{email}, /by-phone/{phone})
+--
+-- lower(email) backs the case-insensitive email lookup. It is not unique:
+-- idx_users_email_unique is case-sensitive and existing rows may differ only
+-- in case, so the lookup prefers the exact spelling, then the lowest id.
+--
+-- Phones are matched in E.164 form through an expression index on
+-- normalize_phone_e164(phone, '1') rather than a stored generated column,
+-- which would rewrite users under an ACCESS EXCLUSIVE lock. The expression
+-- must stay literally the same in UserRepository (PhoneNumbers mirrors the
+-- rules in Java, '1' is PhoneNumbers.DEFAULT_COUNTRY_CODE):
+--
+--   '+44 20 7946 0958'  -> +442079460958      (leading + : digits kept as is)
+--   '0044 20 7946 0958' -> +442079460958      (00 international prefix)
+--   '(555) 010-4477'    -> +15550104477       (national: default country code,
+--   '0555 010 4477'     -> +15550104477        one trunk 0 dropped)
+--   anything outside 8..15 digits -> NULL
+
+CREATE OR REPLACE FUNCTION public.normalize_phone_e164(p_phone text, p_default_cc text)
+ RETURNS text
+ LANGUAGE sql
+ IMMUTABLE STRICT PARALLEL SAFE
+AS $function$
+    SELECT CASE WHEN length(n) BETWEEN 8 AND 15 THEN '+' || n END
+    FROM (
+        SELECT CASE
+                   WHEN ltrim(p_phone, E' \t\r\n') LIKE '+%' THEN d
+                   WHEN d LIKE '00%' THEN substr(d, 3)
+                   WHEN d = '' THEN ''
+                   ELSE p_default_cc || regexp_replace(d, '^0', '')
+               END AS n
+        FROM (SELECT regexp_replace(p_phone, '[^0-9]', '', 'g') AS d) digits
+    ) normalized
+$function$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower ON users (lower(email));
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_phone_e164 ON users (normalize_phone_e164(phone, '1'));
@@ -0,0 +1,22 @@
+-- Application-assigned ids (app.id-generator.strategy)
+--
+-- 1. create_user_procedure takes the id from the caller (p_id); NULL still
+--    falls back to users_id_seq.
+-- 2. users_id_seq hands out blocks of 1000: HiLoIdGenerator turns one
+--    nextval into 1000 ids. Inserts that still use the column default get
+--    the first id of a fresh block, so the two can never collide.
+
+DROP PROCEDURE IF EXISTS public.create_user_procedure(IN character varying, IN character varying, IN character varying, IN character varying, OUT bigint);
+
+CREATE OR REPLACE PROCEDURE public.create_user_procedure(IN p_first_name character varying, IN p_last_name character varying, IN p_email character varying, IN p_phone character varying, IN p_id bigint, OUT new_id bigint)
+ LANGUAGE plpgsql
+AS $procedure$
+BEGIN
+INSERT INTO users (id, first_name, last_name, email, phone)
+VALUES (COALESCE(p_id, nextval('users_id_seq')), p_first_name, p_last_name, p_email, p_phone)
+    RETURNING id INTO new_id;
+END;
+$procedure$;
+
+SELECT setval('users_id_seq', (SELECT COALESCE(max(id), 0) + 1 FROM users), false);
+ALTER SEQUENCE users_id_seq INCREMENT BY 1000;
@@ -0,0 +1,18 @@
+-- Idempotency-Key support for POST /api/users
+--
+-- One row per client key. PENDING while the first request runs, DONE with
+-- the stored response afterwards; other instances seeing PENDING wait for
+-- DONE instead of running the create again. Rows past expires_at are
+-- removed by IdempotencyService.purgeExpired.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key varchar(255) PRIMARY KEY,
+    request_hash char(64) NOT NULL,
+    status varchar(10) NOT NULL DEFAULT 'PENDING',
+    response_status int,
+    response_body text,
+    created_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at timestamp NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,32 @@
+-- Directory database for app.sharding.enabled=true
+--
+-- Runs on the default spring.datasource. Shard rows are inserted with ids
+-- drawn from the sequence below, never from the shard's own sequence.
+--
+-- Every shard needs the objects ShardedUserRepository calls on it, in order:
+--   create_table.sql
+--   create_stored_procedure.sql       create_user_procedure
+--   create_id_generator.sql           p_id signature (ids from the IdGenerator)
+--   create_conflict_free_insert.sql   ON CONFLICT (email), unique email index
+--   create_views.sql                  view_all_users / view_user_details
+--   create_sort_indexes.sql           (column COLLATE "C", id) sort indexes
+--   create_created_at_brin.sql        created_at range filters
+--   create_contact_lookup.sql         normalize_phone_e164, lower(email) lookup
+--   create_user_changes.sql           change markers
+--   create_change_feed.sql            updated_at / version, user_tombstones
+--   create_bulk_delete_jobs.sql       (email domain, id) index for bulk deletes
+
+CREATE SEQUENCE IF NOT EXISTS users_id_seq;
+
+-- Global email uniqueness across shards (emails stored lower-cased)
+CREATE TABLE IF NOT EXISTS user_email_owners (
+    email varchar PRIMARY KEY,
+    user_id bigint NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_email_owners_user_id ON user_email_owners (user_id);
+
+-- Backfill when moving an existing single-node database to shards:
+-- INSERT INTO user_email_owners (email, user_id)
+-- SELECT lower(email), id FROM users ON CONFLICT (email) DO NOTHING;
+-- SELECT setval('users_id_seq', (SELECT max(id) FROM users));
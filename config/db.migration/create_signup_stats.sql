@@ -0,0 +1,221 @@
+-- Pre-aggregated signup statistics (GET /api/users/stats)
+--
+-- The users trigger only appends +1 / -1 rows to user_signup_deltas, so
+-- concurrent inserts never queue on the same counter row. SignupStatsService
+-- folds the deltas into the rollups every few seconds with
+-- fold_user_signup_deltas(); reads touch the rollups only and never scan users.
+--
+--   user_signup_days     one row per created_at day          (day / week / month buckets)
+--   user_signup_domains  one row per email domain            (top-N domains)
+--
+-- Counts are of users that currently exist: a delete subtracts from the day
+-- and domain the user was counted under, an email or created_at change moves it.
+--
+-- Existing users are counted by backfill_user_signups(), called at the end of
+-- this file: the trigger goes in first under a short lock, then the backfill
+-- walks the ids that existed at that moment in committed batches, without
+-- holding a lock on users between them. Until it finishes the stats are
+-- partial; user_signup_backfill shows how far it got and the CALL can be
+-- repeated to resume.
+
+CREATE TABLE IF NOT EXISTS user_signup_days (
+    day date PRIMARY KEY,
+    signups bigint NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS user_signup_domains (
+    email_domain varchar(255) PRIMARY KEY,
+    signups bigint NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_signup_domains_signups
+    ON user_signup_domains (signups DESC, email_domain);
+
+CREATE TABLE IF NOT EXISTS user_signup_deltas (
+    delta_id bigserial PRIMARY KEY,
+    day date NOT NULL,
+    email_domain varchar(255) NOT NULL,
+    delta int NOT NULL
+);
+
+-- last successful fold, reported as asOf by the endpoint
+CREATE TABLE IF NOT EXISTS user_signup_folded (
+    id int PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    folded_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO user_signup_folded (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
+
+-- backfill progress: ids in (backfilled_to, boundary_id] are still to do
+CREATE TABLE IF NOT EXISTS user_signup_backfill (
+    id int PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    backfilled_to bigint NOT NULL,
+    boundary_id bigint NOT NULL,
+    done boolean NOT NULL DEFAULT false,
+    updated_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ids the trigger counted before the backfill reached them; the backfill skips them
+CREATE TABLE IF NOT EXISTS user_signup_backfill_skip (
+    id bigint PRIMARY KEY
+);
+
+-- While the backfill runs, a user it has not reached yet is counted by
+-- whichever of the two gets there first. The trigger subtracts OLD only if it
+-- was counted (backfilled, or added by the trigger earlier) and lists every id
+-- it counts beyond the backfill position in user_signup_backfill_skip.
+CREATE OR REPLACE FUNCTION public.record_user_signup()
+ RETURNS trigger
+ LANGUAGE plpgsql
+AS $function$
+DECLARE
+    v_done boolean;
+    v_backfilled_to bigint;
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.created_at::date IS NOT DISTINCT FROM NEW.created_at::date
+            AND lower(split_part(OLD.email, '@', 2)) = lower(split_part(NEW.email, '@', 2)) THEN
+        RETURN NEW;
+    END IF;
+
+    SELECT done, backfilled_to INTO v_done, v_backfilled_to FROM user_signup_backfill WHERE id = 1;
+    v_done := coalesce(v_done, true);
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        IF v_done OR OLD.id <= v_backfilled_to
+                OR EXISTS (SELECT 1 FROM user_signup_backfill_skip WHERE id = OLD.id) THEN
+            INSERT INTO user_signup_deltas (day, email_domain, delta)
+            VALUES (coalesce(OLD.created_at, CURRENT_TIMESTAMP)::date, lower(split_part(OLD.email, '@', 2)), -1);
+        END IF;
+
+        IF NOT v_done AND OLD.id > v_backfilled_to THEN
+            INSERT INTO user_signup_backfill_skip (id) VALUES (OLD.id) ON CONFLICT (id) DO NOTHING;
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        IF TG_OP = 'INSERT' AND NOT v_done AND NEW.id > v_backfilled_to THEN
+            INSERT INTO user_signup_backfill_skip (id) VALUES (NEW.id) ON CONFLICT (id) DO NOTHING;
+        END IF;
+
+        INSERT INTO user_signup_deltas (day, email_domain, delta)
+        VALUES (coalesce(NEW.created_at, CURRENT_TIMESTAMP)::date, lower(split_part(NEW.email, '@', 2)), 1);
+        RETURN NEW;
+    END IF;
+
+    RETURN OLD;
+END;
+$function$;
+
+-- Folds up to p_limit deltas into the rollups and returns how many it took.
+-- SKIP LOCKED lets several instances fold concurrently without double counting.
+CREATE OR REPLACE FUNCTION public.fold_user_signup_deltas(p_limit int)
+ RETURNS int
+ LANGUAGE plpgsql
+AS $function$
+DECLARE
+    v_folded int;
+BEGIN
+    WITH batch AS (
+        DELETE FROM user_signup_deltas
+        WHERE delta_id IN (SELECT delta_id FROM user_signup_deltas
+                           ORDER BY delta_id LIMIT p_limit FOR UPDATE SKIP LOCKED)
+        RETURNING day, email_domain, delta
+    ), days AS (
+        INSERT INTO user_signup_days AS d (day, signups)
+        SELECT day, sum(delta) FROM batch GROUP BY day
+        ON CONFLICT (day) DO UPDATE SET signups = d.signups + EXCLUDED.signups
+    ), domains AS (
+        INSERT INTO user_signup_domains AS d (email_domain, signups)
+        SELECT email_domain, sum(delta) FROM batch GROUP BY email_domain
+        ON CONFLICT (email_domain) DO UPDATE SET signups = d.signups + EXCLUDED.signups
+    )
+    SELECT count(*) INTO v_folded FROM batch;
+
+    UPDATE user_signup_folded SET folded_at = CURRENT_TIMESTAMP WHERE id = 1;
+    RETURN v_folded;
+END;
+$function$;
+
+-- Counts the users that existed when the trigger went in, one committed
+-- batch of ids at a time, as deltas for the next fold. Each batch first locks
+-- its rows FOR SHARE: a writer already inside the batch finishes (and lists
+-- the id as skipped) before the batch reads the skip list, and a later writer
+-- waits for the commit and then sees the row as backfilled. Resumable.
+CREATE OR REPLACE PROCEDURE public.backfill_user_signups(IN p_batch_size integer DEFAULT 10000, IN p_sleep_ms integer DEFAULT 0)
+ LANGUAGE plpgsql
+AS $procedure$
+DECLARE
+    v_last_id  bigint;
+    v_boundary bigint;
+    v_upper    bigint;
+BEGIN
+    SELECT backfilled_to, boundary_id INTO v_last_id, v_boundary
+    FROM user_signup_backfill WHERE id = 1 AND NOT done;
+
+    IF NOT FOUND THEN
+        RETURN;
+    END IF;
+
+    LOOP
+        SELECT max(id) INTO v_upper
+        FROM (SELECT id FROM users WHERE id > v_last_id AND id <= v_boundary ORDER BY id LIMIT p_batch_size) chunk;
+
+        EXIT WHEN v_upper IS NULL;
+
+        PERFORM 1 FROM users WHERE id > v_last_id AND id <= v_upper FOR SHARE;
+
+        INSERT INTO user_signup_deltas (day, email_domain, delta)
+        SELECT coalesce(u.created_at, CURRENT_TIMESTAMP)::date, lower(split_part(u.email, '@', 2)), count(*)
+        FROM users u
+        WHERE u.id > v_last_id AND u.id <= v_upper
+          AND NOT EXISTS (SELECT 1 FROM user_signup_backfill_skip s WHERE s.id = u.id)
+        GROUP BY 1, 2;
+
+        v_last_id := v_upper;
+
+        UPDATE user_signup_backfill
+        SET backfilled_to = v_last_id, updated_at = CURRENT_TIMESTAMP
+        WHERE id = 1;
+
+        COMMIT;
+
+        IF p_sleep_ms > 0 THEN
+            PERFORM pg_sleep(p_sleep_ms / 1000.0);
+        END IF;
+    END LOOP;
+
+    UPDATE user_signup_backfill
+    SET backfilled_to = v_boundary, done = true, updated_at = CURRENT_TIMESTAMP
+    WHERE id = 1;
+
+    COMMIT;
+
+    DELETE FROM user_signup_backfill_skip;
+END;
+$procedure$;
+
+-- Trigger, reset and backfill boundary in one short transaction: writers wait
+-- only for the catalog change and two index lookups, and every user is then
+-- either below the boundary (backfill) or written after it (trigger).
+DO $$
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    LOCK TABLE users IN SHARE ROW EXCLUSIVE MODE;
+
+    DROP TRIGGER IF EXISTS trg_record_user_signup ON users;
+    CREATE TRIGGER trg_record_user_signup
+        AFTER INSERT OR UPDATE OF email, created_at OR DELETE ON users
+        FOR EACH ROW EXECUTE FUNCTION public.record_user_signup();
+
+    TRUNCATE user_signup_days, user_signup_domains, user_signup_deltas, user_signup_backfill_skip;
+
+    INSERT INTO user_signup_backfill (id, backfilled_to, boundary_id)
+    SELECT 1, coalesce(min(id), 0) - 1, coalesce(max(id), 0) FROM users
+    ON CONFLICT (id) DO UPDATE
+    SET backfilled_to = EXCLUDED.backfilled_to, boundary_id = EXCLUDED.boundary_id,
+        done = false, updated_at = CURRENT_TIMESTAMP;
+END;
+$$;
+
+CALL backfill_user_signups(10000);
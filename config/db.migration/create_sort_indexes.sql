@@ -0,0 +1,36 @@
+-- Sort-friendly views and indexes
+--
+-- view_all_users used to carry its own ORDER BY id, which forced a sort on
+-- every query that ordered by anything else. Ordering is now always decided
+-- by the caller (UserRepository), so the view is a plain projection.
+CREATE OR REPLACE VIEW view_all_users AS
+SELECT
+    id,
+    first_name,
+    last_name,
+    email,
+    phone,
+    created_at
+FROM users;
+
+-- One (column, id) index per SORTABLE_COLUMNS key. UserRepository orders by
+-- "<column> <dir>, id <dir>", so each ORDER BY ... LIMIT is served by an
+-- ordered (forward or backward) index scan with no sort step.
+-- "id" itself is covered by the primary key.
+--
+-- Text columns are ordered COLLATE "C" (code point order): the same on
+-- every shard and in the in-memory merges and snapshot, whatever the
+-- database collation. Their indexes carry the same collation; the older
+-- default-collation indexes cannot serve that ORDER BY and are dropped.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_first_name_c_id ON users (first_name COLLATE "C", id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_last_name_c_id  ON users (last_name COLLATE "C", id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_c_id      ON users (email COLLATE "C", id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_phone_c_id      ON users (phone COLLATE "C", id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at_id   ON users (created_at, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_first_name_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_last_name_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_email_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_phone_id;
+
+ANALYZE users;
@@ -1,9 +1,11 @@
-CREATE OR REPLACE PROCEDURE public.create_user_procedure(IN p_first_name character varying, IN p_last_name character varying, IN p_email character varying, IN p_phone character varying, OUT new_id bigint)
+-- ON CONFLICT (email) needs idx_users_email_unique (create_conflict_free_insert.sql)
+CREATE OR REPLACE PROCEDURE public.create_user_procedure(IN p_first_name character varying, IN p_last_name character varying, IN p_email character varying, IN p_phone character varying, IN p_id bigint, OUT new_id bigint)
  LANGUAGE plpgsql
 AS $procedure$
 BEGIN
-INSERT INTO users (first_name, last_name, email, phone)
-VALUES (p_first_name, p_last_name, p_email, p_phone)
+INSERT INTO users (id, first_name, last_name, email, phone)
+VALUES (COALESCE(p_id, nextval('users_id_seq')), p_first_name, p_last_name, p_email, p_phone)
+    ON CONFLICT (email) DO NOTHING
     RETURNING id INTO new_id;
 END;
 $procedure$
@@ -0,0 +1,31 @@
+-- Change marker for in-memory consumers (snapshot refresh)
+--
+-- Every insert/update/delete on users appends (user_id, op) here; change_id
+-- is the monotonically increasing marker readers remember between refreshes.
+
+CREATE TABLE IF NOT EXISTS user_changes (
+    change_id bigserial PRIMARY KEY,
+    user_id bigint NOT NULL,
+    op char(1) NOT NULL,                      -- I / U / D
+    changed_at timestamp DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE OR REPLACE FUNCTION public.record_user_change()
+ RETURNS trigger
+ LANGUAGE plpgsql
+AS $function$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO user_changes (user_id, op) VALUES (OLD.id, 'D');
+        RETURN OLD;
+    END IF;
+
+    INSERT INTO user_changes (user_id, op) VALUES (NEW.id, left(TG_OP, 1));
+    RETURN NEW;
+END;
+$function$;
+
+DROP TRIGGER IF EXISTS trg_record_user_change ON users;
+CREATE TRIGGER trg_record_user_change
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION public.record_user_change();
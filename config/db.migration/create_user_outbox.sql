@@ -0,0 +1,15 @@
+-- Transactional outbox for user lifecycle events
+--
+-- UserService and the bulk delete worker insert one row per created, updated
+-- or deleted user in the same transaction as the write. OutboxPublisher
+-- claims rows in event_id order with FOR UPDATE SKIP LOCKED, hands them to
+-- the configured sink and deletes them in that same transaction, so the
+-- table only holds what has not been delivered yet (delivery is at least once).
+
+CREATE TABLE IF NOT EXISTS user_outbox (
+    event_id bigserial PRIMARY KEY,
+    event_type varchar(32) NOT NULL,          -- user.created / user.updated / user.deleted
+    user_id bigint NOT NULL,
+    payload text,                             -- UserDTO as JSON, null for deletes
+    created_at timestamp NOT NULL DEFAULT clock_timestamp()
+);
@@ -6,8 +6,7 @@ SELECT
     email,
     phone,
     created_at
-FROM users
-ORDER BY id;
+FROM users;
 
 
 CREATE OR REPLACE VIEW view_user_details AS
@@ -0,0 +1,380 @@
+-- Hash-partitioned users table + online migration (PostgreSQL 14+)
+--
+-- Requires the current users schema: create_change_feed.sql (updated_at,
+-- version), create_contact_lookup.sql (normalize_phone_e164) and
+-- create_conflict_free_insert.sql (unique email). The swap refuses to run
+-- if users has a column users_partitioned does not carry.
+--
+-- Layout: users is HASH partitioned on id into 16 partitions. Every
+-- UserRepository statement keyed by id (getUserById, updateUser, deleteUser)
+-- carries "id = ?", so the planner/executor prunes down to one partition,
+-- including generic plans of server-side prepared statements.
+--
+-- A partitioned table cannot hold a UNIQUE constraint that does not include
+-- the partition key, so email uniqueness moves to user_email_keys (email
+-- PRIMARY KEY -> user id), kept by a trigger on users_partitioned. A
+-- conflicting insert or email change raises unique_violation exactly like
+-- idx_users_email_unique did, and the swap installs a create_user_procedure
+-- that claims the key first, so duplicates still come back as new_id = NULL.
+--
+-- Steps:
+--   1. run this file (creates users_partitioned, email keys, mirror trigger, tools)
+--   2. CALL copy_users_to_partitioned(10000, 50);   -- resumable, commits per chunk
+--   3. CALL swap_in_partitioned_users();            -- catch-up copy, then renames
+--                                                    -- under a short exclusive lock
+--   4. optional: CALL archive_users_created_before('2022-01-01', 5000);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = 'public' AND table_name = 'users' AND column_name = 'version')
+            OR to_regproc('public.normalize_phone_e164') IS NULL
+            OR to_regclass('public.idx_users_email_unique') IS NULL THEN
+        RAISE EXCEPTION 'partition_users.sql needs create_change_feed.sql, create_contact_lookup.sql '
+                        'and create_conflict_free_insert.sql applied first';
+    END IF;
+END
+$$;
+
+-- -------------------------------------------------------
+-- NEW TABLE (indexes before the mirror trigger: building them locks the
+-- table, which would stall the writers the trigger forwards)
+-- -------------------------------------------------------
+CREATE TABLE IF NOT EXISTS users_partitioned (
+    id bigint NOT NULL DEFAULT nextval('users_id_seq'::regclass),
+    first_name varchar NOT NULL,
+    last_name varchar NOT NULL,
+    email varchar NOT NULL,
+    phone varchar,
+    created_at timestamp DEFAULT CURRENT_TIMESTAMP,
+    updated_at timestamp DEFAULT CURRENT_TIMESTAMP,
+    version bigint NOT NULL DEFAULT 1,
+    PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS users_p%s PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+            i, i);
+    END LOOP;
+END
+$$;
+
+-- Same (column, id) sort indexes as create_sort_indexes.sql; ordered scans
+-- over the partitions are combined with a Merge Append, so still no sort.
+CREATE INDEX IF NOT EXISTS idx_users_part_first_name_c_id ON users_partitioned (first_name COLLATE "C", id);
+CREATE INDEX IF NOT EXISTS idx_users_part_last_name_c_id  ON users_partitioned (last_name COLLATE "C", id);
+CREATE INDEX IF NOT EXISTS idx_users_part_email_c_id      ON users_partitioned (email COLLATE "C", id);
+CREATE INDEX IF NOT EXISTS idx_users_part_phone_c_id      ON users_partitioned (phone COLLATE "C", id);
+CREATE INDEX IF NOT EXISTS idx_users_part_created_at_id ON users_partitioned (created_at, id);
+
+-- create_created_at_brin.sql and create_contact_lookup.sql
+CREATE INDEX IF NOT EXISTS idx_users_part_created_at_brin
+    ON users_partitioned USING brin (created_at) WITH (pages_per_range = 32, autosummarize = on);
+CREATE INDEX IF NOT EXISTS idx_users_part_email_lower ON users_partitioned (lower(email));
+CREATE INDEX IF NOT EXISTS idx_users_part_phone_e164  ON users_partitioned (normalize_phone_e164(phone, '1'));
+
+-- create_bulk_delete_jobs.sql
+CREATE INDEX IF NOT EXISTS idx_users_part_email_domain_id
+    ON users_partitioned (lower(split_part(email, '@', 2)), id);
+
+-- -------------------------------------------------------
+-- GLOBAL EMAIL UNIQUENESS (email -> owning id)
+-- -------------------------------------------------------
+CREATE TABLE IF NOT EXISTS user_email_keys (
+    email varchar PRIMARY KEY,
+    user_id bigint NOT NULL
+);
+
+CREATE OR REPLACE FUNCTION public.claim_user_email_key()
+ RETURNS trigger
+ LANGUAGE plpgsql
+AS $function$
+BEGIN
+    IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.email IS DISTINCT FROM NEW.email) THEN
+        DELETE FROM user_email_keys WHERE email = OLD.email AND user_id = OLD.id;
+    END IF;
+
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND OLD.email IS DISTINCT FROM NEW.email) THEN
+        -- a key this row already holds (claimed by create_user_procedure) is fine
+        INSERT INTO user_email_keys (email, user_id) VALUES (NEW.email, NEW.id)
+        ON CONFLICT (email) DO UPDATE SET user_id = EXCLUDED.user_id
+            WHERE user_email_keys.user_id = EXCLUDED.user_id;
+
+        IF NOT FOUND THEN
+            RAISE unique_violation USING
+                MESSAGE = 'duplicate key value violates unique constraint "user_email_keys_pkey"',
+                DETAIL = format('Key (email)=(%s) already exists.', NEW.email),
+                CONSTRAINT = 'user_email_keys_pkey',
+                TABLE = 'users';
+        END IF;
+    END IF;
+
+    RETURN NULL;
+END;
+$function$;
+
+DROP TRIGGER IF EXISTS trg_claim_user_email_key ON users_partitioned;
+CREATE TRIGGER trg_claim_user_email_key
+    AFTER INSERT OR UPDATE OF email OR DELETE ON users_partitioned
+    FOR EACH ROW EXECUTE FUNCTION public.claim_user_email_key();
+
+-- -------------------------------------------------------
+-- MIRROR LIVE WRITES WHILE THE COPY RUNS
+-- -------------------------------------------------------
+CREATE OR REPLACE FUNCTION public.mirror_users_to_partitioned()
+ RETURNS trigger
+ LANGUAGE plpgsql
+AS $function$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM users_partitioned WHERE id = OLD.id;
+        RETURN OLD;
+    END IF;
+
+    INSERT INTO users_partitioned (id, first_name, last_name, email, phone, created_at, updated_at, version)
+    VALUES (NEW.id, NEW.first_name, NEW.last_name, NEW.email, NEW.phone, NEW.created_at, NEW.updated_at, NEW.version)
+    ON CONFLICT (id) DO UPDATE
+        SET first_name = EXCLUDED.first_name,
+            last_name  = EXCLUDED.last_name,
+            email      = EXCLUDED.email,
+            phone      = EXCLUDED.phone,
+            created_at = EXCLUDED.created_at,
+            updated_at = EXCLUDED.updated_at,
+            version    = EXCLUDED.version;
+    RETURN NEW;
+END;
+$function$;
+
+DROP TRIGGER IF EXISTS trg_mirror_users_to_partitioned ON users;
+CREATE TRIGGER trg_mirror_users_to_partitioned
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION public.mirror_users_to_partitioned();
+
+-- -------------------------------------------------------
+-- CHUNKED COPY (resumable, one commit per chunk)
+-- -------------------------------------------------------
+-- Chunks walk the primary key (sparse Snowflake ids included) and lock their
+-- source rows FOR SHARE: a concurrent update or delete of a row in the chunk
+-- waits for the chunk to commit and is then mirrored on top of the copy, so
+-- a row deleted mid-chunk can never be resurrected and no final anti-join
+-- pass is needed.
+CREATE TABLE IF NOT EXISTS users_partition_migration (
+    name varchar PRIMARY KEY,
+    last_id bigint NOT NULL DEFAULT 0,
+    updated_at timestamp DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO users_partition_migration (name) VALUES ('users') ON CONFLICT (name) DO NOTHING;
+
+CREATE OR REPLACE PROCEDURE public.copy_users_to_partitioned(IN p_batch_size integer DEFAULT 10000, IN p_sleep_ms integer DEFAULT 0)
+ LANGUAGE plpgsql
+AS $procedure$
+DECLARE
+    v_last_id bigint;
+    v_upper   bigint;
+BEGIN
+    SELECT last_id INTO v_last_id FROM users_partition_migration WHERE name = 'users';
+
+    LOOP
+        SELECT max(id) INTO v_upper
+        FROM (SELECT id FROM users WHERE id > v_last_id ORDER BY id LIMIT p_batch_size) chunk;
+
+        EXIT WHEN v_upper IS NULL;
+
+        -- rows already written by the mirror trigger are newer; keep them
+        WITH chunk AS (
+            SELECT id, first_name, last_name, email, phone, created_at, updated_at, version
+            FROM users
+            WHERE id > v_last_id AND id <= v_upper
+            FOR SHARE
+        )
+        INSERT INTO users_partitioned (id, first_name, last_name, email, phone, created_at, updated_at, version)
+        SELECT id, first_name, last_name, email, phone, created_at, updated_at, version
+        FROM chunk
+        ON CONFLICT (id) DO NOTHING;
+
+        v_last_id := v_upper;
+
+        UPDATE users_partition_migration
+        SET last_id = v_last_id, updated_at = CURRENT_TIMESTAMP
+        WHERE name = 'users';
+
+        COMMIT;
+
+        IF p_sleep_ms > 0 THEN
+            PERFORM pg_sleep(p_sleep_ms / 1000.0);
+        END IF;
+    END LOOP;
+END;
+$procedure$;
+
+-- -------------------------------------------------------
+-- SWAP (catch-up copy first; only renames under the exclusive lock)
+-- -------------------------------------------------------
+-- Everything below last_id is already reconciled (copied under FOR SHARE,
+-- later writes mirrored), so under the lock only rows inserted above the
+-- copy cursor since the catch-up can still be missing: an index range scan
+-- over a few seconds of inserts. lock_timeout keeps the ACCESS EXCLUSIVE
+-- request from queueing every other session behind a long transaction;
+-- on timeout nothing has changed and the CALL can simply be repeated.
+CREATE OR REPLACE PROCEDURE public.swap_in_partitioned_users(IN p_batch_size integer DEFAULT 10000,
+                                                             IN p_lock_timeout text DEFAULT '5s')
+ LANGUAGE plpgsql
+AS $procedure$
+DECLARE
+    v_last_id bigint;
+    v_missing text;
+    v_index   text[];
+BEGIN
+    CALL copy_users_to_partitioned(p_batch_size, 0);
+
+    PERFORM set_config('lock_timeout', p_lock_timeout, true);
+    LOCK TABLE users, users_partitioned IN ACCESS EXCLUSIVE MODE;
+
+    SELECT string_agg(u.column_name, ', ') INTO v_missing
+    FROM information_schema.columns u
+    WHERE u.table_schema = 'public' AND u.table_name = 'users'
+      AND NOT EXISTS (SELECT 1 FROM information_schema.columns p
+                      WHERE p.table_schema = 'public' AND p.table_name = 'users_partitioned'
+                        AND p.column_name = u.column_name);
+
+    IF v_missing IS NOT NULL THEN
+        RAISE EXCEPTION 'users has columns users_partitioned does not carry (%); update partition_users.sql', v_missing;
+    END IF;
+
+    SELECT last_id INTO v_last_id FROM users_partition_migration WHERE name = 'users';
+
+    INSERT INTO users_partitioned (id, first_name, last_name, email, phone, created_at, updated_at, version)
+    SELECT id, first_name, last_name, email, phone, created_at, updated_at, version
+    FROM users
+    WHERE id > v_last_id
+    ON CONFLICT (id) DO NOTHING;
+
+    DROP TRIGGER IF EXISTS trg_mirror_users_to_partitioned ON users;
+
+    ALTER TABLE users RENAME TO users_unpartitioned;
+    ALTER TABLE users_partitioned RENAME TO users;
+    ALTER SEQUENCE users_id_seq OWNED BY users.id;
+
+    -- keep the index names later migrations and the code comments refer to
+    FOREACH v_index SLICE 1 IN ARRAY ARRAY[
+            ['idx_users_first_name_c_id', 'idx_users_part_first_name_c_id'],
+            ['idx_users_last_name_c_id',  'idx_users_part_last_name_c_id'],
+            ['idx_users_email_c_id',      'idx_users_part_email_c_id'],
+            ['idx_users_phone_c_id',      'idx_users_part_phone_c_id'],
+            ['idx_users_created_at_id',   'idx_users_part_created_at_id'],
+            ['idx_users_created_at_brin', 'idx_users_part_created_at_brin'],
+            ['idx_users_email_lower',     'idx_users_part_email_lower'],
+            ['idx_users_phone_e164',      'idx_users_part_phone_e164'],
+            ['idx_users_email_domain_id', 'idx_users_part_email_domain_id']] LOOP
+        IF to_regclass('public.' || v_index[1]) IS NOT NULL THEN
+            EXECUTE format('ALTER INDEX %I RENAME TO %I', v_index[1], v_index[1] || '_unpartitioned');
+        END IF;
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', v_index[2], v_index[1]);
+    END LOOP;
+
+    -- change feed and signup rollups follow the live table
+    IF to_regproc('public.record_user_change') IS NOT NULL THEN
+        CREATE TRIGGER trg_record_user_change
+            AFTER INSERT OR UPDATE OR DELETE ON users
+            FOR EACH ROW EXECUTE FUNCTION public.record_user_change();
+    END IF;
+
+    IF to_regproc('public.record_user_signup') IS NOT NULL THEN
+        CREATE TRIGGER trg_record_user_signup
+            AFTER INSERT OR UPDATE OF email, created_at OR DELETE ON users
+            FOR EACH ROW EXECUTE FUNCTION public.record_user_signup();
+    END IF;
+
+    -- ON CONFLICT (email) needs a unique index on users; claim the key instead
+    EXECUTE $ddl$
+        CREATE OR REPLACE PROCEDURE public.create_user_procedure(IN p_first_name character varying, IN p_last_name character varying, IN p_email character varying, IN p_phone character varying, IN p_id bigint, OUT new_id bigint)
+         LANGUAGE plpgsql
+        AS $body$
+        DECLARE
+            v_id bigint := COALESCE(p_id, nextval('users_id_seq'));
+        BEGIN
+            INSERT INTO user_email_keys (email, user_id) VALUES (p_email, v_id)
+                ON CONFLICT (email) DO NOTHING;
+
+            IF NOT FOUND THEN
+                RETURN;
+            END IF;
+
+            INSERT INTO users (id, first_name, last_name, email, phone)
+            VALUES (v_id, p_first_name, p_last_name, p_email, p_phone)
+                RETURNING id INTO new_id;
+        END;
+        $body$
+    $ddl$;
+
+    -- views are bound to the old table's OID, so point them at the new one
+    CREATE OR REPLACE VIEW view_all_users AS
+    SELECT id, first_name, last_name, email, phone, created_at
+    FROM users;
+
+    CREATE OR REPLACE VIEW view_user_details AS
+    SELECT id, first_name, last_name, email, phone, created_at
+    FROM users;
+END;
+$procedure$;
+
+-- -------------------------------------------------------
+-- OPTIONAL ARCHIVE: RANGE PARTITIONED ON created_at
+-- -------------------------------------------------------
+-- Old users are moved out of the live table into yearly partitions that can
+-- be detached / dropped / dumped independently. The live directory (and
+-- every UserRepository query) only sees users.
+CREATE TABLE IF NOT EXISTS users_archive (
+    id bigint NOT NULL,
+    first_name varchar NOT NULL,
+    last_name varchar NOT NULL,
+    email varchar NOT NULL,
+    phone varchar,
+    created_at timestamp,
+    archived_at timestamp DEFAULT CURRENT_TIMESTAMP
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE IF NOT EXISTS users_archive_default PARTITION OF users_archive DEFAULT;
+
+DO $$
+DECLARE
+    v_year integer;
+BEGIN
+    FOR v_year IN 2015..extract(year FROM CURRENT_DATE)::integer LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS users_archive_y%s PARTITION OF users_archive FOR VALUES FROM (%L) TO (%L)',
+            v_year, make_date(v_year, 1, 1), make_date(v_year + 1, 1, 1));
+    END LOOP;
+END
+$$;
+
+CREATE OR REPLACE PROCEDURE public.archive_users_created_before(IN p_cutoff timestamp, IN p_batch_size integer DEFAULT 5000)
+ LANGUAGE plpgsql
+AS $procedure$
+DECLARE
+    v_moved integer;
+BEGIN
+    LOOP
+        WITH moved AS (
+            DELETE FROM users
+            WHERE id IN (
+                SELECT id FROM users
+                WHERE created_at < p_cutoff
+                LIMIT p_batch_size
+            )
+            RETURNING id, first_name, last_name, email, phone, created_at
+        )
+        INSERT INTO users_archive (id, first_name, last_name, email, phone, created_at)
+        SELECT id, first_name, last_name, email, phone, created_at FROM moved;
+
+        GET DIAGNOSTICS v_moved = ROW_COUNT;
+        COMMIT;
+
+        EXIT WHEN v_moved < p_batch_size;
+    END LOOP;
+END;
+$procedure$;
@@ -0,0 +1,184 @@
+package com.example.test.cache;
+
+import com.example.test.service.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded GET /api/users responses, kept as the JSON bytes plus a gzipped
+ * copy so a hit is a plain write (see {@link ResponseCacheFilter}).
+ *
+ * Entries are validated against generation counters instead of being
+ * evicted on write: every local write through UserService bumps the list
+ * generation and the stripe of its user id, so list pages drop on any write
+ * and id lookups only when a user in the same stripe changes. Callers take
+ * the generation before rendering, so a write racing the render leaves the
+ * entry already outdated. Writes on other instances are only bounded by
+ * app.response-cache.max-age-ms.
+ */
+@Component
+public class ResponseCache {
+
+    private static final int ID_STRIPES = 4096;
+
+    public record Encoded(String contentType, byte[] identity, byte[] gzip) {
+
+        long bytes() {
+            return identity.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    private record Entry(Encoded body, long generation, long storedAtMillis) {
+    }
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxAgeMs;
+    private final int gzipMinBytes;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private long bytes;                                   // guarded by entries
+
+    private final AtomicLong listGeneration = new AtomicLong();
+    private final AtomicLongArray idGenerations = new AtomicLongArray(ID_STRIPES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResponseCache(@Value("${app.response-cache.enabled:true}") boolean enabled,
+                         @Value("${app.response-cache.max-entries:10000}") int maxEntries,
+                         @Value("${app.response-cache.max-bytes:67108864}") long maxBytes,
+                         @Value("${app.response-cache.max-age-ms:5000}") long maxAgeMs,
+                         @Value("${app.response-cache.gzip-min-bytes:512}") int gzipMinBytes) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxAgeMs = maxAgeMs;
+        this.gzipMinBytes = gzipMinBytes;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    bytes -= eldest.getValue().body().bytes();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // -------------------------------------------------------
+    // GENERATIONS (read before rendering, passed back to put)
+    // -------------------------------------------------------
+    public long generation(Long userId) {
+        return userId == null ? listGeneration.get() : idGenerations.get(stripe(userId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        listGeneration.incrementAndGet();
+        if (event.id() != null) {
+            idGenerations.incrementAndGet(stripe(event.id()));
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) Math.floorMod(userId ^ (userId >>> 32), (long) ID_STRIPES);
+    }
+
+    // -------------------------------------------------------
+    // LOOKUP / STORE
+    // -------------------------------------------------------
+    public Encoded get(String key, Long userId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry == null
+                || entry.generation() != generation(userId)
+                || System.currentTimeMillis() - entry.storedAtMillis() > maxAgeMs) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry.body();
+    }
+
+    public Encoded put(String key, Long userId, long generation, String contentType, byte[] json) {
+
+        Encoded body = new Encoded(contentType, json, json.length >= gzipMinBytes ? gzip(json) : null);
+
+        if (generation != generation(userId) || body.bytes() > maxBytes) {
+            // written meanwhile: still served to this caller, never to the next
+            return body;
+        }
+
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(body, generation, System.currentTimeMillis()));
+            bytes += body.bytes() - (previous == null ? 0 : previous.body().bytes());
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().body().bytes();
+                eldest.remove();
+            }
+        }
+        return body;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // -------------------------------------------------------
+    // STATS
+    // -------------------------------------------------------
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long bytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+}
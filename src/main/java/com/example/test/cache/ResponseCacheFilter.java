@@ -0,0 +1,137 @@
+package com.example.test.cache;
+
+import com.example.test.cache.ResponseCache.Encoded;
+import com.example.test.resilience.DatabaseGuard;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves GET /api/users and GET /api/users/{id} from {@link ResponseCache}.
+ *
+ * A hit writes the stored bytes (gzipped when the client accepts it) without
+ * reaching the controller or Jackson. A miss renders as usual into a buffer;
+ * 200 JSON responses that were not built from stale data are stored under
+ * the generation read before rendering. Runs inside the tracing filter so
+ * hits still show up as traces.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final String CACHE_HEADER = "X-Response-Cache";
+
+    private static final String LIST_PATH = "/api/users";
+    private static final Pattern ID_PATH = Pattern.compile("/api/users/(\\d{1,18})");
+
+    // GET /api/users defaults: ?page=0 and no page parameter share an entry
+    private static final Map<String, String> LIST_DEFAULTS = Map.of(
+            "page", "0", "size", "10", "sortBy", "id", "direction", "asc");
+
+    private final ResponseCache cache;
+
+    public ResponseCacheFilter(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!cache.isEnabled() || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !path.equals(LIST_PATH) && !ID_PATH.matcher(path).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        Matcher id = ID_PATH.matcher(request.getRequestURI());
+        Long userId = id.matches() ? Long.valueOf(id.group(1)) : null;
+        String key = key(request, userId == null);
+
+        // Cache-Control: no-cache skips the lookup but still refreshes the entry
+        boolean revalidate = String.valueOf(request.getHeader(HttpHeaders.CACHE_CONTROL)).contains("no-cache");
+
+        Encoded hit = revalidate ? null : cache.get(key, userId);
+        if (hit != null) {
+            write(request, response, hit, "HIT");
+            return;
+        }
+
+        long generation = cache.generation(userId);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                || contentType == null || !contentType.contains("json")
+                || request.getAttribute(DatabaseGuard.STALE_ATTRIBUTE) != null
+                || request.isAsyncStarted()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        Encoded rendered = cache.put(key, userId, generation, contentType, wrapper.getContentAsByteArray());
+        write(request, response, rendered, "MISS");
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response,
+                              Encoded body, String outcome) throws IOException {
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(body.contentType());
+        response.setHeader(CACHE_HEADER, outcome);
+
+        byte[] bytes = body.identity();
+        if (body.gzip() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                bytes = body.gzip();
+            }
+        }
+
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.toLowerCase().contains("gzip") && !accept.contains("gzip;q=0");
+    }
+
+    // path + parameters sorted by name, blanks and list defaults dropped
+    static String key(HttpServletRequest request, boolean list) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+
+        Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : params.entrySet()) {
+            String[] values = Arrays.stream(param.getValue()).map(String::strip).filter(v -> !v.isEmpty())
+                    .toArray(String[]::new);
+            if (values.length == 0
+                    || (list && values.length == 1 && values[0].equals(LIST_DEFAULTS.get(param.getKey())))) {
+                continue;
+            }
+            key.append(separator).append(param.getKey()).append('=').append(String.join(",", values));
+            separator = '&';
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,452 @@
+package com.example.test.cache;
+
+import com.example.test.dto.ChangeToken;
+import com.example.test.dto.UserChangeDTO;
+import com.example.test.dto.UserChangePageDTO;
+import com.example.test.dto.UserDTO;
+import com.example.test.exception.ChangeTokenExpiredException;
+import com.example.test.repository.UserRepository;
+import com.example.test.service.UserChangeService;
+import com.example.test.service.UserChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Read-through cache for GET /api/users/{id}.
+ *
+ * A bounded LRU on the heap holds the hot set. Exact lookups by email or
+ * phone keep a second LRU from lookup key to user ids; a hit there is only
+ * served if every id is still cached and still matches, so that index never
+ * needs invalidating on its own. Local writes update it
+ * through {@link UserChangedEvent}; writes from other instances arrive via
+ * the change feed, polled every app.user-cache.refresh-ms.
+ *
+ * The hot set is checkpointed to app.user-cache.checkpoint-path
+ * ({@link UserCheckpointFile}) together with the change token it is valid
+ * at. After a restart the file is mapped, changes since that token are
+ * replayed as invalidations, and the remaining entries are served straight
+ * from the mapping while a background pass reloads them from the database
+ * into the LRU. Readiness reports OUT_OF_SERVICE until
+ * app.user-cache.ready-warm-fraction of the checkpoint has been reconciled.
+ */
+@Slf4j
+@Service
+public class UserCache {
+
+    private static final int RECONCILE_BATCH = 500;
+    private static final int FEED_PAGE = 1000;
+
+    private record Entry(UserDTO user, long loadedAtMillis) {
+    }
+
+    private final UserRepository userRepository;
+    private final UserChangeService changeService;
+    private final boolean enabled;
+    private final long maxAgeMs;
+    private final Path checkpointPath;
+    private final int checkpointEntries;
+    private final double readyWarmFraction;
+
+    private final Map<Long, Entry> live;
+    private final Map<String, List<Long>> lookups;       // e.g. "email:a@b.com" -> ids
+    private long invalidations;                          // guarded by live
+
+    private volatile UserCheckpointFile mapped;
+    private volatile boolean trackingStale;              // from checkpoint replay until reconcile ends
+    private final Set<Long> mappedStale = ConcurrentHashMap.newKeySet();
+
+    private volatile ChangeToken marker;                 // null while the change feed is unreachable
+    private volatile boolean warm;
+    private volatile int warmTotal;
+    private final AtomicInteger warmed = new AtomicInteger();
+
+    public UserCache(UserRepository userRepository,
+                     UserChangeService changeService,
+                     @Value("${app.user-cache.enabled:true}") boolean enabled,
+                     @Value("${app.user-cache.max-entries:100000}") int maxEntries,
+                     @Value("${app.user-cache.max-age-ms:300000}") long maxAgeMs,
+                     @Value("${app.user-cache.checkpoint-path:data/user-cache.bin}") String checkpointPath,
+                     @Value("${app.user-cache.checkpoint-entries:50000}") int checkpointEntries,
+                     @Value("${app.user-cache.ready-warm-fraction:0.8}") double readyWarmFraction) {
+        this.userRepository = userRepository;
+        this.changeService = changeService;
+        this.enabled = enabled;
+        this.maxAgeMs = maxAgeMs;
+        this.checkpointPath = Path.of(checkpointPath);
+        this.checkpointEntries = checkpointEntries;
+        this.readyWarmFraction = readyWarmFraction;
+        this.live = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.lookups = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Long>> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    // -------------------------------------------------------
+    // LOOKUP
+    // -------------------------------------------------------
+    public UserDTO get(Long id) {
+        if (!enabled) {
+            return null;
+        }
+
+        // expired entries stay until replaced or evicted: they are the stale copy during an outage
+        Entry entry = live.get(id);
+        if (entry != null && System.currentTimeMillis() - entry.loadedAtMillis() <= maxAgeMs) {
+            return entry.user();
+        }
+
+        UserCheckpointFile file = mapped;
+        if (file != null) {
+            long stamp = stamp();
+            if (!mappedStale.contains(id)) {
+                UserDTO user = file.get(id);
+                if (user != null) {
+                    put(user, stamp);
+                    return user;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Users last found under a lookup key (see {@link #remember}), or null
+     * unless all of them are cached and {@code stillMatches} each one.
+     */
+    public List<UserDTO> lookup(String key, Predicate<UserDTO> stillMatches) {
+        if (!enabled) {
+            return null;
+        }
+
+        List<Long> ids = lookups.get(key);
+        if (ids == null) {
+            return null;
+        }
+
+        List<UserDTO> users = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            UserDTO user = get(id);
+            if (user == null || !stillMatches.test(user)) {
+                return null;
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    /** Caches users read under a lookup key; same stamp rule as {@link #put}. */
+    public void remember(String key, List<UserDTO> users, long stamp) {
+        if (!enabled || users.isEmpty()) {
+            return;
+        }
+        synchronized (live) {
+            if (invalidations != stamp) {
+                return;
+            }
+            users.forEach(user -> put(user, stamp));
+        }
+        lookups.put(key, users.stream().map(UserDTO::getId).toList());
+    }
+
+    /**
+     * Last known copy regardless of age (used while the database is unreachable);
+     * never returns a user invalidated by a write.
+     */
+    public UserDTO getStale(Long id) {
+        if (!enabled) {
+            return null;
+        }
+
+        Entry entry = live.get(id);
+        if (entry != null) {
+            return entry.user();
+        }
+
+        UserCheckpointFile file = mapped;
+        return file != null && !mappedStale.contains(id) ? file.get(id) : null;
+    }
+
+    /** Take before reading from the database; pass to {@link #put} afterwards. */
+    public long stamp() {
+        synchronized (live) {
+            return invalidations;
+        }
+    }
+
+    // dropped if anything was invalidated since stamp, so a slow read can't resurrect an old row
+    public void put(UserDTO user, long stamp) {
+        // a row without createdAt is a partial copy, not what getUserById would return
+        if (!enabled || user.getCreatedAt() == null) {
+            return;
+        }
+        synchronized (live) {
+            if (invalidations == stamp) {
+                live.put(user.getId(), new Entry(user, System.currentTimeMillis()));
+            }
+        }
+    }
+
+    public void invalidate(Long id) {
+        synchronized (live) {
+            invalidations++;
+            live.remove(id);
+        }
+        if (trackingStale) {
+            mappedStale.add(id);
+        }
+    }
+
+    private void clear() {
+        synchronized (live) {
+            invalidations++;
+            live.clear();
+        }
+        lookups.clear();
+        mapped = null;
+        trackingStale = false;
+        mappedStale.clear();
+    }
+
+    // -------------------------------------------------------
+    // LOCAL WRITES
+    // -------------------------------------------------------
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        invalidate(event.id());
+        if (!event.isDelete()) {
+            // the event carries the stored row (createdAt included), so the write warms the cache
+            put(event.user(), stamp());
+        }
+    }
+
+    // -------------------------------------------------------
+    // WRITES FROM OTHER INSTANCES (change feed)
+    // -------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.user-cache.refresh-ms:5000}",
+            initialDelayString = "${app.user-cache.refresh-ms:5000}")
+    public void refresh() {
+        if (!enabled || !warm) {
+            return;
+        }
+        try {
+            if (marker == null) {
+                // feed was unreachable: anything cached meanwhile may have missed remote writes
+                ChangeToken head = ChangeToken.parse(changeService.getHeadToken());
+                clear();
+                marker = head;
+                return;
+            }
+            applyChanges();
+        } catch (Exception e) {
+            log.warn("UserCache: change feed poll failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void applyChanges() {
+        ChangeToken since = marker;
+        try {
+            UserChangePageDTO page;
+            do {
+                page = changeService.getChanges(since, FEED_PAGE);
+                for (UserChangeDTO change : page.getChanges()) {
+                    invalidate(change.getId());
+                }
+                since = ChangeToken.parse(page.getNextToken());
+            } while (page.isHasMore());
+
+            marker = since;
+        } catch (ChangeTokenExpiredException e) {
+            log.info("UserCache: change marker fell out of retention, dropping cached users");
+            ChangeToken head = ChangeToken.parse(changeService.getHeadToken());
+            clear();
+            marker = head;
+        }
+    }
+
+    // -------------------------------------------------------
+    // WARM START (off the startup thread)
+    // -------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (!enabled) {
+            warm = true;
+            return;
+        }
+        Thread warmer = new Thread(this::warmUp, "user-cache-warmer");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    void warmUp() {
+        UserCheckpointFile file = openCheckpoint();
+
+        try {
+            if (file == null) {
+                marker = ChangeToken.parse(changeService.getHeadToken());
+                return;
+            }
+
+            // replay what changed since the checkpoint before the mapping is served
+            trackingStale = true;
+            marker = file.marker();
+            warmTotal = file.size();
+            applyChanges();
+
+            if (!trackingStale) {
+                return;   // token expired, cache was dropped
+            }
+
+            mapped = file;
+            log.info("UserCache: serving {} checkpointed users from {}", file.size(), checkpointPath);
+            reconcile(file);
+        } catch (Exception e) {
+            log.warn("UserCache: warm start failed, continuing cold: {}", e.getMessage());
+            mapped = null;
+            trackingStale = false;
+            mappedStale.clear();
+            marker = null;
+        } finally {
+            warm = true;
+        }
+    }
+
+    // reload the checkpointed ids from the database into the LRU, then drop the mapping
+    private void reconcile(UserCheckpointFile file) {
+        long started = System.currentTimeMillis();
+
+        for (int from = 0; from < file.size(); from += RECONCILE_BATCH) {
+            int to = Math.min(file.size(), from + RECONCILE_BATCH);
+
+            List<Long> ids = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                long id = file.idAt(i);
+                if (!mappedStale.contains(id)) {
+                    ids.add(id);
+                }
+            }
+
+            long stamp = stamp();
+            List<UserDTO> users = userRepository.getUsersByIds(ids);
+            Set<Long> found = new HashSet<>();
+            for (UserDTO user : users) {
+                found.add(user.getId());
+                put(user, stamp);
+            }
+            for (Long id : ids) {
+                if (!found.contains(id)) {
+                    mappedStale.add(id);
+                }
+            }
+
+            if (warmed.addAndGet(to - from) >= readyWarmFraction * file.size() && !warm) {
+                warm = true;
+                log.info("UserCache: {} of {} checkpointed users reconciled, ready", warmed.get(), file.size());
+            }
+        }
+
+        mapped = null;
+        trackingStale = false;
+        mappedStale.clear();
+        log.info("UserCache: reconciled {} checkpointed users in {} ms", file.size(), System.currentTimeMillis() - started);
+    }
+
+    private UserCheckpointFile openCheckpoint() {
+        if (!Files.exists(checkpointPath)) {
+            return null;
+        }
+        try {
+            return UserCheckpointFile.map(checkpointPath);
+        } catch (Exception e) {
+            log.warn("UserCache: ignoring unreadable checkpoint {}: {}", checkpointPath, e.getMessage());
+            return null;
+        }
+    }
+
+    // -------------------------------------------------------
+    // CHECKPOINT
+    // -------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.user-cache.checkpoint-ms:300000}",
+            initialDelayString = "${app.user-cache.checkpoint-ms:300000}")
+    @PreDestroy
+    public void checkpoint() {
+        ChangeToken at = marker;
+        if (!enabled || at == null || !warm) {
+            return;
+        }
+
+        try {
+            long started = System.currentTimeMillis();
+            long now = started;
+
+            // most recently used last; keep the hottest checkpoint-entries
+            List<UserDTO> hot = new ArrayList<>();
+            synchronized (live) {
+                int skip = Math.max(0, live.size() - checkpointEntries);
+                for (Entry entry : live.values()) {
+                    if (skip-- > 0) {
+                        continue;
+                    }
+                    if (now - entry.loadedAtMillis() <= maxAgeMs) {
+                        hot.add(entry.user());
+                    }
+                }
+            }
+
+            long bytes = UserCheckpointFile.write(checkpointPath, at, hot);
+            log.info("UserCache: checkpointed {} users ({} bytes) in {} ms",
+                    hot.size(), bytes, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.warn("UserCache: checkpoint to {} failed: {}", checkpointPath, e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------
+    // READINESS
+    // -------------------------------------------------------
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int size() {
+        return live.size();
+    }
+
+    public double warmedFraction() {
+        int total = warmTotal;
+        return total == 0 ? 1.0 : Math.min(1.0, (double) warmed.get() / total);
+    }
+
+    public boolean isServingCheckpoint() {
+        return mapped != null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.test.cache;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "userCache" health contributor; part of the readiness group so an
+ * instance only takes traffic once its checkpoint is warm enough.
+ */
+@Component
+public class UserCacheHealthIndicator implements HealthIndicator {
+
+    private final UserCache userCache;
+
+    public UserCacheHealthIndicator(UserCache userCache) {
+        this.userCache = userCache;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = userCache.isWarm() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("entries", userCache.size())
+                .withDetail("warmedFraction", userCache.warmedFraction())
+                .withDetail("servingCheckpoint", userCache.isServingCheckpoint())
+                .build();
+    }
+}
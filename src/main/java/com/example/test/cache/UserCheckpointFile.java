@@ -0,0 +1,196 @@
+package com.example.test.cache;
+
+import com.example.test.dto.ChangeToken;
+import com.example.test.dto.UserDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only, memory-mapped view of a {@link UserCache} checkpoint.
+ *
+ * Layout (big-endian):
+ *
+ *   header   int magic, int count, long writtenAtMillis, short tokenLen, token (UTF-8)
+ *   index    count x (long id, int recordOffset), sorted by id
+ *   records  long createdAtEpochSecond, int createdAtNano,
+ *            then firstName, lastName, email, phone as (short len, UTF-8), len -1 = null
+ *
+ * Lookups binary-search the index and decode one record straight from the
+ * mapping, so a restarted instance can serve hits before anything is copied
+ * onto the heap. Files are written to a temp name and moved into place.
+ */
+public final class UserCheckpointFile {
+
+    private static final int MAGIC = 0x55434B31;   // "UCK1"
+    private static final int INDEX_ENTRY = Long.BYTES + Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final long writtenAtMillis;
+    private final ChangeToken marker;
+    private final int indexStart;
+    private final int recordsStart;
+
+    private UserCheckpointFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a user cache checkpoint");
+        }
+        this.count = buffer.getInt(4);
+        this.writtenAtMillis = buffer.getLong(8);
+
+        int tokenLen = buffer.getShort(16);
+        byte[] token = new byte[tokenLen];
+        buffer.get(18, token);
+        this.marker = ChangeToken.parse(new String(token, StandardCharsets.UTF_8));
+
+        this.indexStart = 18 + tokenLen;
+        this.recordsStart = indexStart + count * INDEX_ENTRY;
+
+        if (count < 0 || recordsStart > buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated user cache checkpoint");
+        }
+    }
+
+    // -------------------------------------------------------
+    // MAP
+    // -------------------------------------------------------
+    public static UserCheckpointFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping outlives the channel; it is released when this view is collected
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new UserCheckpointFile(mapped);
+        }
+    }
+
+    // -------------------------------------------------------
+    // WRITE (temp file + atomic rename)
+    // -------------------------------------------------------
+    public static long write(Path path, ChangeToken marker, List<UserDTO> users) throws IOException {
+
+        List<UserDTO> sorted = users.stream().sorted(Comparator.comparing(UserDTO::getId)).toList();
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream(sorted.size() * 64);
+        DataOutputStream out = new DataOutputStream(records);
+        int[] offsets = new int[sorted.size()];
+
+        for (int i = 0; i < sorted.size(); i++) {
+            UserDTO u = sorted.get(i);
+            offsets[i] = out.size();
+            out.writeLong(u.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(u.getCreatedAt().getNano());
+            writeString(out, u.getFirstName());
+            writeString(out, u.getLastName());
+            writeString(out, u.getEmail());
+            writeString(out, u.getPhone());
+        }
+        out.flush();
+
+        byte[] token = marker.encode().getBytes(StandardCharsets.UTF_8);
+        long size = 18L + token.length + (long) sorted.size() * INDEX_ENTRY + records.size();
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buf.putInt(MAGIC);
+            buf.putInt(sorted.size());
+            buf.putLong(System.currentTimeMillis());
+            buf.putShort((short) token.length);
+            buf.put(token);
+            for (int i = 0; i < sorted.size(); i++) {
+                buf.putLong(sorted.get(i).getId());
+                buf.putInt(offsets[i]);
+            }
+            buf.put(records.toByteArray());
+            buf.force();
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    // -------------------------------------------------------
+    // READ
+    // -------------------------------------------------------
+    public UserDTO get(long id) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midId = idAt(mid);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                return decode(id, recordsStart + buffer.getInt(indexStart + mid * INDEX_ENTRY + Long.BYTES));
+            }
+        }
+        return null;
+    }
+
+    public long idAt(int i) {
+        return buffer.getLong(indexStart + i * INDEX_ENTRY);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public ChangeToken marker() {
+        return marker;
+    }
+
+    public long writtenAtMillis() {
+        return writtenAtMillis;
+    }
+
+    private UserDTO decode(long id, int pos) {
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(pos), buffer.getInt(pos + 8), ZoneOffset.UTC);
+        int[] cursor = {pos + 12};
+        return new UserDTO(id, readString(cursor), readString(cursor), readString(cursor), readString(cursor), createdAt);
+    }
+
+    private String readString(int[] cursor) {
+        int len = buffer.getShort(cursor[0]);
+        cursor[0] += Short.BYTES;
+        if (len < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[len];
+        buffer.get(cursor[0], bytes);
+        cursor[0] += len;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
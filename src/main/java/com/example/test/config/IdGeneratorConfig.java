@@ -0,0 +1,41 @@
+package com.example.test.config;
+
+import com.example.test.id.HiLoIdGenerator;
+import com.example.test.id.IdGenerator;
+import com.example.test.id.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    // -------------------------------------------------------
+    // hilo (default): blocks reserved from users_id_seq
+    // snowflake: time + node + counter, no database involved;
+    // the node id must be set per instance, two instances sharing one
+    // generate colliding ids
+    // -------------------------------------------------------
+    @Bean
+    public IdGenerator idGenerator(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.id-generator.strategy:hilo}") String strategy,
+                                   @Value("${app.id-generator.node-id:#{null}}") Long nodeId) {
+
+        log.info("IdGenerator: using strategy={}", strategy);
+
+        return switch (strategy.toLowerCase()) {
+            case "snowflake" -> {
+                if (nodeId == null) {
+                    throw new IllegalStateException(
+                            "app.id-generator.node-id must be set to a value unique to this instance for strategy=snowflake");
+                }
+                yield new SnowflakeIdGenerator(nodeId);
+            }
+            case "hilo" -> new HiLoIdGenerator(jdbcTemplate, "users_id_seq");
+            default -> throw new IllegalArgumentException("Unknown app.id-generator.strategy: " + strategy);
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.test.config;
+
+import com.example.test.jdbc.InstrumentedDataSource;
+import com.example.test.jdbc.JdbcEventListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class JdbcInstrumentationConfig {
+
+    // -------------------------------------------------------
+    // WRAP EVERY DATASOURCE BEAN SO STATEMENTS CAN BE OBSERVED
+    // -------------------------------------------------------
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(
+            ObjectProvider<JdbcEventListener> listeners) {
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, listeners);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.test.config;
+
+import com.example.test.outbox.FileOutboxSink;
+import com.example.test.outbox.OutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Slf4j
+@Configuration
+public class OutboxConfig {
+
+    // -------------------------------------------------------
+    // default sink: append-only JSON lines, replaced by any other OutboxSink bean
+    // -------------------------------------------------------
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink fileOutboxSink(ObjectMapper objectMapper,
+                                     @Value("${app.outbox.file-path:data/user-events.jsonl}") String filePath) {
+
+        log.info("Outbox: using file sink at {}", filePath);
+        return new FileOutboxSink(objectMapper, Path.of(filePath));
+    }
+}
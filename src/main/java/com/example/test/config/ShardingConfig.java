@@ -0,0 +1,101 @@
+package com.example.test.config;
+
+import com.example.test.jdbc.InstrumentedDataSource;
+import com.example.test.jdbc.JdbcEventListener;
+import com.example.test.repository.ShardDirectoryRepository;
+import com.example.test.repository.ShardRouter;
+import com.example.test.repository.ShardedUserRepository;
+import com.example.test.repository.UserRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enabled with app.sharding.enabled=true. The default spring.datasource
+ * becomes the directory database (email ownership, and the id sequence when
+ * app.id-generator.strategy=hilo) and each app.sharding.shards[i] entry gets
+ * its own Hikari pool.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // -------------------------------------------------------
+    // ONE POOL PER SHARD
+    // -------------------------------------------------------
+    @Bean(destroyMethod = "close")
+    public ShardPools shardPools(ShardingProperties properties, ObjectProvider<JdbcEventListener> listeners) {
+
+        List<HikariDataSource> pools = new ArrayList<>();
+        List<JdbcTemplate> templates = new ArrayList<>();
+
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("shard-" + shardName(shard, i));
+            config.setJdbcUrl(shard.getUrl());
+            config.setUsername(shard.getUsername());
+            config.setPassword(shard.getPassword());
+            config.setMaximumPoolSize(properties.getPoolSize());
+            config.addDataSourceProperty("escapeSyntaxCallMode", "callIfNoReturn");
+
+            HikariDataSource pool = new HikariDataSource(config);
+            pools.add(pool);
+            templates.add(new JdbcTemplate(new InstrumentedDataSource(pool, listeners)));
+
+            log.info("Sharding: registered shard {} -> {}", shardName(shard, i), shard.getUrl());
+        }
+
+        return new ShardPools(pools, templates);
+    }
+
+    @Bean
+    @Primary
+    public UserRepository shardedUserRepository(JdbcTemplate jdbcTemplate,
+                                                ShardPools shardPools,
+                                                ShardingProperties properties) {
+
+        List<UserRepository> shards = new ArrayList<>();
+        for (JdbcTemplate template : shardPools.templates()) {
+            UserRepository shard = new UserRepository(template);
+            shard.init();
+            shards.add(shard);
+        }
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            names.add(shardName(properties.getShards().get(i), i));
+        }
+
+        return new ShardedUserRepository(
+                jdbcTemplate,
+                shards,
+                new ShardRouter(names, properties.getVirtualNodes()),
+                new ShardDirectoryRepository(jdbcTemplate));
+    }
+
+    private static String shardName(ShardingProperties.Shard shard, int index) {
+        return shard.getName() != null ? shard.getName() : "shard-" + index;
+    }
+
+    public record ShardPools(List<HikariDataSource> pools, List<JdbcTemplate> templates) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.test.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    private int virtualNodes = 128;   // ring points per shard
+    private int poolSize = 10;        // Hikari max pool size per shard
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String name;          // stable ring key, defaults to shard-<index>
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.test.config;
+
+import com.example.test.tracing.TracingInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class TracingConfig implements WebMvcConfigurer {
+
+    private final TracingInterceptor tracingInterceptor;
+
+    public TracingConfig(TracingInterceptor tracingInterceptor) {
+        this.tracingInterceptor = tracingInterceptor;
+    }
+
+    // -------------------------------------------------------
+    // BINDING SPAN BETWEEN HANDLER LOOKUP AND CONTROLLER ENTRY
+    // -------------------------------------------------------
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(tracingInterceptor).addPathPatterns("/api/**");
+    }
+}
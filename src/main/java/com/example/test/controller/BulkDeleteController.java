@@ -0,0 +1,67 @@
+package com.example.test.controller;
+
+import com.example.test.dto.ApiResponse;
+import com.example.test.dto.BulkDeleteJobDTO;
+import com.example.test.dto.BulkDeleteRequest;
+import com.example.test.service.BulkDeleteService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/users/bulk-delete")
+public class BulkDeleteController {
+
+    private final BulkDeleteService bulkDeleteService;
+
+    public BulkDeleteController(BulkDeleteService bulkDeleteService) {
+        this.bulkDeleteService = bulkDeleteService;
+    }
+
+    // -------------------------------------------------------------
+    // SUBMIT (202 + Location of the status resource)
+    // -------------------------------------------------------------
+    @PostMapping
+    public ResponseEntity<ApiResponse> submit(@Valid @RequestBody BulkDeleteRequest request) {
+
+        log.info("Received BULK DELETE request");
+
+        BulkDeleteJobDTO job = bulkDeleteService.submit(request);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/users/bulk-delete/" + job.getJobId()))
+                .body(new ApiResponse("SUCCESS", job, "Bulk delete job queued"));
+    }
+
+    // -------------------------------------------------------------
+    // STATUS / PROGRESS
+    // -------------------------------------------------------------
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse> getJob(@PathVariable long jobId) {
+        return respond(jobId, bulkDeleteService.getJob(jobId), "Bulk delete job status");
+    }
+
+    // -------------------------------------------------------------
+    // CANCEL (running jobs stop after the current chunk)
+    // -------------------------------------------------------------
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<ApiResponse> cancel(@PathVariable long jobId) {
+
+        log.info("Received CANCEL request for bulk delete job ID={}", jobId);
+
+        return respond(jobId, bulkDeleteService.cancel(jobId), "Bulk delete job cancellation requested");
+    }
+
+    private static ResponseEntity<ApiResponse> respond(long jobId, Optional<BulkDeleteJobDTO> job, String message) {
+        return job
+                .map(j -> ResponseEntity.ok(new ApiResponse("SUCCESS", j, message)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse("FAILURE", jobId, "Bulk delete job not found")));
+    }
+}
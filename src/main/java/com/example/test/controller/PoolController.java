@@ -0,0 +1,42 @@
+package com.example.test.controller;
+
+import com.example.test.dto.ApiResponse;
+import com.example.test.dto.PoolStatsDTO;
+import com.example.test.monitoring.PoolSizeController;
+import com.example.test.monitoring.PoolTelemetry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/pool")
+public class PoolController {
+
+    private final PoolSizeController poolSizeController;
+    private final PoolTelemetry poolTelemetry;
+
+    public PoolController(PoolSizeController poolSizeController, PoolTelemetry poolTelemetry) {
+        this.poolSizeController = poolSizeController;
+        this.poolTelemetry = poolTelemetry;
+    }
+
+    // -------------------------------------------------------------
+    // POOL STATE, LAST WINDOW, RECOMMENDED STATIC SIZES
+    // -------------------------------------------------------------
+    @GetMapping
+    public ResponseEntity<PoolStatsDTO> getPoolStats() {
+        log.info("Fetching connection pool report");
+        return ResponseEntity.ok(poolSizeController.getStats());
+    }
+
+    // -------------------------------------------------------------
+    // RESET PER-METHOD USAGE
+    // -------------------------------------------------------------
+    @DeleteMapping("/usage")
+    public ResponseEntity<ApiResponse> resetUsage() {
+        log.info("Resetting connection usage statistics");
+        poolTelemetry.resetUsage();
+        return ResponseEntity.ok(new ApiResponse("SUCCESS", null, "Connection usage statistics cleared"));
+    }
+}
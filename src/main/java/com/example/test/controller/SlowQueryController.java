@@ -0,0 +1,41 @@
+package com.example.test.controller;
+
+import com.example.test.dto.ApiResponse;
+import com.example.test.dto.SlowQueryDTO;
+import com.example.test.monitoring.SlowQueryMonitor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/slow-queries")
+public class SlowQueryController {
+
+    private final SlowQueryMonitor slowQueryMonitor;
+
+    public SlowQueryController(SlowQueryMonitor slowQueryMonitor) {
+        this.slowQueryMonitor = slowQueryMonitor;
+    }
+
+    // -------------------------------------------------------------
+    // TOP-N SLOWEST STATEMENTS (with captured plans)
+    // -------------------------------------------------------------
+    @GetMapping
+    public ResponseEntity<List<SlowQueryDTO>> getSlowQueries() {
+        log.info("Fetching slow query report");
+        return ResponseEntity.ok(slowQueryMonitor.getSlowestQueries());
+    }
+
+    // -------------------------------------------------------------
+    // RESET
+    // -------------------------------------------------------------
+    @DeleteMapping
+    public ResponseEntity<ApiResponse> reset() {
+        log.info("Resetting slow query statistics");
+        slowQueryMonitor.reset();
+        return ResponseEntity.ok(new ApiResponse("SUCCESS", null, "Slow query statistics cleared"));
+    }
+}
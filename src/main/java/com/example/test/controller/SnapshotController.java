@@ -0,0 +1,39 @@
+package com.example.test.controller;
+
+import com.example.test.dto.ApiResponse;
+import com.example.test.dto.SnapshotStatsDTO;
+import com.example.test.snapshot.UserSnapshotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/snapshot")
+public class SnapshotController {
+
+    private final UserSnapshotService snapshotService;
+
+    public SnapshotController(UserSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    // -------------------------------------------------------------
+    // SIZE / MEMORY PER USER / CHANGE MARKER
+    // -------------------------------------------------------------
+    @GetMapping
+    public ResponseEntity<SnapshotStatsDTO> getStats() {
+        log.info("Fetching user snapshot stats");
+        return ResponseEntity.ok(snapshotService.getStats());
+    }
+
+    // -------------------------------------------------------------
+    // FORCE FULL RELOAD
+    // -------------------------------------------------------------
+    @PostMapping("/reload")
+    public ResponseEntity<ApiResponse> reload() {
+        log.info("Forcing full user snapshot reload");
+        snapshotService.reload();
+        return ResponseEntity.ok(new ApiResponse("SUCCESS", snapshotService.getStats().getUsers(), "Snapshot reloaded"));
+    }
+}
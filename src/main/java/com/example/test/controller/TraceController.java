@@ -0,0 +1,58 @@
+package com.example.test.controller;
+
+import com.example.test.dto.ApiResponse;
+import com.example.test.dto.TraceDTO;
+import com.example.test.tracing.TraceBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/traces")
+public class TraceController {
+
+    private final TraceBuffer traceBuffer;
+
+    public TraceController(TraceBuffer traceBuffer) {
+        this.traceBuffer = traceBuffer;
+    }
+
+    // -------------------------------------------------------------
+    // RECENT TRACES (newest first, summaries only)
+    // -------------------------------------------------------------
+    @GetMapping
+    public ResponseEntity<List<TraceDTO>> getTraces(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "0") long minMs) {
+
+        log.info("Fetching recent traces limit={} minMs={}", limit, minMs);
+        return ResponseEntity.ok(traceBuffer.recent(Math.max(1, Math.min(limit, 1000)), minMs));
+    }
+
+    // -------------------------------------------------------------
+    // ONE TRACE WITH ALL SPANS
+    // -------------------------------------------------------------
+    @GetMapping("/{traceId}")
+    public ResponseEntity<?> getTrace(@PathVariable String traceId) {
+
+        return traceBuffer.find(traceId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse("FAILURE", traceId, "Trace not found")));
+    }
+
+    // -------------------------------------------------------------
+    // RESET
+    // -------------------------------------------------------------
+    @DeleteMapping
+    public ResponseEntity<ApiResponse> clear() {
+        log.info("Clearing trace buffer");
+        traceBuffer.clear();
+        return ResponseEntity.ok(new ApiResponse("SUCCESS", null, "Trace buffer cleared"));
+    }
+}
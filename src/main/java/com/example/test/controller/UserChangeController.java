@@ -0,0 +1,83 @@
+package com.example.test.controller;
+
+import com.example.test.dto.ApiResponse;
+import com.example.test.dto.UserChangeDTO;
+import com.example.test.dto.UserChangePageDTO;
+import com.example.test.service.UserChangeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/users/changes")
+public class UserChangeController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final UserChangeService changeService;
+    private final ObjectMapper objectMapper;
+
+    public UserChangeController(UserChangeService changeService, ObjectMapper objectMapper) {
+        this.changeService = changeService;
+        this.objectMapper = objectMapper;
+    }
+
+    // -------------------------------------------------------------
+    // ONE PAGE OF CHANGES SINCE TOKEN
+    // -------------------------------------------------------------
+    @GetMapping
+    public ResponseEntity<UserChangePageDTO> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+
+        log.info("Fetching user changes since={} limit={}", since, limit);
+        return ResponseEntity.ok(changeService.getChanges(since, limit));
+    }
+
+    // -------------------------------------------------------------
+    // HEAD TOKEN
+    // -------------------------------------------------------------
+    @GetMapping("/head")
+    public ResponseEntity<ApiResponse> getHeadToken() {
+        return ResponseEntity.ok(new ApiResponse("SUCCESS", changeService.getHeadToken(), "Current change token"));
+    }
+
+    // -------------------------------------------------------------
+    // ALL CHANGES SINCE TOKEN AS NDJSON (last line carries nextToken)
+    // -------------------------------------------------------------
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "1000") int batchSize) {
+
+        log.info("Streaming user changes since={}", since);
+
+        // first page up front so an expired / invalid token still maps to 4xx
+        UserChangePageDTO first = changeService.getChanges(since, batchSize);
+
+        StreamingResponseBody body = out -> {
+            UserChangePageDTO page = first;
+            while (true) {
+                for (UserChangeDTO change : page.getChanges()) {
+                    out.write(objectMapper.writeValueAsBytes(change));
+                    out.write('\n');
+                }
+                out.flush();
+                if (!page.isHasMore()) {
+                    break;
+                }
+                page = changeService.getChanges(page.getNextToken(), batchSize);
+            }
+            out.write(objectMapper.writeValueAsBytes(Map.of("nextToken", page.getNextToken())));
+            out.write('\n');
+        };
+
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.test.controller;
 
 import com.example.test.dto.ApiResponse;
+import com.example.test.dto.CreatedRange;
 import com.example.test.dto.UserCreateRequest;
 import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserFields;
+import com.example.test.dto.UserPatchRequest;
 import com.example.test.dto.UserUpdateRequest;
+import com.example.test.service.IdempotencyService;
 import com.example.test.service.UserService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -14,29 +18,48 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final UserService userService;   // no @Autowired
+    private final IdempotencyService idempotencyService;
 
     // Constructor Injection
-    public UserController(UserService userService) {
+    public UserController(UserService userService, IdempotencyService idempotencyService) {
         this.userService = userService;
+        this.idempotencyService = idempotencyService;
     }
     // -------------------------------------------------------------
     // CREATE USER
     // -------------------------------------------------------------
     @PostMapping
     public ResponseEntity<ApiResponse> createUser(
-            @RequestBody @Valid UserCreateRequest request) {
+            @RequestBody @Valid UserCreateRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         log.info("Received CREATE USER request — email={}, firstName={}, lastName={}",
                 request.getEmail(), request.getFirstName(), request.getLastName());
         log.debug("Full create request payload: {}", request);
 
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                return ResponseEntity.badRequest()
+                        .body(new ApiResponse("FAILURE", null, "Idempotency-Key longer than 255 characters"));
+            }
+            return idempotencyService.execute(idempotencyKey, request, () -> create(request));
+        }
+
+        return create(request);
+    }
+
+    private ResponseEntity<ApiResponse> create(UserCreateRequest request) {
+
         Long id = userService.createUser(request);
 
         log.info("User created successfully with ID={}", id);
@@ -67,9 +90,19 @@ public class UserController {
     // -------------------------------------------------------------
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
-
-        log.info("Fetching USER by ID={}", id);
+    public ResponseEntity<?> getUserById(@PathVariable Long id,
+                                         @RequestParam(required = false) String fields) {
+
+        log.info("Fetching USER by ID={} fields={}", id, fields);
+
+        // ?fields=id,email -> narrow SELECT and sparse JSON
+        UserFields projection = UserFields.parse(fields);
+        if (projection != null) {
+            Object user = userService.getUserById(id, projection);
+            return user == null
+                    ? ResponseEntity.status(404).body(Map.of("error", "User not found"))
+                    : ResponseEntity.ok(user);
+        }
 
         UserDTO user = userService.getUserById(id);
 
@@ -84,6 +117,32 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    // -------------------------------------------------------------
+    // EXACT LOOKUP BY EMAIL / PHONE (login path, index probe + cache)
+    // -------------------------------------------------------------
+    @GetMapping("/by-email/{email:.+}")
+    public ResponseEntity<?> getUserByEmail(@PathVariable String email) {
+
+        log.info("Fetching USER by email={}", email);
+
+        UserDTO user = userService.getUserByEmail(email);
+
+        if (user == null) {
+            log.warn("No user found for email={}", email);
+            return ResponseEntity.status(404).body(Map.of("error", "User not found"));
+        }
+
+        return ResponseEntity.ok(user);
+    }
+
+    // a phone may be shared, so every match comes back (in id order)
+    @GetMapping("/by-phone/{phone}")
+    public ResponseEntity<List<UserDTO>> getUsersByPhone(@PathVariable String phone) {
+
+        log.info("Fetching USERS by phone={}", phone);
+        return ResponseEntity.ok(userService.getUsersByPhone(phone));
+    }
+
     // -------------------------------------------------------------
     // UPDATE USER
     // -------------------------------------------------------------
@@ -120,6 +179,47 @@ public class UserController {
         );
     }
 
+    // -------------------------------------------------------------
+    // PATCH USER (only supplied fields, optional If-Match on version)
+    // -------------------------------------------------------------
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse> patchUser(
+            @PathVariable Long id,
+            @RequestBody @Valid UserPatchRequest req,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch
+    ) {
+        log.info("Received PATCH USER request for ID={} fields={} If-Match={}", id, req, ifMatch);
+
+        if (req.isEmpty()) {
+            return ResponseEntity.badRequest().body(new ApiResponse("FAILURE", id, "No fields to update"));
+        }
+
+        Long expectedVersion = null;
+        if (ifMatch != null && !ifMatch.isBlank() && !"*".equals(ifMatch.trim())) {
+            try {
+                expectedVersion = Long.parseLong(ifMatch.trim().replaceFirst("^W/", "").replace("\"", ""));
+            } catch (NumberFormatException e) {
+                // not an ETag we ever issued, so it cannot match
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                        .body(new ApiResponse("FAILURE", id, "If-Match does not match the current version"));
+            }
+        }
+
+        Optional<Long> version = userService.patchUser(id, req, expectedVersion);
+
+        if (version.isEmpty()) {
+            log.warn("PATCH FAILED — User not found for ID={}", id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse("FAILURE", id, "User not found"));
+        }
+
+        log.info("User patched successfully — ID={}, version={}", id, version.get());
+
+        return ResponseEntity.ok()
+                .eTag(Long.toString(version.get()))
+                .body(new ApiResponse("SUCCESS", id, "User updated successfully"));
+    }
+
     // -------------------------------------------------------------
     // DELETE USER
     // -------------------------------------------------------------
@@ -129,23 +229,17 @@ public class UserController {
 
         log.info("Received DELETE USER request for ID={}", id);
 
-        try {
-            boolean deleted = userService.deleteUser(id);
-
-            if (!deleted) {
-                log.warn("DELETE FAILED — User not found for ID={}", id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(new ApiResponse("FAILURE", id, "User not found"));
-            }
-
-            log.info("User deleted successfully — ID={}", id);
-            return ResponseEntity.ok(new ApiResponse("SUCCESS", id, "User deleted successfully"));
+        // failures (503 while the circuit is open, 500 otherwise) go to GlobalExceptionHandler
+        boolean deleted = userService.deleteUser(id);
 
-        } catch (Exception ex) {
-            log.error("DELETE FAILED — Unexpected error for ID={}: {}", id, ex.getMessage(), ex);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ApiResponse("FAILURE", id, "Something went wrong: " + ex.getMessage()));
+        if (!deleted) {
+            log.warn("DELETE FAILED — User not found for ID={}", id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse("FAILURE", id, "User not found"));
         }
+
+        log.info("User deleted successfully — ID={}", id);
+        return ResponseEntity.ok(new ApiResponse("SUCCESS", id, "User deleted successfully"));
     }
 
 
@@ -153,16 +247,35 @@ public class UserController {
     // PAGINATION + SORTING + SEARCH
     // -------------------------------------------------------------
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getUsers(
+    public ResponseEntity<List<?>> getUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String direction,
-            @RequestParam(required = false, name = "q") String query
+            @RequestParam(required = false, name = "q") String query,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String createdFrom,
+            @RequestParam(required = false) String createdTo
     ) {
 
-        log.info("Fetching PAGINATED USERS — page={}, size={}, sortBy={}, direction={}, query={}",
-                page, size, sortBy, direction, query);
+        log.info("Fetching PAGINATED USERS — page={}, size={}, sortBy={}, direction={}, query={}, fields={}, created={}..{}",
+                page, size, sortBy, direction, query, fields, createdFrom, createdTo);
+
+        UserFields projection = UserFields.parse(fields);
+
+        // createdFrom <= created_at < createdTo, combinable with q and fields
+        CreatedRange range = CreatedRange.parse(createdFrom, createdTo);
+        if (range != null) {
+            return ResponseEntity.ok(userService.getUsers(page, size, sortBy, direction,
+                    query, range, projection));
+        }
+
+        if (projection != null) {
+            List<?> projected = (query != null && !query.isBlank())
+                    ? userService.getUsers(page, size, sortBy, direction, query, null, projection)
+                    : userService.getUsersPaginated(page, size, sortBy, direction, projection);
+            return ResponseEntity.ok(projected);
+        }
 
         // SEARCH MODE
         if (query != null && !query.isBlank()) {
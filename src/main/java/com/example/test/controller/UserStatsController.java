@@ -0,0 +1,33 @@
+package com.example.test.controller;
+
+import com.example.test.dto.SignupStatsDTO;
+import com.example.test.service.SignupStatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/users/stats")
+public class UserStatsController {
+
+    private final SignupStatsService statsService;
+
+    public UserStatsController(SignupStatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    // -------------------------------------------------------------
+    // SIGNUPS PER DAY / WEEK / MONTH + TOP EMAIL DOMAINS (from rollups)
+    // -------------------------------------------------------------
+    @GetMapping
+    public ResponseEntity<SignupStatsDTO> getStats(
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "10") int top) {
+
+        log.info("Fetching signup stats bucket={} from={} to={} top={}", bucket, from, to, top);
+        return ResponseEntity.ok(statsService.getStats(bucket, from, to, top));
+    }
+}
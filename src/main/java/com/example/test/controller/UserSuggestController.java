@@ -0,0 +1,33 @@
+package com.example.test.controller;
+
+import com.example.test.dto.UserSuggestionDTO;
+import com.example.test.suggest.UserSuggestService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/users/suggest")
+public class UserSuggestController {
+
+    private final UserSuggestService suggestService;
+
+    public UserSuggestController(UserSuggestService suggestService) {
+        this.suggestService = suggestService;
+    }
+
+    // -------------------------------------------------------------
+    // PREFIX AUTOCOMPLETE (called per keystroke, so debug-level logging)
+    // -------------------------------------------------------------
+    @GetMapping
+    public ResponseEntity<List<UserSuggestionDTO>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        log.debug("Suggesting users for prefix={} limit={}", prefix, limit);
+        return ResponseEntity.ok(suggestService.suggest(prefix, limit));
+    }
+}
@@ -2,9 +2,11 @@ package com.example.test.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @AllArgsConstructor
+@NoArgsConstructor   // read back from stored idempotent responses
 public class ApiResponse<T> {
 
     private String status;   // SUCCESS / FAILURE
@@ -0,0 +1,25 @@
+package com.example.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BulkDeleteJobDTO {
+
+    private long jobId;
+    private String status;             // QUEUED / RUNNING / COMPLETED / CANCELLED / FAILED
+    private Integer idCount;           // size of the id list, null for filter jobs
+    private String emailDomain;
+    private LocalDateTime createdBefore;
+    private int chunkSize;
+    private long deleted;
+    private int chunks;
+    private boolean cancelRequested;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,40 @@
+package com.example.test.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Either an explicit id list or a filter; all supplied conditions must match.
+ */
+@Data
+public class BulkDeleteRequest {
+
+    @Size(max = 100000)
+    private List<Long> ids;
+
+    // offboarding a customer: every user with an address @emailDomain
+    @Size(max = 255)
+    @Pattern(regexp = "[A-Za-z0-9.-]+", message = "emailDomain must be a bare domain, e.g. example.com")
+    private String emailDomain;
+
+    private LocalDateTime createdBefore;
+
+    @Min(1)
+    @Max(10000)
+    private Integer chunkSize;      // defaults to app.bulk-delete.chunk-size
+
+    @JsonIgnore
+    @AssertTrue(message = "Either ids or emailDomain is required")
+    public boolean isSelective() {
+        // createdBefore alone would be a table-wide purge
+        return (ids != null && !ids.isEmpty()) || (emailDomain != null && !emailDomain.isBlank());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.test.dto;
+
+import com.example.test.exception.InvalidChangeTokenException;
+
+/**
+ * Position in the user change feed: (writer transaction id, change id).
+ * Clients treat the encoded form as opaque. Tokens order the same way the
+ * feed pages, (txId, changeId) lexicographically.
+ */
+public record ChangeToken(long txId, long changeId) implements Comparable<ChangeToken> {
+
+    public static final ChangeToken START = new ChangeToken(0, 0);
+
+    @Override
+    public int compareTo(ChangeToken other) {
+        int byTx = Long.compare(txId, other.txId);
+        return byTx != 0 ? byTx : Long.compare(changeId, other.changeId);
+    }
+
+    public String encode() {
+        return Long.toString(txId, 36) + "-" + Long.toString(changeId, 36);
+    }
+
+    public static ChangeToken parse(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            int dash = token.indexOf('-');
+            return new ChangeToken(
+                    Long.parseLong(token.substring(0, dash), 36),
+                    Long.parseLong(token.substring(dash + 1), 36));
+        } catch (RuntimeException e) {
+            throw new InvalidChangeTokenException("Invalid change token: " + token);
+        }
+    }
+}
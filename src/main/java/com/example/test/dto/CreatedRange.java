@@ -0,0 +1,48 @@
+package com.example.test.dto;
+
+import com.example.test.exception.InvalidRangeException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Half-open created_at filter: {@code from <= created_at < to}; either end
+ * may be open. Bounds are ISO dates (midnight) or ISO local date-times.
+ */
+public record CreatedRange(LocalDateTime from, LocalDateTime to) {
+
+    /**
+     * @return the range, or null when neither bound is given
+     * @throws InvalidRangeException for unparseable bounds or from after to
+     */
+    public static CreatedRange parse(String from, String to) {
+        LocalDateTime start = bound("createdFrom", from);
+        LocalDateTime end = bound("createdTo", to);
+
+        if (start == null && end == null) {
+            return null;
+        }
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new InvalidRangeException("createdFrom must not be after createdTo");
+        }
+        return new CreatedRange(start, end);
+    }
+
+    private static LocalDateTime bound(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String v = value.strip();
+            return v.length() == 10 ? LocalDate.parse(v).atStartOfDay() : LocalDateTime.parse(v);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRangeException(name + " must be an ISO date or date-time, got '" + value + "'");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (from == null ? "" : from.toString()) + ".." + (to == null ? "" : to.toString());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.test.dto;
+
+/**
+ * Java side of normalize_phone_e164 (create_contact_lookup.sql). Both must
+ * apply the same rules, or phone lookups stop matching the index.
+ */
+public final class PhoneNumbers {
+
+    /** Country calling code for numbers without + or 00; baked into idx_users_phone_e164. */
+    public static final String DEFAULT_COUNTRY_CODE = "1";
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * @return +digits (8 to 15 of them), or null when the input cannot be an E.164 number
+     */
+    public static String toE164(String phone) {
+        if (phone == null) {
+            return null;
+        }
+
+        String digits = phone.replaceAll("[^0-9]", "");
+        String number;
+
+        if (phone.stripLeading().startsWith("+")) {
+            number = digits;
+        } else if (digits.startsWith("00")) {
+            number = digits.substring(2);
+        } else if (digits.isEmpty()) {
+            number = "";
+        } else {
+            number = DEFAULT_COUNTRY_CODE + (digits.startsWith("0") ? digits.substring(1) : digits);
+        }
+
+        return number.length() >= 8 && number.length() <= 15 ? "+" + number : null;
+    }
+}
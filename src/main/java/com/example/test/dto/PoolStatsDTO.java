@@ -0,0 +1,51 @@
+package com.example.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PoolStatsDTO {
+
+    private String poolName;
+    private int active;
+    private int idle;
+    private int pending;                   // threads waiting for a connection
+    private int total;
+    private int maximumPoolSize;           // current, possibly set by the adaptive controller
+    private int minimumIdle;
+    private boolean adaptive;
+    private int recommendedMaximumPoolSize;  // for spring.datasource.hikari.maximum-pool-size
+    private int recommendedMinimumIdle;      // for spring.datasource.hikari.minimum-idle
+    private int windows;                   // history the recommendations are based on
+    private Window lastWindow;             // null before the first window closes
+    private List<MethodUsage> topMethods;  // by total connection hold time
+
+    @Data
+    @AllArgsConstructor
+    public static class Window {
+        private double seconds;
+        private double acquiresPerSecond;
+        private double meanAcquireMillis;
+        private double maxAcquireMillis;
+        private long slowAcquires;
+        private double meanHeldMillis;
+        private double busyConnections;    // mean connections in use
+        private double meanStatementMillis;
+        private double baselineStatementMillis;
+        private int maxActive;
+        private int maxPending;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class MethodUsage {
+        private String method;
+        private long connections;
+        private double totalMillis;
+        private double avgMillis;
+        private double maxMillis;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.test.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Sparse user row for {@code ?fields=} responses: only the selected
+ * properties are held and written, and null values are left out.
+ */
+@JsonSerialize(using = ProjectedUser.Serializer.class)
+public final class ProjectedUser {
+
+    private final UserFields fields;
+    private final Object[] values;     // indexed by UserField.ordinal()
+
+    ProjectedUser(UserFields fields, Object[] values) {
+        this.fields = fields;
+        this.values = values;
+    }
+
+    public Object get(UserField field) {
+        return values[field.ordinal()];
+    }
+
+    static final class Serializer extends StdSerializer<ProjectedUser> {
+
+        Serializer() {
+            super(ProjectedUser.class);
+        }
+
+        @Override
+        public void serialize(ProjectedUser user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            for (UserField field : user.fields.fields()) {
+                Object value = user.values[field.ordinal()];
+                if (value instanceof String s) {
+                    gen.writeStringField(field.property(), s);
+                } else if (value instanceof Long l) {
+                    gen.writeNumberField(field.property(), l);
+                } else if (value != null) {
+                    // createdAt: same format as UserDTO under the configured ObjectMapper
+                    provider.defaultSerializeField(field.property(), value, gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
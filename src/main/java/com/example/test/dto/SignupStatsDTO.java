@@ -0,0 +1,34 @@
+package com.example.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SignupStatsDTO {
+
+    private String bucket;                 // day | week | month
+    private LocalDate from;                // first bucket start (inclusive)
+    private LocalDate to;                  // exclusive
+    private List<BucketCount> signups;     // one entry per bucket, zero-filled
+    private List<DomainCount> topDomains;  // by current users, descending
+    private LocalDateTime asOf;            // last rollup fold; newer changes not yet counted
+
+    @Data
+    @AllArgsConstructor
+    public static class BucketCount {
+        private LocalDate start;
+        private long signups;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class DomainCount {
+        private String domain;
+        private long users;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.test.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class SlowQueryDTO {
+
+    private String sql;              // normalized statement
+    private long executions;
+    private long slowExecutions;     // executions over the threshold
+    private double avgMillis;
+    private double maxMillis;
+    private String explainParams;    // bind values used for the captured plan
+    private Instant explainCapturedAt;
+
+    @JsonRawValue
+    private String plan;             // EXPLAIN (FORMAT JSON) output
+}
@@ -0,0 +1,20 @@
+package com.example.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class SnapshotStatsDTO {
+
+    private boolean enabled;
+    private boolean serving;           // false when disabled, loading or over the memory bound
+    private int users;
+    private long memoryBytes;
+    private long bytesPerUser;
+    private long maxBytesPerUser;      // documented bound (app.snapshot.max-bytes-per-user)
+    private String changeMarker;       // last applied change feed token
+    private Instant lastRefresh;
+}
@@ -0,0 +1,22 @@
+package com.example.test.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SpanDTO {
+
+    private String spanId;
+    private String parentId;
+    private String name;
+    private String kind;             // http | binding | controller | service | repository | pool | db
+    private double startOffsetMillis;    // from the start of the root span
+    private double durationMillis;
+    private Map<String, Object> tags;
+    private String error;
+}
@@ -0,0 +1,58 @@
+package com.example.test.dto;
+
+import com.example.test.exception.InvalidRangeException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Bucket width for GET /api/users/stats. {@link #sqlField()} is the matching
+ * date_trunc field, so {@link #start(LocalDate)} agrees with Postgres
+ * (weeks start on Monday).
+ */
+public enum StatsBucket {
+
+    DAY, WEEK, MONTH;
+
+    /**
+     * @throws InvalidRangeException for anything but day, week or month
+     */
+    public static StatsBucket parse(String value) {
+        try {
+            return valueOf(value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidRangeException("bucket must be one of day, week, month, got '" + value + "'");
+        }
+    }
+
+    public String sqlField() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public LocalDate start(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+
+    // default window when the caller gives no from
+    public LocalDate minus(LocalDate day, int buckets) {
+        return switch (this) {
+            case DAY -> day.minusDays(buckets);
+            case WEEK -> day.minusWeeks(buckets);
+            case MONTH -> day.minusMonths(buckets);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.test.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TraceDTO {
+
+    private String traceId;
+    private String name;             // root span, e.g. "GET /api/users/{id}"
+    private Instant startedAt;
+    private double durationMillis;
+    private int spanCount;
+    private int droppedSpans;        // spans over app.tracing.max-spans-per-trace
+    private String error;
+    private List<SpanDTO> spans;     // only on GET /api/admin/traces/{traceId}
+}
@@ -0,0 +1,22 @@
+package com.example.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class UserChangeDTO {
+
+    private String op;               // UPSERT / DELETE
+    private Long id;
+    private String firstName;        // null for DELETE
+    private String lastName;
+    private String email;
+    private String phone;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+    private LocalDateTime deletedAt; // only for DELETE
+}
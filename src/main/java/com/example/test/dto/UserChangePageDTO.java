@@ -0,0 +1,15 @@
+package com.example.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserChangePageDTO {
+
+    private List<UserChangeDTO> changes;  // latest state per user, in change order
+    private String nextToken;             // pass as ?since= on the next call
+    private boolean hasMore;              // true -> call again immediately
+}
@@ -0,0 +1,42 @@
+package com.example.test.dto;
+
+/**
+ * Columns a caller may ask for with {@code ?fields=}; the JSON property name
+ * maps to the column of view_all_users / view_user_details.
+ */
+public enum UserField {
+
+    ID("id", "id"),
+    FIRST_NAME("firstName", "first_name"),
+    LAST_NAME("lastName", "last_name"),
+    EMAIL("email", "email"),
+    PHONE("phone", "phone"),
+    CREATED_AT("createdAt", "created_at");
+
+    private final String property;
+    private final String column;
+
+    UserField(String property, String column) {
+        this.property = property;
+        this.column = column;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    Object valueOf(UserDTO user) {
+        return switch (this) {
+            case ID -> user.getId();
+            case FIRST_NAME -> user.getFirstName();
+            case LAST_NAME -> user.getLastName();
+            case EMAIL -> user.getEmail();
+            case PHONE -> user.getPhone();
+            case CREATED_AT -> user.getCreatedAt();
+        };
+    }
+}
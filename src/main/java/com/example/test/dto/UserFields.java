@@ -0,0 +1,118 @@
+package com.example.test.dto;
+
+import com.example.test.exception.InvalidFieldsException;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A parsed {@code ?fields=id,email} selection: the SELECT list to run and
+ * the row mapper that reads exactly those columns into a {@link ProjectedUser}.
+ * Fields are kept in declaration order whatever order they were requested in.
+ */
+public final class UserFields {
+
+    private static final String ALLOWED = Arrays.stream(UserField.values())
+            .map(UserField::property)
+            .collect(Collectors.joining(", "));
+
+    private final UserField[] fields;
+    private final String selectList;
+    private final String key;
+
+    private UserFields(Set<UserField> fields) {
+        this.fields = fields.toArray(new UserField[0]);
+        this.selectList = Arrays.stream(this.fields).map(UserField::column).collect(Collectors.joining(", "));
+        this.key = Arrays.stream(this.fields).map(UserField::property).collect(Collectors.joining(","));
+    }
+
+    /**
+     * @return the selection, or null when {@code spec} is absent or blank (full {@link UserDTO})
+     * @throws InvalidFieldsException for a name outside {@link UserField}
+     */
+    public static UserFields parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return null;
+        }
+
+        Set<UserField> selected = EnumSet.noneOf(UserField.class);
+        for (String name : spec.split(",")) {
+            String property = name.strip();
+            if (property.isEmpty()) {
+                continue;
+            }
+            UserField field = Arrays.stream(UserField.values())
+                    .filter(f -> f.property().equals(property))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidFieldsException(
+                            "Unknown field '" + property + "', allowed: " + ALLOWED));
+            selected.add(field);
+        }
+
+        return selected.isEmpty() ? null : new UserFields(selected);
+    }
+
+    public static UserFields of(UserField... fields) {
+        return new UserFields(EnumSet.copyOf(Arrays.asList(fields)));
+    }
+
+    public String selectList() {
+        return selectList;
+    }
+
+    UserField[] fields() {
+        return fields;
+    }
+
+    // -------------------------------------------------------
+    // MAPPING (only the selected columns are read or converted)
+    // -------------------------------------------------------
+    public RowMapper<ProjectedUser> rowMapper() {
+        return (rs, rowNum) -> {
+            Object[] values = new Object[UserField.values().length];
+            for (int i = 0; i < fields.length; i++) {
+                UserField field = fields[i];
+                values[field.ordinal()] = switch (field) {
+                    case ID -> rs.getLong(i + 1);
+                    case CREATED_AT -> {
+                        Timestamp ts = rs.getTimestamp(i + 1);
+                        yield ts == null ? null : ts.toLocalDateTime();
+                    }
+                    default -> rs.getString(i + 1);
+                };
+            }
+            return new ProjectedUser(this, values);
+        };
+    }
+
+    /** Narrows an already loaded user (cache, snapshot, search index). */
+    public ProjectedUser project(UserDTO user) {
+        if (user == null) {
+            return null;
+        }
+        Object[] values = new Object[UserField.values().length];
+        for (UserField field : fields) {
+            values[field.ordinal()] = field.valueOf(user);
+        }
+        return new ProjectedUser(this, values);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof UserFields other && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
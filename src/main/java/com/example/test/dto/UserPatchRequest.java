@@ -0,0 +1,70 @@
+package com.example.test.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Body of PATCH /api/users/{id}: only the fields present in the JSON are
+ * written. An explicit null clears phone; the other columns are NOT NULL.
+ */
+public class UserPatchRequest {
+
+    @Size(max = 100)
+    private String firstName;
+
+    @Size(max = 100)
+    private String lastName;
+
+    @Email
+    @Size(max = 255)
+    private String email;
+
+    @Size(max = 50)
+    private String phone;
+
+    // field names the client actually sent, in a stable order
+    private final Set<String> present = new LinkedHashSet<>();
+
+    // Getters & Setters (setters record presence)
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; present.add("firstName"); }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; present.add("lastName"); }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; present.add("email"); }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; present.add("phone"); }
+
+    @JsonIgnore
+    public boolean has(String field) {
+        return present.contains(field);
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return present.isEmpty();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "firstName, lastName and email cannot be null or blank")
+    public boolean isRequiredFieldsPresent() {
+        return notCleared("firstName", firstName) && notCleared("lastName", lastName) && notCleared("email", email);
+    }
+
+    private boolean notCleared(String field, String value) {
+        return !present.contains(field) || (value != null && !value.isBlank());
+    }
+
+    @Override
+    public String toString() {
+        return "UserPatchRequest" + present;
+    }
+}
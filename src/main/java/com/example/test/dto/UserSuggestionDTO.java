@@ -0,0 +1,12 @@
+package com.example.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserSuggestionDTO {
+
+    private Long id;
+    private String displayName;    // "first last"
+}
@@ -0,0 +1,7 @@
+package com.example.test.exception;
+
+public class ChangeTokenExpiredException extends RuntimeException {
+    public ChangeTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.test.exception;
+
+/**
+ * The database circuit breaker is open (or the read failed) and no stale
+ * copy is available; mapped to 503 with Retry-After.
+ */
+public class DatabaseUnavailableException extends StacklessException {
+
+    private final long retryAfterSeconds;
+
+    public DatabaseUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.test.exception;
 
-public class DuplicateEmailException extends RuntimeException {
+public class DuplicateEmailException extends StacklessException {
     public DuplicateEmailException(String message) {
         super(message);
     }
@@ -14,6 +14,9 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // expected on retries: stackless exception, one shared (never mutated) body
+    private static final ApiResponse EMAIL_EXISTS = new ApiResponse("FAILURE", null, "Email already exists");
+
     @ExceptionHandler(DuplicateKeyException.class)
     public ResponseEntity<ApiResponse> handleDuplicateKey(DuplicateKeyException ex) {
 
@@ -26,6 +29,26 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<ApiResponse> handleDuplicateEmail(DuplicateEmailException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(EMAIL_EXISTS);
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ApiResponse> handleVersionConflict(VersionConflictException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse> handleValidationErrors(MethodArgumentNotValidException ex) {
 
@@ -45,6 +68,106 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(InvalidLookupException.class)
+    public ResponseEntity<ApiResponse> handleInvalidLookup(InvalidLookupException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(InvalidRangeException.class)
+    public ResponseEntity<ApiResponse> handleInvalidRange(InvalidRangeException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<ApiResponse> handleInvalidFields(InvalidFieldsException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(InvalidChangeTokenException.class)
+    public ResponseEntity<ApiResponse> handleInvalidChangeToken(InvalidChangeTokenException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(ChangeTokenExpiredException.class)
+    public ResponseEntity<ApiResponse> handleChangeTokenExpired(ChangeTokenExpiredException ex) {
+
+        // 410: client must take a new head token and do a full download
+        return ResponseEntity
+                .status(HttpStatus.GONE)
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ApiResponse> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(RequestInProgressException.class)
+    public ResponseEntity<ApiResponse> handleRequestInProgress(RequestInProgressException ex) {
+
+        // client should retry the same key later
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public ResponseEntity<ApiResponse> handleDatabaseUnavailable(DatabaseUnavailableException ex) {
+
+        // circuit open: fail fast instead of queueing on a dead pool
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiResponse(
+                        "FAILURE",
+                        null,
+                        ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Object>> handleGeneralError(Exception ex) {
         return ResponseEntity
@@ -0,0 +1,7 @@
+package com.example.test.exception;
+
+public class IdempotencyKeyMismatchException extends StacklessException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.test.exception;
+
+public class InvalidChangeTokenException extends RuntimeException {
+    public InvalidChangeTokenException(String message) {
+        super(message);
+    }
+}
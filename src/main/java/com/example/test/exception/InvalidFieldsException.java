@@ -0,0 +1,7 @@
+package com.example.test.exception;
+
+public class InvalidFieldsException extends StacklessException {
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
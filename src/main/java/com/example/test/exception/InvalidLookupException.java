@@ -0,0 +1,7 @@
+package com.example.test.exception;
+
+public class InvalidLookupException extends StacklessException {
+    public InvalidLookupException(String message) {
+        super(message);
+    }
+}
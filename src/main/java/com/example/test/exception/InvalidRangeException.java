@@ -0,0 +1,7 @@
+package com.example.test.exception;
+
+public class InvalidRangeException extends StacklessException {
+    public InvalidRangeException(String message) {
+        super(message);
+    }
+}
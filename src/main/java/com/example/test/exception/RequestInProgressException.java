@@ -0,0 +1,7 @@
+package com.example.test.exception;
+
+public class RequestInProgressException extends StacklessException {
+    public RequestInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.test.exception;
+
+/**
+ * Base for expected business outcomes (conflicts, stale versions) that are
+ * mapped straight to an HTTP status. No stack trace is captured and no
+ * suppressed list is kept, so throwing one costs about as much as
+ * allocating a small object.
+ */
+public abstract class StacklessException extends RuntimeException {
+
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
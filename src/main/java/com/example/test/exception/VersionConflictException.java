@@ -0,0 +1,7 @@
+package com.example.test.exception;
+
+public class VersionConflictException extends StacklessException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.test.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Block allocation on top of users_id_seq: one nextval reserves
+ * [value, value + increment) and ids are handed out from memory until the
+ * block runs out. The block size is the sequence's own INCREMENT BY (1000
+ * after create_id_generator.sql), so rows inserted through the column
+ * default can never collide with a reserved block.
+ */
+@Slf4j
+public class HiLoIdGenerator implements IdGenerator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequenceName;
+
+    private volatile Block block = new Block(0, 0);
+    private volatile long blockSize;
+
+    public HiLoIdGenerator(JdbcTemplate jdbcTemplate, String sequenceName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceName = sequenceName;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+
+            if (id < current.end) {
+                return id;
+            }
+
+            synchronized (this) {
+                if (block == current) {
+                    block = reserveBlock();
+                }
+            }
+        }
+    }
+
+    private Block reserveBlock() {
+        if (blockSize == 0) {
+            Long increment = jdbcTemplate.queryForObject(
+                    "SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Long.class, sequenceName);
+            blockSize = (increment == null || increment < 1) ? 1 : increment;
+            log.info("IdGenerator: hi/lo on {} with block size {}", sequenceName, blockSize);
+        }
+
+        Long start = jdbcTemplate.queryForObject("SELECT nextval(?::regclass)", Long.class, sequenceName);
+        log.debug("IdGenerator: reserved ids [{}, {})", start, start + blockSize);
+
+        return new Block(start, start + blockSize);
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
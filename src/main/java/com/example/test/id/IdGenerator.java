@@ -0,0 +1,11 @@
+package com.example.test.id;
+
+/**
+ * Assigns user ids in-process, before the insert round trip, so writes can
+ * be routed (sharding) or pipelined without waiting for the database.
+ * Selected with app.id-generator.strategy (hilo | snowflake).
+ */
+public interface IdGenerator {
+
+    long nextId();
+}
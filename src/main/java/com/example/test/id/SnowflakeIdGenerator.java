@@ -0,0 +1,62 @@
+package com.example.test.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time + node + counter ids generated entirely in-process:
+ *
+ *   | 41 bits millis since 2024-01-01 | 10 bits node | 12 bits counter |
+ *
+ * The (millis, counter) pair lives in one AtomicLong and is advanced with a
+ * CAS, so concurrent callers never block. If the counter overflows within a
+ * millisecond, or the clock steps backwards, the logical clock simply runs
+ * ahead of the wall clock until it catches up.
+ *
+ * Ids are far above any users_id_seq value, so both schemes can coexist.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int COUNTER_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final long node;
+    private final LongSupplier clock;
+
+    // (millis since epoch << COUNTER_BITS) | counter of the last issued id
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Snowflake node id must be between 0 and " + MAX_NODE);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        long next;
+        long prev;
+
+        do {
+            prev = state.get();
+            long now = (clock.getAsLong() - EPOCH_MILLIS) << COUNTER_BITS;
+            // same or earlier millisecond: bump the counter (carrying into the time bits)
+            next = Math.max(now, prev + 1);
+        } while (!state.compareAndSet(prev, next));
+
+        long millis = next >>> COUNTER_BITS;
+        long counter = next & COUNTER_MASK;
+
+        return (millis << (NODE_BITS + COUNTER_BITS)) | (node << COUNTER_BITS) | counter;
+    }
+}
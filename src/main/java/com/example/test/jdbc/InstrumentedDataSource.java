@@ -0,0 +1,305 @@
+package com.example.test.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * DataSource wrapper that times every statement executed through it and
+ * reports it, with its bind values and row count, to the registered
+ * {@link JdbcEventListener}s. Time spent waiting for a pooled connection is
+ * reported separately, as is how long each connection is held until close.
+ *
+ * Connections and statements are JDK proxies, so nothing changes for
+ * JdbcTemplate / SimpleJdbcCall callers.
+ */
+@Slf4j
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final ObjectProvider<JdbcEventListener> listenerProvider;
+    private volatile List<JdbcEventListener> listeners;
+
+    public InstrumentedDataSource(DataSource target, ObjectProvider<JdbcEventListener> listenerProvider) {
+        super(target);
+        this.listenerProvider = listenerProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Connection connection = obtainTargetDataSource().getConnection();
+            failed = false;
+            return wrap(connection, System.nanoTime());
+        } finally {
+            publishAcquire(start, System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Connection connection = obtainTargetDataSource().getConnection(username, password);
+            failed = false;
+            return wrap(connection, System.nanoTime());
+        } finally {
+            publishAcquire(start, System.nanoTime() - start, failed);
+        }
+    }
+
+    // -------------------------------------------------------
+    // LISTENERS (resolved lazily to avoid early bean creation)
+    // -------------------------------------------------------
+    private List<JdbcEventListener> listeners() {
+        List<JdbcEventListener> current = listeners;
+        if (current == null) {
+            current = listenerProvider.orderedStream().toList();
+            listeners = current;
+        }
+        return current;
+    }
+
+    private void publish(StatementExecution execution) {
+        for (JdbcEventListener listener : listeners()) {
+            try {
+                listener.onStatementExecuted(execution);
+            } catch (RuntimeException e) {
+                log.warn("JDBC listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private void publishRelease(long acquired, long held) {
+        for (JdbcEventListener listener : listeners()) {
+            try {
+                listener.onConnectionReleased(acquired, held);
+            } catch (RuntimeException e) {
+                log.warn("JDBC listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private void publishAcquire(long start, long elapsed, boolean failed) {
+        for (JdbcEventListener listener : listeners()) {
+            try {
+                listener.onConnectionAcquired(start, elapsed, failed);
+            } catch (RuntimeException e) {
+                log.warn("JDBC listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    // -------------------------------------------------------
+    // PROXIES
+    // -------------------------------------------------------
+    private Connection wrap(Connection connection, long acquiredNanos) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection, acquiredNanos));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final long acquiredNanos;
+        private boolean released;
+
+        ConnectionHandler(Connection target, long acquiredNanos) {
+            this.target = target;
+            this.acquiredNanos = acquiredNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close") && !released) {
+                released = true;
+                try {
+                    return invokeTarget(target, method, args);
+                } finally {
+                    publishRelease(acquiredNanos, System.nanoTime() - acquiredNanos);
+                }
+            }
+
+            Object result = invokeTarget(target, method, args);
+
+            return switch (method.getName()) {
+                case "prepareCall" -> statementProxy(result, CallableStatement.class, (String) args[0]);
+                case "prepareStatement" -> statementProxy(result, PreparedStatement.class, (String) args[0]);
+                case "createStatement" -> statementProxy(result, Statement.class, null);
+                default -> result;
+            };
+        }
+
+        private Object statementProxy(Object statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(
+                    type.getClassLoader(),
+                    new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String preparedSql;
+        private final Map<Integer, Object> params = new TreeMap<>();
+
+        // query whose event waits for its ResultSet to be read and closed
+        private StatementExecution pending;
+        private long rowsRead;
+
+        StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                params.put(index, name.equals("setNull") ? null : args[1]);
+                return invokeTarget(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                params.clear();
+                return invokeTarget(target, method, args);
+            }
+            if (name.equals("close")) {
+                flushPending();
+                return invokeTarget(target, method, args);
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return invokeTarget(target, method, args);
+            }
+
+            flushPending();
+
+            String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s : preparedSql;
+            long start = System.nanoTime();
+            Object result;
+
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable t) {
+                if (sql != null) {
+                    publish(new StatementExecution(sql, new ArrayList<>(params.values()), start,
+                            System.nanoTime() - start, true, -1));
+                }
+                throw t;
+            }
+
+            if (sql == null) {
+                return result;
+            }
+
+            StatementExecution execution = new StatementExecution(sql, new ArrayList<>(params.values()), start,
+                    System.nanoTime() - start, false, rowsOf(result));
+
+            if (result instanceof ResultSet resultSet) {
+                pending = execution;
+                rowsRead = 0;
+                return Proxy.newProxyInstance(
+                        ResultSet.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class},
+                        new ResultSetHandler(resultSet, this));
+            }
+
+            publish(execution);
+            return result;
+        }
+
+        void flushPending() {
+            StatementExecution execution = pending;
+            if (execution != null) {
+                pending = null;
+                publish(new StatementExecution(execution.sql(), execution.params(), execution.startNanos(),
+                        execution.elapsedNanos(), false, rowsRead));
+            }
+        }
+
+        private static long rowsOf(Object result) {
+            if (result instanceof Integer count) {
+                return count;
+            }
+            if (result instanceof Long count) {
+                return count;
+            }
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int c : counts) {
+                    total += Math.max(0, c);
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long c : counts) {
+                    total += Math.max(0, c);
+                }
+                return total;
+            }
+            return -1;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final StatementHandler statement;
+
+        ResultSetHandler(ResultSet target, StatementHandler statement) {
+            this.target = target;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+
+            switch (method.getName()) {
+                case "next" -> {
+                    if (Boolean.TRUE.equals(result)) {
+                        statement.rowsRead++;
+                    }
+                }
+                case "close" -> statement.flushPending();
+                default -> {
+                }
+            }
+            return result;
+        }
+    }
+}
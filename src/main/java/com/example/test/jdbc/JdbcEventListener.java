@@ -0,0 +1,25 @@
+package com.example.test.jdbc;
+
+/**
+ * Callback for JDBC activity observed by {@link InstrumentedDataSource}.
+ * Implementations are picked up as Spring beans and must be cheap — they run
+ * on the calling thread right after each statement.
+ */
+public interface JdbcEventListener {
+
+    void onStatementExecuted(StatementExecution execution);
+
+    /**
+     * A connection was handed out by the wrapped pool; {@code elapsedNanos}
+     * is the time spent waiting for it.
+     */
+    default void onConnectionAcquired(long startNanos, long elapsedNanos, boolean failed) {
+    }
+
+    /**
+     * A connection handed out earlier was closed, i.e. returned to the pool;
+     * {@code heldNanos} is how long the caller kept it.
+     */
+    default void onConnectionReleased(long acquiredNanos, long heldNanos) {
+    }
+}
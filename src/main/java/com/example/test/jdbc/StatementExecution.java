@@ -0,0 +1,21 @@
+package com.example.test.jdbc;
+
+import java.util.List;
+
+/**
+ * One executed JDBC statement: the SQL text, the bind values in parameter
+ * order, when the execute call started (System.nanoTime), how long it took,
+ * whether it threw, and the rows it returned or changed (-1 when unknown,
+ * e.g. for procedure calls).
+ *
+ * For queries the event is published once the ResultSet is closed, so
+ * {@code rows} is the number of rows the caller actually read; the timing
+ * still covers only the execute call.
+ */
+public record StatementExecution(String sql, List<Object> params, long startNanos, long elapsedNanos,
+                                 boolean failed, long rows) {
+
+    public long elapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+}
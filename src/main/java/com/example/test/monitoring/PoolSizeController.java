@@ -0,0 +1,159 @@
+package com.example.test.monitoring;
+
+import com.example.test.dto.PoolStatsDTO;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Closes a {@link PoolWindow} every app.pool.window-ms, keeps the last
+ * app.pool.history-windows of them for the static sizing recommendations
+ * (GET /api/admin/pool, gauges db.pool.recommended.max and
+ * db.pool.recommended.min-idle) and, when app.pool.adaptive.enabled is set,
+ * moves Hikari's maximumPoolSize between the adaptive bounds as decided by
+ * {@link PoolSizer}.
+ *
+ * Hikari opens connections up to a raised maximum on demand. Its
+ * housekeeping pass (every 30 seconds) only retires connections idle for
+ * longer than idleTimeout, down to minimumIdle, and skips that entirely
+ * while minimumIdle is not below maximumPoolSize. So every resize also
+ * clamps minimumIdle to min(configured minimumIdle, new size): a lowered
+ * maximum then shrinks the pool as connections go idle, without
+ * interrupting borrowers.
+ */
+@Slf4j
+@Component
+public class PoolSizeController {
+
+    private static final int TOP_METHODS = 20;
+
+    private final PoolTelemetry telemetry;
+    private final PoolSizer sizer;
+    private final boolean adaptive;
+    private final int historyWindows;
+    private final int configuredMinimumIdle;
+
+    private final Deque<PoolWindow> history = new ArrayDeque<>();   // guarded by history
+    private volatile PoolWindow lastWindow;
+
+    public PoolSizeController(PoolTelemetry telemetry,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.pool.adaptive.enabled:false}") boolean adaptive,
+                              @Value("${app.pool.adaptive.min-size:5}") int minSize,
+                              @Value("${app.pool.adaptive.max-size:40}") int maxSize,
+                              @Value("${app.pool.adaptive.step:2}") int step,
+                              @Value("${app.pool.adaptive.latency-factor:1.5}") double latencyFactor,
+                              @Value("${app.pool.adaptive.shrink-after-windows:4}") int shrinkAfterWindows,
+                              @Value("${app.pool.headroom:1.5}") double headroom,
+                              @Value("${app.pool.history-windows:240}") int historyWindows) {
+        this.telemetry = telemetry;
+        this.sizer = new PoolSizer(minSize, maxSize, step, latencyFactor, shrinkAfterWindows, headroom);
+        this.adaptive = adaptive && telemetry.pool().isPresent();
+        this.historyWindows = historyWindows;
+        this.configuredMinimumIdle = telemetry.pool().map(HikariDataSource::getMinimumIdle).orElse(0);
+
+        Gauge.builder("db.pool.recommended.max", this, c -> c.sizer.recommendMaxPoolSize(c.history()))
+                .description("Recommended static maximum pool size")
+                .register(meterRegistry);
+        Gauge.builder("db.pool.recommended.min-idle", this, c -> c.sizer.recommendMinIdle(c.history()))
+                .description("Recommended static minimum idle connections")
+                .register(meterRegistry);
+
+        if (adaptive && !this.adaptive) {
+            log.warn("Adaptive pool sizing needs a HikariDataSource; leaving the pool size fixed");
+        }
+    }
+
+    // -------------------------------------------------------
+    // ONE WINDOW: record -> (optionally) resize
+    // -------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.pool.window-ms:15000}", initialDelayString = "${app.pool.window-ms:15000}")
+    public void closeWindow() {
+        PoolWindow window = telemetry.rollWindow();
+        lastWindow = window;
+
+        synchronized (history) {
+            history.addLast(window);
+            while (history.size() > historyWindows) {
+                history.removeFirst();
+            }
+        }
+
+        if (adaptive) {
+            telemetry.pool().ifPresent(pool -> resize(pool, window));
+        }
+    }
+
+    private void resize(HikariDataSource pool, PoolWindow window) {
+        int current = pool.getMaximumPoolSize();
+        int next = sizer.next(current, window);
+
+        if (next != current) {
+            log.info("Pool size {} -> {} (max pending {}, slow acquires {}, statement {} ms vs baseline {} ms)",
+                    current, next, window.maxPending(), window.slowAcquires(),
+                    String.format("%.2f", window.meanStatementMillis()),
+                    String.format("%.2f", sizer.baselineStatementMillis()));
+            HikariConfigMXBean config = pool.getHikariConfigMXBean();
+            // lower minimumIdle first: Hikari never retires idle connections while minimumIdle >= maximumPoolSize
+            config.setMinimumIdle(Math.min(configuredMinimumIdle, next));
+            config.setMaximumPoolSize(next);
+        }
+    }
+
+    private List<PoolWindow> history() {
+        synchronized (history) {
+            return List.copyOf(history);
+        }
+    }
+
+    // -------------------------------------------------------
+    // REPORT
+    // -------------------------------------------------------
+    public PoolStatsDTO getStats() {
+        HikariDataSource pool = telemetry.pool().orElse(null);
+        HikariPoolMXBean stats = pool == null ? null : pool.getHikariPoolMXBean();
+        List<PoolWindow> windows = history();
+        PoolWindow last = lastWindow;
+
+        return new PoolStatsDTO(
+                pool == null ? null : pool.getPoolName(),
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getThreadsAwaitingConnection(),
+                stats == null ? 0 : stats.getTotalConnections(),
+                pool == null ? 0 : pool.getMaximumPoolSize(),
+                pool == null ? 0 : pool.getMinimumIdle(),
+                adaptive,
+                sizer.recommendMaxPoolSize(windows),
+                sizer.recommendMinIdle(windows),
+                windows.size(),
+                last == null ? null : toDTO(last),
+                telemetry.getTopMethods(TOP_METHODS)
+        );
+    }
+
+    private PoolStatsDTO.Window toDTO(PoolWindow w) {
+        return new PoolStatsDTO.Window(
+                w.durationNanos() / 1e9,
+                w.acquiresPerSecond(),
+                w.meanAcquireMillis(),
+                w.maxAcquireNanos() / 1e6,
+                w.slowAcquires(),
+                w.meanHeldMillis(),
+                w.busyConnections(),
+                w.meanStatementMillis(),
+                sizer.baselineStatementMillis(),
+                w.maxActive(),
+                w.maxPending());
+    }
+}
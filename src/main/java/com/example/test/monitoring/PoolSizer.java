@@ -0,0 +1,120 @@
+package com.example.test.monitoring;
+
+import java.util.Collection;
+
+/**
+ * Pool size decisions from {@link PoolWindow}s, kept free of Hikari so the
+ * policy can be tested on its own.
+ *
+ * Grow by {@code step} when callers queued for a connection and the
+ * database is answering as fast as usual: the pool is the bottleneck. When
+ * statement latency has risen above {@code latencyFactor} times its
+ * baseline, more connections would only queue inside the database, so the
+ * pool shrinks by one instead. After {@code shrinkAfterWindows} quiet
+ * windows in a row with the peak well under the current size, it gives back
+ * one step. The baseline is a moving average of statement latency over
+ * windows without waits.
+ *
+ * Recommendations for static tuning apply Little's law to the history: the
+ * busiest window's mean connections in use, times {@code headroom}, for the
+ * maximum size; the average over active windows for minimum idle.
+ */
+public class PoolSizer {
+
+    private static final double BASELINE_WEIGHT = 0.2;
+
+    private final int minSize;
+    private final int maxSize;
+    private final int step;
+    private final double latencyFactor;
+    private final int shrinkAfterWindows;
+    private final double headroom;
+
+    private double baselineStatementMillis;
+    private int quietWindows;
+
+    public PoolSizer(int minSize, int maxSize, int step, double latencyFactor, int shrinkAfterWindows, double headroom) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Pool bounds must satisfy 1 <= min <= max, got " + minSize + ".." + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.step = Math.max(1, step);
+        this.latencyFactor = latencyFactor;
+        this.shrinkAfterWindows = Math.max(1, shrinkAfterWindows);
+        this.headroom = headroom;
+    }
+
+    // -------------------------------------------------------
+    // ADAPTIVE: next maximum pool size after one window
+    // -------------------------------------------------------
+    public synchronized int next(int current, PoolWindow window) {
+
+        int size = clamp(current);
+        if (window.idle()) {
+            return size;
+        }
+
+        boolean waited = window.waited();
+        double latency = window.meanStatementMillis();
+        boolean degraded = window.statements() > 0 && baselineStatementMillis > 0
+                && latency > baselineStatementMillis * latencyFactor;
+
+        if (!waited && window.statements() > 0) {
+            baselineStatementMillis = baselineStatementMillis == 0
+                    ? latency
+                    : baselineStatementMillis + BASELINE_WEIGHT * (latency - baselineStatementMillis);
+        }
+
+        if (degraded) {
+            quietWindows = 0;
+            return clamp(size - 1);
+        }
+
+        if (waited) {
+            quietWindows = 0;
+            return clamp(size + step);
+        }
+
+        if (window.maxActive() + step >= size) {
+            quietWindows = 0;
+        } else if (++quietWindows >= shrinkAfterWindows) {
+            quietWindows = 0;
+            return clamp(size - step);
+        }
+        return size;
+    }
+
+    public synchronized double baselineStatementMillis() {
+        return baselineStatementMillis;
+    }
+
+    // -------------------------------------------------------
+    // STATIC TUNING RECOMMENDATIONS
+    // -------------------------------------------------------
+    public int recommendMaxPoolSize(Collection<PoolWindow> history) {
+        double peakBusy = history.stream().mapToDouble(PoolWindow::busyConnections).max().orElse(0);
+        return clamp((int) Math.ceil(peakBusy * headroom));
+    }
+
+    public int recommendMinIdle(Collection<PoolWindow> history) {
+        double meanBusy = history.stream()
+                .filter(w -> !w.idle())
+                .mapToDouble(PoolWindow::busyConnections)
+                .average()
+                .orElse(0);
+        return Math.min(recommendMaxPoolSize(history), clamp((int) Math.ceil(meanBusy)));
+    }
+
+    public int minSize() {
+        return minSize;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.test.monitoring;
+
+import com.example.test.dto.PoolStatsDTO;
+import com.example.test.jdbc.JdbcEventListener;
+import com.example.test.jdbc.StatementExecution;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Connection pool instrumentation fed by {@link com.example.test.jdbc.InstrumentedDataSource}.
+ *
+ * Metrics: db.pool.acquire (timer with percentile histogram, tagged
+ * outcome=ok|failed), db.pool.usage (timer of how long a connection was
+ * held, tagged with the repository or service method that released it) and
+ * the db.pool.active / idle / pending / total / max gauges read from the
+ * Hikari pool. The same events are also summed into {@link PoolWindow}s for
+ * {@link PoolSizeController}.
+ *
+ * The releasing method is the innermost com.example.test.repository or
+ * .service frame on the stack at close time: the repository method for
+ * plain JdbcTemplate calls, the service method for work inside a
+ * transaction. Acquire and usage timers cover every instrumented pool (the
+ * shard pools too when sharding is on); the gauges and windows' pending
+ * counts describe the primary pool only.
+ */
+@Component
+public class PoolTelemetry implements JdbcEventListener {
+
+    private static final String OTHER = "other";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final HikariDataSource pool;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean perMethod;
+    private final int maxMethods;
+    private final long slowAcquireNanos;
+
+    private final Timer acquireOk;
+    private final Timer acquireFailed;
+    private final Map<String, MethodUsage> usage = new ConcurrentHashMap<>();
+
+    private volatile Window window = new Window(System.nanoTime());
+
+    public PoolTelemetry(DataSource dataSource,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.pool.telemetry.enabled:true}") boolean enabled,
+                         @Value("${app.pool.telemetry.per-method:true}") boolean perMethod,
+                         @Value("${app.pool.telemetry.max-methods:200}") int maxMethods,
+                         @Value("${app.pool.slow-acquire-ms:5}") long slowAcquireMs) {
+        this.pool = hikari(dataSource);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.perMethod = perMethod;
+        this.maxMethods = maxMethods;
+        this.slowAcquireNanos = TimeUnit.MILLISECONDS.toNanos(slowAcquireMs);
+
+        this.acquireOk = acquireTimer("ok");
+        this.acquireFailed = acquireTimer("failed");
+
+        gauge("db.pool.active", "Connections in use", HikariPoolMXBean::getActiveConnections);
+        gauge("db.pool.idle", "Connections idle in the pool", HikariPoolMXBean::getIdleConnections);
+        gauge("db.pool.pending", "Threads waiting for a connection", HikariPoolMXBean::getThreadsAwaitingConnection);
+        gauge("db.pool.total", "Connections open", HikariPoolMXBean::getTotalConnections);
+        if (pool != null) {
+            Gauge.builder("db.pool.max", pool, HikariDataSource::getMaximumPoolSize)
+                    .description("Current maximum pool size")
+                    .register(meterRegistry);
+        }
+    }
+
+    private Timer acquireTimer(String outcome) {
+        return Timer.builder("db.pool.acquire")
+                .description("Time to obtain a connection from the pool")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void gauge(String name, String description, ToIntFunction<HikariPoolMXBean> value) {
+        if (pool == null) {
+            return;
+        }
+        Gauge.builder(name, pool, ds -> {
+                    HikariPoolMXBean stats = ds.getHikariPoolMXBean();
+                    return stats == null ? 0 : value.applyAsInt(stats);
+                })
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    // -------------------------------------------------------
+    // RECORD (JDBC events)
+    // -------------------------------------------------------
+    @Override
+    public void onConnectionAcquired(long startNanos, long elapsedNanos, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+
+        (failed ? acquireFailed : acquireOk).record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        Window w = window;
+        w.acquires.increment();
+        w.acquireNanos.add(elapsedNanos);
+        w.maxAcquireNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (elapsedNanos >= slowAcquireNanos || failed) {
+            w.slowAcquires.increment();
+            samplePool();
+        }
+    }
+
+    @Override
+    public void onConnectionReleased(long acquiredNanos, long heldNanos) {
+        if (!enabled) {
+            return;
+        }
+
+        Window w = window;
+        w.releases.increment();
+        w.heldNanos.add(heldNanos);
+
+        if (perMethod) {
+            recordUsage(callerMethod(), heldNanos);
+        }
+    }
+
+    @Override
+    public void onStatementExecuted(StatementExecution execution) {
+        if (!enabled) {
+            return;
+        }
+
+        Window w = window;
+        w.statements.increment();
+        w.statementNanos.add(execution.elapsedNanos());
+    }
+
+    void recordUsage(String method, long heldNanos) {
+        MethodUsage entry = usage.get(method);
+        if (entry == null) {
+            String key = usage.size() >= maxMethods ? OTHER : method;
+            entry = usage.computeIfAbsent(key, MethodUsage::new);
+        }
+        entry.record(heldNanos);
+    }
+
+    static String callerMethod() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> isAppFrame(f.getClassName()))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "." + f.getMethodName())
+                .orElse(OTHER));
+    }
+
+    // Spring proxies ($$SpringCGLIB$$) forward to the real method further down the stack
+    private static boolean isAppFrame(String className) {
+        return (className.startsWith("com.example.test.repository.") || className.startsWith("com.example.test.service."))
+                && !className.contains("$$");
+    }
+
+    // -------------------------------------------------------
+    // POOL SAMPLING (max active / pending per window)
+    // -------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.pool.sample-ms:1000}")
+    public void samplePool() {
+        HikariPoolMXBean stats = pool == null ? null : pool.getHikariPoolMXBean();
+        if (!enabled || stats == null) {
+            return;
+        }
+
+        Window w = window;
+        w.maxActive.accumulateAndGet(stats.getActiveConnections(), Math::max);
+        w.maxPending.accumulateAndGet(stats.getThreadsAwaitingConnection(), Math::max);
+    }
+
+    // -------------------------------------------------------
+    // WINDOWS (rolled by PoolSizeController)
+    // -------------------------------------------------------
+    public PoolWindow rollWindow() {
+        long now = System.nanoTime();
+        Window finished = window;
+        window = new Window(now);
+        return finished.toPoolWindow(now);
+    }
+
+    public Optional<HikariDataSource> pool() {
+        return Optional.ofNullable(pool);
+    }
+
+    public List<PoolStatsDTO.MethodUsage> getTopMethods(int limit) {
+        return usage.values().stream()
+                .sorted(Comparator.comparingLong(MethodUsage::totalNanos).reversed())
+                .limit(limit)
+                .map(MethodUsage::toDTO)
+                .toList();
+    }
+
+    public void resetUsage() {
+        usage.clear();
+    }
+
+    static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    // -------------------------------------------------------
+    // ACCUMULATORS
+    // -------------------------------------------------------
+    private static final class Window {
+
+        private final long startNanos;
+        private final LongAdder acquires = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final AtomicLong maxAcquireNanos = new AtomicLong();
+        private final LongAdder slowAcquires = new LongAdder();
+        private final LongAdder releases = new LongAdder();
+        private final LongAdder heldNanos = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder statementNanos = new LongAdder();
+        private final AtomicInteger maxActive = new AtomicInteger();
+        private final AtomicInteger maxPending = new AtomicInteger();
+
+        Window(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        PoolWindow toPoolWindow(long endNanos) {
+            return new PoolWindow(endNanos - startNanos,
+                    acquires.sum(), acquireNanos.sum(), maxAcquireNanos.get(), slowAcquires.sum(),
+                    releases.sum(), heldNanos.sum(),
+                    statements.sum(), statementNanos.sum(),
+                    maxActive.get(), maxPending.get());
+        }
+    }
+
+    private final class MethodUsage {
+
+        private final String method;
+        private final Timer timer;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        MethodUsage(String method) {
+            this.method = method;
+            this.timer = Timer.builder("db.pool.usage")
+                    .description("Time a connection was held before returning to the pool")
+                    .tag("method", method)
+                    .register(meterRegistry);
+        }
+
+        void record(long nanos) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        PoolStatsDTO.MethodUsage toDTO() {
+            long n = count.sum();
+            long total = totalNanos.sum();
+            return new PoolStatsDTO.MethodUsage(
+                    method,
+                    n,
+                    total / 1e6,
+                    n == 0 ? 0 : total / 1e6 / n,
+                    maxNanos.get() / 1e6);
+        }
+    }
+}
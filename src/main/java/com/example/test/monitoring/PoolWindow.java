@@ -0,0 +1,44 @@
+package com.example.test.monitoring;
+
+/**
+ * Connection pool activity over one telemetry window: connection acquires
+ * (and how long callers waited for them), releases with the time each
+ * connection was held, statement executions as the DB-side latency signal,
+ * and the highest active / pending counts sampled during the window.
+ */
+public record PoolWindow(long durationNanos,
+                         long acquires, long acquireNanos, long maxAcquireNanos, long slowAcquires,
+                         long releases, long heldNanos,
+                         long statements, long statementNanos,
+                         int maxActive, int maxPending) {
+
+    // callers had to queue for a connection at some point in the window
+    public boolean waited() {
+        return maxPending > 0 || slowAcquires > 0;
+    }
+
+    public boolean idle() {
+        return acquires == 0 && releases == 0;
+    }
+
+    // Little's law: total hold time over elapsed time is the mean number of connections in use
+    public double busyConnections() {
+        return durationNanos <= 0 ? 0 : (double) heldNanos / durationNanos;
+    }
+
+    public double acquiresPerSecond() {
+        return durationNanos <= 0 ? 0 : acquires * 1e9 / durationNanos;
+    }
+
+    public double meanAcquireMillis() {
+        return acquires == 0 ? 0 : acquireNanos / 1e6 / acquires;
+    }
+
+    public double meanHeldMillis() {
+        return releases == 0 ? 0 : heldNanos / 1e6 / releases;
+    }
+
+    public double meanStatementMillis() {
+        return statements == 0 ? 0 : statementNanos / 1e6 / statements;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.test.monitoring;
+
+import com.example.test.dto.SlowQueryDTO;
+import com.example.test.jdbc.InstrumentedDataSource;
+import com.example.test.jdbc.JdbcEventListener;
+import com.example.test.jdbc.StatementExecution;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps a rolling top-N of the slowest normalized statements and, for any
+ * execution over the threshold, captures EXPLAIN (FORMAT JSON) of the same
+ * statement with its bind values on a background thread.
+ */
+@Slf4j
+@Component
+public class SlowQueryMonitor implements JdbcEventListener {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern PARAM_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final JdbcTemplate explainTemplate;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int topN;
+    private final int maxTracked;
+    private final long windowMillis;
+
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100),
+            r -> {
+                Thread t = new Thread(r, "slow-query-explain");
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private volatile Map<String, QueryStats> current = new ConcurrentHashMap<>();
+    private volatile Map<String, QueryStats> previous = Map.of();
+    private volatile long windowStart = System.currentTimeMillis();
+
+    public SlowQueryMonitor(
+            DataSource dataSource,
+            @Value("${app.slow-query.enabled:true}") boolean enabled,
+            @Value("${app.slow-query.threshold-ms:200}") long thresholdMs,
+            @Value("${app.slow-query.top-n:20}") int topN,
+            @Value("${app.slow-query.max-tracked:500}") int maxTracked,
+            @Value("${app.slow-query.window-minutes:60}") long windowMinutes) {
+
+        // EXPLAIN runs against the raw pool so it never shows up in its own statistics
+        DataSource target = (dataSource instanceof InstrumentedDataSource instrumented)
+                ? instrumented.getTargetDataSource()
+                : dataSource;
+
+        this.explainTemplate = new JdbcTemplate(target);
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.topN = topN;
+        this.maxTracked = maxTracked;
+        this.windowMillis = TimeUnit.MINUTES.toMillis(windowMinutes);
+    }
+
+    // -------------------------------------------------------
+    // RECORD
+    // -------------------------------------------------------
+    @Override
+    public void onStatementExecuted(StatementExecution execution) {
+        if (!enabled) {
+            return;
+        }
+
+        rotateIfNeeded();
+
+        String normalized = normalize(execution.sql());
+        Map<String, QueryStats> stats = current;
+
+        if (!stats.containsKey(normalized) && stats.size() >= maxTracked) {
+            evictFastest(stats);
+        }
+        QueryStats entry = stats.computeIfAbsent(normalized, QueryStats::new);
+
+        entry.record(execution);
+
+        if (execution.elapsedNanos() >= thresholdNanos && !execution.failed() && entry.shouldExplain()) {
+            log.warn("Slow statement {} ms: {}", execution.elapsedMillis(), normalized);
+            explainExecutor.execute(() -> explain(entry, execution));
+        }
+    }
+
+    private void rotateIfNeeded() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart < windowMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (now - windowStart >= windowMillis) {
+                previous = current;
+                current = new ConcurrentHashMap<>();
+                windowStart = now;
+            }
+        }
+    }
+
+    private void evictFastest(Map<String, QueryStats> stats) {
+        stats.values().stream()
+                .min(Comparator.comparingLong(QueryStats::maxNanos))
+                .ifPresent(fastest -> stats.remove(fastest.normalizedSql));
+    }
+
+    // -------------------------------------------------------
+    // EXPLAIN CAPTURE
+    // -------------------------------------------------------
+    private void explain(QueryStats entry, StatementExecution execution) {
+        String sql = execution.sql().strip();
+        String keyword = sql.length() >= 6 ? sql.substring(0, 6).toUpperCase() : sql.toUpperCase();
+
+        // stored procedure calls ({call ...}) cannot be explained
+        if (!(keyword.startsWith("SELECT") || keyword.startsWith("UPDATE")
+                || keyword.startsWith("DELETE") || keyword.startsWith("INSERT") || keyword.startsWith("WITH"))) {
+            return;
+        }
+
+        try {
+            String plan = explainTemplate.queryForObject(
+                    "EXPLAIN (FORMAT JSON) " + sql, String.class, execution.params().toArray());
+            entry.attachPlan(plan, execution.params());
+            log.debug("Captured plan for slow statement: {}", entry.normalizedSql);
+        } catch (Exception e) {
+            log.warn("EXPLAIN failed for slow statement '{}': {}", entry.normalizedSql, e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------
+    // REPORT
+    // -------------------------------------------------------
+    public List<SlowQueryDTO> getSlowestQueries() {
+        Map<String, QueryStats> merged = new ConcurrentHashMap<>(previous);
+        merged.putAll(current);
+
+        return merged.values().stream()
+                .sorted(Comparator.comparingLong(QueryStats::maxNanos).reversed())
+                .limit(topN)
+                .map(QueryStats::toDTO)
+                .toList();
+    }
+
+    public void reset() {
+        synchronized (this) {
+            previous = Map.of();
+            current = new ConcurrentHashMap<>();
+            windowStart = System.currentTimeMillis();
+        }
+    }
+
+    static String normalize(String sql) {
+        String s = STRING_LITERAL.matcher(sql).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = PARAM_LIST.matcher(s).replaceAll("(?...)");
+        return WHITESPACE.matcher(s).replaceAll(" ").strip();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    // -------------------------------------------------------
+    // PER-STATEMENT STATS
+    // -------------------------------------------------------
+    private final class QueryStats {
+
+        private final String normalizedSql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong slowCount = new AtomicLong();
+        private final AtomicLong lastExplainAt = new AtomicLong();
+
+        private volatile String plan;
+        private volatile List<Object> planParams;
+        private volatile Instant planCapturedAt;
+
+        QueryStats(String normalizedSql) {
+            this.normalizedSql = normalizedSql;
+        }
+
+        void record(StatementExecution execution) {
+            count.increment();
+            totalNanos.add(execution.elapsedNanos());
+            maxNanos.accumulateAndGet(execution.elapsedNanos(), Math::max);
+            if (execution.elapsedNanos() >= thresholdNanos) {
+                slowCount.incrementAndGet();
+            }
+        }
+
+        // at most one EXPLAIN per statement per window
+        boolean shouldExplain() {
+            long now = System.currentTimeMillis();
+            long last = lastExplainAt.get();
+            return now - last >= windowMillis && lastExplainAt.compareAndSet(last, now);
+        }
+
+        void attachPlan(String plan, List<Object> params) {
+            this.plan = plan;
+            this.planParams = params;
+            this.planCapturedAt = Instant.now();
+        }
+
+        long maxNanos() {
+            return maxNanos.get();
+        }
+
+        SlowQueryDTO toDTO() {
+            long n = count.sum();
+            return new SlowQueryDTO(
+                    normalizedSql,
+                    n,
+                    slowCount.get(),
+                    n == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / n) / 1000.0,
+                    TimeUnit.NANOSECONDS.toMicros(maxNanos.get()) / 1000.0,
+                    planParams == null ? null : planParams.toString(),
+                    planCapturedAt,
+                    plan
+            );
+        }
+    }
+}
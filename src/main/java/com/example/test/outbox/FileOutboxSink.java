@@ -0,0 +1,77 @@
+package com.example.test.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Default sink: appends one JSON line per event to a local file and forces
+ * it to disk before the batch counts as delivered. A crash between the
+ * fsync and the outbox commit repeats the batch, so readers dedupe on
+ * eventId.
+ */
+@Slf4j
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private FileChannel channel;                  // guarded by this
+
+    public FileOutboxSink(ObjectMapper objectMapper, Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+        for (OutboxEvent event : events) {
+            ObjectNode line = objectMapper.createObjectNode()
+                    .put("eventId", event.eventId())
+                    .put("type", event.type())
+                    .put("userId", event.userId())
+                    .put("createdAt", event.createdAt().toString());
+            line.set("user", event.payload() == null ? null : objectMapper.readTree(event.payload()));
+            objectMapper.writeValue(lines, line);
+            lines.write('\n');
+        }
+
+        FileChannel out = channel();
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        out.force(false);
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            log.info("Outbox: appending user events to {}", path.toAbsolutePath());
+        }
+        return channel;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
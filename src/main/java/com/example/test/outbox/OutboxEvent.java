@@ -0,0 +1,14 @@
+package com.example.test.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user_outbox row. eventId increases with insert order and is the
+ * consumer's dedupe key, since delivery is at least once.
+ */
+public record OutboxEvent(long eventId, String type, long userId, String payload, LocalDateTime createdAt) {
+
+    public static final String CREATED = "user.created";
+    public static final String UPDATED = "user.updated";
+    public static final String DELETED = "user.deleted";
+}
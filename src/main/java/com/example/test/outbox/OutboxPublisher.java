@@ -0,0 +1,178 @@
+package com.example.test.outbox;
+
+import com.example.test.repository.OutboxRepository;
+import com.example.test.service.UserChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains user_outbox into the {@link OutboxSink}.
+ *
+ * Each batch is claimed with FOR UPDATE SKIP LOCKED, delivered and deleted
+ * in one transaction, so any number of instances can run a publisher and a
+ * failed delivery simply leaves the batch for the next round. Batches follow
+ * event_id order; with several publishers, batches can reach the sink out of
+ * order and consumers should order by eventId.
+ *
+ * Metrics: outbox.events.published / outbox.publish.failures (counters),
+ * outbox.batch (timer) and outbox.lag (gauge, seconds since the oldest
+ * undelivered event was written).
+ */
+@Slf4j
+@Component
+public class OutboxPublisher {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final TransactionOperations transactions;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollMs;
+    private final long backoffMs;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private volatile Thread worker;
+
+    public OutboxPublisher(OutboxRepository outboxRepository,
+                           OutboxSink sink,
+                           TransactionOperations transactions,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.outbox.publisher-enabled:true}") boolean enabled,
+                           @Value("${app.outbox.batch-size:500}") int batchSize,
+                           @Value("${app.outbox.poll-ms:1000}") long pollMs,
+                           @Value("${app.outbox.backoff-ms:5000}") long backoffMs) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactions = transactions;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollMs = pollMs;
+        this.backoffMs = backoffMs;
+
+        this.published = meterRegistry.counter("outbox.events.published");
+        this.failures = meterRegistry.counter("outbox.publish.failures");
+        this.batchTimer = meterRegistry.timer("outbox.batch");
+        Gauge.builder("outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .baseUnit("seconds")
+                .description("Age of the oldest undelivered user event")
+                .register(meterRegistry);
+    }
+
+    // -------------------------------------------------------------
+    // ONE BATCH: claim -> deliver -> delete, all or nothing
+    // -------------------------------------------------------------
+    public int publishBatch() {
+        Integer delivered = transactions.execute(status -> {
+            List<OutboxEvent> batch = outboxRepository.claimBatch(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            long start = System.nanoTime();
+            try {
+                sink.deliver(batch);
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox sink rejected batch: " + e.getMessage(), e);
+            }
+            outboxRepository.delete(batch.stream().map(OutboxEvent::eventId).toList());
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            log.debug("Outbox: delivered events {}..{}", batch.get(0).eventId(), batch.get(batch.size() - 1).eventId());
+            return batch.size();
+        });
+
+        int count = delivered == null ? 0 : delivered;
+        published.increment(count);
+        return count;
+    }
+
+    public long lagMillis() {
+        return lagMillis.get();
+    }
+
+    // -------------------------------------------------------------
+    // WORKER (woken early by local writes, otherwise polls)
+    // -------------------------------------------------------------
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        wakeUp.release();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorker() {
+        if (!enabled) {
+            log.info("Outbox: publisher disabled on this instance");
+            return;
+        }
+        Thread t = new Thread(this::workLoop, "outbox-publisher");
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+    }
+
+    @PreDestroy
+    public void stopWorker() {
+        Thread t = worker;
+        worker = null;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    private void workLoop() {
+        while (worker == Thread.currentThread()) {
+            try {
+                int delivered = publishBatch();
+                lagMillis.set(outboxRepository.oldestPendingAgeMillis());
+
+                if (delivered < batchSize) {
+                    wakeUp.tryAcquire(pollMs, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                failures.increment();
+                log.warn("Outbox: publishing failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+                sleepQuietly(backoffMs);
+                refreshLag();
+            }
+        }
+    }
+
+    private void refreshLag() {
+        try {
+            lagMillis.set(outboxRepository.oldestPendingAgeMillis());
+        } catch (Exception e) {
+            log.debug("Outbox: could not read lag: {}", e.getMessage());
+        }
+    }
+
+    private static void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.test.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for drained outbox batches. Declare a bean of this type to
+ * replace the default {@link FileOutboxSink}.
+ *
+ * deliver must return only once the batch is durable on the other side;
+ * throwing leaves the whole batch in the outbox for the next attempt.
+ */
+public interface OutboxSink {
+
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,43 @@
+package com.example.test.outbox;
+
+import com.example.test.dto.UserDTO;
+import com.example.test.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write side of the outbox. Call inside the transaction of the user write
+ * so the event row commits or rolls back with it.
+ */
+@Component
+public class UserEventOutbox {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public UserEventOutbox(OutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void created(UserDTO user) {
+        outboxRepository.append(OutboxEvent.CREATED, user.getId(), toJson(user));
+    }
+
+    public void updated(UserDTO user) {
+        outboxRepository.append(OutboxEvent.UPDATED, user.getId(), toJson(user));
+    }
+
+    public void deleted(Long id) {
+        outboxRepository.append(OutboxEvent.DELETED, id, null);
+    }
+
+    private String toJson(UserDTO user) {
+        try {
+            return objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user event", e);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.test.repository;
+
+import com.example.test.dto.BulkDeleteJobDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Job bookkeeping for background bulk deletes (create_bulk_delete_jobs.sql).
+ * The user rows themselves are removed by {@link UserRepository#deleteUsersChunk}.
+ */
+@Slf4j
+@Repository
+public class BulkDeleteRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BulkDeleteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** What a worker needs to (re)start a job; cursorId is the last id already deleted. */
+    public record ClaimedJob(long jobId, List<Long> ids, String emailDomain, LocalDateTime createdBefore,
+                             int chunkSize, long cursorId) {
+    }
+
+    private static final RowMapper<BulkDeleteJobDTO> JOB_MAPPER = (rs, rowNum) -> {
+        List<Long> ids = ids(rs);
+        return new BulkDeleteJobDTO(
+                rs.getLong("job_id"),
+                rs.getString("status"),
+                ids == null ? null : ids.size(),
+                rs.getString("email_domain"),
+                toLocalDateTime(rs.getTimestamp("created_before")),
+                rs.getInt("chunk_size"),
+                rs.getLong("deleted_count"),
+                rs.getInt("chunks"),
+                rs.getBoolean("cancel_requested"),
+                rs.getString("error"),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("started_at")),
+                toLocalDateTime(rs.getTimestamp("finished_at")));
+    };
+
+    private static final RowMapper<ClaimedJob> CLAIMED_JOB_MAPPER = (rs, rowNum) ->
+            new ClaimedJob(
+                    rs.getLong("job_id"),
+                    ids(rs),
+                    rs.getString("email_domain"),
+                    toLocalDateTime(rs.getTimestamp("created_before")),
+                    rs.getInt("chunk_size"),
+                    rs.getLong("cursor_id"));
+
+    // -------------------------------------------------------
+    // CREATE / READ
+    // -------------------------------------------------------
+    public long createJob(List<Long> ids, String emailDomain, LocalDateTime createdBefore, int chunkSize) {
+
+        Long jobId = jdbcTemplate.queryForObject("""
+            INSERT INTO bulk_delete_jobs (ids, email_domain, created_before, chunk_size)
+            VALUES (?, ?, ?, ?)
+            RETURNING job_id
+        """, Long.class,
+                ids == null ? null : ids.toArray(new Long[0]),
+                emailDomain,
+                createdBefore == null ? null : Timestamp.valueOf(createdBefore),
+                chunkSize);
+
+        log.info("Repository: Created bulk delete job ID={}", jobId);
+        return jobId;
+    }
+
+    public Optional<BulkDeleteJobDTO> findJob(long jobId) {
+        return jdbcTemplate.query("SELECT * FROM bulk_delete_jobs WHERE job_id = ?", JOB_MAPPER, jobId)
+                .stream().findFirst();
+    }
+
+    // -------------------------------------------------------
+    // CLAIM (oldest queued job, or a running one whose worker went away)
+    // -------------------------------------------------------
+    // the lease is measured on the database clock, the one heartbeat_at is written with
+    public Optional<ClaimedJob> claimNext(long leaseMs) {
+
+        List<ClaimedJob> rows = jdbcTemplate.query("""
+            UPDATE bulk_delete_jobs
+            SET status = 'RUNNING',
+                started_at = COALESCE(started_at, CURRENT_TIMESTAMP),
+                heartbeat_at = CURRENT_TIMESTAMP
+            WHERE job_id = (
+                SELECT job_id FROM bulk_delete_jobs
+                WHERE status = 'QUEUED'
+                   OR (status = 'RUNNING' AND heartbeat_at < CURRENT_TIMESTAMP - make_interval(secs => ?))
+                ORDER BY job_id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING job_id, ids, email_domain, created_before, chunk_size, cursor_id
+        """, CLAIMED_JOB_MAPPER, leaseMs / 1000.0);
+
+        return rows.stream().findFirst();
+    }
+
+    // -------------------------------------------------------
+    // PROGRESS (each call doubles as heartbeat; returns cancel_requested)
+    // -------------------------------------------------------
+    public boolean recordChunk(long jobId, long cursorId, int deleted) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+            UPDATE bulk_delete_jobs
+            SET cursor_id = ?, deleted_count = deleted_count + ?, chunks = chunks + 1,
+                heartbeat_at = CURRENT_TIMESTAMP
+            WHERE job_id = ?
+            RETURNING cancel_requested
+        """, Boolean.class, cursorId, deleted, jobId));
+    }
+
+    public boolean heartbeat(long jobId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+            UPDATE bulk_delete_jobs SET heartbeat_at = CURRENT_TIMESTAMP
+            WHERE job_id = ?
+            RETURNING cancel_requested
+        """, Boolean.class, jobId));
+    }
+
+    public void finish(long jobId, String status, String error) {
+
+        log.info("Repository: Bulk delete job ID={} finished with status={}", jobId, status);
+
+        jdbcTemplate.update("""
+            UPDATE bulk_delete_jobs
+            SET status = ?, error = ?, finished_at = CURRENT_TIMESTAMP, heartbeat_at = CURRENT_TIMESTAMP
+            WHERE job_id = ?
+        """, status, error, jobId);
+    }
+
+    // -------------------------------------------------------
+    // CANCEL (queued jobs stop at once, running ones after the current chunk)
+    // -------------------------------------------------------
+    public boolean requestCancel(long jobId) {
+
+        int rows = jdbcTemplate.update("""
+            UPDATE bulk_delete_jobs
+            SET cancel_requested = true,
+                status = CASE WHEN status = 'QUEUED' THEN 'CANCELLED' ELSE status END,
+                finished_at = CASE WHEN status = 'QUEUED' THEN CURRENT_TIMESTAMP ELSE finished_at END
+            WHERE job_id = ? AND status IN ('QUEUED', 'RUNNING')
+        """, jobId);
+
+        return rows > 0;
+    }
+
+    // -------------------------------------------------------
+    // THROTTLING INPUT
+    // -------------------------------------------------------
+    // worst standby replay lag in ms; 0 without standbys (or without the rights to see them)
+    public long replicationLagMs() {
+        Long lag = jdbcTemplate.queryForObject("""
+            SELECT COALESCE(CAST(EXTRACT(EPOCH FROM max(replay_lag)) * 1000 AS bigint), 0)
+            FROM pg_stat_replication
+        """, Long.class);
+        return lag == null ? 0 : lag;
+    }
+
+    // -------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------
+    private static List<Long> ids(ResultSet rs) throws SQLException {
+        Array array = rs.getArray("ids");
+        return array == null ? null : Arrays.asList((Long[]) array.getArray());
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+}
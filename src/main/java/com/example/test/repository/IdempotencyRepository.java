@@ -0,0 +1,109 @@
+package com.example.test.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * DB side of Idempotency-Key handling (create_idempotency_keys.sql).
+ *
+ * Expiry and lease cutoffs are computed from the database clock
+ * (CURRENT_TIMESTAMP), the same clock the timestamp columns are compared
+ * against, so app/DB clock skew or time zone differences never take over a
+ * live lease.
+ */
+@Slf4j
+@Repository
+public class IdempotencyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * status is PENDING or DONE; response fields are null while PENDING.
+     * expiresInMs is the row's remaining lifetime by the database clock.
+     */
+    public record StoredKey(String requestHash, String status, Integer responseStatus, String responseBody,
+                            long expiresInMs) {
+
+        public boolean isDone() {
+            return "DONE".equals(status);
+        }
+    }
+
+    private static final RowMapper<StoredKey> STORED_KEY_MAPPER = (rs, rowNum) ->
+            new StoredKey(
+                    rs.getString("request_hash"),
+                    rs.getString("status"),
+                    (Integer) rs.getObject("response_status"),
+                    rs.getString("response_body"),
+                    rs.getLong("expires_in_ms"));
+
+    // -------------------------------------------------------
+    // RESERVE (true when this caller owns the key)
+    // -------------------------------------------------------
+    // expired rows, and PENDING rows older than the lease (owner crashed), are taken over
+    public boolean reserve(String key, String requestHash, long ttlMs, long pendingLeaseMs) {
+
+        log.debug("Repository: Reserving idempotency key={}", key);
+
+        int rows = jdbcTemplate.update("""
+            INSERT INTO idempotency_keys (idempotency_key, request_hash, status, expires_at)
+            VALUES (?, ?, 'PENDING', CURRENT_TIMESTAMP + make_interval(secs => ?))
+            ON CONFLICT (idempotency_key) DO UPDATE
+            SET request_hash = EXCLUDED.request_hash, status = 'PENDING',
+                response_status = NULL, response_body = NULL,
+                created_at = CURRENT_TIMESTAMP, expires_at = EXCLUDED.expires_at
+            WHERE idempotency_keys.expires_at <= CURRENT_TIMESTAMP
+               OR (idempotency_keys.status = 'PENDING'
+                   AND idempotency_keys.created_at < CURRENT_TIMESTAMP - make_interval(secs => ?))
+        """, key, requestHash, ttlMs / 1000.0, pendingLeaseMs / 1000.0);
+
+        return rows > 0;
+    }
+
+    public Optional<StoredKey> find(String key) {
+
+        List<StoredKey> rows = jdbcTemplate.query("""
+            SELECT request_hash, status, response_status, response_body,
+                   (EXTRACT(EPOCH FROM expires_at - CURRENT_TIMESTAMP) * 1000)::bigint AS expires_in_ms
+            FROM idempotency_keys
+            WHERE idempotency_key = ? AND expires_at > CURRENT_TIMESTAMP
+        """, STORED_KEY_MAPPER, key);
+
+        return rows.stream().findFirst();
+    }
+
+    // -------------------------------------------------------
+    // COMPLETE / RELEASE
+    // -------------------------------------------------------
+    public void complete(String key, int responseStatus, String responseBody) {
+
+        log.debug("Repository: Storing response for idempotency key={}", key);
+
+        jdbcTemplate.update("""
+            UPDATE idempotency_keys
+            SET status = 'DONE', response_status = ?, response_body = ?
+            WHERE idempotency_key = ?
+        """, responseStatus, responseBody, key);
+    }
+
+    // failed attempt: the next retry with this key runs again
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND status = 'PENDING'", key);
+    }
+
+    // -------------------------------------------------------
+    // TTL CLEANUP
+    // -------------------------------------------------------
+    public int deleteExpired() {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= CURRENT_TIMESTAMP");
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.test.repository;
+
+import com.example.test.outbox.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * user_outbox (create_user_outbox.sql). append runs inside the caller's
+ * write transaction; claimBatch and delete inside the publisher's. Like the
+ * change log, the outbox lives on the default datasource.
+ */
+@Slf4j
+@Repository
+public class OutboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private static final RowMapper<OutboxEvent> EVENT_ROW_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("event_id"),
+            rs.getString("event_type"),
+            rs.getLong("user_id"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    // -------------------------------------------------------
+    // APPEND (same transaction as the user write)
+    // -------------------------------------------------------
+    public void append(String eventType, Long userId, String payload) {
+        jdbcTemplate.update("INSERT INTO user_outbox (event_type, user_id, payload) VALUES (?, ?, ?)",
+                eventType, userId, payload);
+    }
+
+    // -------------------------------------------------------
+    // DRAIN (rows locked by another publisher are skipped, not waited on)
+    // -------------------------------------------------------
+    public List<OutboxEvent> claimBatch(int limit) {
+        return jdbcTemplate.query("""
+            SELECT event_id, event_type, user_id, payload, created_at
+            FROM user_outbox
+            ORDER BY event_id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        """, EVENT_ROW_MAPPER, limit);
+    }
+
+    public int delete(List<Long> eventIds) {
+        return jdbcTemplate.update("DELETE FROM user_outbox WHERE event_id = ANY(?)",
+                (Object) eventIds.toArray(new Long[0]));
+    }
+
+    // -------------------------------------------------------
+    // LAG (age of the oldest undelivered event, 0 when drained)
+    // -------------------------------------------------------
+    public long oldestPendingAgeMillis() {
+        Long age = jdbcTemplate.queryForObject("""
+            SELECT COALESCE(
+                (SELECT (EXTRACT(EPOCH FROM clock_timestamp() - created_at) * 1000)::bigint
+                 FROM user_outbox ORDER BY event_id LIMIT 1), 0)
+        """, Long.class);
+        return age == null ? 0 : Math.max(0, age);
+    }
+}
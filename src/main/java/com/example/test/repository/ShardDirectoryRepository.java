@@ -0,0 +1,66 @@
+package com.example.test.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import com.example.test.exception.DuplicateEmailException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Global email → user id ownership table kept on the directory (default)
+ * database. With users spread over several shards this is the only place a
+ * unique email can be enforced.
+ */
+@Slf4j
+public class ShardDirectoryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShardDirectoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // -------------------------------------------------------
+    // CLAIM (idempotent for the same owner)
+    // -------------------------------------------------------
+    public void claim(String email, Long userId) {
+
+        log.info("Repository: Claiming email={} for user ID={}", email, userId);
+
+        int rows = jdbcTemplate.update("""
+            INSERT INTO user_email_owners (email, user_id)
+            VALUES (lower(?), ?)
+            ON CONFLICT (email) DO NOTHING
+        """, email, userId);
+
+        if (rows == 0 && !ownerOf(email).map(userId::equals).orElse(false)) {
+            log.warn("Repository: Email={} is already owned by another user", email);
+            throw new DuplicateEmailException("Email already exists");
+        }
+    }
+
+    // -------------------------------------------------------
+    // RELEASE
+    // -------------------------------------------------------
+    public void release(String email, Long userId) {
+
+        log.info("Repository: Releasing email={} from user ID={}", email, userId);
+
+        jdbcTemplate.update(
+                "DELETE FROM user_email_owners WHERE email = lower(?) AND user_id = ?",
+                email, userId);
+    }
+
+    // -------------------------------------------------------
+    // LOOKUP
+    // -------------------------------------------------------
+    public Optional<Long> ownerOf(String email) {
+
+        List<Long> owners = jdbcTemplate.queryForList(
+                "SELECT user_id FROM user_email_owners WHERE email = lower(?)",
+                Long.class, email);
+
+        return owners.stream().findFirst();
+    }
+}
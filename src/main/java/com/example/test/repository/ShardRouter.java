@@ -0,0 +1,63 @@
+package com.example.test.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring mapping a user id to a shard index.
+ *
+ * Each shard is placed on the ring {@code virtualNodes} times (keyed by its
+ * name), so adding or removing a shard only moves roughly 1/N of the ids.
+ */
+public class ShardRouter {
+
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+    private final int shardCount;
+
+    public ShardRouter(List<String> shardNames, int virtualNodes) {
+        if (shardNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+
+        this.shardCount = shardNames.size();
+
+        for (int shard = 0; shard < shardNames.size(); shard++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring.put(hash(shardNames.get(shard) + "#" + v), shard);
+            }
+        }
+    }
+
+    public int shardFor(long userId) {
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(mix(userId));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // -------------------------------------------------------
+    // HASHING (FNV-1a for names, murmur3 finalizer for spreading)
+    // -------------------------------------------------------
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
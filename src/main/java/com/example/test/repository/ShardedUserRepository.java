@@ -0,0 +1,374 @@
+package com.example.test.repository;
+
+import com.example.test.dto.CreatedRange;
+import com.example.test.dto.ProjectedUser;
+import com.example.test.dto.UserCreateRequest;
+import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserFields;
+import com.example.test.dto.UserPatchRequest;
+import com.example.test.dto.UserUpdateRequest;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * UserRepository spread over N shards, each with its own DataSource.
+ *
+ * Point operations are routed by user id through a {@link ShardRouter}.
+ * List and search queries scatter to every shard in parallel, each shard
+ * returning its first (offset + limit) rows in the requested order, and the
+ * results are merged with a heap bounded by the shard count.
+ *
+ * String ordering in the merge uses Java's natural order, so shards should
+ * use the "C" collation for page boundaries to match single-node output.
+ */
+@Slf4j
+public class ShardedUserRepository extends UserRepository {
+
+    private final List<UserRepository> shards;
+    private final ShardRouter router;
+    private final ShardDirectoryRepository directory;
+    private final ExecutorService executor;
+
+    public ShardedUserRepository(JdbcTemplate directoryTemplate,
+                                 List<UserRepository> shards,
+                                 ShardRouter router,
+                                 ShardDirectoryRepository directory) {
+        super(directoryTemplate);
+        this.shards = shards;
+        this.router = router;
+        this.directory = directory;
+        this.executor = Executors.newFixedThreadPool(shards.size(), r -> {
+            Thread t = new Thread(r, "shard-scatter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private UserRepository shardFor(Long id) {
+        return shards.get(router.shardFor(id));
+    }
+
+    // -------------------------------------------------------
+    // CREATE USER (id assigned up front, row on the owning shard)
+    // -------------------------------------------------------
+    @Override
+    public Long createUserUsingProcedure(Long id, UserCreateRequest req) {
+
+        if (id == null) {
+            throw new IllegalArgumentException("Sharded writes need an id from the IdGenerator");
+        }
+
+        log.info("Repository: Creating user ID={} on shard {}", id, router.shardFor(id));
+
+        directory.claim(req.getEmail(), id);
+
+        Long created;
+        try {
+            created = shardFor(id).createUserUsingProcedure(id, req);
+        } catch (RuntimeException e) {
+            directory.release(req.getEmail(), id);
+            throw e;
+        }
+
+        if (created == null) {
+            directory.release(req.getEmail(), id);
+        }
+        return created;
+    }
+
+    // -------------------------------------------------------
+    // POINT OPERATIONS (single shard)
+    // -------------------------------------------------------
+    @Override
+    public Optional<UserDTO> getUserById(Long id) {
+        return shardFor(id).getUserById(id);
+    }
+
+    @Override
+    public Optional<ProjectedUser> getUserById(Long id, UserFields fields) {
+        return shardFor(id).getUserById(id, fields);
+    }
+
+    @Override
+    public List<UserDTO> getUsersByIds(Collection<Long> ids) {
+
+        Map<Integer, List<Long>> byShard = new HashMap<>();
+        for (Long id : ids) {
+            byShard.computeIfAbsent(router.shardFor(id), k -> new ArrayList<>()).add(id);
+        }
+
+        List<UserDTO> result = new ArrayList<>(ids.size());
+        byShard.forEach((shard, shardIds) -> result.addAll(shards.get(shard).getUsersByIds(shardIds)));
+        return result;
+    }
+
+    // the directory knows the owner, so an email lookup touches one shard
+    @Override
+    public Optional<UserDTO> getUserByEmail(String email) {
+        return directory.ownerOf(email).flatMap(id -> shardFor(id).getUserById(id));
+    }
+
+    @Override
+    public List<UserDTO> getUsersByPhone(String e164, int limit) {
+        List<List<UserDTO>> parts = scatter(shard -> shard.getUsersByPhone(e164, limit));
+        return mergeSorted(parts, sortComparator("id", "asc"), 0, limit);
+    }
+
+    @Override
+    public boolean emailExistsForAnotherUser(String email, Long id) {
+        return directory.ownerOf(email).map(owner -> !owner.equals(id)).orElse(false);
+    }
+
+    @Override
+    public boolean updateUser(Long id, UserUpdateRequest req) {
+
+        UserRepository shard = shardFor(id);
+        Optional<UserDTO> current = shard.getUserById(id);
+
+        if (current.isEmpty()) {
+            return false;
+        }
+
+        String oldEmail = current.get().getEmail();
+        boolean emailChanged = !oldEmail.equalsIgnoreCase(req.getEmail());
+
+        if (emailChanged) {
+            directory.claim(req.getEmail(), id);
+        }
+
+        boolean updated;
+        try {
+            updated = shard.updateUser(id, req);
+        } catch (RuntimeException e) {
+            if (emailChanged) {
+                directory.release(req.getEmail(), id);
+            }
+            throw e;
+        }
+
+        if (emailChanged) {
+            directory.release(updated ? oldEmail : req.getEmail(), id);
+        }
+
+        return updated;
+    }
+
+    @Override
+    public Optional<VersionedUser> patchUser(Long id, UserPatchRequest req, Long expectedVersion) {
+
+        UserRepository shard = shardFor(id);
+
+        if (!req.has("email")) {
+            return shard.patchUser(id, req, expectedVersion);
+        }
+
+        Optional<UserDTO> current = shard.getUserById(id);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String oldEmail = current.get().getEmail();
+        boolean emailChanged = !oldEmail.equalsIgnoreCase(req.getEmail());
+
+        if (emailChanged) {
+            directory.claim(req.getEmail(), id);
+        }
+
+        Optional<VersionedUser> patched;
+        try {
+            patched = shard.patchUser(id, req, expectedVersion);
+        } catch (RuntimeException e) {
+            if (emailChanged) {
+                directory.release(req.getEmail(), id);
+            }
+            throw e;
+        }
+
+        if (emailChanged) {
+            directory.release(patched.isPresent() ? oldEmail : req.getEmail(), id);
+        }
+
+        return patched;
+    }
+
+    @Override
+    public Optional<Long> getVersion(Long id) {
+        return shardFor(id).getVersion(id);
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+
+        UserRepository shard = shardFor(id);
+        Optional<UserDTO> current = shard.getUserById(id);
+
+        boolean deleted = shard.deleteUser(id);
+
+        if (deleted) {
+            current.ifPresent(user -> directory.release(user.getEmail(), id));
+        }
+
+        return deleted;
+    }
+
+    // every shard deletes up to limit rows above the shared cursor; the next
+    // cursor is the lowest last id among shards that still have more, so no
+    // shard skips a row (a shard that ran ahead just rescans a few dead ids)
+    @Override
+    public BulkDeleteChunk deleteUsersChunk(List<Long> ids, String emailDomain, LocalDateTime createdBefore,
+                                            long afterId, int limit) {
+
+        List<UserDTO> deleted = new ArrayList<>();
+        long next = Long.MAX_VALUE;
+        boolean exhausted = true;
+
+        for (UserRepository shard : shards) {
+            BulkDeleteChunk part = shard.deleteUsersChunk(ids, emailDomain, createdBefore, afterId, limit);
+
+            part.deleted().forEach(user -> directory.release(user.getEmail(), user.getId()));
+            deleted.addAll(part.deleted());
+
+            if (!part.exhausted()) {
+                exhausted = false;
+                next = Math.min(next, part.nextCursor());
+            }
+        }
+
+        deleted.sort(Comparator.comparing(UserDTO::getId));
+
+        if (exhausted) {
+            next = deleted.isEmpty() ? afterId : deleted.get(deleted.size() - 1).getId();
+        }
+
+        return new BulkDeleteChunk(deleted, next, exhausted);
+    }
+
+    // -------------------------------------------------------
+    // SCATTER-GATHER READS
+    // -------------------------------------------------------
+    @Override
+    public List<UserDTO> getAllUsers() {
+        List<List<UserDTO>> parts = scatter(UserRepository::getAllUsers);
+        return mergeSorted(parts, sortComparator("id", "asc"), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<UserDTO> getUsersAfterId(long afterId, int limit) {
+        List<List<UserDTO>> parts = scatter(shard -> shard.getUsersAfterId(afterId, limit));
+        return mergeSorted(parts, sortComparator("id", "asc"), 0, limit);
+    }
+
+    @Override
+    public List<UserDTO> getUsersPaginated(int page, int size, String sortBy, String direction) {
+
+        int limit = Math.max(1, size);
+        int offset = Math.max(0, page) * limit;
+
+        List<List<UserDTO>> parts = scatter(shard -> shard.getUsersPaginated(0, offset + limit, sortBy, direction));
+
+        return mergeSorted(parts, sortComparator(sortBy, direction), offset, limit);
+    }
+
+    @Override
+    public List<UserDTO> searchUsers(String query, int limit, int offset, String sortBy, String sortDir) {
+
+        List<List<UserDTO>> parts = scatter(shard -> shard.searchUsers(query, offset + limit, 0, sortBy, sortDir));
+
+        return mergeSorted(parts, sortComparator(sortBy, sortDir), offset, limit);
+    }
+
+    // the k-way merge needs the sort key of every row, so shards return full
+    // rows and the page is narrowed after the merge
+    @Override
+    public List<ProjectedUser> getUsersPaginated(int page, int size, String sortBy, String direction, UserFields fields) {
+        return getUsersPaginated(page, size, sortBy, direction).stream().map(fields::project).toList();
+    }
+
+    @Override
+    public List<UserDTO> searchUsers(String query, CreatedRange range, int limit, int offset,
+                                     String sortBy, String sortDir) {
+
+        List<List<UserDTO>> parts = scatter(shard -> shard.searchUsers(query, range, offset + limit, 0, sortBy, sortDir));
+
+        return mergeSorted(parts, sortComparator(sortBy, sortDir), offset, limit);
+    }
+
+    @Override
+    public List<ProjectedUser> searchUsers(String query, CreatedRange range, int limit, int offset,
+                                           String sortBy, String sortDir, UserFields fields) {
+        return searchUsers(query, range, limit, offset, sortBy, sortDir).stream().map(fields::project).toList();
+    }
+
+    private <T> List<T> scatter(Function<UserRepository, T> call) {
+
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> call.apply(shard), executor))
+                .toList();
+
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // -------------------------------------------------------
+    // K-WAY MERGE (heap holds one cursor per shard)
+    // -------------------------------------------------------
+    static List<UserDTO> mergeSorted(List<List<UserDTO>> parts, Comparator<UserDTO> comparator,
+                                     int offset, int limit) {
+
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, parts.size()),
+                (a, b) -> comparator.compare(parts.get(a[0]).get(a[1]), parts.get(b[0]).get(b[1])));
+
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty()) {
+                heap.add(new int[]{i, 0});
+            }
+        }
+
+        List<UserDTO> result = new ArrayList<>(Math.min(limit, 1024));
+        int skipped = 0;
+
+        while (!heap.isEmpty() && result.size() < limit) {
+            int[] cursor = heap.poll();
+            UserDTO next = parts.get(cursor[0]).get(cursor[1]);
+
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(next);
+            }
+
+            if (++cursor[1] < parts.get(cursor[0]).size()) {
+                heap.add(cursor);
+            }
+        }
+
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
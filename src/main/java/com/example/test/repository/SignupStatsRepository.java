@@ -0,0 +1,81 @@
+package com.example.test.repository;
+
+import com.example.test.dto.SignupStatsDTO.BucketCount;
+import com.example.test.dto.SignupStatsDTO.DomainCount;
+import com.example.test.dto.StatsBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads the signup rollups kept by create_signup_stats.sql. Every query is
+ * bounded by the number of days or domains asked for, never by the number of
+ * users. The rollups live on the default datasource and are not aggregated
+ * across shards.
+ */
+@Slf4j
+@Repository
+public class SignupStatsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SignupStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // -------------------------------------------------------
+    // SIGNUPS PER BUCKET (primary key range on user_signup_days)
+    // -------------------------------------------------------
+    public List<BucketCount> getSignups(StatsBucket bucket, LocalDate from, LocalDate to) {
+
+        String sql = """
+            SELECT date_trunc(?, day::timestamp)::date AS bucket_start, sum(signups) AS signups
+            FROM user_signup_days
+            WHERE day >= ? AND day < ?
+            GROUP BY 1
+            ORDER BY 1
+        """;
+
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new BucketCount(rs.getDate("bucket_start").toLocalDate(), rs.getLong("signups")),
+                bucket.sqlField(), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // -------------------------------------------------------
+    // TOP DOMAINS (index scan on idx_user_signup_domains_signups)
+    // -------------------------------------------------------
+    public List<DomainCount> getTopDomains(int limit) {
+
+        String sql = """
+            SELECT email_domain, signups
+            FROM user_signup_domains
+            WHERE signups > 0
+            ORDER BY signups DESC, email_domain
+            LIMIT ?
+        """;
+
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new DomainCount(rs.getString("email_domain"), rs.getLong("signups")),
+                limit);
+    }
+
+    public LocalDateTime getFoldedAt() {
+        Timestamp foldedAt = jdbcTemplate.queryForObject(
+                "SELECT max(folded_at) FROM user_signup_folded", Timestamp.class);
+        return foldedAt == null ? null : foldedAt.toLocalDateTime();
+    }
+
+    // -------------------------------------------------------
+    // FOLD TRIGGER DELTAS INTO THE ROLLUPS
+    // -------------------------------------------------------
+    public int foldDeltas(int limit) {
+        Integer folded = jdbcTemplate.queryForObject("SELECT fold_user_signup_deltas(?)", Integer.class, limit);
+        return folded == null ? 0 : folded;
+    }
+}
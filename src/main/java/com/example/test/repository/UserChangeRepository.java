@@ -0,0 +1,129 @@
+package com.example.test.repository;
+
+import com.example.test.dto.ChangeToken;
+import com.example.test.dto.UserChangeDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads the trigger-maintained user_changes log (create_user_changes.sql,
+ * create_change_feed.sql) joined with the current row or its tombstone.
+ *
+ * Changes are ordered by (tx_id, change_id) and only rows from transactions
+ * older than the current snapshot xmin are returned, so a token never skips
+ * a change that commits late. The log lives on the default datasource and
+ * is not aggregated across shards.
+ */
+@Slf4j
+@Repository
+public class UserChangeRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record ChangeEntry(ChangeToken token, UserChangeDTO change) {
+    }
+
+    private static final RowMapper<ChangeEntry> CHANGE_ROW_MAPPER = (rs, rowNum) -> {
+        ChangeToken token = new ChangeToken(rs.getLong("tx_id"), rs.getLong("change_id"));
+        long id = rs.getLong("user_id");
+
+        if (rs.getObject("user_version") == null) {
+            return new ChangeEntry(token, new UserChangeDTO(
+                    "DELETE", id, null, null, null, null, null, null,
+                    (Long) rs.getObject("tombstone_version"),
+                    toLocalDateTime(rs.getTimestamp("deleted_at"))));
+        }
+
+        return new ChangeEntry(token, new UserChangeDTO(
+                "UPSERT", id,
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")),
+                rs.getLong("user_version"),
+                null));
+    };
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+
+    // -------------------------------------------------------
+    // CHANGES AFTER A TOKEN
+    // -------------------------------------------------------
+    public List<ChangeEntry> getChangesSince(ChangeToken after, int limit) {
+
+        log.debug("Repository: Fetching up to {} changes after {}", limit, after);
+
+        String sql = """
+            SELECT c.tx_id, c.change_id, c.user_id,
+                   u.first_name, u.last_name, u.email, u.phone,
+                   u.created_at, u.updated_at, u.version AS user_version,
+                   t.version AS tombstone_version, t.deleted_at
+            FROM user_changes c
+            LEFT JOIN users u ON u.id = c.user_id
+            LEFT JOIN user_tombstones t ON t.user_id = c.user_id
+            WHERE (c.tx_id, c.change_id) > (?, ?)
+              AND c.tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+            ORDER BY c.tx_id, c.change_id
+            LIMIT ?
+        """;
+
+        return jdbcTemplate.query(sql, CHANGE_ROW_MAPPER, after.txId(), after.changeId(), limit);
+    }
+
+    // -------------------------------------------------------
+    // HEAD TOKEN (pair with a full download to bootstrap)
+    // -------------------------------------------------------
+    public ChangeToken getHeadToken() {
+        Long xmin = jdbcTemplate.queryForObject(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+        return new ChangeToken(xmin == null ? 0 : xmin - 1, Long.MAX_VALUE);
+    }
+
+    // -------------------------------------------------------
+    // RETENTION
+    // -------------------------------------------------------
+    // last (tx_id, change_id) removed by retention, START if nothing was pruned
+    public ChangeToken getPrunedHorizon() {
+        List<ChangeToken> horizon = jdbcTemplate.query(
+                "SELECT up_to_tx_id, up_to_change_id FROM user_changes_pruned WHERE id = 1",
+                (rs, rowNum) -> new ChangeToken(rs.getLong("up_to_tx_id"), rs.getLong("up_to_change_id")));
+        return horizon.isEmpty() ? ChangeToken.START : horizon.get(0);
+    }
+
+    public int pruneOlderThan(LocalDateTime cutoff) {
+
+        log.info("Repository: Pruning user changes older than {}", cutoff);
+
+        Integer pruned = jdbcTemplate.queryForObject("""
+            WITH pruned AS (
+                DELETE FROM user_changes WHERE changed_at < ? RETURNING tx_id, change_id
+            ), last_pruned AS (
+                SELECT tx_id, change_id FROM pruned ORDER BY tx_id DESC, change_id DESC LIMIT 1
+            ), horizon AS (
+                UPDATE user_changes_pruned p
+                SET up_to_tx_id = l.tx_id, up_to_change_id = l.change_id
+                FROM last_pruned l
+                WHERE p.id = 1 AND (l.tx_id, l.change_id) > (p.up_to_tx_id, p.up_to_change_id)
+            )
+            SELECT count(*) FROM pruned
+        """, Integer.class, Timestamp.valueOf(cutoff));
+
+        jdbcTemplate.update("DELETE FROM user_tombstones WHERE deleted_at < ?", Timestamp.valueOf(cutoff));
+
+        return pruned == null ? 0 : pruned;
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.test.repository;
 
+import com.example.test.dto.CreatedRange;
+import com.example.test.dto.PhoneNumbers;
+import com.example.test.dto.ProjectedUser;
 import com.example.test.dto.UserCreateRequest;
 import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserFields;
+import com.example.test.dto.UserPatchRequest;
 import com.example.test.dto.UserUpdateRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -12,7 +17,9 @@ import org.springframework.jdbc.core.simple.SimpleJdbcCall;
 import org.springframework.stereotype.Repository;
 
 import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Slf4j
@@ -29,6 +36,8 @@ public class UserRepository {
     // -------------------------------------------------------
     // COMMON MAPPER FOR VIEWS
     // -------------------------------------------------------
+    private static final String FULL_SELECT_LIST = "id, first_name, last_name, email, phone, created_at";
+
     private static final RowMapper<UserDTO> USER_ROW_MAPPER = (rs, rowNum) ->
             new UserDTO(
                     rs.getLong("id"),
@@ -54,6 +63,7 @@ public class UserRepository {
                         new SqlParameter("p_last_name", Types.VARCHAR),
                         new SqlParameter("p_email", Types.VARCHAR),
                         new SqlParameter("p_phone", Types.VARCHAR),
+                        new SqlParameter("p_id", Types.BIGINT),
                         new SqlOutParameter("new_id", Types.BIGINT)
                 );
 
@@ -64,15 +74,22 @@ public class UserRepository {
     // CREATE USER (STORED PROCEDURE)
     // -------------------------------------------------------
     public Long createUserUsingProcedure(UserCreateRequest req) {
+        return createUserUsingProcedure(null, req);
+    }
+
+    // id == null lets the procedure draw from users_id_seq;
+    // returns null when the email is taken (ON CONFLICT DO NOTHING)
+    public Long createUserUsingProcedure(Long id, UserCreateRequest req) {
 
-        log.info("Repository: Calling create_user_procedure for email={}", req.getEmail());
+        log.info("Repository: Calling create_user_procedure for email={}, id={}", req.getEmail(), id);
 
-        Map<String, Object> params = Map.of(
-                "p_first_name", req.getFirstName(),
-                "p_last_name", req.getLastName(),
-                "p_email", req.getEmail(),
-                "p_phone", req.getPhone()
-        );
+        // HashMap: phone and id may be null
+        Map<String, Object> params = new HashMap<>();
+        params.put("p_first_name", req.getFirstName());
+        params.put("p_last_name", req.getLastName());
+        params.put("p_email", req.getEmail());
+        params.put("p_phone", req.getPhone());
+        params.put("p_id", id);
 
         log.debug("Repository: Stored procedure input parameters = {}", params);
 
@@ -92,7 +109,7 @@ public class UserRepository {
     // GET ALL USERS (VIEW)
     // -------------------------------------------------------
     public List<UserDTO> getAllUsers() {
-        String sql = "SELECT id, first_name, last_name, email, phone, created_at FROM view_all_users";
+        String sql = "SELECT id, first_name, last_name, email, phone, created_at FROM view_all_users ORDER BY id";
 
         log.info("Repository: Fetching all users (non-paginated)");
 
@@ -102,6 +119,16 @@ public class UserRepository {
         return list;
     }
 
+    // -------------------------------------------------------
+    // KEYSET PAGE BY ID (VIEW) — full loads without holding every user at once
+    // -------------------------------------------------------
+    public List<UserDTO> getUsersAfterId(long afterId, int limit) {
+        String sql = "SELECT id, first_name, last_name, email, phone, created_at FROM view_all_users "
+                + "WHERE id > ? ORDER BY id LIMIT ?";
+
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, afterId, limit);
+    }
+
     // -------------------------------------------------------
     // GET USER BY ID (VIEW)
     // -------------------------------------------------------
@@ -126,6 +153,73 @@ public class UserRepository {
         return list.stream().findFirst();
     }
 
+    // projected (?fields=): only the requested columns are selected and mapped
+    public Optional<ProjectedUser> getUserById(Long id, UserFields fields) {
+
+        log.info("Repository: Fetching user by ID={} fields={}", id, fields);
+
+        String sql = "SELECT " + fields.selectList() + " FROM view_user_details WHERE id = ?";
+
+        return jdbcTemplate.query(sql, fields.rowMapper(), id).stream().findFirst();
+    }
+
+    // -------------------------------------------------------
+    // GET USERS BY IDS (VIEW)
+    // -------------------------------------------------------
+    public List<UserDTO> getUsersByIds(Collection<Long> ids) {
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        log.info("Repository: Fetching {} users by ID", ids.size());
+
+        String sql = """
+            SELECT id, first_name, last_name, email, phone, created_at
+            FROM view_user_details
+            WHERE id = ANY(?)
+        """;
+
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, (Object) ids.toArray(new Long[0]));
+    }
+
+    // -------------------------------------------------------
+    // EXACT LOOKUP BY EMAIL (idx_users_email_lower, exact spelling first)
+    // -------------------------------------------------------
+    public Optional<UserDTO> getUserByEmail(String email) {
+
+        log.info("Repository: Fetching user by email={}", email);
+
+        String sql = """
+            SELECT id, first_name, last_name, email, phone, created_at
+            FROM view_user_details
+            WHERE lower(email) = lower(?)
+            ORDER BY (email = ?) DESC, id
+            LIMIT 1
+        """;
+
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, email, email).stream().findFirst();
+    }
+
+    // -------------------------------------------------------
+    // EXACT LOOKUP BY PHONE (idx_users_phone_e164; e164 from PhoneNumbers)
+    // -------------------------------------------------------
+    public List<UserDTO> getUsersByPhone(String e164, int limit) {
+
+        log.info("Repository: Fetching users by phone={}", e164);
+
+        // the expression must match the index literally, so the country code is not a bind parameter
+        String sql = """
+            SELECT id, first_name, last_name, email, phone, created_at
+            FROM view_user_details
+            WHERE normalize_phone_e164(phone, '%s') = ?
+            ORDER BY id
+            LIMIT ?
+        """.formatted(PhoneNumbers.DEFAULT_COUNTRY_CODE);
+
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, e164, limit);
+    }
+
     // -------------------------------------------------------
     // CHECK DUPLICATE EMAIL (FOR UPDATE)
     // -------------------------------------------------------
@@ -150,7 +244,8 @@ public class UserRepository {
 
         String sql = """
             UPDATE users
-            SET first_name = ?, last_name = ?, email = ?, phone = ?
+            SET first_name = ?, last_name = ?, email = ?, phone = ?,
+                version = version + 1, updated_at = CURRENT_TIMESTAMP
             WHERE id = ?
         """;
 
@@ -166,13 +261,80 @@ public class UserRepository {
         return rows > 0;
     }
 
+    // -------------------------------------------------------
+    // PATCH USER (only the supplied columns, optional version check)
+    // -------------------------------------------------------
+    public record VersionedUser(UserDTO user, long version) {
+    }
+
+    private static final RowMapper<VersionedUser> VERSIONED_USER_MAPPER = (rs, rowNum) ->
+            new VersionedUser(USER_ROW_MAPPER.mapRow(rs, rowNum), rs.getLong("version"));
+
+    // empty when the id is unknown or expectedVersion no longer matches
+    public Optional<VersionedUser> patchUser(Long id, UserPatchRequest req, Long expectedVersion) {
+
+        log.info("Repository: Patching user ID={} fields={} expectedVersion={}", id, req, expectedVersion);
+
+        List<String> sets = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
+        if (req.has("firstName")) {
+            sets.add("first_name = ?");
+            args.add(req.getFirstName());
+        }
+        if (req.has("lastName")) {
+            sets.add("last_name = ?");
+            args.add(req.getLastName());
+        }
+        if (req.has("email")) {
+            sets.add("email = ?");
+            args.add(req.getEmail());
+        }
+        if (req.has("phone")) {
+            sets.add("phone = ?");
+            args.add(req.getPhone());
+        }
+        sets.add("version = version + 1");
+        sets.add("updated_at = CURRENT_TIMESTAMP");
+
+        args.add(id);
+        String where = "WHERE id = ?";
+        if (expectedVersion != null) {
+            where += " AND version = ?";
+            args.add(expectedVersion);
+        }
+
+        String sql = "UPDATE users SET " + String.join(", ", sets) + " " + where
+                + " RETURNING id, first_name, last_name, email, phone, created_at, version";
+
+        List<VersionedUser> rows = jdbcTemplate.query(sql, VERSIONED_USER_MAPPER, args.toArray());
+
+        log.debug("Repository: Rows affected during patch = {}", rows.size());
+
+        return rows.stream().findFirst();
+    }
+
+    public Optional<Long> getVersion(Long id) {
+        List<Long> versions = jdbcTemplate.queryForList("SELECT version FROM users WHERE id = ?", Long.class, id);
+        return versions.stream().findFirst();
+    }
+
     // -------------------------------------------------------
     // DELETE USER
     // -------------------------------------------------------
     public boolean deleteUser(Long id) {
         log.info("Repository: Deleting user ID={}", id);
 
-        String sql = "DELETE FROM users WHERE id = ?";
+        // tombstone keeps the delete visible to the change feed (create_change_feed.sql)
+        String sql = """
+            WITH deleted AS (
+                DELETE FROM users WHERE id = ? RETURNING id, version
+            )
+            INSERT INTO user_tombstones (user_id, version, deleted_at)
+            SELECT id, version + 1, CURRENT_TIMESTAMP FROM deleted
+            ON CONFLICT (user_id) DO UPDATE
+            SET version = EXCLUDED.version, deleted_at = EXCLUDED.deleted_at
+        """;
         int rows = jdbcTemplate.update(sql, id);
 
         log.debug("Repository: Rows affected during delete = {}", rows);
@@ -180,10 +342,73 @@ public class UserRepository {
         return rows > 0;
     }
 
+    // -------------------------------------------------------
+    // BULK DELETE CHUNK (keyset on id, one short transaction per call)
+    // -------------------------------------------------------
+    /**
+     * deleted is in id order; nextCursor is the id to resume after and
+     * exhausted is true once nothing above it matches any more.
+     */
+    public record BulkDeleteChunk(List<UserDTO> deleted, long nextCursor, boolean exhausted) {
+    }
+
+    public BulkDeleteChunk deleteUsersChunk(List<Long> ids, String emailDomain, LocalDateTime createdBefore,
+                                            long afterId, int limit) {
+
+        List<String> where = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
+        where.add("id > ?");
+        args.add(afterId);
+
+        if (ids != null) {
+            where.add("id = ANY(?)");
+            args.add(ids.toArray(new Long[0]));
+        }
+        if (emailDomain != null) {
+            // matches idx_users_email_domain_id: (domain, id) index range, no scan past other domains
+            where.add("lower(split_part(email, '@', 2)) = ?");
+            args.add(emailDomain.toLowerCase());
+        }
+        if (createdBefore != null) {
+            where.add("created_at < ?");
+            args.add(Timestamp.valueOf(createdBefore));
+        }
+        args.add(limit);
+
+        // same tombstone as deleteUser, so the change feed reports every row
+        String sql = """
+            WITH victims AS (
+                SELECT id FROM users
+                WHERE %s
+                ORDER BY id
+                LIMIT ?
+            ), deleted AS (
+                DELETE FROM users u USING victims v WHERE u.id = v.id
+                RETURNING u.id, u.first_name, u.last_name, u.email, u.phone, u.created_at, u.version
+            ), tombstones AS (
+                INSERT INTO user_tombstones (user_id, version, deleted_at)
+                SELECT id, version + 1, CURRENT_TIMESTAMP FROM deleted
+                ON CONFLICT (user_id) DO UPDATE
+                SET version = EXCLUDED.version, deleted_at = EXCLUDED.deleted_at
+            )
+            SELECT id, first_name, last_name, email, phone, created_at FROM deleted ORDER BY id
+        """.formatted(String.join(" AND ", where));
+
+        List<UserDTO> deleted = jdbcTemplate.query(sql, USER_ROW_MAPPER, args.toArray());
+
+        log.debug("Repository: Bulk delete chunk after ID={} removed {} users", afterId, deleted.size());
+
+        long next = deleted.isEmpty() ? afterId : deleted.get(deleted.size() - 1).getId();
+        return new BulkDeleteChunk(deleted, next, deleted.size() < limit);
+    }
+
 
     // -------------------------------------------------------
     // SORTING HELPERS
     // -------------------------------------------------------
+    private static final Set<String> TEXT_SORT_COLUMNS = Set.of("first_name", "last_name", "email", "phone");
+
     private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
             "id", "id",
             "firstName", "first_name",
@@ -201,6 +426,57 @@ public class UserRepository {
         return "desc".equalsIgnoreCase(direction) ? "DESC" : "ASC";
     }
 
+    // In-memory equivalent of orderByClause, used when merging sorted results
+    // (Postgres defaults: NULLS LAST for ASC, NULLS FIRST for DESC)
+    public static Comparator<UserDTO> sortComparator(String sortBy, String direction) {
+        Comparator<UserDTO> byId = Comparator.comparing(UserDTO::getId);
+        Comparator<String> text = Comparator.nullsLast(UserRepository::compareCodePoints);
+
+        Comparator<UserDTO> asc = switch (validateSortKey(sortBy)) {
+            case "firstName" -> Comparator.comparing(UserDTO::getFirstName, text).thenComparing(byId);
+            case "lastName" -> Comparator.comparing(UserDTO::getLastName, text).thenComparing(byId);
+            case "email" -> Comparator.comparing(UserDTO::getEmail, text).thenComparing(byId);
+            case "phone" -> Comparator.comparing(UserDTO::getPhone, text).thenComparing(byId);
+            case "createdAt" -> Comparator.comparing(UserDTO::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())).thenComparing(byId);
+            default -> byId;
+        };
+
+        return "desc".equalsIgnoreCase(direction) ? asc.reversed() : asc;
+    }
+
+    private static String validateSortKey(String sortBy) {
+        return SORTABLE_COLUMNS.containsKey(sortBy) ? sortBy : "id";
+    }
+
+    // COLLATE "C" orders by code point, the same on every database whatever its
+    // collation; String.compareTo orders by UTF-16 unit, which differs above U+FFFF
+    static int compareCodePoints(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        for (int i = 0; i < n; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                return Integer.compare(codePointRank(x), codePointRank(y));
+            }
+        }
+        return Integer.compare(a.length(), b.length());
+    }
+
+    // moves surrogates (U+D800..U+DFFF) above U+E000..U+FFFF, where their code points sort
+    private static int codePointRank(char c) {
+        return c >= 0xE000 ? c - 0x800 : c >= 0xD800 ? c + 0x2000 : c;
+    }
+
+    // id is appended as a tie-breaker so every ordering matches a (column COLLATE "C", id)
+    // index; text columns sort in byte order so shard merges and the snapshot agree with SQL
+    private String orderByClause(String sortCol, String dir) {
+        if ("id".equals(sortCol)) {
+            return "ORDER BY id " + dir;
+        }
+        String collate = TEXT_SORT_COLUMNS.contains(sortCol) ? " COLLATE \"C\"" : "";
+        return "ORDER BY " + sortCol + collate + " " + dir + ", id " + dir;
+    }
+
     // -------------------------------------------------------
     // PAGINATION + SORTING
     // -------------------------------------------------------
@@ -214,19 +490,33 @@ public class UserRepository {
 
         int offset = Math.max(0, page) * Math.max(1, size);
 
-        String sql = """
-            SELECT id, first_name, last_name, email, phone, created_at
-            FROM view_all_users
-            ORDER BY %s %s
-            LIMIT ? OFFSET ?
-        """.formatted(sortCol, dir);
-
-        List<UserDTO> list = jdbcTemplate.query(sql, USER_ROW_MAPPER, size, offset);
+        List<UserDTO> list = jdbcTemplate.query(pageSql(FULL_SELECT_LIST, sortCol, dir), USER_ROW_MAPPER, size, offset);
 
         log.debug("Repository: Paginated users returned {}", list.size());
         return list;
     }
 
+    public List<ProjectedUser> getUsersPaginated(int page, int size, String sortBy, String direction, UserFields fields) {
+
+        log.info("Repository: Paginated fetch page={}, size={}, sort={}, direction={}, fields={}",
+                page, size, sortBy, direction, fields);
+
+        int offset = Math.max(0, page) * Math.max(1, size);
+
+        return jdbcTemplate.query(pageSql(fields.selectList(), validateSortBy(sortBy), validateDirection(direction)),
+                fields.rowMapper(), size, offset);
+    }
+
+    // ORDER BY may use a column outside the select list, so projection never changes the page
+    private String pageSql(String selectList, String sortCol, String dir) {
+        return """
+            SELECT %s
+            FROM view_all_users
+            %s
+            LIMIT ? OFFSET ?
+        """.formatted(selectList, orderByClause(sortCol, dir));
+    }
+
     // -------------------------------------------------------
     // SEARCH + SORT + PAGINATION
     // -------------------------------------------------------
@@ -235,33 +525,74 @@ public class UserRepository {
         log.info("Repository: Searching users query='{}', limit={}, offset={}, sort={}, direction={}",
                 query, limit, offset, sortBy, sortDir);
 
+        List<Object> params = new ArrayList<>();
+        String sql = searchSql(FULL_SELECT_LIST, query, null, limit, offset, sortBy, sortDir, params);
+
+        log.debug("Repository: Executing search SQL = {}", sql);
+
+        List<UserDTO> result = jdbcTemplate.query(sql, USER_ROW_MAPPER, params.toArray());
+
+        log.debug("Repository: Search returned {} users", result.size());
+        return result;
+    }
+
+    // query and range are both optional; created_at bounds use the BRIN / (created_at, id) indexes
+    public List<UserDTO> searchUsers(String query, CreatedRange range, int limit, int offset,
+                                     String sortBy, String sortDir) {
+
+        log.info("Repository: Searching users query='{}', created={}, limit={}, offset={}, sort={}, direction={}",
+                query, range, limit, offset, sortBy, sortDir);
+
+        List<Object> params = new ArrayList<>();
+        String sql = searchSql(FULL_SELECT_LIST, query, range, limit, offset, sortBy, sortDir, params);
+
+        return jdbcTemplate.query(sql, USER_ROW_MAPPER, params.toArray());
+    }
+
+    public List<ProjectedUser> searchUsers(String query, CreatedRange range, int limit, int offset,
+                                           String sortBy, String sortDir, UserFields fields) {
+
+        log.info("Repository: Searching users query='{}', created={}, limit={}, offset={}, sort={}, direction={}, fields={}",
+                query, range, limit, offset, sortBy, sortDir, fields);
+
+        List<Object> params = new ArrayList<>();
+        String sql = searchSql(fields.selectList(), query, range, limit, offset, sortBy, sortDir, params);
+
+        return jdbcTemplate.query(sql, fields.rowMapper(), params.toArray());
+    }
+
+    private String searchSql(String selectList, String query, CreatedRange range, int limit, int offset,
+                             String sortBy, String sortDir, List<Object> params) {
+
         String sortCol = validateSortBy(sortBy);
         String dir = validateDirection(sortDir);
 
         String q = (query == null || query.isBlank()) ? null : "%" + query.toLowerCase() + "%";
 
-        String where = (q != null)
-                ? "WHERE lower(first_name) LIKE ? OR lower(last_name) LIKE ? OR lower(email) LIKE ? "
-                : "";
+        List<String> conditions = new ArrayList<>();
+        if (q != null) {
+            conditions.add("(lower(first_name) LIKE ? OR lower(last_name) LIKE ? OR lower(email) LIKE ?)");
+            params.addAll(List.of(q, q, q));
+        }
+        if (range != null && range.from() != null) {
+            conditions.add("created_at >= ?");
+            params.add(Timestamp.valueOf(range.from()));
+        }
+        if (range != null && range.to() != null) {
+            conditions.add("created_at < ?");
+            params.add(Timestamp.valueOf(range.to()));
+        }
 
-        List<Object> params = new ArrayList<>();
-        if (q != null) params.addAll(List.of(q, q, q));
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
 
         params.add(limit);
         params.add(offset);
 
-        String sql = """
-            SELECT id, first_name, last_name, email, phone, created_at
+        return """
+            SELECT %s
             FROM view_all_users
-        """ + where +
-                "ORDER BY " + sortCol + " " + dir + " LIMIT ? OFFSET ?";
-
-        log.debug("Repository: Executing search SQL = {}", sql);
-
-        List<UserDTO> result = jdbcTemplate.query(sql, params.toArray(), USER_ROW_MAPPER);
-
-        log.debug("Repository: Search returned {} users", result.size());
-        return result;
+        """.formatted(selectList) + where +
+                orderByClause(sortCol, dir) + " LIMIT ? OFFSET ?";
     }
 
 }
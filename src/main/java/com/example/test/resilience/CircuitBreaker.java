@@ -0,0 +1,170 @@
+package com.example.test.resilience;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * CLOSED records the outcome of the last {@code windowSize} calls and opens
+ * once at least {@code minimumCalls} have been seen and either the failure
+ * rate or the slow-call rate reaches its threshold. OPEN rejects calls for
+ * {@code openMillis}, then HALF_OPEN lets one trial call through at a time;
+ * {@code halfOpenSuccesses} successes in a row close it, any failure (or
+ * slow call) opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openMillis;
+    private final int halfOpenSuccesses;
+    private final LongSupplier clock;
+
+    // outcome ring: 0 = ok, 1 = slow, 2 = failed
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+    private int trialSuccesses;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long slowCallMillis, double slowCallRateThreshold,
+                          long openMillis, int halfOpenSuccesses, LongSupplier clock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallMillis * 1_000_000;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openMillis = openMillis;
+        this.halfOpenSuccesses = halfOpenSuccesses;
+        this.clock = clock;
+        this.outcomes = new byte[windowSize];
+    }
+
+    // -------------------------------------------------------
+    // PERMISSION
+    // -------------------------------------------------------
+
+    /**
+     * @return true if the caller may go to the database; it must then report
+     *         {@link #onSuccess} or {@link #onFailure}
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED -> {
+                return true;
+            }
+            case OPEN -> {
+                if (clock.getAsLong() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialSuccesses = 0;
+                trialInFlight = true;
+                return true;
+            }
+            default -> {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            }
+        }
+    }
+
+    /** Whether writes should be rejected without trying (open and not yet due for a trial). */
+    public synchronized boolean isRejecting() {
+        return state == State.OPEN && clock.getAsLong() - openedAt < openMillis
+                || state == State.HALF_OPEN;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long retryAfterMillis() {
+        return state == State.OPEN ? Math.max(0, openMillis - (clock.getAsLong() - openedAt)) : 0;
+    }
+
+    // -------------------------------------------------------
+    // OUTCOMES
+    // -------------------------------------------------------
+    public synchronized void onSuccess(long elapsedNanos) {
+        boolean slow = elapsedNanos >= slowCallNanos;
+
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            if (slow) {
+                open();
+            } else if (++trialSuccesses >= halfOpenSuccesses) {
+                close();
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(slow ? (byte) 1 : (byte) 0);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record((byte) 2);
+        }
+    }
+
+    private void record(byte outcome) {
+        if (recorded == windowSize) {
+            byte evicted = outcomes[next];
+            if (evicted == 1) {
+                slowCalls--;
+            } else if (evicted == 2) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+
+        outcomes[next] = outcome;
+        next = (next + 1) % windowSize;
+        if (outcome == 1) {
+            slowCalls++;
+        } else if (outcome == 2) {
+            failures++;
+        }
+
+        if (recorded >= minimumCalls
+                && ((double) failures / recorded >= failureRateThreshold
+                || (double) slowCalls / recorded >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.test.resilience;
+
+import com.example.test.exception.DatabaseUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and stale-while-revalidate fallback for user reads.
+ *
+ * Every database read goes through {@link #read}. Results are remembered
+ * per key (bounded LRU). When the breaker is open, or the read fails with a
+ * connectivity/transient error, the last known result is returned instead
+ * and the request is marked stale ({@link StaleResponseAdvice} turns that
+ * into response headers); the key is queued for revalidation. A background
+ * thread re-runs queued reads whenever the breaker lets a call through, so
+ * recovery is probed without user traffic and caches are refreshed as
+ * soon as the database is back.
+ *
+ * Writes call {@link #ensureWritable} and fail fast with 503 while open.
+ */
+@Slf4j
+@Component
+public class DatabaseGuard {
+
+    public static final String STALE_ATTRIBUTE = DatabaseGuard.class.getName() + ".STALE";
+
+    private record Remembered(Object value, long storedAtMillis) {
+    }
+
+    private final boolean enabled;
+    private final long maxStaleMs;
+    private final int revalidateBatch;
+    private final long revalidateMs;
+    private final CircuitBreaker breaker;
+
+    private final Map<String, Remembered> lastKnown;
+    private final Map<String, Supplier<?>> pendingRevalidation = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    private ScheduledExecutorService revalidator;
+
+    public DatabaseGuard(@Value("${app.circuit-breaker.enabled:true}") boolean enabled,
+                         @Value("${app.circuit-breaker.window-size:50}") int windowSize,
+                         @Value("${app.circuit-breaker.minimum-calls:20}") int minimumCalls,
+                         @Value("${app.circuit-breaker.failure-rate:0.5}") double failureRate,
+                         @Value("${app.circuit-breaker.slow-call-ms:2000}") long slowCallMs,
+                         @Value("${app.circuit-breaker.slow-call-rate:0.8}") double slowCallRate,
+                         @Value("${app.circuit-breaker.open-ms:10000}") long openMs,
+                         @Value("${app.circuit-breaker.half-open-successes:3}") int halfOpenSuccesses,
+                         @Value("${app.circuit-breaker.stale-max-entries:1000}") int maxEntries,
+                         @Value("${app.circuit-breaker.stale-max-age-ms:3600000}") long maxStaleMs,
+                         @Value("${app.circuit-breaker.revalidate-ms:1000}") long revalidateMs,
+                         @Value("${app.circuit-breaker.revalidate-batch:50}") int revalidateBatch) {
+        this.enabled = enabled;
+        this.maxStaleMs = maxStaleMs;
+        this.revalidateMs = revalidateMs;
+        this.revalidateBatch = revalidateBatch;
+        this.maxEntries = maxEntries;
+        this.breaker = new CircuitBreaker(windowSize, minimumCalls, failureRate, slowCallMs, slowCallRate,
+                openMs, halfOpenSuccesses, System::currentTimeMillis);
+        this.lastKnown = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Remembered> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    // -------------------------------------------------------
+    // READS
+    // -------------------------------------------------------
+
+    /**
+     * Runs {@code query} under the breaker and remembers its result under
+     * {@code key}; falls back to the remembered result.
+     */
+    public <T> T read(String key, Supplier<T> query) {
+        return read(key, query, null);
+    }
+
+    /**
+     * Like {@link #read(String, Supplier)}, but the stale copy comes from
+     * {@code fallback} (e.g. a cache that already holds the value) and
+     * nothing is remembered here.
+     */
+    public <T> T read(String key, Supplier<T> query, Supplier<T> fallback) {
+        if (!enabled) {
+            return query.get();
+        }
+
+        if (!breaker.tryAcquire()) {
+            log.debug("Circuit open, serving {} from last known result", key);
+            return stale(key, query, fallback);
+        }
+
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = query.get();
+        } catch (DataAccessException e) {
+            if (!isOutage(e)) {
+                breaker.onSuccess(System.nanoTime() - start);
+                throw e;
+            }
+            breaker.onFailure();
+            log.warn("Read {} failed ({}), circuit {}", key, e.getClass().getSimpleName(), breaker.state());
+            return stale(key, query, fallback);
+        } catch (RuntimeException e) {
+            // a bug in the query or its mapper is no outage, but it must still settle
+            // the call, or a half-open trial would hold its permit forever
+            breaker.onSuccess(System.nanoTime() - start);
+            throw e;
+        }
+
+        breaker.onSuccess(System.nanoTime() - start);
+        if (fallback == null && result != null) {
+            lastKnown.put(key, new Remembered(result, System.currentTimeMillis()));
+        }
+        return result;
+    }
+
+    private <T> T stale(String key, Supplier<T> query, Supplier<T> fallback) {
+        T value = fallback != null ? fallback.get() : remembered(key);
+
+        if (value == null) {
+            throw new DatabaseUnavailableException("Database unavailable, no cached copy of this resource",
+                    retryAfterSeconds());
+        }
+
+        if (pendingRevalidation.size() < maxEntries) {
+            pendingRevalidation.putIfAbsent(key, query);
+        }
+        markStale();
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T remembered(String key) {
+        Remembered r = lastKnown.get(key);
+        if (r == null || System.currentTimeMillis() - r.storedAtMillis() > maxStaleMs) {
+            return null;
+        }
+        return (T) r.value();
+    }
+
+    // connectivity, timeouts and failover errors; not bad SQL or constraint violations
+    static boolean isOutage(DataAccessException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException;
+    }
+
+    private static void markStale() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(STALE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    // -------------------------------------------------------
+    // WRITES
+    // -------------------------------------------------------
+    public void ensureWritable() {
+        if (enabled && breaker.isRejecting()) {
+            throw new DatabaseUnavailableException("Database unavailable, writes are temporarily rejected",
+                    retryAfterSeconds());
+        }
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(breaker.retryAfterMillis() + 999));
+    }
+
+    public CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    // -------------------------------------------------------
+    // BACKGROUND REVALIDATION
+    // -------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRevalidation() {
+        if (!enabled) {
+            return;
+        }
+        revalidator = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stale-revalidate");
+            t.setDaemon(true);
+            return t;
+        });
+        revalidator.scheduleWithFixedDelay(this::revalidate, revalidateMs, revalidateMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Re-runs up to revalidate-batch queued reads, stopping at the first one
+     * the breaker refuses or that fails.
+     */
+    void revalidate() {
+        if (pendingRevalidation.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(revalidateBatch);
+        Iterator<String> it = pendingRevalidation.keySet().iterator();
+        while (it.hasNext() && keys.size() < revalidateBatch) {
+            keys.add(it.next());
+        }
+
+        int refreshed = 0;
+        for (String key : keys) {
+            Supplier<?> query = pendingRevalidation.get(key);
+            if (query == null || !breaker.tryAcquire()) {
+                break;
+            }
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = query.get();
+            } catch (DataAccessException e) {
+                if (isOutage(e)) {
+                    breaker.onFailure();
+                    break;
+                }
+                breaker.onSuccess(System.nanoTime() - start);
+                pendingRevalidation.remove(key);
+                continue;
+            } catch (RuntimeException e) {
+                breaker.onSuccess(System.nanoTime() - start);
+                pendingRevalidation.remove(key);
+                continue;
+            }
+
+            breaker.onSuccess(System.nanoTime() - start);
+            pendingRevalidation.remove(key);
+            if (result != null && lastKnown.containsKey(key)) {
+                lastKnown.put(key, new Remembered(result, System.currentTimeMillis()));
+            }
+            refreshed++;
+        }
+
+        if (refreshed > 0) {
+            log.info("Revalidated {} stale reads, {} still pending, circuit {}",
+                    refreshed, pendingRevalidation.size(), breaker.state());
+        }
+    }
+
+    int pendingRevalidations() {
+        return pendingRevalidation.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (revalidator != null) {
+            revalidator.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.test.search;
+
+import com.example.test.dto.UserDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable n-gram index over first name, last name and email.
+ *
+ * Text is split into lower-cased letter/digit tokens ("ann.lee@x.com" ->
+ * ann, lee, x, com). Every token contributes its trigrams plus "^a" / "^an"
+ * prefix grams, so fragments of three or more characters match anywhere in
+ * a token and shorter ones match token prefixes. Postings are sorted doc
+ * slots stored as delta-encoded varints.
+ */
+final class InvertedIndex {
+
+    private static final int GRAM = 3;
+
+    private record Posting(int count, byte[] deltas) {
+    }
+
+    private final UserDTO[] docs;
+    private final Map<String, Posting> postings;
+    private final long postingBytes;
+
+    private InvertedIndex(UserDTO[] docs, Map<String, Posting> postings, long postingBytes) {
+        this.docs = docs;
+        this.postings = postings;
+        this.postingBytes = postingBytes;
+    }
+
+    // -------------------------------------------------------
+    // TEXT
+    // -------------------------------------------------------
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String t : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!t.isEmpty()) {
+                tokens.add(t);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> grams(String token) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int len = 1; len < GRAM && len <= token.length(); len++) {
+            grams.add("^" + token.substring(0, len));
+        }
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static List<String> queryGrams(String fragment) {
+        if (fragment.length() < GRAM) {
+            return List.of("^" + fragment);
+        }
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= fragment.length(); i++) {
+            grams.add(fragment.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // -------------------------------------------------------
+    // RELEVANCE
+    // -------------------------------------------------------
+    /**
+     * Sum over fragments of the best match: exact token 3, token prefix 2,
+     * inside a token 1 (three characters or more); names weigh twice the
+     * email. 0 when any fragment is missing.
+     */
+    static int score(UserDTO doc, List<String> fragments) {
+        List<String> first = tokens(doc.getFirstName());
+        List<String> last = tokens(doc.getLastName());
+        List<String> email = tokens(doc.getEmail());
+
+        int total = 0;
+        for (String fragment : fragments) {
+            int best = Math.max(2 * best(first, fragment), Math.max(2 * best(last, fragment), best(email, fragment)));
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int best(List<String> tokens, String fragment) {
+        int best = 0;
+        for (String token : tokens) {
+            if (token.equals(fragment)) {
+                return 3;
+            }
+            if (token.startsWith(fragment)) {
+                best = 2;
+            } else if (best == 0 && fragment.length() >= GRAM && token.contains(fragment)) {
+                best = 1;
+            }
+        }
+        return best;
+    }
+
+    // -------------------------------------------------------
+    // BUILD
+    // -------------------------------------------------------
+    static InvertedIndex build(List<UserDTO> users) {
+        Builder builder = new Builder();
+        users.forEach(builder::add);
+        return builder.build();
+    }
+
+    /** Takes users one at a time, growing the postings as they arrive. */
+    static final class Builder {
+
+        private static final class Slots {
+            int[] slots = new int[4];
+            int size;
+        }
+
+        private final List<UserDTO> docs = new ArrayList<>();
+        private final Map<String, Slots> growing = new HashMap<>();
+
+        void add(UserDTO doc) {
+            int slot = docs.size();
+            docs.add(doc);
+
+            Set<String> docGrams = new LinkedHashSet<>();
+            for (String field : new String[]{doc.getFirstName(), doc.getLastName(), doc.getEmail()}) {
+                for (String token : tokens(field)) {
+                    docGrams.addAll(grams(token));
+                }
+            }
+            for (String gram : docGrams) {
+                Slots g = growing.computeIfAbsent(gram, k -> new Slots());
+                if (g.size == g.slots.length) {
+                    g.slots = Arrays.copyOf(g.slots, g.size * 2);
+                }
+                g.slots[g.size++] = slot;     // slots arrive in ascending order
+            }
+        }
+
+        InvertedIndex build() {
+            Map<String, Posting> postings = new HashMap<>(growing.size() * 2);
+            long bytes = 0;
+            for (Map.Entry<String, Slots> e : growing.entrySet()) {
+                Slots g = e.getValue();
+                byte[] deltas = encode(g.slots, g.size);
+                postings.put(e.getKey(), new Posting(g.size, deltas));
+                bytes += deltas.length;
+            }
+
+            return new InvertedIndex(docs.toArray(new UserDTO[0]), postings, bytes);
+        }
+    }
+
+    // -------------------------------------------------------
+    // LOOKUP
+    // -------------------------------------------------------
+    int size() {
+        return docs.length;
+    }
+
+    UserDTO doc(int slot) {
+        return docs[slot];
+    }
+
+    int grams() {
+        return postings.size();
+    }
+
+    long postingBytes() {
+        return postingBytes;
+    }
+
+    /** Slots that contain every gram of every fragment (still to be verified by {@link #score}). */
+    int[] candidates(List<String> fragments) {
+        List<Posting> lists = new ArrayList<>();
+        for (String fragment : fragments) {
+            for (String gram : queryGrams(fragment)) {
+                Posting p = postings.get(gram);
+                if (p == null) {
+                    return new int[0];
+                }
+                lists.add(p);
+            }
+        }
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+
+        lists.sort(Comparator.comparingInt(Posting::count));
+
+        int[] result = decode(lists.get(0));
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    // -------------------------------------------------------
+    // POSTING CODEC (delta + unsigned LEB128 varint)
+    // -------------------------------------------------------
+    static byte[] encode(int[] slots, int count) {
+        byte[] out = new byte[count * 5];
+        int pos = 0;
+        int prev = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = slots[i] - prev;
+            prev = slots[i];
+            while ((delta & ~0x7F) != 0) {
+                out[pos++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out[pos++] = (byte) delta;
+        }
+        return Arrays.copyOf(out, pos);
+    }
+
+    private static int[] decode(Posting p) {
+        int[] slots = new int[p.count()];
+        byte[] in = p.deltas();
+        int pos = 0;
+        int prev = 0;
+        for (int i = 0; i < slots.length; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            prev += delta;
+            slots[i] = prev;
+        }
+        return slots;
+    }
+
+    static int[] decode(byte[] deltas, int count) {
+        return decode(new Posting(count, deltas));
+    }
+
+    // streams the posting without materializing it
+    private static int[] intersect(int[] sorted, Posting p) {
+        int[] out = new int[sorted.length];
+        int n = 0;
+        int i = 0;
+        byte[] in = p.deltas();
+        int pos = 0;
+        int prev = 0;
+        for (int read = 0; read < p.count() && i < sorted.length; read++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            prev += delta;
+
+            while (i < sorted.length && sorted[i] < prev) {
+                i++;
+            }
+            if (i < sorted.length && sorted[i] == prev) {
+                out[n++] = prev;
+                i++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.test.search;
+
+import com.example.test.dto.UserDTO;
+import com.example.test.repository.UserRepository;
+import com.example.test.service.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relevance-ranked search from an in-memory {@link InvertedIndex}
+ * (app.search.backend=inverted-index).
+ *
+ * The index is rebuilt from the database in the background; users written
+ * through {@link com.example.test.service.UserService} in between are kept
+ * in a small overlay that is scored directly and shadows the stale rows.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "inverted-index")
+public class InvertedIndexSearchBackend implements UserSearchBackend {
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final UserRepository userRepository;
+    private final int maxPending;
+
+    private volatile InvertedIndex index;
+
+    // writes since the last rebuild; user == null marks a delete
+    private record Pending(long seq, UserDTO user) {
+    }
+
+    private record Scored(UserDTO user, int score) {
+    }
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong writeSeq = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    public InvertedIndexSearchBackend(UserRepository userRepository,
+                                      @Value("${app.search.max-pending:10000}") int maxPending) {
+        this.userRepository = userRepository;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public String name() {
+        return "inverted-index";
+    }
+
+    @Override
+    public boolean isReady() {
+        return index != null;
+    }
+
+    // -------------------------------------------------------
+    // SEARCH
+    // -------------------------------------------------------
+    @Override
+    public List<UserDTO> search(String query, String sortBy, String sortDir, int offset, int limit) {
+
+        InvertedIndex current = index;
+        List<String> fragments = InvertedIndex.tokens(query);
+        int wanted = Math.max(0, offset) + Math.max(0, limit);
+
+        if (current == null || fragments.isEmpty() || wanted == 0) {
+            return List.of();
+        }
+
+        // best first: higher score, then the requested sort column
+        Comparator<Scored> order = Comparator.comparingInt(Scored::score).reversed()
+                .thenComparing(Scored::user, UserRepository.sortComparator(sortBy, sortDir));
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(wanted + 1, order.reversed());
+
+        for (int slot : current.candidates(fragments)) {
+            UserDTO user = current.doc(slot);
+            if (!pending.containsKey(user.getId())) {
+                offer(top, wanted, user, fragments);
+            }
+        }
+        for (Pending p : pending.values()) {
+            if (p.user() != null) {
+                offer(top, wanted, p.user(), fragments);
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(order);
+
+        return ranked.stream()
+                .skip(Math.max(0, offset))
+                .map(Scored::user)
+                .toList();
+    }
+
+    private static void offer(PriorityQueue<Scored> top, int wanted, UserDTO user, List<String> fragments) {
+        int score = InvertedIndex.score(user, fragments);
+        if (score == 0) {
+            return;
+        }
+        top.offer(new Scored(user, score));
+        if (top.size() > wanted) {
+            top.poll();
+        }
+    }
+
+    // -------------------------------------------------------
+    // FOLLOW WRITES
+    // -------------------------------------------------------
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+
+        // the event carries the stored row (created_at included for tie-breaking)
+        UserDTO user = event.isDelete() ? null : event.user();
+
+        synchronized (writeLock) {
+            pending.put(event.id(), new Pending(writeSeq.incrementAndGet(), user));
+        }
+
+        if (pending.size() > maxPending) {
+            rebuildAsync();
+        }
+    }
+
+    // -------------------------------------------------------
+    // BACKGROUND REBUILD
+    // -------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuildAsync();
+    }
+
+    // only starts the loader: the shared scheduler thread must not wait for a full load
+    @Scheduled(fixedDelayString = "${app.search.rebuild-ms:600000}",
+            initialDelayString = "${app.search.rebuild-ms:600000}")
+    public void scheduledRebuild() {
+        rebuildAsync();
+    }
+
+    private void rebuildAsync() {
+        if (rebuilding.get()) {
+            return;
+        }
+        Thread loader = new Thread(this::rebuild, "user-search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+
+            // writes applied before the load are committed, so the load sees them
+            long loadedUpTo = writeSeq.get();
+            InvertedIndex.Builder builder = new InvertedIndex.Builder();
+            long afterId = Long.MIN_VALUE;
+            List<UserDTO> page;
+            do {
+                page = userRepository.getUsersAfterId(afterId, LOAD_PAGE_SIZE);
+                page.forEach(builder::add);
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+            InvertedIndex next = builder.build();
+
+            synchronized (writeLock) {
+                index = next;
+                pending.values().removeIf(p -> p.seq() <= loadedUpTo);
+            }
+
+            log.info("Search index: {} users / {} grams in {} ms ({} posting bytes)",
+                    next.size(), next.grams(), System.currentTimeMillis() - started, next.postingBytes());
+        } catch (Exception e) {
+            log.error("Search index: rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+}
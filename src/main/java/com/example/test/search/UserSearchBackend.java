@@ -0,0 +1,20 @@
+package com.example.test.search;
+
+import com.example.test.dto.UserDTO;
+
+import java.util.List;
+
+/**
+ * Alternative engine behind {@link com.example.test.service.UserService#getUsers}.
+ * Selected with app.search.backend; when no backend is configured or it is
+ * not ready yet, the service uses the SQL search.
+ */
+public interface UserSearchBackend {
+
+    String name();
+
+    boolean isReady();
+
+    /** Best matches first; ties broken by sortBy / sortDir. */
+    List<UserDTO> search(String query, String sortBy, String sortDir, int offset, int limit);
+}
@@ -0,0 +1,286 @@
+package com.example.test.service;
+
+import com.example.test.dto.BulkDeleteJobDTO;
+import com.example.test.dto.BulkDeleteRequest;
+import com.example.test.dto.UserDTO;
+import com.example.test.outbox.UserEventOutbox;
+import com.example.test.repository.BulkDeleteRepository;
+import com.example.test.repository.BulkDeleteRepository.ClaimedJob;
+import com.example.test.repository.UserRepository;
+import com.example.test.repository.UserRepository.BulkDeleteChunk;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background bulk deletes (POST /api/users/bulk-delete).
+ *
+ * A single worker thread per instance claims one job at a time and deletes
+ * it in chunks of chunkSize rows, each its own short transaction walking up
+ * the primary key. Between chunks it pauses, and backs off while standbys
+ * lag or the connection pool is busy, so foreground requests keep their
+ * connections and autovacuum / replicas keep up with the dead rows.
+ */
+@Slf4j
+@Service
+public class BulkDeleteService {
+
+    private final BulkDeleteRepository jobs;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HikariDataSource pool;
+    private final UserEventOutbox outbox;
+    private final TransactionOperations transactions;
+
+    private final int defaultChunkSize;
+    private final long pauseMs;
+    private final long backoffMs;
+    private final long maxReplicationLagMs;
+    private final double maxPoolUsage;
+    private final long leaseMs;
+    private final long pollMs;
+    private final boolean workerEnabled;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private volatile Thread worker;
+
+    public BulkDeleteService(BulkDeleteRepository jobs,
+                             UserRepository userRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             DataSource dataSource,
+                             UserEventOutbox outbox,
+                             TransactionOperations transactions,
+                             @Value("${app.bulk-delete.chunk-size:500}") int defaultChunkSize,
+                             @Value("${app.bulk-delete.pause-ms:50}") long pauseMs,
+                             @Value("${app.bulk-delete.backoff-ms:1000}") long backoffMs,
+                             @Value("${app.bulk-delete.max-replication-lag-ms:5000}") long maxReplicationLagMs,
+                             @Value("${app.bulk-delete.max-pool-usage:0.8}") double maxPoolUsage,
+                             @Value("${app.bulk-delete.lease-ms:60000}") long leaseMs,
+                             @Value("${app.bulk-delete.poll-ms:5000}") long pollMs,
+                             @Value("${app.bulk-delete.worker-enabled:true}") boolean workerEnabled) {
+        this.jobs = jobs;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.pool = hikari(dataSource);
+        this.outbox = outbox;
+        this.transactions = transactions;
+        this.defaultChunkSize = defaultChunkSize;
+        this.pauseMs = pauseMs;
+        this.backoffMs = backoffMs;
+        this.maxReplicationLagMs = maxReplicationLagMs;
+        this.maxPoolUsage = maxPoolUsage;
+        this.leaseMs = leaseMs;
+        this.pollMs = pollMs;
+        this.workerEnabled = workerEnabled;
+    }
+
+    // -------------------------------------------------------------
+    // SUBMIT / STATUS / CANCEL
+    // -------------------------------------------------------------
+    public BulkDeleteJobDTO submit(BulkDeleteRequest req) {
+
+        List<Long> ids = req.getIds() == null || req.getIds().isEmpty()
+                ? null
+                : req.getIds().stream().distinct().sorted().toList();
+        String domain = req.getEmailDomain() == null || req.getEmailDomain().isBlank()
+                ? null
+                : req.getEmailDomain().trim().toLowerCase();
+        int chunkSize = req.getChunkSize() != null ? req.getChunkSize() : defaultChunkSize;
+
+        long jobId = jobs.createJob(ids, domain, req.getCreatedBefore(), chunkSize);
+
+        log.info("Service: Queued bulk delete job ID={} ids={} emailDomain={} createdBefore={} chunkSize={}",
+                jobId, ids == null ? null : ids.size(), domain, req.getCreatedBefore(), chunkSize);
+
+        wakeUp.release();
+        return jobs.findJob(jobId).orElseThrow();
+    }
+
+    public Optional<BulkDeleteJobDTO> getJob(long jobId) {
+        return jobs.findJob(jobId);
+    }
+
+    // empty when the job does not exist; finished jobs are returned unchanged
+    public Optional<BulkDeleteJobDTO> cancel(long jobId) {
+
+        if (jobs.requestCancel(jobId)) {
+            log.info("Service: Cancellation requested for bulk delete job ID={}", jobId);
+        }
+        return jobs.findJob(jobId);
+    }
+
+    // -------------------------------------------------------------
+    // WORKER
+    // -------------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorker() {
+        if (!workerEnabled) {
+            log.info("Service: Bulk delete worker disabled on this instance");
+            return;
+        }
+        Thread t = new Thread(this::workLoop, "bulk-delete-worker");
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+    }
+
+    @PreDestroy
+    public void stopWorker() {
+        Thread t = worker;
+        worker = null;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    private void workLoop() {
+        while (worker == Thread.currentThread()) {
+            try {
+                Optional<ClaimedJob> job = jobs.claimNext(leaseMs);
+                if (job.isPresent()) {
+                    runJob(job.get());
+                } else {
+                    wakeUp.tryAcquire(pollMs, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Service: Bulk delete worker failed to poll for jobs: {}", e.getMessage());
+                sleepQuietly(pollMs);
+            }
+        }
+    }
+
+    // interrupted mid-job: the job stays RUNNING and is resumed from
+    // cursor_id by whichever instance claims it after the lease runs out
+    void runJob(ClaimedJob job) throws InterruptedException {
+
+        long jobId = job.jobId();
+        long cursor = job.cursorId();
+
+        log.info("Service: Running bulk delete job ID={} from cursor={}", jobId, cursor);
+
+        try {
+            if (jobs.heartbeat(jobId)) {
+                jobs.finish(jobId, "CANCELLED", null);
+                return;
+            }
+
+            while (true) {
+                if (waitForCapacity(jobId)) {
+                    jobs.finish(jobId, "CANCELLED", null);
+                    return;
+                }
+
+                long after = cursor;
+                BulkDeleteChunk chunk = transactions.execute(status -> {
+                    BulkDeleteChunk deleted = userRepository.deleteUsersChunk(
+                            job.ids(), job.emailDomain(), job.createdBefore(), after, job.chunkSize());
+                    for (UserDTO user : deleted.deleted()) {
+                        outbox.deleted(user.getId());
+                        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), null));
+                    }
+                    return deleted;
+                });
+
+                cursor = chunk.nextCursor();
+
+                boolean cancelRequested = jobs.recordChunk(jobId, cursor, chunk.deleted().size());
+
+                if (chunk.exhausted()) {
+                    jobs.finish(jobId, "COMPLETED", null);
+                    return;
+                }
+                if (cancelRequested) {
+                    log.info("Service: Bulk delete job ID={} cancelled at cursor={}", jobId, cursor);
+                    jobs.finish(jobId, "CANCELLED", null);
+                    return;
+                }
+
+                Thread.sleep(pauseMs);
+            }
+        } catch (RuntimeException e) {
+            log.error("Service: Bulk delete job ID={} failed at cursor={}: {}", jobId, cursor, e.getMessage(), e);
+            jobs.finish(jobId, "FAILED", e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------------
+    // THROTTLING (true when the job was cancelled while waiting)
+    // -------------------------------------------------------------
+    private boolean waitForCapacity(long jobId) throws InterruptedException {
+
+        String reason = overloadReason();
+        if (reason == null) {
+            return false;
+        }
+
+        log.info("Service: Bulk delete job ID={} backing off: {}", jobId, reason);
+
+        while (reason != null) {
+            Thread.sleep(backoffMs);
+            if (jobs.heartbeat(jobId)) {
+                return true;
+            }
+            reason = overloadReason();
+        }
+
+        log.info("Service: Bulk delete job ID={} resuming", jobId);
+        return false;
+    }
+
+    String overloadReason() {
+
+        HikariPoolMXBean stats = pool == null ? null : pool.getHikariPoolMXBean();
+        if (stats != null) {
+            if (stats.getThreadsAwaitingConnection() > 0) {
+                return stats.getThreadsAwaitingConnection() + " threads waiting for a connection";
+            }
+            if (stats.getActiveConnections() >= maxPoolUsage * pool.getMaximumPoolSize()) {
+                return stats.getActiveConnections() + "/" + pool.getMaximumPoolSize() + " connections in use";
+            }
+        }
+
+        long lag = jobs.replicationLagMs();
+        if (lag > maxReplicationLagMs) {
+            return "replication lag " + lag + " ms";
+        }
+        return null;
+    }
+
+    // -------------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------------
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
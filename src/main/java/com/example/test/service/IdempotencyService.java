@@ -0,0 +1,277 @@
+package com.example.test.service;
+
+import com.example.test.dto.ApiResponse;
+import com.example.test.exception.IdempotencyKeyMismatchException;
+import com.example.test.exception.RequestInProgressException;
+import com.example.test.repository.IdempotencyRepository;
+import com.example.test.repository.IdempotencyRepository.StoredKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for POST /api/users.
+ *
+ * A bounded LRU of finished responses sits in front of the idempotency_keys
+ * table. Concurrent requests with the same key in this JVM wait on the
+ * first one's future; across instances the PENDING row plays that role.
+ * A failed attempt releases its key, so the client's next retry runs again.
+ *
+ * The action and the DONE update share one transaction: a crash between the
+ * insert and the stored response rolls both back, so a takeover after the
+ * pending lease cannot create the user a second time. (Sharded writes land
+ * on the shard pools, outside that transaction.)
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final long POLL_MS = 50;
+
+    // expiresAt is on this JVM's clock, derived from the row's remaining lifetime
+    private record StoredResponse(String requestHash, int status, ApiResponse<?> body, LocalDateTime expiresAt) {
+    }
+
+    // executed = this call ran the action; otherwise it found a stored response
+    private record Attempt(StoredResponse response, boolean executed) {
+    }
+
+    private final IdempotencyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionOperations transactions;
+    private final long ttlHours;
+    private final long waitMs;
+    private final long pendingLeaseMs;
+
+    private final Map<String, StoredResponse> completed;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRepository repository,
+                              ObjectMapper objectMapper,
+                              TransactionOperations transactions,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.wait-ms:10000}") long waitMs,
+                              @Value("${app.idempotency.pending-lease-ms:60000}") long pendingLeaseMs) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactions = transactions;
+        this.ttlHours = ttlHours;
+        this.waitMs = waitMs;
+        this.pendingLeaseMs = pendingLeaseMs;
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    // -------------------------------------------------------------
+    // EXECUTE AT MOST ONCE PER KEY
+    // -------------------------------------------------------------
+    public ResponseEntity<ApiResponse> execute(String key, Object request, Supplier<ResponseEntity<ApiResponse>> action) {
+
+        String requestHash = hash(request);
+
+        StoredResponse cached = completed.get(key);
+        if (cached != null && cached.expiresAt().isAfter(LocalDateTime.now())) {
+            log.debug("Service: Replaying idempotency key={} from memory", key);
+            return replay(key, requestHash, cached);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            log.info("Service: Waiting for in-flight request with idempotency key={}", key);
+            return replay(key, requestHash, await(running));
+        }
+
+        try {
+            Attempt attempt = runOnce(key, requestHash, action);
+            mine.complete(attempt.response());
+            // a response stored earlier (restart, eviction, other instance) is a replay like any other
+            return attempt.executed()
+                    ? toEntity(attempt.response(), false)
+                    : replay(key, requestHash, attempt.response());
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Attempt runOnce(String key, String requestHash, Supplier<ResponseEntity<ApiResponse>> action) {
+
+        long deadline = System.currentTimeMillis() + waitMs;
+        long ttlMs = TimeUnit.HOURS.toMillis(ttlHours);
+
+        while (true) {
+            if (repository.reserve(key, requestHash, ttlMs, pendingLeaseMs)) {
+                LocalDateTime expiresAt = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMs));
+                return new Attempt(executeAndStore(key, requestHash, expiresAt, action), true);
+            }
+
+            // another instance owns the key, or finished it earlier
+            Optional<StoredKey> row = repository.find(key);
+            if (row.isPresent() && row.get().isDone()) {
+                StoredResponse stored = new StoredResponse(row.get().requestHash(), row.get().responseStatus(),
+                        fromJson(row.get().responseBody()),
+                        LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(row.get().expiresInMs())));
+                completed.put(key, stored);
+                return new Attempt(stored, false);
+            }
+
+            if (System.currentTimeMillis() > deadline) {
+                throw new RequestInProgressException("A request with this Idempotency-Key is still in progress");
+            }
+            sleep();
+        }
+    }
+
+    private StoredResponse executeAndStore(String key, String requestHash, LocalDateTime expiresAt,
+                                           Supplier<ResponseEntity<ApiResponse>> action) {
+        StoredResponse stored;
+        try {
+            // the action's own transaction joins this one, so the write and DONE commit together
+            stored = transactions.execute(status -> {
+                ResponseEntity<ApiResponse> response = action.get();
+                StoredResponse result = new StoredResponse(requestHash, response.getStatusCode().value(),
+                        response.getBody(), expiresAt);
+                repository.complete(key, result.status(), toJson(result.body()));
+                return result;
+            });
+        } catch (RuntimeException e) {
+            release(key, e);
+            throw e;
+        }
+
+        completed.put(key, stored);
+
+        log.info("Service: Stored response for idempotency key={} status={}", key, stored.status());
+        return stored;
+    }
+
+    // best effort: with the database down the PENDING row expires after the lease,
+    // and the caller must still see the original failure (e.g. 503), not this one
+    private void release(String key, RuntimeException cause) {
+        try {
+            repository.release(key);
+        } catch (RuntimeException e) {
+            log.warn("Service: Could not release idempotency key={}: {}", key, e.getMessage());
+            cause.addSuppressed(e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RequestInProgressException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            // same outcome as the first request, e.g. DuplicateEmailException
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private ResponseEntity<ApiResponse> replay(String key, String requestHash, StoredResponse stored) {
+        if (!stored.requestHash().equals(requestHash)) {
+            log.warn("Service: Idempotency key={} reused with a different payload", key);
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used with a different request body");
+        }
+        return toEntity(stored, true);
+    }
+
+    private static ResponseEntity<ApiResponse> toEntity(StoredResponse stored, boolean replayed) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status());
+        if (replayed) {
+            builder.header(REPLAYED_HEADER, "true");
+        }
+        return builder.body(stored.body());
+    }
+
+    // -------------------------------------------------------------
+    // TTL CLEANUP
+    // -------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}",
+            initialDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            synchronized (completed) {
+                completed.values().removeIf(s -> !s.expiresAt().isAfter(now));
+            }
+            int purged = repository.deleteExpired();
+            log.info("Service: Purged {} expired idempotency keys", purged);
+        } catch (Exception e) {
+            log.warn("Service: Purging idempotency keys failed: {}", e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------------
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+
+    private String toJson(ApiResponse<?> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    private ApiResponse<?> fromJson(String body) {
+        try {
+            return objectMapper.readValue(body, ApiResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response", e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException("Interrupted while waiting for the original request");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.test.service;
+
+import com.example.test.dto.SignupStatsDTO;
+import com.example.test.dto.SignupStatsDTO.BucketCount;
+import com.example.test.dto.StatsBucket;
+import com.example.test.exception.InvalidRangeException;
+import com.example.test.repository.SignupStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signup statistics from the rollup tables (create_signup_stats.sql).
+ *
+ * Writers only append deltas through the users trigger; this service folds
+ * them into the rollups on a fixed delay, so figures lag writes by at most
+ * about one fold interval (reported as asOf).
+ */
+@Slf4j
+@Service
+public class SignupStatsService {
+
+    private static final int DEFAULT_BUCKETS = 30;
+
+    private final SignupStatsRepository statsRepository;
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final int maxTopDomains;
+    private final int foldBatch;
+    private final int maxFoldRounds;
+
+    public SignupStatsService(SignupStatsRepository statsRepository,
+                              @Value("${app.signup-stats.enabled:true}") boolean enabled,
+                              @Value("${app.signup-stats.max-buckets:400}") int maxBuckets,
+                              @Value("${app.signup-stats.max-top-domains:100}") int maxTopDomains,
+                              @Value("${app.signup-stats.fold-batch:5000}") int foldBatch,
+                              @Value("${app.signup-stats.max-fold-rounds:20}") int maxFoldRounds) {
+        this.statsRepository = statsRepository;
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        this.maxTopDomains = maxTopDomains;
+        this.foldBatch = foldBatch;
+        this.maxFoldRounds = maxFoldRounds;
+    }
+
+    // -------------------------------------------------------------
+    // STATS FOR [from, to) IN BUCKETS + TOP N DOMAINS
+    // -------------------------------------------------------------
+    public SignupStatsDTO getStats(String bucketName, String from, String to, int top) {
+
+        StatsBucket bucket = StatsBucket.parse(bucketName);
+
+        LocalDate end = to == null || to.isBlank() ? LocalDate.now().plusDays(1) : date("to", to);
+        LocalDate start = bucket.start(from == null || from.isBlank()
+                ? bucket.minus(end.minusDays(1), DEFAULT_BUCKETS - 1)
+                : date("from", from));
+
+        if (!start.isBefore(end)) {
+            throw new InvalidRangeException("from must be before to");
+        }
+
+        List<LocalDate> starts = bucketStarts(bucket, start, end);
+        List<BucketCount> filled = zeroFill(starts, statsRepository.getSignups(bucket, start, end));
+        int topN = Math.max(0, Math.min(top, maxTopDomains));
+
+        log.debug("Service: Signup stats bucket={} from={} to={} buckets={} top={}",
+                bucket.sqlField(), start, end, filled.size(), topN);
+
+        return new SignupStatsDTO(bucket.sqlField(), start, end, filled,
+                topN == 0 ? List.of() : statsRepository.getTopDomains(topN),
+                statsRepository.getFoldedAt());
+    }
+
+    // checked before querying so an oversized window never reaches the database
+    private List<LocalDate> bucketStarts(StatsBucket bucket, LocalDate start, LocalDate end) {
+
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate b = start; b.isBefore(end); b = bucket.next(b)) {
+            if (starts.size() == maxBuckets) {
+                throw new InvalidRangeException("Range spans more than " + maxBuckets + " "
+                        + bucket.sqlField() + " buckets, use a wider bucket");
+            }
+            starts.add(b);
+        }
+        return starts;
+    }
+
+    // every bucket in the window appears once, even with no signups
+    private static List<BucketCount> zeroFill(List<LocalDate> starts, List<BucketCount> rows) {
+
+        Map<LocalDate, Long> counts = new HashMap<>();
+        rows.forEach(row -> counts.put(row.getStart(), row.getSignups()));
+
+        return starts.stream().map(b -> new BucketCount(b, counts.getOrDefault(b, 0L))).toList();
+    }
+
+    private static LocalDate date(String name, String value) {
+        try {
+            return LocalDate.parse(value.strip());
+        } catch (DateTimeParseException e) {
+            throw new InvalidRangeException(name + " must be an ISO date, got '" + value + "'");
+        }
+    }
+
+    // -------------------------------------------------------------
+    // FOLD DELTAS (keeps going while full batches come back)
+    // -------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.signup-stats.fold-ms:5000}",
+            initialDelayString = "${app.signup-stats.fold-ms:5000}")
+    public void foldDeltas() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int total = 0;
+            for (int round = 0; round < maxFoldRounds; round++) {
+                int folded = statsRepository.foldDeltas(foldBatch);
+                total += folded;
+                if (folded < foldBatch) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.debug("Service: Folded {} signup deltas into rollups", total);
+            }
+        } catch (Exception e) {
+            log.warn("Service: Folding signup deltas failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.test.service;
+
+import com.example.test.dto.ChangeToken;
+import com.example.test.dto.UserChangeDTO;
+import com.example.test.dto.UserChangePageDTO;
+import com.example.test.exception.ChangeTokenExpiredException;
+import com.example.test.repository.UserChangeRepository;
+import com.example.test.repository.UserChangeRepository.ChangeEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delta sync over the user change log: clients keep the opaque token from
+ * the last page and ask only for what changed since. Each page carries the
+ * latest state per user (upsert or tombstone), never the intermediate edits.
+ */
+@Slf4j
+@Service
+public class UserChangeService {
+
+    private final UserChangeRepository changeRepository;
+    private final int maxPageSize;
+    private final int retentionDays;
+
+    public UserChangeService(UserChangeRepository changeRepository,
+                             @Value("${app.changes.max-page-size:1000}") int maxPageSize,
+                             @Value("${app.changes.retention-days:7}") int retentionDays) {
+        this.changeRepository = changeRepository;
+        this.maxPageSize = maxPageSize;
+        this.retentionDays = retentionDays;
+    }
+
+    // -------------------------------------------------------------
+    // CHANGES SINCE TOKEN
+    // -------------------------------------------------------------
+    public UserChangePageDTO getChanges(String since, int limit) {
+        return getChanges(ChangeToken.parse(since), limit);
+    }
+
+    public UserChangePageDTO getChanges(ChangeToken since, int limit) {
+
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+
+        // retention removed changes up to this position; a token behind it
+        // would silently skip them (compared in feed order, not by change_id)
+        ChangeToken horizon = changeRepository.getPrunedHorizon();
+        if (since.compareTo(horizon) < 0) {
+            log.warn("Service: Change token {} is older than retention horizon {}", since.encode(), horizon.encode());
+            throw new ChangeTokenExpiredException("Change token expired, resync from /api/users/changes/head");
+        }
+
+        // one extra row tells us whether another page follows
+        List<ChangeEntry> rows = changeRepository.getChangesSince(since, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        ChangeToken next = rows.isEmpty() ? since : rows.get(rows.size() - 1).token();
+
+        // latest entry per user wins, ordered by its last change
+        Map<Long, UserChangeDTO> latest = new LinkedHashMap<>();
+        for (ChangeEntry row : rows) {
+            latest.remove(row.change().getId());
+            latest.put(row.change().getId(), row.change());
+        }
+
+        log.debug("Service: {} change rows -> {} users, next={}, hasMore={}",
+                rows.size(), latest.size(), next.encode(), hasMore);
+
+        return new UserChangePageDTO(new ArrayList<>(latest.values()), next.encode(), hasMore);
+    }
+
+    // -------------------------------------------------------------
+    // HEAD TOKEN (bootstrap: take head, then full download)
+    // -------------------------------------------------------------
+    public String getHeadToken() {
+        return changeRepository.getHeadToken().encode();
+    }
+
+    // -------------------------------------------------------------
+    // RETENTION
+    // -------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.changes.prune-interval-ms:3600000}",
+            initialDelayString = "${app.changes.prune-interval-ms:3600000}")
+    public void pruneExpiredChanges() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        try {
+            int pruned = changeRepository.pruneOlderThan(LocalDateTime.now().minusDays(retentionDays));
+            log.info("Service: Pruned {} user changes older than {} days", pruned, retentionDays);
+        } catch (Exception e) {
+            log.warn("Service: Pruning user changes failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.test.service;
+
+import com.example.test.dto.UserDTO;
+
+/**
+ * Published by {@link UserService} after a successful create, update or
+ * delete so in-memory indexes can follow writes without polling.
+ * {@code user} is the row as stored (re-read after the write, createdAt
+ * included) and null for a delete.
+ */
+public record UserChangedEvent(Long id, UserDTO user) {
+
+    public boolean isDelete() {
+        return user == null;
+    }
+}
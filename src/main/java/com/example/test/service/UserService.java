@@ -1,25 +1,70 @@
 package com.example.test.service;
 
+import com.example.test.cache.UserCache;
+import com.example.test.dto.CreatedRange;
+import com.example.test.dto.PhoneNumbers;
+import com.example.test.dto.ProjectedUser;
 import com.example.test.dto.UserCreateRequest;
 import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserFields;
+import com.example.test.dto.UserPatchRequest;
 import com.example.test.dto.UserUpdateRequest;
 import com.example.test.exception.DuplicateEmailException;
+import com.example.test.exception.InvalidLookupException;
+import com.example.test.exception.VersionConflictException;
+import com.example.test.id.IdGenerator;
+import com.example.test.outbox.UserEventOutbox;
 import com.example.test.repository.UserRepository;
+import com.example.test.repository.UserRepository.VersionedUser;
+import com.example.test.resilience.DatabaseGuard;
+import com.example.test.search.UserSearchBackend;
+import com.example.test.snapshot.UserSnapshotService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 @Slf4j
 @Service
 public class UserService {
 
+    private static final int PHONE_MATCH_LIMIT = 10;
+
     private final UserRepository userRepository;  // removed @Autowired
+    private final IdGenerator idGenerator;
+    private final UserSnapshotService snapshotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<UserSearchBackend> searchBackends;
+    private final UserCache userCache;
+    private final DatabaseGuard databaseGuard;
+    private final UserEventOutbox outbox;
+    private final TransactionOperations transactions;
 
     // Constructor Injection
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository,
+                       IdGenerator idGenerator,
+                       UserSnapshotService snapshotService,
+                       ApplicationEventPublisher eventPublisher,
+                       ObjectProvider<UserSearchBackend> searchBackends,
+                       UserCache userCache,
+                       DatabaseGuard databaseGuard,
+                       UserEventOutbox outbox,
+                       TransactionOperations transactions) {
         this.userRepository = userRepository;
+        this.idGenerator = idGenerator;
+        this.snapshotService = snapshotService;
+        this.eventPublisher = eventPublisher;
+        this.searchBackends = searchBackends;
+        this.userCache = userCache;
+        this.databaseGuard = databaseGuard;
+        this.outbox = outbox;
+        this.transactions = transactions;
     }
 
     // -------------------------------------------------------------
@@ -30,24 +75,61 @@ public class UserService {
         log.info("Service: Creating user with email={}", request.getEmail());
         log.debug("UserCreateRequest payload: {}", request);
 
+        databaseGuard.ensureWritable();
+
         try {
-            Long id = userRepository.createUserUsingProcedure(request);
-            log.info("Service: User created successfully with ID={}", id);
-            return id;
+            // insert + outbox row commit together; listeners run after commit
+            return transactions.execute(status -> {
+                // id is assigned in-process, before the insert round trip
+                Long id = userRepository.createUserUsingProcedure(idGenerator.nextId(), request);
+
+                if (id == null) {
+                    log.warn("Service: Duplicate email detected for email={}", request.getEmail());
+                    throw new DuplicateEmailException("Email already exists");
+                }
+
+                log.info("Service: User created successfully with ID={}", id);
+
+                UserDTO created = storedUser(id);
+                outbox.created(created);
+                eventPublisher.publishEvent(new UserChangedEvent(id, created));
+                return id;
+            });
 
         } catch (DuplicateKeyException e) {
+            // ON CONFLICT (email) reports duplicates as a NULL id, so this is either a
+            // procedure from before create_conflict_free_insert.sql or an id collision
+            if (!emailTaken(request.getEmail())) {
+                log.error("Service: Generated id collided with an existing user for email={}", request.getEmail());
+                throw new IllegalStateException("Generated user id already exists; check app.id-generator.node-id", e);
+            }
             log.warn("Service: Duplicate email detected for email={}", request.getEmail());
-            throw new DuplicateKeyException("DUPLICATE_DATA_ERROR");
+            throw new DuplicateEmailException("Email already exists");
         }
     }
 
+    // the row as written (created_at, stored phone), read inside the write's transaction
+    private UserDTO storedUser(Long id) {
+        return userRepository.getUserById(id)
+                .orElseThrow(() -> new IllegalStateException("User " + id + " vanished inside its own write"));
+    }
+
+    private boolean emailTaken(String email) {
+        return userRepository.getUserByEmail(email)
+                .map(existing -> existing.getEmail().equals(email))
+                .orElse(false);
+    }
+
     // -------------------------------------------------------------
     // GET ALL USERS
     // -------------------------------------------------------------
     public List<UserDTO> getAllUsers() {
 
         log.info("Service: Fetching ALL users");
-        List<UserDTO> list = userRepository.getAllUsers();
+
+        List<UserDTO> list = snapshotService.isServing()
+                ? snapshotService.current().all()
+                : userRepository.getAllUsers();
         log.debug("Service: Total users returned={}", list.size());
 
         return list;
@@ -60,7 +142,14 @@ public class UserService {
 
         log.info("Fetching user by ID={}", id);
 
-        UserDTO user = userRepository.getUserById(id).orElse(null);
+        UserDTO cached = userCache.get(id);
+        if (cached != null) {
+            log.debug("User served from cache for ID={}", id);
+            return cached;
+        }
+
+        // circuit open / DB down -> last cached copy (expired or not), marked stale
+        UserDTO user = databaseGuard.read("user:" + id, () -> loadUser(id), () -> userCache.getStale(id));
 
         if (user == null) {
             log.warn("No user found for ID={}", id);
@@ -71,6 +160,80 @@ public class UserService {
         return user;
     }
 
+    // ?fields= : narrow SELECT on a miss; cache and stale copies are projected in memory
+    public ProjectedUser getUserById(Long id, UserFields fields) {
+
+        log.info("Fetching user by ID={} fields={}", id, fields);
+
+        UserDTO cached = userCache.get(id);
+        if (cached != null) {
+            return fields.project(cached);
+        }
+
+        return databaseGuard.read("user:" + id + ":" + fields,
+                () -> userRepository.getUserById(id, fields).orElse(null),
+                () -> fields.project(userCache.getStale(id)));
+    }
+
+    // -------------------------------------------------------------
+    // EXACT LOOKUP BY EMAIL (case-insensitive) / PHONE (E.164)
+    // -------------------------------------------------------------
+    public UserDTO getUserByEmail(String email) {
+
+        log.info("Fetching user by email={}", email);
+
+        String key = "email:" + email.toLowerCase(Locale.ROOT);
+
+        List<UserDTO> cached = userCache.lookup(key, user -> user.getEmail().equalsIgnoreCase(email));
+        if (cached != null && !cached.isEmpty()) {
+            log.debug("User served from cache for email={}", email);
+            return cached.get(0);
+        }
+
+        return databaseGuard.read(key, () -> {
+            long stamp = userCache.stamp();
+            UserDTO user = userRepository.getUserByEmail(email).orElse(null);
+            if (user != null) {
+                userCache.remember(key, List.of(user), stamp);
+            }
+            return user;
+        });
+    }
+
+    public List<UserDTO> getUsersByPhone(String phone) {
+
+        String e164 = PhoneNumbers.toE164(phone);
+        if (e164 == null) {
+            throw new InvalidLookupException("phone must have 8 to 15 digits, got '" + phone + "'");
+        }
+
+        log.info("Fetching users by phone={}", e164);
+
+        String key = "phone:" + e164;
+
+        List<UserDTO> cached = userCache.lookup(key, user -> e164.equals(PhoneNumbers.toE164(user.getPhone())));
+        if (cached != null && !cached.isEmpty()) {
+            log.debug("Users served from cache for phone={}", e164);
+            return cached;
+        }
+
+        return databaseGuard.read(key, () -> {
+            long stamp = userCache.stamp();
+            List<UserDTO> users = userRepository.getUsersByPhone(e164, PHONE_MATCH_LIMIT);
+            userCache.remember(key, users, stamp);
+            return users;
+        });
+    }
+
+    private UserDTO loadUser(Long id) {
+        long stamp = userCache.stamp();
+        UserDTO user = userRepository.getUserById(id).orElse(null);
+        if (user != null) {
+            userCache.put(user, stamp);
+        }
+        return user;
+    }
+
 
     // -------------------------------------------------------------
     // UPDATE USER
@@ -80,21 +243,69 @@ public class UserService {
         log.info("Service: Updating user ID={}", id);
         log.debug("UserUpdateRequest payload: {}", req);
 
+        databaseGuard.ensureWritable();
+
         // Duplicate email check
         if (userRepository.emailExistsForAnotherUser(req.getEmail(), id)) {
             log.warn("Service: Cannot update. Email '{}' already exists for another user.", req.getEmail());
             throw new DuplicateEmailException("Email already exists");
         }
 
-        boolean updated = userRepository.updateUser(id, req);
-
-        if (updated) {
+        Boolean updated = transactions.execute(status -> {
+            if (!userRepository.updateUser(id, req)) {
+                return false;
+            }
+            UserDTO user = storedUser(id);
+            outbox.updated(user);
+            eventPublisher.publishEvent(new UserChangedEvent(id, user));
+            return true;
+        });
+
+        if (Boolean.TRUE.equals(updated)) {
             log.info("Service: User updated successfully — ID={}", id);
-        } else {
-            log.warn("Service: Update failed. No user exists for ID={}", id);
+            return true;
         }
 
-        return updated;
+        log.warn("Service: Update failed. No user exists for ID={}", id);
+        return false;
+    }
+
+    // -------------------------------------------------------------
+    // PATCH USER (supplied fields only) -> new version, empty if not found
+    // -------------------------------------------------------------
+    public Optional<Long> patchUser(Long id, UserPatchRequest req, Long expectedVersion) {
+
+        log.info("Service: Patching user ID={} fields={}", id, req);
+
+        databaseGuard.ensureWritable();
+
+        // the duplicate lookup only matters when the email is being written
+        if (req.has("email") && userRepository.emailExistsForAnotherUser(req.getEmail(), id)) {
+            log.warn("Service: Cannot patch. Email '{}' already exists for another user.", req.getEmail());
+            throw new DuplicateEmailException("Email already exists");
+        }
+
+        Optional<VersionedUser> patched = transactions.execute(status -> {
+            Optional<VersionedUser> result = userRepository.patchUser(id, req, expectedVersion);
+            result.ifPresent(p -> {
+                outbox.updated(p.user());
+                eventPublisher.publishEvent(new UserChangedEvent(id, p.user()));
+            });
+            return result;
+        });
+
+        if (patched == null || patched.isEmpty()) {
+            if (expectedVersion != null && userRepository.getVersion(id).isPresent()) {
+                log.warn("Service: Patch rejected. Version {} is stale for ID={}", expectedVersion, id);
+                throw new VersionConflictException("User was modified by another request");
+            }
+            log.warn("Service: Patch failed. No user exists for ID={}", id);
+            return Optional.empty();
+        }
+
+        log.info("Service: User patched successfully — ID={}, version={}", id, patched.get().version());
+
+        return Optional.of(patched.get().version());
     }
 
     // -------------------------------------------------------------
@@ -104,15 +315,24 @@ public class UserService {
 
         log.info("Service: Deleting user ID={}", id);
 
-        boolean deleted = userRepository.deleteUser(id);
+        databaseGuard.ensureWritable();
 
-        if (deleted) {
+        Boolean deleted = transactions.execute(status -> {
+            if (!userRepository.deleteUser(id)) {
+                return false;
+            }
+            outbox.deleted(id);
+            eventPublisher.publishEvent(new UserChangedEvent(id, null));
+            return true;
+        });
+
+        if (Boolean.TRUE.equals(deleted)) {
             log.info("Service: User deleted successfully — ID={}", id);
-        } else {
-            log.warn("Service: Delete failed. No user exists for ID={}", id);
+            return true;
         }
 
-        return deleted;
+        log.warn("Service: Delete failed. No user exists for ID={}", id);
+        return false;
     }
 
     // -------------------------------------------------------------
@@ -123,7 +343,29 @@ public class UserService {
         log.info("Service: Fetching paginated users page={}, size={}, sort={}, direction={}",
                 page, size, sortBy, direction);
 
-        return userRepository.getUsersPaginated(page, size, sortBy, direction);
+        if (snapshotService.isServing()) {
+            int limit = Math.max(1, size);
+            return snapshotService.current().page(sortBy, direction, Math.max(0, page) * limit, limit);
+        }
+
+        return databaseGuard.read("page:" + page + ":" + size + ":" + sortBy + ":" + direction,
+                () -> userRepository.getUsersPaginated(page, size, sortBy, direction));
+    }
+
+    public List<ProjectedUser> getUsersPaginated(int page, int size, String sortBy, String direction,
+                                                 UserFields fields) {
+
+        log.info("Service: Fetching paginated users page={}, size={}, sort={}, direction={}, fields={}",
+                page, size, sortBy, direction, fields);
+
+        if (snapshotService.isServing()) {
+            int limit = Math.max(1, size);
+            return snapshotService.current().page(sortBy, direction, Math.max(0, page) * limit, limit)
+                    .stream().map(fields::project).toList();
+        }
+
+        return databaseGuard.read("page:" + page + ":" + size + ":" + sortBy + ":" + direction + ":" + fields,
+                () -> userRepository.getUsersPaginated(page, size, sortBy, direction, fields));
     }
 
     // -------------------------------------------------------------
@@ -136,6 +378,49 @@ public class UserService {
         log.info("Service: Searching users — page={}, size={}, sort={}, direction={}, query={}",
                 page, size, sortBy, sortDir, query);
 
-        return userRepository.searchUsers(query, size, offset, sortBy, sortDir);
+        // configured search backend (app.search.backend) first, SQL path as the fallback
+        UserSearchBackend backend = searchBackends.getIfAvailable();
+        if (backend != null && backend.isReady() && query != null && !query.isBlank()) {
+            return backend.search(query, sortBy, sortDir, offset, size);
+        }
+
+        if (snapshotService.isServing()) {
+            return snapshotService.current().search(query, sortBy, sortDir, offset, size);
+        }
+
+        return databaseGuard.read("search:" + offset + ":" + size + ":" + sortBy + ":" + sortDir + ":" + query,
+                () -> userRepository.searchUsers(query, size, offset, sortBy, sortDir));
+    }
+
+    // fields may be null (full UserDTOs)
+    public List<?> getUsers(int page, int size, String sortBy, String sortDir, String query,
+                            CreatedRange range, UserFields fields) {
+
+        int offset = page * size;
+
+        log.info("Service: Searching users — page={}, size={}, sort={}, direction={}, query={}, created={}, fields={}",
+                page, size, sortBy, sortDir, query, range, fields);
+
+        // the search index and snapshot know nothing about created_at ranges: SQL only
+        if (range == null) {
+            UserSearchBackend backend = searchBackends.getIfAvailable();
+            if (backend != null && backend.isReady() && query != null && !query.isBlank()) {
+                return project(backend.search(query, sortBy, sortDir, offset, size), fields);
+            }
+
+            if (snapshotService.isServing()) {
+                return project(snapshotService.current().search(query, sortBy, sortDir, offset, size), fields);
+            }
+        }
+
+        String key = "search:" + offset + ":" + size + ":" + sortBy + ":" + sortDir + ":" + query + ":" + range + ":" + fields;
+
+        return fields == null
+                ? databaseGuard.read(key, () -> userRepository.searchUsers(query, range, size, offset, sortBy, sortDir))
+                : databaseGuard.read(key, () -> userRepository.searchUsers(query, range, size, offset, sortBy, sortDir, fields));
+    }
+
+    private static List<?> project(List<UserDTO> users, UserFields fields) {
+        return fields == null ? users : users.stream().map(fields::project).toList();
     }
 }
@@ -0,0 +1,310 @@
+package com.example.test.snapshot;
+
+import com.example.test.dto.UserDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable columnar copy of the users table.
+ *
+ * Rows are stored in id order (so the "id" ordering is the identity), with
+ * primitive long[] ids / epoch-millis timestamps, one UTF-8 block per string
+ * column and a pre-sorted row permutation for every other sort key. A
+ * lower-cased "first\0last\0email" column backs the search filter, matching
+ * the LIKE in UserRepository.searchUsers. String keys sort in code point
+ * order, matching the COLLATE "C" that UserRepository puts on text sorts.
+ *
+ * Fixed cost is 56 bytes per user (2 longs, 5 string offsets, 5
+ * permutations) plus the UTF-8 bytes of names, email, phone and the search
+ * column.
+ */
+public final class UserSnapshot {
+
+    static final List<String> SORT_KEYS = List.of("firstName", "lastName", "email", "phone", "createdAt");
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private final int size;
+    private final long[] ids;
+    private final long[] createdAt;
+    private final Utf8Column firstNames;
+    private final Utf8Column lastNames;
+    private final Utf8Column emails;
+    private final Utf8Column phones;
+    private final Utf8Column searchText;
+    private final Map<String, int[]> sortOrders = new LinkedHashMap<>();
+
+    private UserSnapshot(RowsBuilder rows) {
+        this.size = rows.size;
+        this.ids = Arrays.copyOf(rows.ids, rows.size);
+        this.createdAt = Arrays.copyOf(rows.createdAt, rows.size);
+        this.firstNames = rows.firstNames.build();
+        this.lastNames = rows.lastNames.build();
+        this.emails = rows.emails.build();
+        this.phones = rows.phones.build();
+        this.searchText = rows.searchText.build();
+    }
+
+    public static UserSnapshot empty() {
+        return build(List.of());
+    }
+
+    // -------------------------------------------------------
+    // FULL BUILD
+    // -------------------------------------------------------
+    public static UserSnapshot build(List<UserDTO> users) {
+
+        List<UserDTO> sorted = new ArrayList<>(users);
+        sorted.sort(Comparator.comparing(UserDTO::getId));
+
+        RowsBuilder rows = new RowsBuilder(sorted.size());
+        sorted.forEach(rows::add);
+
+        UserSnapshot snapshot = new UserSnapshot(rows);
+        for (String key : SORT_KEYS) {
+            snapshot.sortOrders.put(key, snapshot.sortRows(IntStream.range(0, snapshot.size), key));
+        }
+        return snapshot;
+    }
+
+    // -------------------------------------------------------
+    // INCREMENTAL APPLY (copy-on-write, O(n + k log k) per key)
+    // -------------------------------------------------------
+    public UserSnapshot apply(List<UserDTO> upserts, Set<Long> deletedIds) {
+
+        List<UserDTO> fresh = new ArrayList<>(upserts);
+        fresh.sort(Comparator.comparing(UserDTO::getId));
+
+        Set<Long> touched = new HashSet<>(deletedIds);
+        fresh.forEach(u -> touched.add(u.getId()));
+
+        RowsBuilder rows = new RowsBuilder(size + fresh.size());
+        int[] remap = new int[size];
+        int[] freshRows = new int[fresh.size()];
+
+        int i = 0;
+        int j = 0;
+        while (i < size || j < fresh.size()) {
+            boolean takeOld = j >= fresh.size() || (i < size && ids[i] < fresh.get(j).getId());
+
+            if (takeOld) {
+                if (touched.contains(ids[i])) {
+                    remap[i] = -1;
+                } else {
+                    remap[i] = rows.size;
+                    rows.addFrom(this, i);
+                }
+                i++;
+            } else {
+                freshRows[j] = rows.size;
+                rows.add(fresh.get(j));
+                j++;
+            }
+        }
+
+        UserSnapshot next = new UserSnapshot(rows);
+
+        for (String key : SORT_KEYS) {
+            // surviving rows keep their relative order; only the fresh rows need sorting
+            int[] kept = Arrays.stream(sortOrders.get(key)).map(r -> remap[r]).filter(r -> r >= 0).toArray();
+            int[] added = next.sortRows(Arrays.stream(freshRows), key);
+            next.sortOrders.put(key, next.mergeOrders(kept, added, key));
+        }
+
+        return next;
+    }
+
+    // -------------------------------------------------------
+    // READS
+    // -------------------------------------------------------
+    public List<UserDTO> all() {
+        List<UserDTO> list = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            list.add(toDTO(row));
+        }
+        return list;
+    }
+
+    public List<UserDTO> page(String sortBy, String direction, int offset, int limit) {
+        return scan(sortBy, direction, offset, limit, null);
+    }
+
+    public List<UserDTO> search(String query, String sortBy, String direction, int offset, int limit) {
+        byte[] needle = (query == null || query.isBlank())
+                ? null
+                : query.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        return scan(sortBy, direction, offset, limit, needle);
+    }
+
+    private List<UserDTO> scan(String sortBy, String direction, int offset, int limit, byte[] needle) {
+
+        int[] order = sortOrders.get(sortBy);   // null -> id order (identity)
+        boolean desc = "desc".equalsIgnoreCase(direction);
+
+        List<UserDTO> result = new ArrayList<>(Math.min(Math.max(limit, 0), 1024));
+        int skipped = 0;
+
+        for (int n = 0; n < size && result.size() < limit; n++) {
+            int pos = desc ? size - 1 - n : n;
+            int row = order == null ? pos : order[pos];
+
+            if (needle != null && !searchText.contains(row, needle)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(toDTO(row));
+        }
+
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        long bytes = 16L * size;   // ids + createdAt
+        bytes += firstNames.memoryBytes() + lastNames.memoryBytes() + emails.memoryBytes()
+                + phones.memoryBytes() + searchText.memoryBytes();
+        for (int[] order : sortOrders.values()) {
+            bytes += 4L * order.length;
+        }
+        return bytes;
+    }
+
+    private UserDTO toDTO(int row) {
+        long millis = createdAt[row];
+        LocalDateTime created = millis == NULL_TIME
+                ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+
+        return new UserDTO(ids[row], firstNames.get(row), lastNames.get(row),
+                emails.get(row), phones.get(row), created);
+    }
+
+    // -------------------------------------------------------
+    // ORDERING (ties broken by row = id order)
+    // -------------------------------------------------------
+    private int compareRows(int a, int b, String key) {
+        int c = switch (key) {
+            case "firstName" -> firstNames.compare(a, b);
+            case "lastName" -> lastNames.compare(a, b);
+            case "email" -> emails.compare(a, b);
+            case "phone" -> phones.compare(a, b);
+            case "createdAt" -> compareTimes(createdAt[a], createdAt[b]);
+            default -> 0;
+        };
+        return c != 0 ? c : Integer.compare(a, b);
+    }
+
+    private static int compareTimes(long a, long b) {
+        if (a == NULL_TIME || b == NULL_TIME) {
+            return Boolean.compare(a == NULL_TIME, b == NULL_TIME);
+        }
+        return Long.compare(a, b);
+    }
+
+    private int[] sortRows(IntStream rows, String key) {
+        return rows.boxed()
+                .sorted((a, b) -> compareRows(a, b, key))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private int[] mergeOrders(int[] left, int[] right, String key) {
+        int[] merged = new int[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < left.length && j < right.length) {
+            merged[k++] = compareRows(left[i], right[j], key) <= 0 ? left[i++] : right[j++];
+        }
+        while (i < left.length) {
+            merged[k++] = left[i++];
+        }
+        while (j < right.length) {
+            merged[k++] = right[j++];
+        }
+        return merged;
+    }
+
+    // -------------------------------------------------------
+    // ROW ACCUMULATOR
+    // -------------------------------------------------------
+    private static final class RowsBuilder {
+
+        private long[] ids;
+        private long[] createdAt;
+        private final Utf8Column.Builder firstNames;
+        private final Utf8Column.Builder lastNames;
+        private final Utf8Column.Builder emails;
+        private final Utf8Column.Builder phones;
+        private final Utf8Column.Builder searchText;
+        private int size;
+
+        RowsBuilder(int expected) {
+            ids = new long[Math.max(1, expected)];
+            createdAt = new long[Math.max(1, expected)];
+            firstNames = new Utf8Column.Builder(expected);
+            lastNames = new Utf8Column.Builder(expected);
+            emails = new Utf8Column.Builder(expected);
+            phones = new Utf8Column.Builder(expected);
+            searchText = new Utf8Column.Builder(expected);
+        }
+
+        void add(UserDTO user) {
+            ensureCapacity();
+            ids[size] = user.getId();
+            createdAt[size] = user.getCreatedAt() == null
+                    ? NULL_TIME
+                    : user.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+            firstNames.add(user.getFirstName());
+            lastNames.add(user.getLastName());
+            emails.add(user.getEmail());
+            phones.add(user.getPhone());
+            searchText.add((nullToEmpty(user.getFirstName()) + '\0'
+                    + nullToEmpty(user.getLastName()) + '\0'
+                    + nullToEmpty(user.getEmail())).toLowerCase(Locale.ROOT));
+            size++;
+        }
+
+        void addFrom(UserSnapshot source, int row) {
+            ensureCapacity();
+            ids[size] = source.ids[row];
+            createdAt[size] = source.createdAt[row];
+            firstNames.addFrom(source.firstNames, row);
+            lastNames.addFrom(source.lastNames, row);
+            emails.addFrom(source.emails, row);
+            phones.addFrom(source.phones, row);
+            searchText.addFrom(source.searchText, row);
+            size++;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                createdAt = Arrays.copyOf(createdAt, size * 2);
+            }
+        }
+
+        private static String nullToEmpty(String s) {
+            return s == null ? "" : s;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.test.snapshot;
+
+import com.example.test.dto.ChangeToken;
+import com.example.test.dto.SnapshotStatsDTO;
+import com.example.test.dto.UserChangeDTO;
+import com.example.test.dto.UserChangePageDTO;
+import com.example.test.dto.UserDTO;
+import com.example.test.exception.ChangeTokenExpiredException;
+import com.example.test.repository.UserChangeRepository;
+import com.example.test.repository.UserRepository;
+import com.example.test.service.UserChangeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optional serving mode (app.snapshot.enabled) that answers list, page and
+ * search reads from an in-JVM {@link UserSnapshot} instead of Postgres.
+ *
+ * The snapshot is loaded once at startup and then refreshed incrementally
+ * from the user change feed ({@link UserChangeService}); reads are eventually consistent within
+ * app.snapshot.refresh-ms. If the measured footprint exceeds
+ * app.snapshot.max-bytes-per-user the service stops serving and all reads
+ * go back to the database.
+ */
+@Slf4j
+@Service
+public class UserSnapshotService {
+
+    private final UserRepository userRepository;
+    private final UserChangeRepository changeRepository;
+    private final UserChangeService changeService;
+    private final boolean enabled;
+    private final long maxBytesPerUser;
+    private final double fullReloadRatio;
+
+    private volatile UserSnapshot snapshot;
+    private volatile ChangeToken changeMarker = ChangeToken.START;
+    private volatile Instant lastRefresh;
+    private volatile boolean withinBound = true;
+
+    public UserSnapshotService(UserRepository userRepository,
+                               UserChangeRepository changeRepository,
+                               UserChangeService changeService,
+                               @Value("${app.snapshot.enabled:false}") boolean enabled,
+                               @Value("${app.snapshot.max-bytes-per-user:256}") long maxBytesPerUser,
+                               @Value("${app.snapshot.full-reload-ratio:0.1}") double fullReloadRatio) {
+        this.userRepository = userRepository;
+        this.changeRepository = changeRepository;
+        this.changeService = changeService;
+        this.enabled = enabled;
+        this.maxBytesPerUser = maxBytesPerUser;
+        this.fullReloadRatio = fullReloadRatio;
+    }
+
+    public boolean isServing() {
+        return enabled && withinBound && snapshot != null;
+    }
+
+    public UserSnapshot current() {
+        return snapshot;
+    }
+
+    // -------------------------------------------------------
+    // INITIAL LOAD (off the startup thread)
+    // -------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::reload, "user-snapshot-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public synchronized void reload() {
+        try {
+            long started = System.currentTimeMillis();
+
+            // head token first: anything changed during the load is re-applied next refresh
+            ChangeToken marker = changeRepository.getHeadToken();
+            UserSnapshot loaded = UserSnapshot.build(userRepository.getAllUsers());
+
+            install(loaded, marker);
+            log.info("Snapshot: loaded {} users in {} ms ({} bytes/user)",
+                    loaded.size(), System.currentTimeMillis() - started, bytesPerUser(loaded));
+        } catch (Exception e) {
+            log.error("Snapshot: full load failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // -------------------------------------------------------
+    // INCREMENTAL REFRESH
+    // -------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.snapshot.refresh-ms:5000}")
+    public synchronized void refresh() {
+        UserSnapshot current = snapshot;
+        if (!enabled || current == null) {
+            return;
+        }
+
+        try {
+            // past this many changed users a full reload is cheaper than merging
+            int budget = (int) Math.max(1, current.size() * fullReloadRatio);
+
+            Map<Long, UserChangeDTO> changes = new LinkedHashMap<>();
+            ChangeToken marker = changeMarker;
+            UserChangePageDTO page;
+            do {
+                page = changeService.getChanges(marker, budget);
+                page.getChanges().forEach(c -> changes.put(c.getId(), c));
+                marker = ChangeToken.parse(page.getNextToken());
+
+                if (changes.size() > budget) {
+                    log.info("Snapshot: more than {} changed users, doing a full reload", budget);
+                    reload();
+                    return;
+                }
+            } while (page.isHasMore());
+
+            if (changes.isEmpty()) {
+                changeMarker = marker;
+                return;
+            }
+
+            List<UserDTO> upserts = new ArrayList<>();
+            Set<Long> deleted = new HashSet<>();
+            for (UserChangeDTO c : changes.values()) {
+                if ("DELETE".equals(c.getOp())) {
+                    deleted.add(c.getId());
+                } else {
+                    upserts.add(new UserDTO(c.getId(), c.getFirstName(), c.getLastName(),
+                            c.getEmail(), c.getPhone(), c.getCreatedAt()));
+                }
+            }
+
+            install(current.apply(upserts, deleted), marker);
+            log.debug("Snapshot: applied {} upserts / {} deletes up to {}",
+                    upserts.size(), deleted.size(), marker.encode());
+        } catch (ChangeTokenExpiredException e) {
+            log.info("Snapshot: change marker fell out of retention, doing a full reload");
+            reload();
+        } catch (Exception e) {
+            log.warn("Snapshot: incremental refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void install(UserSnapshot next, ChangeToken marker) {
+        long perUser = bytesPerUser(next);
+
+        if (perUser > maxBytesPerUser && withinBound) {
+            log.warn("Snapshot: {} bytes/user exceeds bound of {}; serving reads from the database",
+                    perUser, maxBytesPerUser);
+        }
+
+        withinBound = perUser <= maxBytesPerUser;
+        snapshot = next;
+        changeMarker = marker;
+        lastRefresh = Instant.now();
+    }
+
+    private static long bytesPerUser(UserSnapshot s) {
+        return s.size() == 0 ? 0 : s.memoryBytes() / s.size();
+    }
+
+    // -------------------------------------------------------
+    // STATS
+    // -------------------------------------------------------
+    public SnapshotStatsDTO getStats() {
+        UserSnapshot current = snapshot;
+        int users = current == null ? 0 : current.size();
+        long bytes = current == null ? 0 : current.memoryBytes();
+
+        return new SnapshotStatsDTO(
+                enabled,
+                isServing(),
+                users,
+                bytes,
+                current == null ? 0 : bytesPerUser(current),
+                maxBytesPerUser,
+                changeMarker.encode(),
+                lastRefresh
+        );
+    }
+}
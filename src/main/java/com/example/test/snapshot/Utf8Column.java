@@ -0,0 +1,122 @@
+package com.example.test.snapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * One string column stored as a single UTF-8 byte block plus an offsets
+ * array — two objects for the whole column instead of one String per row.
+ * Comparison is unsigned byte order, which equals code point order: the
+ * order of COLLATE "C", which UserRepository applies to every text sort, so
+ * snapshot pages match SQL pages whatever the database's default collation.
+ */
+final class Utf8Column {
+
+    private final byte[] data;
+    private final int[] offsets;   // row i spans [offsets[i], offsets[i + 1])
+    private final BitSet nulls;
+
+    private Utf8Column(byte[] data, int[] offsets, BitSet nulls) {
+        this.data = data;
+        this.offsets = offsets;
+        this.nulls = nulls;
+    }
+
+    String get(int row) {
+        if (nulls.get(row)) {
+            return null;
+        }
+        return new String(data, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+
+    boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    // nulls sort last (Postgres ASC default)
+    int compare(int a, int b) {
+        boolean nullA = nulls.get(a);
+        boolean nullB = nulls.get(b);
+        if (nullA || nullB) {
+            return Boolean.compare(nullA, nullB);
+        }
+        // code point order == ORDER BY ... COLLATE "C" (see UserRepository.orderByClause)
+        return Arrays.compareUnsigned(data, offsets[a], offsets[a + 1], data, offsets[b], offsets[b + 1]);
+    }
+
+    // substring match on raw bytes (valid for UTF-8, which is self-synchronizing)
+    boolean contains(int row, byte[] needle) {
+        if (nulls.get(row)) {
+            return false;
+        }
+        int from = offsets[row];
+        int last = offsets[row + 1] - needle.length;
+
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (data[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    long memoryBytes() {
+        return data.length + 4L * offsets.length + nulls.size() / 8;
+    }
+
+    // -------------------------------------------------------
+    // BUILDER
+    // -------------------------------------------------------
+    static final class Builder {
+
+        private byte[] data;
+        private int[] offsets;
+        private final BitSet nulls = new BitSet();
+        private int rows;
+        private int length;
+
+        Builder(int expectedRows) {
+            this.data = new byte[Math.max(16, expectedRows * 12)];
+            this.offsets = new int[expectedRows + 1];
+        }
+
+        void add(String value) {
+            if (value == null) {
+                nulls.set(rows);
+                append(data, 0, 0);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                append(bytes, 0, bytes.length);
+            }
+        }
+
+        void addFrom(Utf8Column source, int row) {
+            if (source.nulls.get(row)) {
+                nulls.set(rows);
+            }
+            append(source.data, source.offsets[row], source.offsets[row + 1] - source.offsets[row]);
+        }
+
+        private void append(byte[] src, int from, int len) {
+            if (length + len > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + len));
+            }
+            if (rows + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2 + 2);
+            }
+            System.arraycopy(src, from, data, length, len);
+            length += len;
+            rows++;
+            offsets[rows] = length;
+        }
+
+        Utf8Column build() {
+            return new Utf8Column(Arrays.copyOf(data, length), Arrays.copyOf(offsets, rows + 1), nulls);
+        }
+    }
+}
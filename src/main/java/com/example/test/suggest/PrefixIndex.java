@@ -0,0 +1,200 @@
+package com.example.test.suggest;
+
+import com.example.test.dto.UserDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Immutable prefix dictionary over user names and emails.
+ *
+ * All terms live in one UTF-8 byte block sorted by (term, user), so every
+ * prefix is a contiguous run found with one binary search: the same lookup
+ * a trie gives, without a node object per character. Each entry points at
+ * a user slot holding the id and the packed display name.
+ */
+final class PrefixIndex {
+
+    private final byte[] termData;
+    private final int[] termOffsets;   // entry i spans [termOffsets[i], termOffsets[i + 1])
+    private final int[] termSlots;     // entry -> user slot
+
+    private final long[] userIds;      // slot -> id
+    private final byte[] nameData;
+    private final int[] nameOffsets;
+
+    private PrefixIndex(byte[] termData, int[] termOffsets, int[] termSlots,
+                        long[] userIds, byte[] nameData, int[] nameOffsets) {
+        this.termData = termData;
+        this.termOffsets = termOffsets;
+        this.termSlots = termSlots;
+        this.userIds = userIds;
+        this.nameData = nameData;
+        this.nameOffsets = nameOffsets;
+    }
+
+    // -------------------------------------------------------
+    // TERMS
+    // -------------------------------------------------------
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    static String displayName(UserDTO user) {
+        return (nullToEmpty(user.getFirstName()) + " " + nullToEmpty(user.getLastName())).trim();
+    }
+
+    // first, last, "first last" and email, so "ann sm" and "ann@" both complete
+    static Set<String> terms(UserDTO user) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String value : List.of(
+                nullToEmpty(user.getFirstName()),
+                nullToEmpty(user.getLastName()),
+                displayName(user),
+                nullToEmpty(user.getEmail()))) {
+            String term = normalize(value);
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    // -------------------------------------------------------
+    // BUILD
+    // -------------------------------------------------------
+    static PrefixIndex build(List<UserDTO> users) {
+        Builder builder = new Builder();
+        users.forEach(builder::add);
+        return builder.build();
+    }
+
+    /** Takes users one at a time, keeping only their terms and display names. */
+    static final class Builder {
+
+        private record Entry(byte[] term, int slot) {
+        }
+
+        private long[] ids = new long[1024];
+        private final List<Entry> entries = new ArrayList<>();
+        private final List<byte[]> names = new ArrayList<>();
+        private int nameBytes;
+
+        void add(UserDTO user) {
+            int slot = names.size();
+            if (slot == ids.length) {
+                ids = Arrays.copyOf(ids, slot * 2);
+            }
+            ids[slot] = user.getId();
+            byte[] name = displayName(user).getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            nameBytes += name.length;
+            for (String term : terms(user)) {
+                entries.add(new Entry(term.getBytes(StandardCharsets.UTF_8), slot));
+            }
+        }
+
+        PrefixIndex build() {
+            return assemble(Arrays.copyOf(ids, names.size()), entries, names, nameBytes);
+        }
+    }
+
+    private static PrefixIndex assemble(long[] ids, List<Builder.Entry> entries, List<byte[]> names, int nameBytes) {
+
+        entries.sort((a, b) -> {
+            int cmp = Arrays.compareUnsigned(a.term(), b.term());
+            return cmp != 0 ? cmp : Long.compare(ids[a.slot()], ids[b.slot()]);
+        });
+
+        int termBytes = 0;
+        for (Builder.Entry e : entries) {
+            termBytes += e.term().length;
+        }
+
+        byte[] termData = new byte[termBytes];
+        int[] termOffsets = new int[entries.size() + 1];
+        int[] termSlots = new int[entries.size()];
+        int pos = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            byte[] term = entries.get(i).term();
+            System.arraycopy(term, 0, termData, pos, term.length);
+            pos += term.length;
+            termOffsets[i + 1] = pos;
+            termSlots[i] = entries.get(i).slot();
+        }
+
+        byte[] nameData = new byte[nameBytes];
+        int[] nameOffsets = new int[names.size() + 1];
+        pos = 0;
+        for (int slot = 0; slot < names.size(); slot++) {
+            byte[] name = names.get(slot);
+            System.arraycopy(name, 0, nameData, pos, name.length);
+            pos += name.length;
+            nameOffsets[slot + 1] = pos;
+        }
+
+        return new PrefixIndex(termData, termOffsets, termSlots, ids, nameData, nameOffsets);
+    }
+
+    // -------------------------------------------------------
+    // LOOKUP
+    // -------------------------------------------------------
+    int entries() {
+        return termSlots.length;
+    }
+
+    int users() {
+        return userIds.length;
+    }
+
+    /** First entry whose term is >= prefix. */
+    int lowerBound(byte[] prefix) {
+        int lo = 0;
+        int hi = termSlots.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Arrays.compareUnsigned(termData, termOffsets[mid], termOffsets[mid + 1], prefix, 0, prefix.length);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    boolean startsWith(int entry, byte[] prefix) {
+        int from = termOffsets[entry];
+        if (termOffsets[entry + 1] - from < prefix.length) {
+            return false;
+        }
+        return Arrays.equals(termData, from, from + prefix.length, prefix, 0, prefix.length);
+    }
+
+    String term(int entry) {
+        return new String(termData, termOffsets[entry], termOffsets[entry + 1] - termOffsets[entry], StandardCharsets.UTF_8);
+    }
+
+    long id(int entry) {
+        return userIds[termSlots[entry]];
+    }
+
+    String displayName(int entry) {
+        int slot = termSlots[entry];
+        return new String(nameData, nameOffsets[slot], nameOffsets[slot + 1] - nameOffsets[slot], StandardCharsets.UTF_8);
+    }
+
+    long memoryBytes() {
+        return termData.length + 4L * termOffsets.length + 4L * termSlots.length
+                + 8L * userIds.length + nameData.length + 4L * nameOffsets.length;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.test.suggest;
+
+import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserSuggestionDTO;
+import com.example.test.repository.UserRepository;
+import com.example.test.service.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Type-ahead for the user picker (GET /api/users/suggest).
+ *
+ * Reads hit an immutable {@link PrefixIndex} rebuilt from the database in
+ * the background, plus a small overlay of users written through
+ * {@link com.example.test.service.UserService} since that rebuild. Until the
+ * first build finishes, or when app.suggest.enabled is false, suggestions
+ * come from the SQL search instead.
+ */
+@Slf4j
+@Service
+public class UserSuggestService {
+
+    private static final int MAX_LIMIT = 50;
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int maxPending;
+
+    private volatile PrefixIndex index;
+
+    // writes since the last rebuild; user == null marks a delete
+    private record Pending(long seq, UserSuggestionDTO user, Set<String> terms) {
+    }
+
+    private record TermKey(String term, long id) implements Comparable<TermKey> {
+        @Override
+        public int compareTo(TermKey o) {
+            int cmp = term.compareTo(o.term);
+            return cmp != 0 ? cmp : Long.compare(id, o.id);
+        }
+    }
+
+    private record Candidate(String term, long id, String displayName) {
+    }
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<TermKey, Boolean> pendingTerms = new ConcurrentSkipListMap<>();
+    private final AtomicLong writeSeq = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    public UserSuggestService(UserRepository userRepository,
+                              @Value("${app.suggest.enabled:true}") boolean enabled,
+                              @Value("${app.suggest.max-pending:10000}") int maxPending) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+    }
+
+    public boolean isReady() {
+        return enabled && index != null;
+    }
+
+    // -------------------------------------------------------
+    // SUGGEST
+    // -------------------------------------------------------
+    public List<UserSuggestionDTO> suggest(String prefix, int limit) {
+
+        String normalized = PrefixIndex.normalize(prefix);
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        PrefixIndex current = index;
+        if (!enabled || current == null) {
+            return userRepository.searchUsers(normalized, k, 0, "id", "asc").stream()
+                    .map(u -> new UserSuggestionDTO(u.getId(), PrefixIndex.displayName(u)))
+                    .toList();
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+
+        // base: first k distinct users in (term, id) order, skipping anyone rewritten since
+        byte[] bytes = normalized.getBytes(StandardCharsets.UTF_8);
+        Set<Long> seen = new HashSet<>();
+        for (int e = current.lowerBound(bytes); e < current.entries() && seen.size() < k && current.startsWith(e, bytes); e++) {
+            long id = current.id(e);
+            if (!pending.containsKey(id) && seen.add(id)) {
+                candidates.add(new Candidate(current.term(e), id, current.displayName(e)));
+            }
+        }
+
+        // overlay: same, over users written since the last rebuild
+        Set<Long> seenPending = new HashSet<>();
+        for (TermKey key : pendingTerms.subMap(
+                new TermKey(normalized, Long.MIN_VALUE), new TermKey(normalized + Character.MAX_VALUE, Long.MIN_VALUE)).keySet()) {
+            if (seenPending.size() >= k) {
+                break;
+            }
+            Pending p = pending.get(key.id());
+            if (p != null && p.user() != null && p.terms().contains(key.term()) && seenPending.add(key.id())) {
+                candidates.add(new Candidate(key.term(), key.id(), p.user().getDisplayName()));
+            }
+        }
+
+        candidates.sort(Comparator.comparing(Candidate::term).thenComparingLong(Candidate::id));
+
+        return candidates.stream()
+                .limit(k)
+                .map(c -> new UserSuggestionDTO(c.id(), c.displayName()))
+                .toList();
+    }
+
+    // -------------------------------------------------------
+    // FOLLOW WRITES
+    // -------------------------------------------------------
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            Pending previous = pending.get(event.id());
+            if (previous != null) {
+                previous.terms().forEach(t -> pendingTerms.remove(new TermKey(t, event.id())));
+            }
+
+            UserDTO user = event.user();
+            Set<String> terms = user == null ? Set.of() : PrefixIndex.terms(user);
+            UserSuggestionDTO suggestion = user == null ? null : new UserSuggestionDTO(event.id(), PrefixIndex.displayName(user));
+
+            pending.put(event.id(), new Pending(writeSeq.incrementAndGet(), suggestion, terms));
+            terms.forEach(t -> pendingTerms.put(new TermKey(t, event.id()), Boolean.TRUE));
+        }
+
+        if (pending.size() > maxPending) {
+            rebuildAsync();
+        }
+    }
+
+    // -------------------------------------------------------
+    // BACKGROUND REBUILD
+    // -------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuildAsync();
+    }
+
+    // only starts the loader: the shared scheduler thread must not wait for a full load
+    @Scheduled(fixedDelayString = "${app.suggest.rebuild-ms:600000}",
+            initialDelayString = "${app.suggest.rebuild-ms:600000}")
+    public void scheduledRebuild() {
+        rebuildAsync();
+    }
+
+    private void rebuildAsync() {
+        if (!enabled || rebuilding.get()) {
+            return;
+        }
+        Thread loader = new Thread(this::rebuild, "user-suggest-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+
+            // writes applied before the load are committed, so the load sees them
+            long loadedUpTo = writeSeq.get();
+            PrefixIndex.Builder builder = new PrefixIndex.Builder();
+            long afterId = Long.MIN_VALUE;
+            List<UserDTO> page;
+            do {
+                page = userRepository.getUsersAfterId(afterId, LOAD_PAGE_SIZE);
+                page.forEach(builder::add);
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+            PrefixIndex next = builder.build();
+
+            synchronized (writeLock) {
+                index = next;
+                pending.entrySet().removeIf(e -> {
+                    if (e.getValue().seq() > loadedUpTo) {
+                        return false;
+                    }
+                    e.getValue().terms().forEach(t -> pendingTerms.remove(new TermKey(t, e.getKey())));
+                    return true;
+                });
+            }
+
+            log.info("Suggest: indexed {} users / {} terms in {} ms ({} bytes)",
+                    next.users(), next.entries(), System.currentTimeMillis() - started, next.memoryBytes());
+        } catch (Exception e) {
+            log.error("Suggest: rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+}
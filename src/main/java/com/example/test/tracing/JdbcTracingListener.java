@@ -0,0 +1,57 @@
+package com.example.test.tracing;
+
+import com.example.test.jdbc.JdbcEventListener;
+import com.example.test.jdbc.StatementExecution;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Turns pool waits and JDBC statements on a traced thread into child spans
+ * of the current (usually repository) span. SQL is recorded without bind
+ * values, which may contain personal data.
+ */
+@Component
+public class JdbcTracingListener implements JdbcEventListener {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SQL_LENGTH = 500;
+
+    private final Tracer tracer;
+
+    public JdbcTracingListener(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void onConnectionAcquired(long startNanos, long elapsedNanos, boolean failed) {
+        Span span = tracer.childAt("pool.acquire", "pool", startNanos);
+        if (span == null) {
+            return;
+        }
+        if (failed) {
+            span.error("connection not acquired");
+        }
+        span.end(startNanos + elapsedNanos);
+    }
+
+    @Override
+    public void onStatementExecuted(StatementExecution execution) {
+        Span span = tracer.childAt("jdbc", "db", execution.startNanos());
+        if (span == null) {
+            return;
+        }
+
+        String sql = WHITESPACE.matcher(execution.sql()).replaceAll(" ").strip();
+        int verbEnd = sql.indexOf(' ');
+        span.rename("jdbc " + (verbEnd > 0 ? sql.substring(0, verbEnd) : sql).toUpperCase());
+        span.tag("sql", sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql);
+        if (execution.rows() >= 0) {
+            span.tag("rows", execution.rows());
+        }
+        if (execution.failed()) {
+            span.error("statement failed");
+        }
+        span.end(execution.startNanos() + execution.elapsedNanos());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.test.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed unit of work inside a trace. Spans are started and ended on the
+ * same thread through {@link Tracer}; ending a span makes its parent current
+ * again. Ending twice is a no-op.
+ */
+public class Span {
+
+    final Trace trace;
+    final Span parent;
+    final String spanId;
+    final String kind;
+    volatile String name;
+    final long startNanos;
+    final Map<String, Object> tags = new LinkedHashMap<>(4);
+
+    volatile long endNanos;
+    volatile String error;
+
+    Span(Trace trace, Span parent, String spanId, String name, String kind, long startNanos) {
+        this.trace = trace;
+        this.parent = parent;
+        this.spanId = spanId;
+        this.name = name;
+        this.kind = kind;
+        this.startNanos = startNanos;
+    }
+
+    public Span tag(String key, Object value) {
+        tags.put(key, value);
+        return this;
+    }
+
+    public void error(Throwable t) {
+        this.error = t.getClass().getSimpleName() + (t.getMessage() == null ? "" : ": " + t.getMessage());
+    }
+
+    public void error(String message) {
+        this.error = message;
+    }
+
+    public void rename(String name) {
+        this.name = name;
+    }
+
+    public void end() {
+        end(System.nanoTime());
+    }
+
+    void end(long nanos) {
+        if (endNanos != 0) {
+            return;
+        }
+        endNanos = nanos;
+        trace.tracer.finished(this);
+    }
+
+    public String traceId() {
+        return trace.traceId;
+    }
+
+    public String spanId() {
+        return spanId;
+    }
+
+    public boolean isEnded() {
+        return endNanos != 0;
+    }
+}
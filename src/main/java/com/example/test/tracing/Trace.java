@@ -0,0 +1,95 @@
+package com.example.test.tracing;
+
+import com.example.test.dto.SpanDTO;
+import com.example.test.dto.TraceDTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spans collected for one request. Finished spans are appended as they end;
+ * past {@code maxSpans} further spans are only counted.
+ */
+class Trace {
+
+    final Tracer tracer;
+    final String traceId;
+    final String remoteParentId;
+    final Instant startedAt = Instant.now();
+
+    private final int maxSpans;
+    private final List<Span> spans = new ArrayList<>();
+    private int dropped;
+
+    volatile Span root;
+
+    Trace(Tracer tracer, String traceId, String remoteParentId, int maxSpans) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.remoteParentId = remoteParentId;
+        this.maxSpans = maxSpans;
+    }
+
+    synchronized void add(Span span) {
+        if (spans.size() < maxSpans || span == root) {
+            spans.add(span);
+        } else {
+            dropped++;
+        }
+    }
+
+    long durationNanos() {
+        return root.endNanos - root.startNanos;
+    }
+
+    // -------------------------------------------------------
+    // EXPORT
+    // -------------------------------------------------------
+    synchronized TraceDTO toDTO(boolean withSpans) {
+        List<SpanDTO> spanDTOs = null;
+
+        if (withSpans) {
+            spanDTOs = spans.stream()
+                    .sorted(Comparator.comparingLong(s -> s.startNanos))
+                    .map(this::toDTO)
+                    .toList();
+        }
+
+        return new TraceDTO(
+                traceId,
+                root.name,
+                startedAt,
+                millis(durationNanos()),
+                spans.size(),
+                dropped,
+                root.error,
+                spanDTOs
+        );
+    }
+
+    private SpanDTO toDTO(Span span) {
+        return new SpanDTO(
+                span.spanId,
+                span.parent == null ? remoteParentId : span.parent.spanId,
+                span.name,
+                span.kind,
+                millis(span.startNanos - root.startNanos),
+                millis(span.endNanos - span.startNanos),
+                span.tags.isEmpty() ? null : span.tags,
+                span.error
+        );
+    }
+
+    private static double millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0;
+    }
+
+    List<Span> spans() {
+        synchronized (this) {
+            return List.copyOf(spans);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.test.tracing;
+
+import com.example.test.dto.TraceDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local trace exporter: the last {@code buffer-size} finished traces in
+ * memory (GET /api/admin/traces), and optionally one JSON line per trace
+ * appended to {@code export-file} on a background thread. No collector needed.
+ */
+@Slf4j
+@Component
+public class TraceBuffer {
+
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final Path exportFile;
+
+    private final ArrayDeque<Trace> traces = new ArrayDeque<>();
+
+    private final ThreadPoolExecutor exportExecutor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1000),
+            r -> {
+                Thread t = new Thread(r, "trace-export");
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private Writer writer;
+
+    public TraceBuffer(ObjectMapper objectMapper,
+                       @Value("${app.tracing.buffer-size:500}") int capacity,
+                       @Value("${app.tracing.export-file:}") String exportFile) {
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.exportFile = exportFile.isBlank() ? null : Path.of(exportFile);
+    }
+
+    // -------------------------------------------------------
+    // ADD
+    // -------------------------------------------------------
+    void add(Trace trace) {
+        synchronized (traces) {
+            if (traces.size() >= capacity) {
+                traces.pollFirst();
+            }
+            traces.addLast(trace);
+        }
+
+        if (exportFile != null) {
+            exportExecutor.execute(() -> export(trace));
+        }
+    }
+
+    private void export(Trace trace) {
+        try {
+            if (writer == null) {
+                if (exportFile.getParent() != null) {
+                    Files.createDirectories(exportFile.getParent());
+                }
+                writer = Files.newBufferedWriter(exportFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(objectMapper.writeValueAsString(trace.toDTO(true)));
+            writer.write('\n');
+            if (exportExecutor.getQueue().isEmpty()) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Writing trace {} to {} failed: {}", trace.traceId, exportFile, e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------
+    // QUERY
+    // -------------------------------------------------------
+
+    /**
+     * Newest first, optionally only traces at least {@code minMillis} long.
+     */
+    public List<TraceDTO> recent(int limit, long minMillis) {
+        long minNanos = TimeUnit.MILLISECONDS.toNanos(minMillis);
+        List<TraceDTO> result = new ArrayList<>();
+
+        synchronized (traces) {
+            Iterator<Trace> it = traces.descendingIterator();
+            while (it.hasNext() && result.size() < limit) {
+                Trace trace = it.next();
+                if (trace.durationNanos() >= minNanos) {
+                    result.add(trace.toDTO(false));
+                }
+            }
+        }
+        return result;
+    }
+
+    public Optional<TraceDTO> find(String traceId) {
+        synchronized (traces) {
+            Iterator<Trace> it = traces.descendingIterator();
+            while (it.hasNext()) {
+                Trace trace = it.next();
+                if (trace.traceId.equals(traceId)) {
+                    return Optional.of(trace.toDTO(true));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void clear() {
+        synchronized (traces) {
+            traces.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        exportExecutor.shutdown();
+        exportExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Closing trace export file failed: {}", e.getMessage());
+            }
+        }
+    }
+}
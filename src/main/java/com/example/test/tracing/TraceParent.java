@@ -0,0 +1,49 @@
+package com.example.test.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * W3C trace context ({@code traceparent: 00-<trace-id>-<parent-id>-<flags>}).
+ */
+public record TraceParent(String traceId, String spanId, boolean sampled) {
+
+    public static final String HEADER = "traceparent";
+
+    private static final Pattern FORMAT = Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+    private static final String INVALID_TRACE = "0".repeat(32);
+    private static final String INVALID_SPAN = "0".repeat(16);
+
+    /**
+     * @return the parsed header, or null when absent or malformed (a new trace is started instead)
+     */
+    public static TraceParent parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        var m = FORMAT.matcher(header.strip().toLowerCase());
+        if (!m.matches() || m.group(1).equals(INVALID_TRACE) || m.group(2).equals(INVALID_SPAN)) {
+            return null;
+        }
+        boolean sampled = (Integer.parseInt(m.group(3), 16) & 1) == 1;
+        return new TraceParent(m.group(1), m.group(2), sampled);
+    }
+
+    public String format() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    static String newTraceId() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        return hex(rnd.nextLong()) + hex(rnd.nextLong() | 1);
+    }
+
+    static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong() | 1);
+    }
+
+    private static String hex(long value) {
+        String s = Long.toHexString(value);
+        return "0".repeat(16 - s.length()) + s;
+    }
+}
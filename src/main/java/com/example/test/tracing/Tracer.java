@@ -0,0 +1,149 @@
+package com.example.test.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Thread-bound span stack for in-process request tracing.
+ *
+ * {@link TracingFilter} opens the root span of a request; {@link TracingAspect}
+ * and {@link JdbcTracingListener} add children on the same thread. Work on
+ * other threads (shard scatter, background jobs) has no current span and
+ * is not recorded. When a root span ends, the trace goes to {@link TraceBuffer}.
+ */
+@Slf4j
+@Component
+public class Tracer {
+
+    public static final String KIND_BINDING = "binding";
+
+    private final TraceBuffer buffer;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int maxSpansPerTrace;
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    public Tracer(TraceBuffer buffer,
+                  @Value("${app.tracing.enabled:true}") boolean enabled,
+                  @Value("${app.tracing.sample-rate:1.0}") double sampleRate,
+                  @Value("${app.tracing.max-spans-per-trace:500}") int maxSpansPerTrace) {
+        this.buffer = buffer;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // -------------------------------------------------------
+    // START
+    // -------------------------------------------------------
+
+    /**
+     * Opens the root span for a request. An incoming sampled/unsampled flag
+     * is honoured; otherwise app.tracing.sample-rate decides.
+     *
+     * @return the root span, or null when the request is not traced
+     */
+    public Span startTrace(String name, TraceParent incoming) {
+        if (!enabled) {
+            return null;
+        }
+
+        boolean sampled = incoming != null
+                ? incoming.sampled()
+                : sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!sampled) {
+            return null;
+        }
+
+        Trace trace = new Trace(this,
+                incoming != null ? incoming.traceId() : TraceParent.newTraceId(),
+                incoming != null ? incoming.spanId() : null,
+                maxSpansPerTrace);
+
+        Span root = new Span(trace, null, TraceParent.newSpanId(), name, "http", System.nanoTime());
+        trace.root = root;
+        current.set(root);
+        return root;
+    }
+
+    /**
+     * Opens a child of the current span and makes it current.
+     *
+     * @return the span, or null when this thread is not inside a trace
+     */
+    public Span startSpan(String name, String kind) {
+        Span parent = current.get();
+        if (parent == null) {
+            return null;
+        }
+        Span span = new Span(parent.trace, parent, TraceParent.newSpanId(), name, kind, System.nanoTime());
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * Opens a child of the current span for work that already happened (JDBC
+     * events arrive after the fact) without making it current; the caller
+     * ends it with the recorded end time.
+     */
+    Span childAt(String name, String kind, long startNanos) {
+        Span parent = current.get();
+        if (parent == null) {
+            return null;
+        }
+        return new Span(parent.trace, parent, TraceParent.newSpanId(), name, kind, startNanos);
+    }
+
+    public Span current() {
+        return current.get();
+    }
+
+    public boolean isTracing() {
+        return current.get() != null;
+    }
+
+    /**
+     * Ends the argument-binding span opened by {@link TracingInterceptor}, if
+     * it is still current (called on controller entry and after completion).
+     */
+    public void endBinding() {
+        Span span = current.get();
+        if (span != null && KIND_BINDING.equals(span.kind)) {
+            span.end();
+        }
+    }
+
+    /**
+     * Drops whatever is left on this thread; the request thread goes back to the pool.
+     */
+    public void clear() {
+        current.remove();
+    }
+
+    // -------------------------------------------------------
+    // END
+    // -------------------------------------------------------
+    void finished(Span span) {
+        if (current.get() == span) {
+            if (span.parent == null) {
+                current.remove();
+            } else {
+                current.set(span.parent);
+            }
+        }
+
+        span.trace.add(span);
+
+        if (span.parent == null) {
+            buffer.add(span.trace);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.test.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * One span per public controller, service and repository call made on a
+ * traced request thread. Outside a trace the advice is a thread-local read.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("execution(public * com.example.test.controller..*(..))")
+    public Object controller(ProceedingJoinPoint pjp) throws Throwable {
+        tracer.endBinding();
+        return trace(pjp, "controller");
+    }
+
+    @Around("execution(public * com.example.test.service..*(..))")
+    public Object service(ProceedingJoinPoint pjp) throws Throwable {
+        return trace(pjp, "service");
+    }
+
+    @Around("execution(public * com.example.test.repository..*(..))")
+    public Object repository(ProceedingJoinPoint pjp) throws Throwable {
+        return trace(pjp, "repository");
+    }
+
+    private Object trace(ProceedingJoinPoint pjp, String kind) throws Throwable {
+        if (!tracer.isTracing()) {
+            return pjp.proceed();
+        }
+
+        Span span = tracer.startSpan(
+                pjp.getTarget().getClass().getSimpleName() + "." + pjp.getSignature().getName(), kind);
+        try {
+            return pjp.proceed();
+        } catch (Throwable t) {
+            span.error(t);
+            throw t;
+        } finally {
+            span.end();
+        }
+    }
+}
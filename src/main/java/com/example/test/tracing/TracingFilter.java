@@ -0,0 +1,74 @@
+package com.example.test.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens the root span of each request, continuing the caller's trace when a
+ * {@code traceparent} header is present. The trace id is returned in
+ * {@code X-Trace-Id} and put in the logging MDC as {@code traceId}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !tracer.isEnabled() || path.startsWith("/api/admin/traces") || path.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        Span root = tracer.startTrace(request.getMethod() + " " + request.getRequestURI(),
+                TraceParent.parse(request.getHeader(TraceParent.HEADER)));
+
+        if (root == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(TRACE_ID_HEADER, root.traceId());
+        MDC.put("traceId", root.traceId());
+
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            root.error(e);
+            throw e;
+        } finally {
+            // templated route keeps traces of /api/users/1 and /api/users/2 comparable
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                root.rename(request.getMethod() + " " + route);
+            }
+            root.tag("http.status", response.getStatus());
+            if (response.getStatus() >= 500 && root.error == null) {
+                root.error("HTTP " + response.getStatus());
+            }
+            root.end();
+            tracer.clear();
+            MDC.remove("traceId");
+        }
+    }
+}
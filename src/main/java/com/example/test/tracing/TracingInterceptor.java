@@ -0,0 +1,40 @@
+package com.example.test.tracing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Opens a "binding" span once the handler is chosen. It covers argument
+ * resolution — JSON parsing and {@code @Valid} — and is closed by
+ * {@link TracingAspect} on controller entry, or here when binding failed.
+ */
+@Component
+public class TracingInterceptor implements HandlerInterceptor {
+
+    private final Tracer tracer;
+
+    public TracingInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method && tracer.isTracing()) {
+            tracer.startSpan("bind " + method.getBeanType().getSimpleName() + "." + method.getMethod().getName(),
+                    Tracer.KIND_BINDING);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Span span = tracer.current();
+        if (span != null && Tracer.KIND_BINDING.equals(span.kind)) {
+            span.error(ex != null ? ex.getClass().getSimpleName() : "HTTP " + response.getStatus());
+            span.end();
+        }
+    }
+}
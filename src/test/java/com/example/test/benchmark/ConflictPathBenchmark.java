@@ -0,0 +1,101 @@
+package com.example.test.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.test.dto.UserCreateRequest;
+import com.example.test.exception.DuplicateEmailException;
+import com.example.test.exception.GlobalExceptionHandler;
+import com.example.test.repository.UserRepository;
+import com.example.test.resilience.DatabaseGuard;
+import com.example.test.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Duplicate-email create, from the service call to the error body.
+ *
+ * before: driver error translated to DuplicateKeyException, caught and
+ *         re-thrown as a new DuplicateKeyException, mapped by the handler
+ *         (three stack traces per conflict).
+ * after:  the procedure reports the conflict as a NULL id, UserService
+ *         throws a stackless DuplicateEmailException, the handler returns a
+ *         shared body.
+ *
+ * stackDepth pads the call stack to roughly what a request through
+ * Tomcat, the filter chain and Spring MVC carries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConflictPathBenchmark {
+
+    @Param({"20", "120"})
+    public int stackDepth;
+
+    private UserService userService;
+    private GlobalExceptionHandler handler;
+    private UserCreateRequest request;
+
+    @Setup
+    public void setUp() {
+        // measure the exception path, not console logging
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.OFF);
+
+        UserRepository conflicting = new UserRepository(null) {
+            @Override
+            public Long createUserUsingProcedure(Long id, UserCreateRequest req) {
+                return null;
+            }
+        };
+
+        userService = new UserService(conflicting, () -> 1L, null, null, null, null,
+                new DatabaseGuard(false, 50, 20, 0.5, 2000, 0.8, 10000, 3, 1000, 3600000, 1000, 50),
+                null, TransactionOperations.withoutTransaction());
+        handler = new GlobalExceptionHandler();
+
+        request = new UserCreateRequest();
+        request.setFirstName("Ann");
+        request.setLastName("Lee");
+        request.setEmail("ann@test.com");
+    }
+
+    @Benchmark
+    public Object before() {
+        return atDepth(stackDepth, () -> {
+            try {
+                try {
+                    SQLException driverError = new SQLException("duplicate key value violates unique constraint", "23505");
+                    throw new DuplicateKeyException("CallableStatementCallback; " + driverError.getMessage(), driverError);
+                } catch (DuplicateKeyException e) {
+                    throw new DuplicateKeyException("DUPLICATE_DATA_ERROR");
+                }
+            } catch (DuplicateKeyException e) {
+                return handler.handleDuplicateKey(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public Object after() {
+        return atDepth(stackDepth, () -> {
+            try {
+                return userService.createUser(request);
+            } catch (DuplicateEmailException e) {
+                return handler.handleDuplicateEmail(e);
+            }
+        });
+    }
+
+    private static Object atDepth(int depth, Supplier<Object> body) {
+        return depth == 0 ? body.get() : atDepth(depth - 1, body);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.test.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link ConflictPathBenchmark} and writes target/jmh-conflict-path.json:
+ *
+ *   mvn test -Dtest=ConflictPathBenchmarkTest -Djmh=true
+ */
+@EnabledIfSystemProperty(named = "jmh", matches = "true")
+class ConflictPathBenchmarkTest {
+
+    @Test
+    void stacklessConflictIsCheaper() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ConflictPathBenchmark.class.getName())
+                .jvmArgsAppend("-cp", System.getProperty("java.class.path"))
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-conflict-path.json")
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        // "before|20" -> ns/op
+        Map<String, Double> scores = new HashMap<>();
+        for (RunResult r : results) {
+            String method = r.getParams().getBenchmark().substring(r.getParams().getBenchmark().lastIndexOf('.') + 1);
+            scores.put(method + "|" + r.getParams().getParam("stackDepth"), r.getPrimaryResult().getScore());
+        }
+
+        for (String depth : new String[]{"20", "120"}) {
+            assertTrue(scores.get("after|" + depth) < scores.get("before|" + depth),
+                    "stackless path not faster at depth " + depth + ": " + scores);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.test.benchmark;
+
+import com.example.test.dto.UserCreateRequest;
+import com.example.test.dto.UserDTO;
+import com.example.test.repository.UserRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Query strategies side by side, driving {@link UserRepository} against a
+ * generated population (see RepositoryBenchmarkTest). Each pair is the
+ * current repository method and the candidate it could be replaced with.
+ *
+ * pagination   getUsersPaginated (OFFSET)  vs  WHERE id > last ORDER BY id LIMIT
+ * insert       createUserUsingProcedure    vs  INSERT ... RETURNING id
+ * email check  emailExistsForAnotherUser   vs  SELECT EXISTS (...)
+ *   (COUNT(*))
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    static final String BENCH_EMAIL_DOMAIN = "@bench.invalid";
+
+    private static final String KEYSET_PAGE = """
+        SELECT id, first_name, last_name, email, phone, created_at
+        FROM view_all_users
+        WHERE id > ?
+        ORDER BY id
+        LIMIT ?
+    """;
+
+    // -------------------------------------------------------------
+    // SHARED POOL + REPOSITORY
+    // -------------------------------------------------------------
+    @State(Scope.Benchmark)
+    public static class Db {
+
+        HikariDataSource pool;
+        JdbcTemplate jdbcTemplate;
+        UserRepository userRepository;
+        long rows;
+
+        long[] sampleIds;
+        String[] sampleEmails;
+
+        @Setup(Level.Trial)
+        public void connect() {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(System.getProperty("it.db.url"));
+            config.setUsername(System.getProperty("it.db.user", "postgres"));
+            config.setPassword(System.getProperty("it.db.password", ""));
+            config.setMaximumPoolSize(4);
+            config.addDataSourceProperty("escapeSyntaxCallMode", "callIfNoReturn");
+
+            pool = new HikariDataSource(config);
+            jdbcTemplate = new JdbcTemplate(pool);
+            userRepository = new UserRepository(jdbcTemplate);
+            userRepository.init();
+            rows = Long.getLong("it.db.rows", 1_000_000);
+
+            // existing (id, email) pairs spread over the whole table
+            SplittableRandom rnd = new SplittableRandom(7);
+            Long[] ids = new Long[1000];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = rnd.nextLong(1, rows + 1);
+            }
+            List<Map<String, Object>> sample = jdbcTemplate.queryForList(
+                    "SELECT id, email FROM users WHERE id = ANY(?)", (Object) ids);
+            sampleIds = sample.stream().mapToLong(r -> ((Number) r.get("id")).longValue()).toArray();
+            sampleEmails = sample.stream().map(r -> (String) r.get("email")).toArray(String[]::new);
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanUp() {
+            jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", "%" + BENCH_EMAIL_DOMAIN);
+            pool.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Paging {
+
+        @Param({"0", "1000", "50000"})
+        public int page;
+
+        public int size = 20;
+        long afterId;
+
+        @Setup(Level.Trial)
+        public void locate(Db db) {
+            // the cursor a client would hold after walking to this page
+            Long id = db.jdbcTemplate.query(
+                    "SELECT id FROM users ORDER BY id LIMIT 1 OFFSET ?",
+                    rs -> rs.next() ? rs.getLong(1) : null, Math.max(0, page * size - 1));
+            afterId = page == 0 || id == null ? 0 : id;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private static final AtomicLong SEQ = new AtomicLong();
+        int next;
+
+        UserCreateRequest newUser() {
+            UserCreateRequest req = new UserCreateRequest();
+            req.setFirstName("Bench");
+            req.setLastName("Mark");
+            req.setEmail("bench-" + ProcessHandle.current().pid() + "-" + SEQ.incrementAndGet() + BENCH_EMAIL_DOMAIN);
+            req.setPhone("+15550000000");
+            return req;
+        }
+
+        int nextSample(Db db) {
+            next = (next + 1) % db.sampleIds.length;
+            return next;
+        }
+    }
+
+    // -------------------------------------------------------------
+    // PAGINATION
+    // -------------------------------------------------------------
+    @Benchmark
+    public List<UserDTO> paginationOffset(Db db, Paging paging) {
+        return db.userRepository.getUsersPaginated(paging.page, paging.size, "id", "asc");
+    }
+
+    @Benchmark
+    public List<UserDTO> paginationKeyset(Db db, Paging paging) {
+        return db.jdbcTemplate.query(KEYSET_PAGE, (rs, n) -> new UserDTO(
+                rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"),
+                rs.getString("email"), rs.getString("phone"), rs.getTimestamp("created_at").toLocalDateTime()),
+                paging.afterId, paging.size);
+    }
+
+    // -------------------------------------------------------------
+    // INSERT
+    // -------------------------------------------------------------
+    @Benchmark
+    public Long insertProcedure(Db db, Cursor cursor) {
+        return db.userRepository.createUserUsingProcedure(null, cursor.newUser());
+    }
+
+    @Benchmark
+    public Long insertDirect(Db db, Cursor cursor) {
+        UserCreateRequest req = cursor.newUser();
+        return db.jdbcTemplate.queryForObject(
+                "INSERT INTO users (first_name, last_name, email, phone) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, req.getFirstName(), req.getLastName(), req.getEmail(), req.getPhone());
+    }
+
+    // -------------------------------------------------------------
+    // DUPLICATE EMAIL CHECK
+    // -------------------------------------------------------------
+    @Benchmark
+    public boolean emailCheckCount(Db db, Cursor cursor) {
+        int i = cursor.nextSample(db);
+        return db.userRepository.emailExistsForAnotherUser(db.sampleEmails[i], db.sampleIds[i] + 1);
+    }
+
+    @Benchmark
+    public Boolean emailCheckExists(Db db, Cursor cursor) {
+        int i = cursor.nextSample(db);
+        return db.jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM users WHERE email = ? AND id <> ?)",
+                Boolean.class, db.sampleEmails[i], db.sampleIds[i] + 1);
+    }
+}
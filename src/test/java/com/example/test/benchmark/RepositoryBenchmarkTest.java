@@ -0,0 +1,57 @@
+package com.example.test.benchmark;
+
+import com.example.test.support.ScratchDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Generates (or reuses) a synthetic population and runs {@link RepositoryBenchmark}
+ * against it; results go to target/jmh-repository.json.
+ *
+ *   mvn test -Dtest=RepositoryBenchmarkTest -Djmh=true \
+ *       -Dit.db.url=jdbc:postgresql://localhost:5432/bench \
+ *       -Dit.db.user=postgres -Dit.db.password=... \
+ *       [-Dit.db.rows=1000000|10000000|50000000] [-Dbench.seed=42] [-Dbench.copy-threads=8] \
+ *       [-Dbench.include=pagination]
+ *
+ * The data set is regenerated only when rows or seed change.
+ */
+@EnabledIfSystemProperty(named = "jmh", matches = "true")
+@EnabledIfSystemProperty(named = "it.db.url", matches = ".+")
+class RepositoryBenchmarkTest {
+
+    @Test
+    void runRepositoryBenchmarks() throws Exception {
+        long rows = Long.getLong("it.db.rows", 1_000_000);
+        long seed = Long.getLong("bench.seed", 42);
+
+        ScratchDatabase.ensureGenerated(ScratchDatabase.dataSource(), rows, seed,
+                Integer.getInteger("bench.copy-threads", Runtime.getRuntime().availableProcessors()));
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(RepositoryBenchmark.class.getName() + "." + System.getProperty("bench.include", ""))
+                .jvmArgsAppend(
+                        "-cp", System.getProperty("java.class.path"),
+                        "-Dit.db.url=" + ScratchDatabase.url(),
+                        "-Dit.db.user=" + ScratchDatabase.user(),
+                        "-Dit.db.password=" + ScratchDatabase.password(),
+                        "-Dit.db.rows=" + rows,
+                        "-Dbench.seed=" + seed,
+                        "-Dlogging.level.root=WARN")
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-repository.json");
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        assertFalse(results.isEmpty());
+    }
+}
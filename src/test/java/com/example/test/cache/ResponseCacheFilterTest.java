@@ -0,0 +1,128 @@
+package com.example.test.cache;
+
+import com.example.test.resilience.DatabaseGuard;
+import com.example.test.service.UserChangedEvent;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+
+    private ResponseCache cache;
+    private ResponseCacheFilter filter;
+
+    private final AtomicInteger renders = new AtomicInteger();
+    private boolean renderStale;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache(true, 100, 1 << 20, 60000, 64);
+        filter = new ResponseCacheFilter(cache);
+    }
+
+    // -------------------------------------------------------------
+    // HIT / MISS
+    // -------------------------------------------------------------
+    @Test
+    void testSecondRequestServedFromBytes() throws Exception {
+        MockHttpServletResponse first = get("/api/users", "page=0", null);
+        MockHttpServletResponse second = get("/api/users", "", null);
+
+        assertEquals(1, renders.get());
+        assertEquals("MISS", first.getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", second.getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+    }
+
+    @Test
+    void testGzipCopyForClientsThatAcceptIt() throws Exception {
+        get("/api/users", "size=50", null);
+        MockHttpServletResponse zipped = get("/api/users", "size=50", "gzip, deflate");
+
+        assertEquals("gzip", zipped.getHeader("Content-Encoding"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(zipped.getContentAsByteArray()))) {
+            assertEquals(body("/api/users"), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    // -------------------------------------------------------------
+    // GENERATIONS
+    // -------------------------------------------------------------
+    @Test
+    void testWriteInvalidatesListsAndThatUserOnly() throws Exception {
+        get("/api/users", "", null);
+        get("/api/users/7", "", null);
+        get("/api/users/8", "", null);
+
+        cache.onUserChanged(new UserChangedEvent(7L, null));
+
+        assertEquals("MISS", get("/api/users", "", null).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("MISS", get("/api/users/7", "", null).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", get("/api/users/8", "", null).getHeader(ResponseCacheFilter.CACHE_HEADER));
+    }
+
+    @Test
+    void testStaleResponsesAreNotStored() throws Exception {
+        renderStale = true;
+        get("/api/users/9", "", null);
+        renderStale = false;
+
+        assertEquals("MISS", get("/api/users/9", "", null).getHeader(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void testKeyNormalization() {
+        MockHttpServletRequest a = new MockHttpServletRequest("GET", "/api/users");
+        a.setParameter("sortBy", "email");
+        a.setParameter("direction", "asc");
+        a.setParameter("q", " ");
+        MockHttpServletRequest b = new MockHttpServletRequest("GET", "/api/users");
+        b.setParameter("sortBy", "email");
+
+        assertEquals(ResponseCacheFilter.key(b, true), ResponseCacheFilter.key(a, true));
+        assertEquals("/api/users?sortBy=email", ResponseCacheFilter.key(a, true));
+    }
+
+    // -------------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------------
+    private MockHttpServletResponse get(String path, String query, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        for (String pair : query.split("&")) {
+            if (!pair.isEmpty()) {
+                request.addParameter(pair.substring(0, pair.indexOf('=')), pair.substring(pair.indexOf('=') + 1));
+            }
+        }
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain controller = (req, res) -> {
+            renders.incrementAndGet();
+            if (renderStale) {
+                req.setAttribute(DatabaseGuard.STALE_ATTRIBUTE, Boolean.TRUE);
+            }
+            res.setContentType("application/json");
+            res.getOutputStream().write(body(path).getBytes(StandardCharsets.UTF_8));
+        };
+
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+
+    private static String body(String path) {
+        return "[{\"id\":1,\"firstName\":\"Ada\",\"lastName\":\"Lovelace\",\"email\":\"ada@example.com\",\"path\":\"" + path + "\"}]";
+    }
+}
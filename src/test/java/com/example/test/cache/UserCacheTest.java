@@ -0,0 +1,172 @@
+package com.example.test.cache;
+
+import com.example.test.dto.ChangeToken;
+import com.example.test.dto.UserChangeDTO;
+import com.example.test.dto.UserChangePageDTO;
+import com.example.test.dto.UserDTO;
+import com.example.test.repository.UserRepository;
+import com.example.test.service.UserChangeService;
+import com.example.test.service.UserChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserChangeService changeService;
+
+    @TempDir
+    Path dir;
+
+    // -------------------------------------------------------------
+    // FILE LAYOUT
+    // -------------------------------------------------------------
+    @Test
+    void testCheckpointFile_roundTrip() throws Exception {
+        Path file = dir.resolve("users.bin");
+        UserCheckpointFile.write(file, new ChangeToken(42, 7),
+                List.of(user(30, "Zoë"), user(10, "Ann"), new UserDTO(20L, "Bo", "Li", "bo@x.com", null, CREATED)));
+
+        UserCheckpointFile mapped = UserCheckpointFile.map(file);
+
+        assertEquals(3, mapped.size());
+        assertEquals(new ChangeToken(42, 7), mapped.marker());
+        assertUser(user(30, "Zoë"), mapped.get(30));
+        assertNull(mapped.get(20).getPhone());
+        assertEquals(CREATED, mapped.get(10).getCreatedAt());
+        assertNull(mapped.get(15));
+        assertEquals(10L, mapped.idAt(0));
+    }
+
+    // -------------------------------------------------------------
+    // WARM RESTART
+    // -------------------------------------------------------------
+    @Test
+    void testWarmUp_servesCheckpointAndSkipsChangedUsers() throws Exception {
+        Path file = dir.resolve("users.bin");
+        ChangeToken token = new ChangeToken(100, 50);
+        UserCheckpointFile.write(file, token, List.of(user(1, "Ann"), user(2, "Bob"), user(3, "Cy")));
+
+        // user 3 changed while the instance was down
+        when(changeService.getChanges(token, 1000)).thenReturn(new UserChangePageDTO(
+                List.of(new UserChangeDTO("DELETE", 3L, null, null, null, null, null, null, 2L, null)),
+                new ChangeToken(101, 51).encode(), false));
+
+        UserCache cache = cache(file, 0.5);
+        List<UserDTO> servedDuringReconcile = new ArrayList<>();
+
+        when(userRepository.getUsersByIds(List.of(1L, 2L))).thenAnswer(inv -> {
+            servedDuringReconcile.add(cache.get(2L));
+            servedDuringReconcile.add(cache.get(3L));
+            return List.of(user(1, "Ann"), user(2, "Bob"));
+        });
+
+        assertFalse(cache.isWarm());
+        cache.warmUp();
+
+        assertUser(user(2, "Bob"), servedDuringReconcile.get(0));
+        assertNull(servedDuringReconcile.get(1));
+
+        assertTrue(cache.isWarm());
+        assertFalse(cache.isServingCheckpoint());
+        assertEquals(1.0, cache.warmedFraction());
+        assertUser(user(1, "Ann"), cache.get(1L));
+        assertNull(cache.get(3L));
+    }
+
+    @Test
+    void testCheckpoint_writesHotSetAtCurrentMarker() throws Exception {
+        Path file = dir.resolve("users.bin");
+        when(changeService.getHeadToken()).thenReturn(new ChangeToken(9, 4).encode());
+
+        UserCache cache = cache(file, 0.8);
+        cache.warmUp();
+        cache.put(user(1, "Ann"), cache.stamp());
+        cache.put(user(2, "Bob"), cache.stamp());
+        cache.onUserChanged(new UserChangedEvent(2L, null));
+
+        cache.checkpoint();
+
+        UserCheckpointFile written = UserCheckpointFile.map(file);
+        assertEquals(1, written.size());
+        assertEquals(new ChangeToken(9, 4), written.marker());
+        assertUser(user(1, "Ann"), written.get(1));
+    }
+
+    @Test
+    void testOnUserChanged_cachesTheStoredRow() {
+        UserCache cache = cache(dir.resolve("users.bin"), 0.8);
+        cache.put(user(1, "Old"), cache.stamp());
+
+        cache.onUserChanged(new UserChangedEvent(1L, user(1, "New")));
+
+        assertUser(user(1, "New"), cache.get(1L));
+        verifyNoInteractions(userRepository);
+    }
+
+    // -------------------------------------------------------------
+    // INVALIDATION RACE
+    // -------------------------------------------------------------
+    @Test
+    void testPut_droppedWhenInvalidatedAfterStamp() {
+        UserCache cache = cache(dir.resolve("users.bin"), 0.8);
+
+        long stamp = cache.stamp();
+        cache.invalidate(1L);
+        cache.put(user(1, "Old"), stamp);
+
+        assertNull(cache.get(1L));
+    }
+
+    // -------------------------------------------------------------
+    // LOOKUP KEYS (verified against the cached user)
+    // -------------------------------------------------------------
+    @Test
+    void testLookup_missesOnceUserNoLongerMatches() {
+        UserCache cache = cache(dir.resolve("users.bin"), 0.8);
+
+        cache.remember("email:ann@x.com", List.of(user(1, "Ann")), cache.stamp());
+        assertEquals(1L, cache.lookup("email:ann@x.com", u -> u.getEmail().equals("ann@x.com")).get(0).getId());
+
+        // email changed elsewhere: the new copy no longer matches the key
+        cache.put(new UserDTO(1L, "Ann", "Lee", "ann@y.com", null, CREATED), cache.stamp());
+        assertNull(cache.lookup("email:ann@x.com", u -> u.getEmail().equals("ann@x.com")));
+
+        cache.invalidate(1L);
+        assertNull(cache.lookup("email:ann@x.com", u -> true));
+    }
+
+    private static void assertUser(UserDTO expected, UserDTO actual) {
+        assertNotNull(actual);
+        assertEquals(List.of(expected.getId(), expected.getFirstName(), expected.getLastName(), expected.getEmail(),
+                        expected.getPhone(), expected.getCreatedAt()),
+                List.of(actual.getId(), actual.getFirstName(), actual.getLastName(), actual.getEmail(),
+                        actual.getPhone(), actual.getCreatedAt()));
+    }
+
+    private UserCache cache(Path file, double warmFraction) {
+        return new UserCache(userRepository, changeService, true, 1000, 60000, file.toString(), 1000, warmFraction);
+    }
+
+    private static UserDTO user(long id, String firstName) {
+        return new UserDTO(id, firstName, "Lee", firstName.toLowerCase() + "@x.com", "+1555" + id, CREATED);
+    }
+}
@@ -2,7 +2,12 @@ package com.example.test.controller;
 
 import com.example.test.dto.UserCreateRequest;
 import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserFields;
+import com.example.test.dto.UserPatchRequest;
 import com.example.test.dto.UserUpdateRequest;
+import com.example.test.exception.DatabaseUnavailableException;
+import com.example.test.exception.GlobalExceptionHandler;
+import com.example.test.resilience.DatabaseGuard;
 import com.example.test.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +17,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -19,7 +25,9 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -104,6 +112,20 @@ class UserControllerTest {
         verify(userService).getUserById(1L);
     }
 
+    @Test
+    void testGetUserById_fieldsWritesOnlyRequestedProperties() throws Exception {
+        UserFields fields = UserFields.parse("email,id");
+        UserDTO dto = new UserDTO(1L, "A", "B", "a@b.com", null, LocalDateTime.now());
+
+        when(userService.getUserById(eq(1L), eq(fields))).thenReturn(fields.project(dto));
+
+        mockMvc.perform(get("/api/users/1").param("fields", "email,id"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":1,\"email\":\"a@b.com\"}", true));
+
+        verify(userService, never()).getUserById(1L);
+    }
+
     // -------------------------------------------------------------
     // GET BY ID (NOT FOUND)
     // -------------------------------------------------------------
@@ -118,6 +140,23 @@ class UserControllerTest {
         verify(userService).getUserById(99L);
     }
 
+    // -------------------------------------------------------------
+    // GET BY EMAIL
+    // -------------------------------------------------------------
+    @Test
+    void testGetUserByEmail_dotsKeptInPath() throws Exception {
+        UserDTO dto = new UserDTO(4L, "A", "B", "ann.lee@example.co.uk", null, LocalDateTime.now());
+        when(userService.getUserByEmail("ann.lee@example.co.uk")).thenReturn(dto);
+        when(userService.getUserByEmail("nobody@example.com")).thenReturn(null);
+
+        mockMvc.perform(get("/api/users/by-email/ann.lee@example.co.uk"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(4));
+
+        mockMvc.perform(get("/api/users/by-email/nobody@example.com"))
+                .andExpect(status().isNotFound());
+    }
+
     // -------------------------------------------------------------
     // UPDATE USER (SUCCESS)
     // -------------------------------------------------------------
@@ -145,6 +184,34 @@ class UserControllerTest {
         verify(userService).updateUser(eq(1L), any(UserUpdateRequest.class));
     }
 
+    // -------------------------------------------------------------
+    // PATCH USER
+    // -------------------------------------------------------------
+    @Test
+    void testPatchUser_returnsNewVersionAsETag() throws Exception {
+
+        when(userService.patchUser(eq(1L), any(UserPatchRequest.class), eq(3L)))
+                .thenReturn(Optional.of(4L));
+
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"3\"")
+                        .content("{\"phone\":\"555\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void testPatchUser_emptyBodyRejected() throws Exception {
+
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
     // -------------------------------------------------------------
     // UPDATE USER (NOT FOUND)
     // -------------------------------------------------------------
@@ -199,6 +266,27 @@ class UserControllerTest {
         verify(userService).deleteUser(5L);
     }
 
+    @Test
+    void testDeleteUser_openCircuitReturns503WithRetryAfter() throws Exception {
+
+        DatabaseGuard guard = new DatabaseGuard(true, 4, 1, 0.5, 2000, 1.0, 30000, 1, 100, 3600000, 1000, 50);
+        assertThrows(DatabaseUnavailableException.class,
+                () -> guard.read("page:0", () -> { throw new QueryTimeoutException("timeout"); }));
+
+        when(userService.deleteUser(5L)).thenAnswer(inv -> {
+            guard.ensureWritable();
+            return true;
+        });
+
+        MockMvc advised = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        advised.perform(delete("/api/users/5"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
     // -------------------------------------------------------------
     // PAGINATION + SEARCH
     // -------------------------------------------------------------
@@ -0,0 +1,26 @@
+package com.example.test.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// same cases as the header of create_contact_lookup.sql
+class PhoneNumbersTest {
+
+    @Test
+    void testToE164() {
+        assertEquals("+442079460958", PhoneNumbers.toE164("+44 20 7946 0958"));
+        assertEquals("+442079460958", PhoneNumbers.toE164("0044 20 7946 0958"));
+        assertEquals("+15550104477", PhoneNumbers.toE164("(555) 010-4477"));
+        assertEquals("+15550104477", PhoneNumbers.toE164("0555 010 4477"));
+        assertEquals("+94700000009", PhoneNumbers.toE164("+94700000009"));
+    }
+
+    @Test
+    void testToE164_rejectsWhatCannotBeANumber() {
+        assertNull(PhoneNumbers.toE164(null));
+        assertNull(PhoneNumbers.toE164(""));
+        assertNull(PhoneNumbers.toE164("+12 34"));
+        assertNull(PhoneNumbers.toE164("+1234567890123456"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.test.id;
+
+import com.example.test.config.IdGeneratorConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdGeneratorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    // -------------------------------------------------------------
+    // HI/LO
+    // -------------------------------------------------------------
+    @Test
+    void testHiLo_oneSequenceCallPerBlock() {
+        when(jdbcTemplate.queryForObject(contains("pg_sequences"), eq(Long.class), eq("users_id_seq")))
+                .thenReturn(1000L);
+        when(jdbcTemplate.queryForObject(contains("nextval"), eq(Long.class), eq("users_id_seq")))
+                .thenReturn(1L, 1001L);
+
+        HiLoIdGenerator generator = new HiLoIdGenerator(jdbcTemplate, "users_id_seq");
+
+        for (long expected = 1; expected <= 1500; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+
+        verify(jdbcTemplate, times(2)).queryForObject(contains("nextval"), eq(Long.class), eq("users_id_seq"));
+    }
+
+    @Test
+    void testHiLo_unchangedSequenceFallsBackToBlocksOfOne() {
+        when(jdbcTemplate.queryForObject(contains("pg_sequences"), eq(Long.class), eq("users_id_seq")))
+                .thenReturn(1L);
+        when(jdbcTemplate.queryForObject(contains("nextval"), eq(Long.class), eq("users_id_seq")))
+                .thenReturn(41L, 42L);
+
+        HiLoIdGenerator generator = new HiLoIdGenerator(jdbcTemplate, "users_id_seq");
+
+        assertEquals(41L, generator.nextId());
+        assertEquals(42L, generator.nextId());
+    }
+
+    // -------------------------------------------------------------
+    // SNOWFLAKE
+    // -------------------------------------------------------------
+    @Test
+    void testSnowflake_uniqueAndIncreasingWithinOneMillisecond() {
+        long frozen = SnowflakeIdGenerator.EPOCH_MILLIS + 5_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, () -> frozen);
+
+        long previous = 0;
+        // more than 4096 ids in the same millisecond: the logical clock runs ahead
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertEquals(3, (id >>> 12) & 0x3FF);
+            previous = id;
+        }
+    }
+
+    @Test
+    void testSnowflake_concurrentCallersNeverCollide() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 200_000).parallel().forEach(i -> ids.add(generator.nextId()));
+
+        assertEquals(200_000, ids.size());
+    }
+
+    @Test
+    void testSnowflake_rejectsOutOfRangeNode() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+
+    @Test
+    void testSnowflake_requiresExplicitNodeId() {
+        IdGeneratorConfig config = new IdGeneratorConfig();
+
+        assertThrows(IllegalStateException.class, () -> config.idGenerator(jdbcTemplate, "snowflake", null));
+        assertInstanceOf(SnowflakeIdGenerator.class, config.idGenerator(jdbcTemplate, "snowflake", 7L));
+    }
+}
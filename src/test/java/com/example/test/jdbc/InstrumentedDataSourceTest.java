@@ -0,0 +1,58 @@
+package com.example.test.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InstrumentedDataSourceTest {
+
+    // -------------------------------------------------------------
+    // CONNECTION RELEASE
+    // -------------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRelease_reportedOnceWithHeldTime() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        List<long[]> releases = new ArrayList<>();
+        JdbcEventListener listener = new JdbcEventListener() {
+            @Override
+            public void onStatementExecuted(StatementExecution execution) {
+            }
+
+            @Override
+            public void onConnectionReleased(long acquiredNanos, long heldNanos) {
+                releases.add(new long[]{acquiredNanos, heldNanos});
+            }
+        };
+        ObjectProvider<JdbcEventListener> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(inv -> Stream.of(listener));
+
+        long before = System.nanoTime();
+        Connection proxy = new InstrumentedDataSource(target, provider).getConnection();
+        TimeUnit.MILLISECONDS.sleep(5);
+        proxy.close();
+        long after = System.nanoTime();
+
+        // a second close (pool proxies allow it) must not count the connection twice
+        proxy.close();
+
+        assertEquals(1, releases.size());
+        long acquired = releases.get(0)[0];
+        long held = releases.get(0)[1];
+        assertTrue(acquired >= before && acquired <= after);
+        assertTrue(held >= TimeUnit.MILLISECONDS.toNanos(5) && held <= after - before);
+        verify(connection, times(2)).close();
+    }
+}
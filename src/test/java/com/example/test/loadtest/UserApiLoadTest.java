@@ -0,0 +1,435 @@
+package com.example.test.loadtest;
+
+import com.example.test.TestApplication;
+import com.example.test.support.ScratchDatabase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load test: boots the application against a scratch Postgres,
+ * seeds it and replays a fixed request mix over HTTP for a set duration.
+ *
+ *   70%  GET /api/users/{id}      ids skewed towards a hot set
+ *   10%  GET /api/users?q=        search
+ *   10%  GET /api/users?page=     sorted page
+ *    8%  POST /api/users
+ *    1%  PUT /api/users/{id}      users created by this run
+ *    1%  DELETE /api/users/{id}   users created by this run
+ *
+ * Throughput and p50 / p99 / p999 per endpoint go to target/loadtest-report.json.
+ * The run fails when an SLO in loadtest/slo.properties is missed, or, with
+ * -Dloadtest.baseline=<earlier report>, when p99 or throughput regress by
+ * more than baseline.max-regression. Application properties can be
+ * overridden with -Dloadtest.app.<property>=<value>.
+ *
+ *   mvn test -Dtest=UserApiLoadTest -Dloadtest=true \
+ *       -Dit.db.url=jdbc:postgresql://localhost:5432/load_test \
+ *       -Dit.db.user=postgres -Dit.db.password=... [-Dit.db.rows=1000000] \
+ *       [-Dloadtest.threads=32] [-Dloadtest.warmup-s=15] [-Dloadtest.duration-s=60]
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@EnabledIfSystemProperty(named = "it.db.url", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserApiLoadTest {
+
+    enum Endpoint {
+        GET_BY_ID("get-by-id", 70),
+        SEARCH("search", 10),
+        PAGE("page", 10),
+        CREATE("create", 8),
+        UPDATE("update", 1),
+        DELETE("delete", 1);
+
+        final String key;
+        final int weight;
+
+        Endpoint(String key, int weight) {
+            this.key = key;
+            this.weight = weight;
+        }
+    }
+
+    record EndpointStats(long requests, long errors, double throughputRps,
+                         double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    record Report(String startedAt, int threads, int rows, int durationSeconds, long requests,
+                  double throughputRps, Map<String, EndpointStats> endpoints) {
+    }
+
+    private static final List<String> QUERIES = List.of("ann", "bob", "carla3", "last1f", "example7", "eva");
+    private static final List<String> SORTS = List.of("id", "lastName", "createdAt", "email");
+    private static final Path REPORT = Path.of("target/loadtest-report.json");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+
+    private final int threads = Integer.getInteger("loadtest.threads", 32);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-s", 15);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-s", 60);
+    private final int rows = ScratchDatabase.rows();
+
+    private ConfigurableApplicationContext app;
+    private String baseUrl;
+
+    @BeforeAll
+    void seedAndBoot() throws Exception {
+        ScratchDatabase.resetAndSeed(new JdbcTemplate(ScratchDatabase.dataSource()), rows);
+
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + ScratchDatabase.url(),
+                "--spring.datasource.username=" + ScratchDatabase.user(),
+                "--spring.datasource.password=" + ScratchDatabase.password(),
+                "--logging.level.com.example.test=WARN",
+                "--logging.level.org.springframework.jdbc.core=WARN",
+                "--app.user-cache.checkpoint-path=target/loadtest-user-cache.bin",
+                "--app.bulk-delete.worker-enabled=false"));
+
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("loadtest.app."))
+                .forEach(name -> args.add("--" + name.substring("loadtest.app.".length()) + "=" + System.getProperty(name)));
+
+        app = new SpringApplicationBuilder(TestApplication.class).run(args.toArray(new String[0]));
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+
+        awaitReady();
+    }
+
+    @AfterAll
+    void shutdown() {
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    // -------------------------------------------------------------
+    // RUN THE MIX, REPORT, CHECK SLOs
+    // -------------------------------------------------------------
+    @Test
+    void requestMixMeetsSlos() throws Exception {
+        Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+        for (Endpoint e : Endpoint.values()) {
+            errors.put(e, new LongAdder());
+        }
+
+        Instant startedAt = Instant.now();
+        long measureFrom = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long until = measureFrom + durationSeconds * 1_000_000_000L;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Map<Endpoint, Samples>>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> drive(measureFrom, until, errors)));
+            }
+
+            Map<Endpoint, Samples> merged = new EnumMap<>(Endpoint.class);
+            for (Future<Map<Endpoint, Samples>> worker : workers) {
+                worker.get().forEach((e, s) -> merged.computeIfAbsent(e, k -> new Samples()).addAll(s));
+            }
+
+            Report report = report(startedAt, merged, errors);
+            Files.createDirectories(REPORT.getParent());
+            objectMapper.writeValue(REPORT.toFile(), report);
+            print(report);
+
+            List<String> failures = checkSlos(report);
+            assertTrue(failures.isEmpty(), "SLO violations:\n" + String.join("\n", failures));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Map<Endpoint, Samples> drive(long measureFrom, long until, Map<Endpoint, LongAdder> errors) {
+        Map<Endpoint, Samples> samples = new EnumMap<>(Endpoint.class);
+
+        long now;
+        while ((now = System.nanoTime()) < until) {
+            Endpoint endpoint = pick();
+
+            Boolean ok;
+            try {
+                ok = execute(endpoint);
+            } catch (Exception e) {
+                ok = false;
+            }
+            long took = System.nanoTime() - now;
+
+            if (ok == null || now < measureFrom) {
+                continue;   // skipped (nothing to update / delete yet) or warm-up
+            }
+            samples.computeIfAbsent(endpoint, k -> new Samples()).add(took);
+            if (!ok) {
+                errors.get(endpoint).increment();
+            }
+        }
+        return samples;
+    }
+
+    // -------------------------------------------------------------
+    // REQUESTS (null = skipped)
+    // -------------------------------------------------------------
+    private Boolean execute(Endpoint endpoint) throws Exception {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+        switch (endpoint) {
+            case GET_BY_ID -> {
+                // cubic skew: a fifth of the ids take ~60% of the reads
+                long id = 1 + (long) (rows * Math.pow(rnd.nextDouble(), 3));
+                return send(get("/api/users/" + id)).statusCode() == 200;
+            }
+            case SEARCH -> {
+                String q = QUERIES.get(rnd.nextInt(QUERIES.size()));
+                return send(get("/api/users?q=" + q + "&size=20")).statusCode() == 200;
+            }
+            case PAGE -> {
+                String sort = SORTS.get(rnd.nextInt(SORTS.size()));
+                String dir = rnd.nextBoolean() ? "asc" : "desc";
+                return send(get("/api/users?page=" + rnd.nextInt(50) + "&size=20&sortBy=" + sort
+                        + "&direction=" + dir)).statusCode() == 200;
+            }
+            case CREATE -> {
+                String email = "lt-" + UUID.randomUUID() + "@loadtest.example";
+                HttpResponse<String> response = send(json("POST", "/api/users", body("Load", "Test", email)));
+                if (response.statusCode() != 200) {
+                    return false;
+                }
+                JsonNode data = objectMapper.readTree(response.body()).get("data");
+                created.add(data.asLong());
+                return true;
+            }
+            case UPDATE -> {
+                Long id = created.poll();
+                if (id == null) {
+                    return null;
+                }
+                String email = "lt-" + id + "@loadtest.example";
+                boolean ok = send(json("PUT", "/api/users/" + id, body("Load", "Updated", email))).statusCode() == 200;
+                created.add(id);
+                return ok;
+            }
+            case DELETE -> {
+                Long id = created.poll();
+                if (id == null) {
+                    return null;
+                }
+                return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/" + id)).DELETE().build())
+                        .statusCode() == 200;
+            }
+        }
+        throw new IllegalStateException(endpoint.name());
+    }
+
+    private static Endpoint pick() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Endpoint e : Endpoint.values()) {
+            roll -= e.weight;
+            if (roll < 0) {
+                return e;
+            }
+        }
+        return Endpoint.GET_BY_ID;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, Map<String, String> body) throws Exception {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private static Map<String, String> body(String firstName, String lastName, String email) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("firstName", firstName);
+        body.put("lastName", lastName);
+        body.put("email", email);
+        body.put("phone", "+1555" + ThreadLocalRandom.current().nextInt(1_000_000, 9_999_999));
+        return body;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void awaitReady() throws Exception {
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                if (send(get("/actuator/health/readiness")).statusCode() == 200) {
+                    return;
+                }
+            } catch (Exception ignored) {
+                // not listening yet
+            }
+            Thread.sleep(250);
+        }
+        fail("Application did not become ready within 120 s");
+    }
+
+    // -------------------------------------------------------------
+    // REPORT
+    // -------------------------------------------------------------
+    private Report report(Instant startedAt, Map<Endpoint, Samples> samples, Map<Endpoint, LongAdder> errors) {
+        Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+        long total = 0;
+
+        for (Endpoint e : Endpoint.values()) {
+            Samples s = samples.get(e);
+            if (s == null || s.size == 0) {
+                continue;
+            }
+            long[] sorted = s.sorted();
+            total += sorted.length;
+            endpoints.put(e.key, new EndpointStats(
+                    sorted.length,
+                    errors.get(e).sum(),
+                    round((double) sorted.length / durationSeconds),
+                    millis(percentile(sorted, 0.50)),
+                    millis(percentile(sorted, 0.99)),
+                    millis(percentile(sorted, 0.999)),
+                    millis(sorted[sorted.length - 1])));
+        }
+
+        return new Report(startedAt.toString(), threads, rows, durationSeconds, total,
+                round((double) total / durationSeconds), endpoints);
+    }
+
+    private static void print(Report report) {
+        System.out.printf("%-10s %9s %7s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "rps", "p50 ms", "p99 ms", "p999 ms");
+        report.endpoints().forEach((name, s) -> System.out.printf("%-10s %9d %7d %9.1f %9.2f %9.2f %9.2f%n",
+                name, s.requests(), s.errors(), s.throughputRps(), s.p50Ms(), s.p99Ms(), s.p999Ms()));
+        System.out.printf("total: %d requests, %.1f rps -> %s%n", report.requests(), report.throughputRps(), REPORT);
+    }
+
+    // -------------------------------------------------------------
+    // SLOs + BASELINE
+    // -------------------------------------------------------------
+    private List<String> checkSlos(Report report) throws Exception {
+        Properties slo = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/loadtest/slo.properties")) {
+            slo.load(in);
+        }
+
+        List<String> failures = new ArrayList<>();
+
+        report.endpoints().forEach((name, s) -> {
+            ceiling(failures, slo, name + ".p99-ms", s.p99Ms());
+            ceiling(failures, slo, name + ".p999-ms", s.p999Ms());
+            ceiling(failures, slo, name + ".max-error-rate", (double) s.errors() / s.requests());
+        });
+
+        double minRps = Double.parseDouble(slo.getProperty("min-throughput-rps", "0"));
+        if (report.throughputRps() < minRps) {
+            failures.add("throughput " + report.throughputRps() + " rps < " + minRps);
+        }
+
+        String baselinePath = System.getProperty("loadtest.baseline");
+        if (baselinePath != null) {
+            Report baseline = objectMapper.readValue(Path.of(baselinePath).toFile(), Report.class);
+            double allowed = Double.parseDouble(slo.getProperty("baseline.max-regression", "0.2"));
+
+            report.endpoints().forEach((name, s) -> {
+                EndpointStats before = baseline.endpoints().get(name);
+                if (before != null && s.p99Ms() > before.p99Ms() * (1 + allowed)) {
+                    failures.add(name + " p99 " + s.p99Ms() + " ms vs baseline " + before.p99Ms() + " ms");
+                }
+            });
+            if (report.throughputRps() < baseline.throughputRps() * (1 - allowed)) {
+                failures.add("throughput " + report.throughputRps() + " rps vs baseline " + baseline.throughputRps());
+            }
+        }
+        return failures;
+    }
+
+    private static void ceiling(List<String> failures, Properties slo, String key, double actual) {
+        String limit = slo.getProperty(key);
+        if (limit != null && actual > Double.parseDouble(limit)) {
+            failures.add(key + ": " + round(actual) + " > " + limit);
+        }
+    }
+
+    // -------------------------------------------------------------
+    // LATENCY SAMPLES (one per worker, merged at the end)
+    // -------------------------------------------------------------
+    private static final class Samples {
+        long[] nanos = new long[4096];
+        int size;
+
+        void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.test.monitoring;
+
+import com.example.test.dto.PoolStatsDTO;
+import com.example.test.jdbc.StatementExecution;
+import com.example.test.repository.UserRepository;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PoolSizerTest {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(10);
+
+    private final PoolSizer sizer = new PoolSizer(5, 40, 2, 1.5, 3, 1.5);
+
+    // -------------------------------------------------------------
+    // ADAPTIVE DECISIONS
+    // -------------------------------------------------------------
+    @Test
+    void testNext_growsWhenCallersWaitAndDatabaseIsHealthy() {
+        sizer.next(10, window(8, 0, 2.0));
+
+        assertEquals(12, sizer.next(10, window(10, 4, 2.1)));
+        assertEquals(40, sizer.next(40, window(40, 9, 2.0)));
+    }
+
+    @Test
+    void testNext_backsOffWhenStatementLatencyDegrades() {
+        sizer.next(20, window(15, 0, 2.0));
+
+        // waits caused by a slow database must not add connections
+        assertEquals(19, sizer.next(20, window(20, 6, 5.0)));
+        assertEquals(2.0, sizer.baselineStatementMillis(), 0.001);
+    }
+
+    @Test
+    void testNext_shrinksOnlyAfterConsecutiveQuietWindows() {
+        assertEquals(20, sizer.next(20, window(4, 0, 2.0)));
+        assertEquals(20, sizer.next(20, window(4, 0, 2.0)));
+        assertEquals(18, sizer.next(20, window(4, 0, 2.0)));
+
+        // a busy window resets the count
+        assertEquals(18, sizer.next(18, window(4, 0, 2.0)));
+        assertEquals(18, sizer.next(18, window(17, 0, 2.0)));
+        assertEquals(18, sizer.next(18, window(4, 0, 2.0)));
+
+        assertEquals(5, sizer.next(5, window(0, 0, 2.0)));
+    }
+
+    @Test
+    void testResize_clampsMinimumIdleSoHikariCanRetireConnections() {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        HikariConfigMXBean config = mock(HikariConfigMXBean.class);
+        PoolTelemetry telemetry = mock(PoolTelemetry.class);
+        when(telemetry.pool()).thenReturn(Optional.of(pool));
+        when(pool.getMinimumIdle()).thenReturn(10);
+        when(pool.getMaximumPoolSize()).thenReturn(10);
+        when(pool.getHikariConfigMXBean()).thenReturn(config);
+        when(telemetry.rollWindow()).thenReturn(window(4, 0, 2.0));
+
+        PoolSizeController controller = new PoolSizeController(telemetry, new SimpleMeterRegistry(),
+                true, 5, 40, 2, 1.5, 1, 1.5, 10);
+        controller.closeWindow();
+
+        InOrder order = inOrder(config);
+        order.verify(config).setMinimumIdle(8);
+        order.verify(config).setMaximumPoolSize(8);
+    }
+
+    // -------------------------------------------------------------
+    // STATIC RECOMMENDATIONS (Little's law)
+    // -------------------------------------------------------------
+    @Test
+    void testRecommend_usesPeakAndMeanConnectionsInUse() {
+        // 8 and 4 connections busy on average, one idle window
+        List<PoolWindow> history = List.of(busy(8), busy(4), new PoolWindow(WINDOW, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0));
+
+        assertEquals(12, sizer.recommendMaxPoolSize(history));
+        assertEquals(6, sizer.recommendMinIdle(history));
+        assertEquals(5, sizer.recommendMaxPoolSize(List.of()));
+    }
+
+    // -------------------------------------------------------------
+    // TELEMETRY WINDOWS
+    // -------------------------------------------------------------
+    @Test
+    void testTelemetry_accumulatesWindowAndBoundsMethods() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        PoolTelemetry telemetry = new PoolTelemetry(null, meters, true, false, 1, 5);
+
+        telemetry.onConnectionAcquired(0, TimeUnit.MILLISECONDS.toNanos(1), false);
+        telemetry.onConnectionAcquired(0, TimeUnit.MILLISECONDS.toNanos(9), false);
+        telemetry.onStatementExecuted(new StatementExecution("SELECT 1", List.of(), 0, 3_000_000, false, 1));
+        telemetry.onConnectionReleased(0, 4_000_000);
+
+        PoolWindow window = telemetry.rollWindow();
+        assertEquals(2, window.acquires());
+        assertEquals(1, window.slowAcquires());
+        assertEquals(9.0, window.maxAcquireNanos() / 1e6, 0.001);
+        assertEquals(3.0, window.meanStatementMillis(), 0.001);
+        assertEquals(4.0, window.meanHeldMillis(), 0.001);
+        assertTrue(telemetry.rollWindow().idle());
+        assertEquals(2, meters.get("db.pool.acquire").tag("outcome", "ok").timer().count());
+
+        telemetry.recordUsage("UserRepository.getUserById", 1_000_000);
+        telemetry.recordUsage("UserRepository.getUserById", 3_000_000);
+        telemetry.recordUsage("UserRepository.searchUsers", 1_000_000);
+
+        List<PoolStatsDTO.MethodUsage> top = telemetry.getTopMethods(10);
+        assertEquals("UserRepository.getUserById", top.get(0).getMethod());
+        assertEquals(2.0, top.get(0).getAvgMillis(), 0.001);
+        assertTrue(top.stream().anyMatch(m -> m.getMethod().equals("other")));
+    }
+
+    @Test
+    void testCallerMethod_attributesInnermostRepositoryFrame() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicReference<String> caller = new AtomicReference<>();
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any())).thenAnswer(inv -> {
+            caller.set(PoolTelemetry.callerMethod());
+            return List.of(1L);
+        });
+
+        new UserRepository(jdbcTemplate).getVersion(1L);
+
+        assertEquals("UserRepository.getVersion", caller.get());
+        assertEquals("other", PoolTelemetry.callerMethod());
+    }
+
+    private static PoolWindow window(int maxActive, int maxPending, double statementMillis) {
+        long statements = 1000;
+        return new PoolWindow(WINDOW, 1000, 0, 0, 0, 1000, 0,
+                statements, (long) (statementMillis * 1e6 * statements), maxActive, maxPending);
+    }
+
+    private static PoolWindow busy(int connections) {
+        return new PoolWindow(WINDOW, 100, 0, 0, 0, 100, connections * WINDOW, 100, 0, connections, 0);
+    }
+}
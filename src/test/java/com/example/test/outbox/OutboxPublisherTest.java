@@ -0,0 +1,101 @@
+package com.example.test.outbox;
+
+import com.example.test.repository.OutboxRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxPublisherTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private FileOutboxSink sink;
+    private OutboxPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        sink = new FileOutboxSink(objectMapper, dir.resolve("events/user-events.jsonl"));
+        publisher = new OutboxPublisher(outboxRepository, sink, TransactionOperations.withoutTransaction(),
+                meters, false, 2, 1000, 5000);
+    }
+
+    // -------------------------------------------------------------
+    // DELIVER + DELETE
+    // -------------------------------------------------------------
+    @Test
+    void testPublishBatch_appendsLinesThenDeletesRows() throws Exception {
+        when(outboxRepository.claimBatch(2)).thenReturn(List.of(
+                new OutboxEvent(7, OutboxEvent.CREATED, 42, "{\"id\":42,\"email\":\"a@b.com\"}", AT),
+                new OutboxEvent(8, OutboxEvent.DELETED, 41, null, AT)));
+
+        assertEquals(2, publisher.publishBatch());
+
+        List<String> lines = Files.readAllLines(dir.resolve("events/user-events.jsonl"));
+        assertEquals(2, lines.size());
+
+        JsonNode created = objectMapper.readTree(lines.get(0));
+        assertEquals(7, created.get("eventId").asLong());
+        assertEquals("user.created", created.get("type").asText());
+        assertEquals("a@b.com", created.get("user").get("email").asText());
+        assertTrue(objectMapper.readTree(lines.get(1)).get("user").isNull());
+
+        verify(outboxRepository).delete(List.of(7L, 8L));
+        assertEquals(2.0, meters.counter("outbox.events.published").count());
+    }
+
+    @Test
+    void testPublishBatch_emptyOutboxTouchesNothing() {
+        when(outboxRepository.claimBatch(2)).thenReturn(List.of());
+
+        assertEquals(0, publisher.publishBatch());
+
+        verify(outboxRepository, never()).delete(anyList());
+        assertFalse(Files.exists(dir.resolve("events/user-events.jsonl")));
+    }
+
+    // -------------------------------------------------------------
+    // FAILED DELIVERY KEEPS THE BATCH
+    // -------------------------------------------------------------
+    @Test
+    void testPublishBatch_sinkFailureLeavesRows() {
+        OutboxPublisher failing = new OutboxPublisher(outboxRepository, events -> {
+            throw new java.io.IOException("disk full");
+        }, TransactionOperations.withoutTransaction(), meters, false, 2, 1000, 5000);
+
+        when(outboxRepository.claimBatch(2)).thenReturn(List.of(
+                new OutboxEvent(9, OutboxEvent.UPDATED, 42, "{\"id\":42}", AT)));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, failing::publishBatch);
+
+        assertTrue(ex.getMessage().contains("disk full"));
+        verify(outboxRepository, never()).delete(anyList());
+        assertEquals(0.0, meters.counter("outbox.events.published").count());
+    }
+
+}
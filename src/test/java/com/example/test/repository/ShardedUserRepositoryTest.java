@@ -0,0 +1,184 @@
+package com.example.test.repository;
+
+import com.example.test.dto.UserCreateRequest;
+import com.example.test.dto.UserDTO;
+import com.example.test.exception.DuplicateEmailException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedUserRepositoryTest {
+
+    @Mock
+    private JdbcTemplate directoryTemplate;
+
+    @Mock
+    private UserRepository shard0;
+
+    @Mock
+    private UserRepository shard1;
+
+    @Mock
+    private ShardDirectoryRepository directory;
+
+    private ShardRouter router;
+    private ShardedUserRepository repository;
+
+    @BeforeEach
+    void setup() {
+        router = new ShardRouter(List.of("shard-a", "shard-b"), 128);
+        repository = new ShardedUserRepository(directoryTemplate, List.of(shard0, shard1), router, directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    // -------------------------------------------------------------
+    // ROUTER
+    // -------------------------------------------------------------
+    @Test
+    void testRouter_spreadsAndMovesFewKeysWhenShardAdded() {
+        ShardRouter three = new ShardRouter(List.of("shard-a", "shard-b", "shard-c"), 128);
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        int moved = 0;
+
+        for (long id = 1; id <= 30_000; id++) {
+            int before = router.shardFor(id);
+            int after = three.shardFor(id);
+            counts.merge(after, 1, Integer::sum);
+            if (after != 2 && after != before) {
+                moved++;
+            }
+        }
+
+        // every shard gets a fair share, and only ids landing on the new shard move
+        counts.values().forEach(n -> assertTrue(n > 7_000, "unbalanced: " + counts));
+        assertEquals(0, moved);
+    }
+
+    // -------------------------------------------------------------
+    // BULK DELETE CHUNKS
+    // -------------------------------------------------------------
+    @Test
+    void testDeleteUsersChunk_cursorNeverSkipsAShard() {
+        UserDTO a = new UserDTO(10L, "A", "B", "a@acme.com", null, null);
+        UserDTO b = new UserDTO(40L, "C", "D", "c@acme.com", null, null);
+        UserDTO c = new UserDTO(12L, "E", "F", "e@acme.com", null, null);
+
+        when(shard0.deleteUsersChunk(null, "acme.com", null, 0L, 2))
+                .thenReturn(new UserRepository.BulkDeleteChunk(List.of(a, b), 40L, false));
+        when(shard1.deleteUsersChunk(null, "acme.com", null, 0L, 2))
+                .thenReturn(new UserRepository.BulkDeleteChunk(List.of(c), 12L, true));
+
+        UserRepository.BulkDeleteChunk chunk = repository.deleteUsersChunk(null, "acme.com", null, 0L, 2);
+
+        assertEquals(List.of(10L, 12L, 40L), chunk.deleted().stream().map(UserDTO::getId).toList());
+        assertEquals(40L, chunk.nextCursor());
+        assertFalse(chunk.exhausted());
+        verify(directory).release("a@acme.com", 10L);
+        verify(directory).release("e@acme.com", 12L);
+    }
+
+    // -------------------------------------------------------------
+    // POINT OPERATIONS
+    // -------------------------------------------------------------
+    @Test
+    void testGetUserById_goesToOneShard() {
+        long id = 42L;
+        UserRepository owner = router.shardFor(id) == 0 ? shard0 : shard1;
+        UserRepository other = owner == shard0 ? shard1 : shard0;
+
+        when(owner.getUserById(id)).thenReturn(Optional.of(user(id, "A")));
+
+        assertTrue(repository.getUserById(id).isPresent());
+        verifyNoInteractions(other);
+    }
+
+    @Test
+    void testCreateUser_releasesEmailWhenShardInsertFails() {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setEmail("a@b.com");
+
+        long id = 7L;
+        UserRepository owner = router.shardFor(id) == 0 ? shard0 : shard1;
+
+        when(owner.createUserUsingProcedure(id, req)).thenThrow(new IllegalStateException("shard down"));
+
+        assertThrows(IllegalStateException.class, () -> repository.createUserUsingProcedure(id, req));
+        verify(directory).claim("a@b.com", id);
+        verify(directory).release("a@b.com", id);
+    }
+
+    @Test
+    void testCreateUser_releasesEmailOnShardConflict() {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setEmail("a@b.com");
+
+        long id = 9L;
+        UserRepository owner = router.shardFor(id) == 0 ? shard0 : shard1;
+
+        when(owner.createUserUsingProcedure(id, req)).thenReturn(null);
+
+        assertNull(repository.createUserUsingProcedure(id, req));
+        verify(directory).release("a@b.com", id);
+    }
+
+    @Test
+    void testCreateUser_duplicateEmailNeverTouchesShards() {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setEmail("dup@b.com");
+
+        doThrow(new DuplicateEmailException("dup")).when(directory).claim("dup@b.com", 8L);
+
+        assertThrows(DuplicateEmailException.class, () -> repository.createUserUsingProcedure(8L, req));
+        verifyNoInteractions(shard0, shard1);
+    }
+
+    // -------------------------------------------------------------
+    // SCATTER-GATHER
+    // -------------------------------------------------------------
+    @Test
+    void testGetUsersPaginated_mergesShardsInOrder() {
+        when(shard0.getUsersPaginated(0, 4, "firstName", "asc"))
+                .thenReturn(List.of(user(1L, "Ann"), user(3L, "Cid"), user(5L, "Eve")));
+        when(shard1.getUsersPaginated(0, 4, "firstName", "asc"))
+                .thenReturn(List.of(user(2L, "Bob"), user(4L, "Dan")));
+
+        List<UserDTO> page = repository.getUsersPaginated(1, 2, "firstName", "asc");
+
+        assertEquals(List.of("Cid", "Dan"), page.stream().map(UserDTO::getFirstName).toList());
+    }
+
+    @Test
+    void testSearchUsers_descendingWithOffset() {
+        when(shard0.searchUsers(eq("a"), eq(3), eq(0), eq("id"), eq("desc")))
+                .thenReturn(List.of(user(9L, "I"), user(4L, "D")));
+        when(shard1.searchUsers(eq("a"), eq(3), eq(0), eq("id"), eq("desc")))
+                .thenReturn(List.of(user(8L, "H"), user(7L, "G"), user(1L, "A")));
+
+        List<UserDTO> result = repository.searchUsers("a", 2, 1, "id", "desc");
+
+        assertEquals(List.of(8L, 7L), result.stream().map(UserDTO::getId).toList());
+    }
+
+    private static UserDTO user(Long id, String firstName) {
+        return new UserDTO(id, firstName, "L", firstName + "@x.com", null, null);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.test.repository;
+
+import com.example.test.dto.CreatedRange;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN ANALYZE on every paginated/search query variant issued by
+ * {@link UserRepository} against a seeded table and fails on sequential
+ * scans or top-N heapsorts.
+ *
+ * Needs a scratch Postgres database (the users table is dropped and re-seeded):
+ *
+ *   mvn test -Dtest=UserRepositoryQueryPlanTest \
+ *       -Dit.db.url=jdbc:postgresql://localhost:5432/plan_check \
+ *       -Dit.db.user=postgres -Dit.db.password=... [-Dit.db.rows=1000000]
+ */
+@EnabledIfSystemProperty(named = "it.db.url", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserRepositoryQueryPlanTest {
+
+    private static final List<String> SORT_KEYS =
+            List.of("id", "firstName", "lastName", "email", "phone", "createdAt");
+
+    private static final List<String> DIRECTIONS = List.of("asc", "desc");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JdbcTemplate jdbcTemplate;
+    private ExplainingJdbcTemplate explainingTemplate;
+    private UserRepository userRepository;
+
+    @BeforeAll
+    void seed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("it.db.url"),
+                System.getProperty("it.db.user", "postgres"),
+                System.getProperty("it.db.password", ""));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("DROP VIEW IF EXISTS view_all_users");
+        jdbcTemplate.execute("DROP VIEW IF EXISTS view_user_details");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS users");
+
+        new ResourceDatabasePopulator(new FileSystemResource("config/db.migration/create_table.sql"))
+                .execute(dataSource);
+
+        int rows = Integer.getInteger("it.db.rows", 1_000_000);
+
+        jdbcTemplate.update("""
+            INSERT INTO users (first_name, last_name, email, phone, created_at)
+            SELECT (ARRAY['Ann','Bob','Carla','Dinesh','Eva','Farah','Gus','Hana','Ivan','Jo'])[1 + g % 10]
+                       || substr(md5(g::text), 1, 6),
+                   'Last' || substr(md5((g * 7)::text), 1, 8),
+                   'user' || g || '@example' || (g % 50) || '.com',
+                   CASE WHEN g % 9 = 0 THEN NULL ELSE '+94' || (700000000 + g) END,
+                   timestamp '2020-01-01' + (g || ' seconds')::interval * 60
+            FROM generate_series(1, ?) AS g
+        """, rows);
+
+        ResourceDatabasePopulator migrations = new ResourceDatabasePopulator(
+                new FileSystemResource("config/db.migration/create_views.sql"),
+                new FileSystemResource("config/db.migration/create_sort_indexes.sql"),
+                new FileSystemResource("config/db.migration/create_created_at_brin.sql"),
+                new FileSystemResource("config/db.migration/create_contact_lookup.sql"));
+        migrations.execute(dataSource);
+
+        explainingTemplate = new ExplainingJdbcTemplate(jdbcTemplate);
+        userRepository = new UserRepository(explainingTemplate);
+    }
+
+    // -------------------------------------------------------------
+    // PAGINATION
+    // -------------------------------------------------------------
+    @Test
+    void testPaginatedPlans() {
+        List<String> failures = new ArrayList<>();
+
+        for (String sortBy : SORT_KEYS) {
+            for (String dir : DIRECTIONS) {
+                for (int page : List.of(0, 50)) {
+                    userRepository.getUsersPaginated(page, 20, sortBy, dir);
+                    checkLastPlan("getUsersPaginated page=" + page + " sort=" + sortBy + " " + dir, failures);
+                }
+            }
+        }
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    // -------------------------------------------------------------
+    // SEARCH
+    // -------------------------------------------------------------
+    @Test
+    void testSearchPlans() {
+        List<String> failures = new ArrayList<>();
+
+        for (String sortBy : SORT_KEYS) {
+            for (String dir : DIRECTIONS) {
+                userRepository.searchUsers(null, 20, 0, sortBy, dir);
+                checkLastPlan("searchUsers q=<none> sort=" + sortBy + " " + dir, failures);
+
+                // broad term: the planner should walk the sort index and filter
+                userRepository.searchUsers("a", 20, 0, sortBy, dir);
+                checkLastPlan("searchUsers q=a sort=" + sortBy + " " + dir, failures);
+            }
+        }
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    // -------------------------------------------------------------
+    // CREATED_AT RANGE (one day of a multi-year table)
+    // -------------------------------------------------------------
+    @Test
+    void testCreatedRangePlans() {
+        List<String> failures = new ArrayList<>();
+        CreatedRange day = new CreatedRange(LocalDateTime.of(2020, 6, 1, 0, 0), LocalDateTime.of(2020, 6, 2, 0, 0));
+
+        for (String sortBy : SORT_KEYS) {
+            for (String dir : DIRECTIONS) {
+                // a day is ~1440 rows: sorting them is fine, scanning the table is not
+                userRepository.searchUsers(null, day, 20, 0, sortBy, dir);
+                checkLastPlan("searchUsers created=" + day + " sort=" + sortBy + " " + dir, failures, true);
+
+                userRepository.searchUsers("a", day, 20, 0, sortBy, dir);
+                checkLastPlan("searchUsers q=a created=" + day + " sort=" + sortBy + " " + dir, failures, true);
+            }
+        }
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    // -------------------------------------------------------------
+    // EXACT LOOKUPS (one index probe each)
+    // -------------------------------------------------------------
+    @Test
+    void testContactLookupPlans() {
+        List<String> failures = new ArrayList<>();
+
+        // the few matches are sorted in memory; anything but a probe would Seq Scan
+        userRepository.getUserByEmail("User4242@Example42.com");
+        checkLastPlan("getUserByEmail", failures, true);
+
+        userRepository.getUsersByPhone("+94700004242", 10);
+        checkLastPlan("getUsersByPhone", failures, true);
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    private void checkLastPlan(String variant, List<String> failures) {
+        checkLastPlan(variant, failures, false);
+    }
+
+    private void checkLastPlan(String variant, List<String> failures, boolean sortAllowed) {
+        try {
+            JsonNode plan = objectMapper.readTree(explainingTemplate.lastPlan).get(0).get("Plan");
+            List<String> problems = new ArrayList<>();
+            collectProblems(plan, problems);
+            if (sortAllowed) {
+                problems.removeIf(p -> p.startsWith("top-N"));
+            }
+
+            if (!problems.isEmpty()) {
+                failures.add(variant + " -> " + problems + "\n  SQL: " + explainingTemplate.lastSql.strip());
+            }
+        } catch (Exception e) {
+            fail("Could not parse plan for " + variant + ": " + e.getMessage());
+        }
+    }
+
+    private void collectProblems(JsonNode node, List<String> problems) {
+        String type = node.path("Node Type").asText();
+        String sortMethod = node.path("Sort Method").asText();
+
+        if ("Seq Scan".equals(type)) {
+            problems.add("Seq Scan on " + node.path("Relation Name").asText());
+        }
+        if ("Sort".equals(type) && sortMethod.startsWith("top-N")) {
+            problems.add("top-N heapsort on " + node.path("Sort Key"));
+        }
+
+        for (JsonNode child : node.path("Plans")) {
+            collectProblems(child, problems);
+        }
+    }
+
+    // -------------------------------------------------------------
+    // Runs EXPLAIN for whatever SQL the repository issues
+    // -------------------------------------------------------------
+    private static class ExplainingJdbcTemplate extends JdbcTemplate {
+
+        private final JdbcTemplate delegate;
+        private String lastSql;
+        private String lastPlan;
+
+        ExplainingJdbcTemplate(JdbcTemplate delegate) {
+            super(delegate.getDataSource());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            explain(sql, args);
+            return List.of();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public <T> List<T> query(String sql, Object[] args, RowMapper<T> rowMapper) {
+            explain(sql, args);
+            return List.of();
+        }
+
+        private void explain(String sql, Object[] args) {
+            lastSql = sql;
+            lastPlan = delegate.queryForObject("EXPLAIN (ANALYZE, FORMAT JSON) " + sql, String.class, args);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.example.test.repository;
 
+import com.example.test.dto.CreatedRange;
+import com.example.test.dto.ProjectedUser;
 import com.example.test.dto.UserCreateRequest;
 import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserField;
+import com.example.test.dto.UserFields;
+import com.example.test.dto.UserPatchRequest;
 import com.example.test.dto.UserUpdateRequest;
+import com.example.test.exception.InvalidFieldsException;
+import com.example.test.exception.InvalidRangeException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -141,6 +148,28 @@ class UserRepositoryTest {
         assertTrue(updated);
     }
 
+    // -------------------------------------------------------------
+    // PATCH USER
+    // -------------------------------------------------------------
+    @Test
+    void testPatchUser_writesOnlySuppliedColumns() {
+        UserPatchRequest req = new UserPatchRequest();
+        req.setPhone(null);
+
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+        userRepository.patchUser(3L, req, 7L);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+
+        assertTrue(sql.getValue().startsWith("UPDATE users SET phone = ?, version = version + 1"));
+        assertFalse(sql.getValue().substring(0, sql.getValue().indexOf("WHERE")).contains("email"));
+        assertTrue(sql.getValue().contains("WHERE id = ? AND version = ?"));
+        assertArrayEquals(new Object[]{null, 3L, 7L}, args.getValue());
+    }
+
     // -------------------------------------------------------------
     // DELETE USER
     // -------------------------------------------------------------
@@ -168,17 +197,90 @@ class UserRepositoryTest {
         assertNotNull(result);
     }
 
+    @Test
+    void testSortComparator_matchesCollateCByteOrder() {
+        UserDTO upper = new UserDTO(1L, "Zoe", null, null, null, null);
+        UserDTO lower = new UserDTO(2L, "anna", null, null, null, null);
+        UserDTO fullwidth = new UserDTO(3L, "\uFF21", null, null, null, null);      // U+FF21
+        UserDTO emoji = new UserDTO(4L, "\uD83D\uDE00", null, null, null, null);   // U+1F600
+
+        List<UserDTO> sorted = new java.util.ArrayList<>(List.of(emoji, fullwidth, lower, upper));
+        sorted.sort(UserRepository.sortComparator("firstName", "asc"));
+
+        // UTF-8 byte order; String.compareTo would put the emoji before U+FF21
+        assertEquals(List.of(1L, 2L, 3L, 4L), sorted.stream().map(UserDTO::getId).toList());
+    }
+
+    @Test
+    void testGetUsersPaginated_fieldsNarrowSelectList() throws Exception {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<RowMapper<ProjectedUser>> mapper = ArgumentCaptor.forClass(RowMapper.class);
+        when(jdbcTemplate.query(sql.capture(), mapper.capture(), anyInt(), anyInt())).thenReturn(List.of());
+
+        userRepository.getUsersPaginated(0, 10, "lastName", "asc", UserFields.parse("email, id"));
+
+        String selectList = sql.getValue().substring(0, sql.getValue().indexOf("FROM")).strip();
+        assertEquals("SELECT id, email", selectList);
+        assertTrue(sql.getValue().contains("ORDER BY last_name COLLATE \"C\" ASC, id ASC"));
+
+        // columns are read by position, and nothing else is touched
+        java.sql.ResultSet rs = mock(java.sql.ResultSet.class);
+        when(rs.getLong(1)).thenReturn(7L);
+        when(rs.getString(2)).thenReturn("a@b.com");
+
+        ProjectedUser row = mapper.getValue().mapRow(rs, 0);
+
+        assertEquals(7L, row.get(UserField.ID));
+        assertEquals("a@b.com", row.get(UserField.EMAIL));
+        assertNull(row.get(UserField.CREATED_AT));
+        verify(rs, never()).getTimestamp(anyInt());
+    }
+
+    @Test
+    void testUserFields_rejectsUnknownAndIgnoresBlank() {
+        assertThrows(InvalidFieldsException.class, () -> UserFields.parse("id,password"));
+        assertNull(UserFields.parse(" "));
+        assertEquals(UserFields.parse("email,id"), UserFields.parse("id,email,id"));
+    }
+
     // -------------------------------------------------------------
     // SEARCH USERS
     // -------------------------------------------------------------
     @Test
     void testSearchUsers() {
 
-        when(jdbcTemplate.query(anyString(), any(Object[].class), any(RowMapper.class)))
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
                 .thenReturn(List.of());
 
         List<UserDTO> result = userRepository.searchUsers("abc", 10, 0, "id", "asc");
 
         assertNotNull(result);
     }
+
+    // -------------------------------------------------------------
+    // CREATED_AT RANGE
+    // -------------------------------------------------------------
+    @Test
+    void testSearchUsers_rangeIsAndedWithTheSearchTerm() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+        when(jdbcTemplate.query(sql.capture(), any(RowMapper.class), params.capture())).thenReturn(List.of());
+
+        userRepository.searchUsers("ann", CreatedRange.parse("2024-01-01", "2024-02-01T12:00"), 10, 0, "createdAt", "desc");
+
+        assertTrue(sql.getValue().contains(
+                "WHERE (lower(first_name) LIKE ? OR lower(last_name) LIKE ? OR lower(email) LIKE ?) "
+                        + "AND created_at >= ? AND created_at < ? ORDER BY created_at DESC, id DESC"));
+        assertEquals(java.sql.Timestamp.valueOf("2024-01-01 00:00:00"), params.getValue()[3]);
+        assertEquals(java.sql.Timestamp.valueOf("2024-02-01 12:00:00"), params.getValue()[4]);
+        assertEquals(7, params.getValue().length);
+    }
+
+    @Test
+    void testCreatedRange_parse() {
+        assertNull(CreatedRange.parse(null, " "));
+        assertNull(CreatedRange.parse("2024-01-01", null).to());
+        assertThrows(InvalidRangeException.class, () -> CreatedRange.parse("2024-02-01", "2024-01-01"));
+        assertThrows(InvalidRangeException.class, () -> CreatedRange.parse("yesterday", null));
+    }
 }
@@ -0,0 +1,130 @@
+package com.example.test.resilience;
+
+import com.example.test.exception.DatabaseUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.BadSqlGrammarException;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseGuardTest {
+
+    // -------------------------------------------------------------
+    // BREAKER TRANSITIONS
+    // -------------------------------------------------------------
+    @Test
+    void testBreakerOpensOnSlowCallsAndClosesAfterTrials() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, 100, 0.5, 1000, 2, now::get);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(i < 2 ? 500_000_000L : 1_000_000L);   // 2 of 4 slower than 100 ms
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertTrue(breaker.isRejecting());
+
+        now.addAndGet(1000);
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());                        // one trial at a time
+        breaker.onSuccess(1_000_000L);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess(1_000_000L);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertFalse(breaker.isRejecting());
+    }
+
+    @Test
+    void testFailedTrialReopens() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(4, 2, 0.5, 1000, 1.0, 1000, 1, now::get);
+
+        breaker.tryAcquire();
+        breaker.onFailure();
+        breaker.tryAcquire();
+        breaker.onFailure();
+        now.addAndGet(1000);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(1000, breaker.retryAfterMillis());
+    }
+
+    // -------------------------------------------------------------
+    // STALE-WHILE-REVALIDATE
+    // -------------------------------------------------------------
+    @Test
+    void testOutageServesLastKnownAndRevalidatesOnRecovery() {
+        DatabaseGuard guard = new DatabaseGuard(true, 4, 1, 0.5, 2000, 1.0, 0, 1, 100, 3600000, 1000, 50);
+        AtomicInteger version = new AtomicInteger(1);
+        AtomicInteger down = new AtomicInteger(1);
+
+        List<Integer> first = guard.read("page:0", () -> List.of(version.get()));
+        version.set(2);
+
+        List<Integer> stale = guard.read("page:0", () -> {
+            if (down.get() == 1) {
+                throw new QueryTimeoutException("timeout");
+            }
+            return List.of(version.get());
+        });
+
+        assertEquals(first, stale);
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+        assertEquals(1, guard.pendingRevalidations());
+
+        down.set(0);
+        guard.revalidate();
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+        assertEquals(0, guard.pendingRevalidations());
+    }
+
+    @Test
+    void testNoCopyMeansServiceUnavailable() {
+        DatabaseGuard guard = new DatabaseGuard(true, 4, 1, 0.5, 2000, 1.0, 60000, 1, 100, 3600000, 1000, 50);
+
+        assertThrows(DatabaseUnavailableException.class,
+                () -> guard.read("page:9", () -> { throw new QueryTimeoutException("timeout"); }));
+        assertThrows(DatabaseUnavailableException.class, guard::ensureWritable);
+    }
+
+    @Test
+    void testQueryBugsDoNotTripTheBreaker() {
+        DatabaseGuard guard = new DatabaseGuard(true, 4, 1, 0.5, 2000, 1.0, 60000, 1, 100, 3600000, 1000, 50);
+
+        assertThrows(BadSqlGrammarException.class, () -> guard.read("page:0", () -> {
+            throw new BadSqlGrammarException("page", "SELECT", new SQLException("syntax"));
+        }));
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+        assertDoesNotThrow(guard::ensureWritable);
+    }
+
+    @Test
+    void testNonDataAccessFailureSettlesHalfOpenTrial() {
+        DatabaseGuard guard = new DatabaseGuard(true, 4, 1, 0.5, 2000, 1.0, 0, 1, 100, 3600000, 1000, 50);
+
+        assertThrows(DatabaseUnavailableException.class,
+                () -> guard.read("page:0", () -> { throw new QueryTimeoutException("timeout"); }));
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+
+        // the half-open trial hits a mapper bug
+        assertThrows(NullPointerException.class, () -> guard.read("page:0", () -> {
+            throw new NullPointerException("mapper");
+        }));
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+        assertEquals(List.of(1), guard.read("page:0", () -> List.of(1)));
+        assertDoesNotThrow(guard::ensureWritable);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.test.search;
+
+import com.example.test.dto.UserDTO;
+import com.example.test.repository.UserRepository;
+import com.example.test.service.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvertedIndexSearchBackendTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private UserRepository userRepository;
+
+    private InvertedIndexSearchBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new InvertedIndexSearchBackend(userRepository, 100);
+    }
+
+    // -------------------------------------------------------------
+    // RANKING
+    // -------------------------------------------------------------
+    @Test
+    void testSearch_ranksExactThenPrefixThenInfix() {
+        when(userRepository.getUsersAfterId(anyLong(), anyInt())).thenReturn(List.of(
+                user(1L, "Joanna", "Lee", "jl@test.com", 1),      // infix "ann" in first name
+                user(2L, "Ann", "Marsh", "am@test.com", 2),       // exact
+                user(3L, "Annika", "Berg", "ab@test.com", 3),     // prefix
+                user(4L, "Bob", "Stone", "ann.b@test.com", 4),    // exact, email only
+                user(5L, "Carl", "Dunn", "cd@test.com", 5)        // no match
+        ));
+        backend.rebuild();
+
+        assertEquals(List.of(2L, 3L, 4L, 1L), ids(backend.search("ANN", "id", "asc", 0, 10)));
+        assertEquals(List.of(3L, 4L), ids(backend.search("ann", "id", "asc", 1, 2)));
+    }
+
+    @Test
+    void testSearch_allFragmentsRequiredAndTiesUseSortColumn() {
+        when(userRepository.getUsersAfterId(anyLong(), anyInt())).thenReturn(List.of(
+                user(1L, "Ann", "Lee", "a1@test.com", 30),
+                user(2L, "Ann", "Lee", "a2@test.com", 10),
+                user(3L, "Ann", "Cole", "a3@test.com", 20)
+        ));
+        backend.rebuild();
+
+        assertEquals(List.of(2L, 1L), ids(backend.search("ann le", "createdAt", "asc", 0, 10)));
+        assertEquals(List.of(1L, 3L, 2L), ids(backend.search("ann", "createdAt", "desc", 0, 10)));
+        assertTrue(backend.search("ann zed", "id", "asc", 0, 10).isEmpty());
+    }
+
+    // -------------------------------------------------------------
+    // WRITES BETWEEN REBUILDS
+    // -------------------------------------------------------------
+    @Test
+    void testSearch_followsWrites() {
+        when(userRepository.getUsersAfterId(anyLong(), anyInt())).thenReturn(List.of(
+                user(1L, "Ann", "Lee", "a1@test.com", 1),
+                user(2L, "Ann", "Cole", "a2@test.com", 2)
+        ));
+        backend.rebuild();
+
+        backend.onUserChanged(new UserChangedEvent(1L, user(1L, "Zoe", "Lee", "z@test.com", 1)));
+        backend.onUserChanged(new UserChangedEvent(2L, null));
+        backend.onUserChanged(new UserChangedEvent(3L, user(3L, "Anne", "Hall", "ah@test.com", 3)));
+
+        assertEquals(List.of(3L), ids(backend.search("ann", "id", "asc", 0, 10)));
+        assertEquals(List.of(1L), ids(backend.search("zoe", "id", "asc", 0, 10)));
+        verify(userRepository, never()).getUserById(any());
+    }
+
+    // -------------------------------------------------------------
+    // POSTING CODEC
+    // -------------------------------------------------------------
+    @Test
+    void testPostingCodec_roundTrips() {
+        Random random = new Random(3);
+        int[] slots = new int[1000];
+        for (int i = 1; i < slots.length; i++) {
+            slots[i] = slots[i - 1] + 1 + random.nextInt(i % 10 == 0 ? 1_000_000 : 50);
+        }
+
+        byte[] encoded = InvertedIndex.encode(slots, slots.length);
+
+        assertArrayEquals(slots, InvertedIndex.decode(encoded, slots.length));
+        assertTrue(encoded.length < slots.length * 2);
+    }
+
+    private static UserDTO user(Long id, String first, String last, String email, int minutes) {
+        return new UserDTO(id, first, last, email, null, T0.plusMinutes(minutes));
+    }
+
+    private static List<Long> ids(List<UserDTO> users) {
+        return users.stream().map(UserDTO::getId).toList();
+    }
+}
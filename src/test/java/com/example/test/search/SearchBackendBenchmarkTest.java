@@ -0,0 +1,124 @@
+package com.example.test.search;
+
+import com.example.test.dto.UserDTO;
+import com.example.test.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the inverted-index backend with the SQL LIKE search on the same
+ * data set and prints p50 / p99 per query.
+ *
+ * Needs a scratch Postgres database (seeded the same way as
+ * UserRepositoryQueryPlanTest when it holds fewer than it.db.rows users):
+ *
+ *   mvn test -Dtest=SearchBackendBenchmarkTest \
+ *       -Dit.db.url=jdbc:postgresql://localhost:5432/plan_check \
+ *       -Dit.db.user=postgres -Dit.db.password=... [-Dit.db.rows=1000000]
+ */
+@EnabledIfSystemProperty(named = "it.db.url", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchBackendBenchmarkTest {
+
+    private static final List<String> QUERIES = List.of("ann", "a", "carla3", "last1f", "example7", "eva zz");
+    private static final int RUNS = 30;
+
+    private UserRepository userRepository;
+    private InvertedIndexSearchBackend backend;
+
+    @BeforeAll
+    void seedAndIndex() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("it.db.url"),
+                System.getProperty("it.db.user", "postgres"),
+                System.getProperty("it.db.password", ""));
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        int rows = Integer.getInteger("it.db.rows", 1_000_000);
+
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN to_regclass('users') IS NULL THEN 0 ELSE (SELECT count(*) FROM users) END", Integer.class);
+
+        if (existing == null || existing < rows) {
+            jdbcTemplate.execute("DROP VIEW IF EXISTS view_all_users");
+            jdbcTemplate.execute("DROP VIEW IF EXISTS view_user_details");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS users CASCADE");
+
+            new ResourceDatabasePopulator(new FileSystemResource("config/db.migration/create_table.sql"))
+                    .execute(dataSource);
+
+            jdbcTemplate.update("""
+                INSERT INTO users (first_name, last_name, email, phone, created_at)
+                SELECT (ARRAY['Ann','Bob','Carla','Dinesh','Eva','Farah','Gus','Hana','Ivan','Jo'])[1 + g % 10]
+                           || substr(md5(g::text), 1, 6),
+                       'Last' || substr(md5((g * 7)::text), 1, 8),
+                       'user' || g || '@example' || (g % 50) || '.com',
+                       CASE WHEN g % 9 = 0 THEN NULL ELSE '+94' || (700000000 + g) END,
+                       timestamp '2020-01-01' + (g || ' seconds')::interval * 60
+                FROM generate_series(1, ?) AS g
+            """, rows);
+
+            new ResourceDatabasePopulator(
+                    new FileSystemResource("config/db.migration/create_views.sql"),
+                    new FileSystemResource("config/db.migration/create_sort_indexes.sql"))
+                    .execute(dataSource);
+        }
+
+        userRepository = new UserRepository(jdbcTemplate);
+        backend = new InvertedIndexSearchBackend(userRepository, 10_000);
+
+        long started = System.nanoTime();
+        backend.rebuild();
+        System.out.printf("index build: %d ms%n", (System.nanoTime() - started) / 1_000_000);
+
+        assertTrue(backend.isReady());
+    }
+
+    @Test
+    void compareWithLikeSearch() {
+        System.out.printf("%-10s %12s %12s %12s %12s%n", "query", "sql p50 ms", "sql p99 ms", "index p50 ms", "index p99 ms");
+
+        for (String q : QUERIES) {
+            List<UserDTO> sql = userRepository.searchUsers(q, 20, 0, "id", "asc");
+            List<UserDTO> index = backend.search(q, "id", "asc", 0, 20);
+
+            // the index matches token fragments, so it finds at least what LIKE finds
+            if (!sql.isEmpty() && !q.contains(" ")) {
+                assertFalse(index.isEmpty(), "index found nothing for " + q);
+            }
+
+            double[] sqlTimes = time(() -> userRepository.searchUsers(q, 20, 0, "id", "asc"));
+            double[] indexTimes = time(() -> backend.search(q, "id", "asc", 0, 20));
+
+            System.out.printf("%-10s %12.2f %12.2f %12.3f %12.3f%n", q,
+                    pct(sqlTimes, 50), pct(sqlTimes, 99), pct(indexTimes, 50), pct(indexTimes, 99));
+        }
+    }
+
+    private static double[] time(Supplier<?> call) {
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            call.get();
+            millis[i] = (System.nanoTime() - started) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static double pct(double[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1)];
+    }
+}
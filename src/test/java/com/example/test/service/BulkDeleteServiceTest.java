@@ -0,0 +1,118 @@
+package com.example.test.service;
+
+import com.example.test.dto.UserDTO;
+import com.example.test.outbox.UserEventOutbox;
+import com.example.test.repository.BulkDeleteRepository;
+import com.example.test.repository.BulkDeleteRepository.ClaimedJob;
+import com.example.test.repository.UserRepository;
+import com.example.test.repository.UserRepository.BulkDeleteChunk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkDeleteServiceTest {
+
+    @Mock
+    private BulkDeleteRepository jobs;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserEventOutbox outbox;
+
+    private BulkDeleteService bulkDeleteService;
+
+    private final ClaimedJob job = new ClaimedJob(7L, null, "acme.com", null, 2, 0L);
+
+    @BeforeEach
+    void setUp() {
+        bulkDeleteService = new BulkDeleteService(jobs, userRepository, eventPublisher, null,
+                outbox, TransactionOperations.withoutTransaction(),
+                500, 0, 1, 5000, 0.8, 60000, 5000, false);
+    }
+
+    // -------------------------------------------------------------
+    // CHUNKS UNTIL EXHAUSTED
+    // -------------------------------------------------------------
+    @Test
+    void testRunJob_deletesInChunksAndResumesFromCursor() throws Exception {
+        when(userRepository.deleteUsersChunk(null, "acme.com", null, 0L, 2))
+                .thenReturn(new BulkDeleteChunk(List.of(user(3), user(5)), 5L, false));
+        when(userRepository.deleteUsersChunk(null, "acme.com", null, 5L, 2))
+                .thenReturn(new BulkDeleteChunk(List.of(user(9)), 9L, true));
+
+        bulkDeleteService.runJob(job);
+
+        InOrder order = inOrder(jobs);
+        order.verify(jobs).recordChunk(7L, 5L, 2);
+        order.verify(jobs).recordChunk(7L, 9L, 1);
+        order.verify(jobs).finish(7L, "COMPLETED", null);
+
+        verify(eventPublisher).publishEvent(new UserChangedEvent(3L, null));
+        verify(eventPublisher).publishEvent(new UserChangedEvent(5L, null));
+        verify(eventPublisher).publishEvent(new UserChangedEvent(9L, null));
+        verify(outbox).deleted(9L);
+    }
+
+    // -------------------------------------------------------------
+    // CANCELLATION
+    // -------------------------------------------------------------
+    @Test
+    void testRunJob_stopsAfterChunkWhenCancelled() throws Exception {
+        when(userRepository.deleteUsersChunk(any(), any(), any(), eq(0L), eq(2)))
+                .thenReturn(new BulkDeleteChunk(List.of(user(3), user(5)), 5L, false));
+        when(jobs.recordChunk(7L, 5L, 2)).thenReturn(true);
+
+        bulkDeleteService.runJob(job);
+
+        verify(userRepository, times(1)).deleteUsersChunk(any(), any(), any(), anyLong(), anyInt());
+        verify(jobs).finish(7L, "CANCELLED", null);
+    }
+
+    // -------------------------------------------------------------
+    // THROTTLING
+    // -------------------------------------------------------------
+    @Test
+    void testRunJob_waitsWhileReplicasLag() throws Exception {
+        when(jobs.replicationLagMs()).thenReturn(9000L, 9000L, 10L);
+        when(userRepository.deleteUsersChunk(any(), any(), any(), eq(0L), eq(2)))
+                .thenReturn(new BulkDeleteChunk(List.of(), 0L, true));
+
+        bulkDeleteService.runJob(job);
+
+        // one heartbeat on claim, one per backoff round
+        verify(jobs, times(3)).heartbeat(7L);
+        verify(jobs, times(3)).replicationLagMs();
+        verify(jobs).finish(7L, "COMPLETED", null);
+    }
+
+    @Test
+    void testRunJob_failureRecorded() throws Exception {
+        when(userRepository.deleteUsersChunk(any(), any(), any(), anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        bulkDeleteService.runJob(job);
+
+        verify(jobs).finish(7L, "FAILED", "connection reset");
+    }
+
+    private static UserDTO user(long id) {
+        return new UserDTO(id, "A", "B", "u" + id + "@acme.com", null, null);
+    }
+}
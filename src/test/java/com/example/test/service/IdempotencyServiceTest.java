@@ -0,0 +1,215 @@
+package com.example.test.service;
+
+import com.example.test.dto.ApiResponse;
+import com.example.test.dto.UserCreateRequest;
+import com.example.test.exception.DatabaseUnavailableException;
+import com.example.test.exception.DuplicateEmailException;
+import com.example.test.exception.IdempotencyKeyMismatchException;
+import com.example.test.repository.IdempotencyRepository;
+import com.example.test.repository.IdempotencyRepository.StoredKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRepository repository;
+
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    // records whether a callback is running inside the (stand-in) transaction
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+    private final TransactionOperations transactions = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            inTransaction.set(true);
+            try {
+                return action.doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, new ObjectMapper(), transactions, 100, 24, 2000, 60000);
+    }
+
+    // -------------------------------------------------------------
+    // REPLAY
+    // -------------------------------------------------------------
+    @Test
+    void testExecute_retryReplaysStoredResponse() {
+        when(repository.reserve(eq("k1"), anyString(), anyLong(), anyLong())).thenReturn(true);
+
+        ResponseEntity<ApiResponse> first = idempotencyService.execute("k1", request("a@b.com"), this::create);
+        ResponseEntity<ApiResponse> retry = idempotencyService.execute("k1", request("a@b.com"), this::create);
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(repository).complete(eq("k1"), eq(200), contains("SUCCESS"));
+    }
+
+    @Test
+    void testExecute_sameKeyDifferentBodyRejected() {
+        when(repository.reserve(eq("k2"), anyString(), anyLong(), anyLong())).thenReturn(true);
+
+        idempotencyService.execute("k2", request("a@b.com"), this::create);
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotencyService.execute("k2", request("other@b.com"), this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_replaysResponseStoredByAnotherInstance() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String hash = java.util.HexFormat.of().formatHex(java.security.MessageDigest.getInstance("SHA-256")
+                .digest(mapper.writeValueAsBytes(request("a@b.com"))));
+
+        when(repository.reserve(eq("k3"), anyString(), anyLong(), anyLong())).thenReturn(false);
+        when(repository.find("k3")).thenReturn(Optional.of(
+                new StoredKey(hash, "DONE", 200, "{\"status\":\"SUCCESS\",\"data\":42,\"message\":\"User created successfully\"}", 60_000)));
+
+        ResponseEntity<ApiResponse> response = idempotencyService.execute("k3", request("a@b.com"), this::create);
+
+        assertEquals(0, executions.get());
+        assertEquals(42, response.getBody().getData());
+        assertEquals("true", response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testExecute_storedResponseWithDifferentBodyRejected() {
+        when(repository.reserve(eq("k6"), anyString(), anyLong(), anyLong())).thenReturn(false);
+        when(repository.find("k6")).thenReturn(Optional.of(
+                new StoredKey("0".repeat(64), "DONE", 200, "{\"status\":\"SUCCESS\",\"data\":42}", 60_000)));
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotencyService.execute("k6", request("a@b.com"), this::create));
+        assertEquals(0, executions.get());
+    }
+
+    // -------------------------------------------------------------
+    // CONCURRENCY
+    // -------------------------------------------------------------
+    @Test
+    void testExecute_concurrentSameKeyRunsOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.reserve(eq("k4"), anyString(), anyLong(), anyLong())).thenReturn(true);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<ApiResponse>>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(pool.submit(() -> idempotencyService.execute("k4", request("a@b.com"), () -> {
+                    await(release);
+                    return create();
+                })));
+            }
+
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<ResponseEntity<ApiResponse>> call : calls) {
+                assertEquals(200, call.get(5, TimeUnit.SECONDS).getStatusCode().value());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        verify(repository, times(1)).reserve(eq("k4"), anyString(), anyLong(), anyLong());
+    }
+
+    // -------------------------------------------------------------
+    // FAILURES RELEASE THE KEY
+    // -------------------------------------------------------------
+    @Test
+    void testExecute_failureReleasesKey() {
+        when(repository.reserve(eq("k5"), anyString(), anyLong(), anyLong())).thenReturn(true);
+
+        assertThrows(DuplicateEmailException.class, () -> idempotencyService.execute("k5", request("a@b.com"), () -> {
+            throw new DuplicateEmailException("Email already exists");
+        }));
+
+        verify(repository).release("k5");
+        verify(repository, never()).complete(anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void testExecute_releaseFailureKeepsOriginalError() {
+        when(repository.reserve(eq("k6"), anyString(), anyLong(), anyLong())).thenReturn(true);
+        doThrow(new DataAccessResourceFailureException("connection refused")).when(repository).release("k6");
+
+        // still the 503, not the failed cleanup
+        assertThrows(DatabaseUnavailableException.class, () -> idempotencyService.execute("k6", request("a@b.com"), () -> {
+            throw new DatabaseUnavailableException("Database unavailable", 5);
+        }));
+    }
+
+    // -------------------------------------------------------------
+    // WRITE AND STORED RESPONSE COMMIT TOGETHER
+    // -------------------------------------------------------------
+    @Test
+    void testExecute_completesKeyInsideTheActionsTransaction() {
+        when(repository.reserve(eq("k7"), anyString(), anyLong(), anyLong())).thenReturn(true);
+        List<Boolean> completedInTransaction = new ArrayList<>();
+        doAnswer(inv -> completedInTransaction.add(inTransaction.get()))
+                .when(repository).complete(eq("k7"), anyInt(), anyString());
+
+        idempotencyService.execute("k7", request("a@b.com"), () -> {
+            assertTrue(inTransaction.get());
+            return create();
+        });
+
+        assertEquals(List.of(true), completedInTransaction);
+    }
+
+    private ResponseEntity<ApiResponse> create() {
+        return ResponseEntity.ok(new ApiResponse("SUCCESS", 100 + executions.incrementAndGet(), "User created successfully"));
+    }
+
+    private static UserCreateRequest request(String email) {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setFirstName("A");
+        req.setLastName("B");
+        req.setEmail(email);
+        return req;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
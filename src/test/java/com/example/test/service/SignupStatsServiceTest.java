@@ -0,0 +1,99 @@
+package com.example.test.service;
+
+import com.example.test.dto.SignupStatsDTO;
+import com.example.test.dto.SignupStatsDTO.BucketCount;
+import com.example.test.dto.SignupStatsDTO.DomainCount;
+import com.example.test.dto.StatsBucket;
+import com.example.test.exception.InvalidRangeException;
+import com.example.test.repository.SignupStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SignupStatsServiceTest {
+
+    @Mock
+    private SignupStatsRepository statsRepository;
+
+    private SignupStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        statsService = new SignupStatsService(statsRepository, true, 10, 5, 100, 3);
+    }
+
+    // -------------------------------------------------------------
+    // BUCKETS
+    // -------------------------------------------------------------
+    @Test
+    void testGetStats_weekBucketsAlignedAndZeroFilled() {
+        LocalDate monday = LocalDate.of(2024, 3, 4);
+        when(statsRepository.getSignups(StatsBucket.WEEK, monday, LocalDate.of(2024, 3, 25)))
+                .thenReturn(List.of(new BucketCount(LocalDate.of(2024, 3, 11), 7)));
+        when(statsRepository.getTopDomains(2)).thenReturn(List.of(new DomainCount("example.com", 40)));
+
+        // from is a Wednesday, snapped back to its Monday
+        SignupStatsDTO stats = statsService.getStats("week", "2024-03-06", "2024-03-25", 2);
+
+        assertEquals("week", stats.getBucket());
+        assertEquals(monday, stats.getFrom());
+        assertEquals(List.of(0L, 7L, 0L), stats.getSignups().stream().map(BucketCount::getSignups).toList());
+        assertEquals("example.com", stats.getTopDomains().get(0).getDomain());
+    }
+
+    @Test
+    void testGetStats_topDomainsCappedAndSkippedAtZero() {
+        when(statsRepository.getSignups(any(), any(), any())).thenReturn(List.of());
+
+        statsService.getStats("month", "2024-01-01", "2024-03-01", 500);
+        verify(statsRepository).getTopDomains(5);
+
+        SignupStatsDTO none = statsService.getStats("month", "2024-01-01", "2024-03-01", 0);
+        assertTrue(none.getTopDomains().isEmpty());
+        verify(statsRepository, times(1)).getTopDomains(anyInt());
+    }
+
+    // -------------------------------------------------------------
+    // VALIDATION (before any query)
+    // -------------------------------------------------------------
+    @Test
+    void testGetStats_rejectsBadInput() {
+        assertThrows(InvalidRangeException.class, () -> statsService.getStats("year", null, null, 10));
+        assertThrows(InvalidRangeException.class, () -> statsService.getStats("day", "2024-02-01", "2024-01-01", 10));
+        assertThrows(InvalidRangeException.class, () -> statsService.getStats("day", "01/02/2024", null, 10));
+        assertThrows(InvalidRangeException.class, () -> statsService.getStats("day", "2024-01-01", "2024-03-01", 10));
+
+        verifyNoInteractions(statsRepository);
+    }
+
+    // -------------------------------------------------------------
+    // FOLDING
+    // -------------------------------------------------------------
+    @Test
+    void testFoldDeltas_repeatsWhileBatchesAreFull() {
+        when(statsRepository.foldDeltas(100)).thenReturn(100, 100, 100, 100);
+
+        statsService.foldDeltas();
+
+        // bounded by max-fold-rounds even when more deltas keep coming
+        verify(statsRepository, times(3)).foldDeltas(100);
+    }
+
+    @Test
+    void testFoldDeltas_failureIsLogged() {
+        when(statsRepository.foldDeltas(100)).thenReturn(40).thenThrow(new IllegalStateException("down"));
+
+        statsService.foldDeltas();
+        assertDoesNotThrow(() -> statsService.foldDeltas());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.test.service;
+
+import com.example.test.dto.ChangeToken;
+import com.example.test.dto.UserChangeDTO;
+import com.example.test.dto.UserChangePageDTO;
+import com.example.test.exception.ChangeTokenExpiredException;
+import com.example.test.exception.InvalidChangeTokenException;
+import com.example.test.repository.UserChangeRepository;
+import com.example.test.repository.UserChangeRepository.ChangeEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeServiceTest {
+
+    @Mock
+    private UserChangeRepository changeRepository;
+
+    private UserChangeService changeService;
+
+    @BeforeEach
+    void setUp() {
+        changeService = new UserChangeService(changeRepository, 2, 7);
+        lenient().when(changeRepository.getPrunedHorizon()).thenReturn(ChangeToken.START);
+    }
+
+    // -------------------------------------------------------------
+    // PAGING + DEDUPE
+    // -------------------------------------------------------------
+    @Test
+    void testGetChanges_keepsLatestStatePerUser() {
+        ChangeToken since = new ChangeToken(10, 5);
+
+        when(changeRepository.getChangesSince(since, 3)).thenReturn(List.of(
+                entry(11, 6, upsert(1L, 2)),
+                entry(12, 7, delete(1L, 3))
+        ));
+
+        UserChangePageDTO page = changeService.getChanges(since.encode(), 50);
+
+        assertFalse(page.isHasMore());
+        assertEquals(new ChangeToken(12, 7).encode(), page.getNextToken());
+        assertEquals(1, page.getChanges().size());
+        assertEquals("DELETE", page.getChanges().get(0).getOp());
+    }
+
+    @Test
+    void testGetChanges_extraRowMeansMore() {
+        when(changeRepository.getChangesSince(ChangeToken.START, 3)).thenReturn(List.of(
+                entry(1, 1, upsert(1L, 1)),
+                entry(1, 2, upsert(2L, 1)),
+                entry(2, 3, upsert(3L, 1))
+        ));
+
+        UserChangePageDTO page = changeService.getChanges((String) null, 100);
+
+        assertTrue(page.isHasMore());
+        assertEquals(new ChangeToken(1, 2).encode(), page.getNextToken());
+        assertEquals(List.of(1L, 2L), page.getChanges().stream().map(UserChangeDTO::getId).toList());
+    }
+
+    @Test
+    void testGetChanges_emptyPageKeepsToken() {
+        ChangeToken since = new ChangeToken(42, 9);
+        when(changeRepository.getChangesSince(since, 3)).thenReturn(List.of());
+
+        UserChangePageDTO page = changeService.getChanges(since, 10);
+
+        assertEquals(since.encode(), page.getNextToken());
+        assertTrue(page.getChanges().isEmpty());
+    }
+
+    // -------------------------------------------------------------
+    // TOKEN ERRORS
+    // -------------------------------------------------------------
+    @Test
+    void testGetChanges_prunedTokenExpires() {
+        when(changeRepository.getPrunedHorizon()).thenReturn(new ChangeToken(20, 100));
+
+        assertThrows(ChangeTokenExpiredException.class,
+                () -> changeService.getChanges(new ChangeToken(5, 50), 10));
+        // change_id beyond the horizon, but an older transaction: still behind it
+        assertThrows(ChangeTokenExpiredException.class,
+                () -> changeService.getChanges(new ChangeToken(19, 500), 10));
+        verify(changeRepository, never()).getChangesSince(any(), anyInt());
+    }
+
+    @Test
+    void testGetChanges_headTokenBehindHorizonExpires() {
+        ChangeToken head = new ChangeToken(41, Long.MAX_VALUE);
+        when(changeRepository.getPrunedHorizon()).thenReturn(new ChangeToken(60, 7));
+
+        assertThrows(ChangeTokenExpiredException.class, () -> changeService.getChanges(head, 10));
+    }
+
+    @Test
+    void testGetChanges_tokenAtHorizonStillValid() {
+        ChangeToken horizon = new ChangeToken(60, 7);
+        when(changeRepository.getPrunedHorizon()).thenReturn(horizon);
+        when(changeRepository.getChangesSince(horizon, 3)).thenReturn(List.of());
+
+        assertEquals(horizon.encode(), changeService.getChanges(horizon, 10).getNextToken());
+    }
+
+    @Test
+    void testGetChanges_garbageTokenRejected() {
+        assertThrows(InvalidChangeTokenException.class, () -> changeService.getChanges("not-a-token!", 10));
+    }
+
+    private static ChangeEntry entry(long tx, long change, UserChangeDTO dto) {
+        return new ChangeEntry(new ChangeToken(tx, change), dto);
+    }
+
+    private static UserChangeDTO upsert(Long id, long version) {
+        return new UserChangeDTO("UPSERT", id, "A", "B", "a" + id + "@b.com", null, null, null, version, null);
+    }
+
+    private static UserChangeDTO delete(Long id, long version) {
+        return new UserChangeDTO("DELETE", id, null, null, null, null, null, null, version, null);
+    }
+}
@@ -1,21 +1,38 @@
 package com.example.test.service;
 
+import com.example.test.cache.UserCache;
 import com.example.test.dto.UserCreateRequest;
 import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserPatchRequest;
 import com.example.test.dto.UserUpdateRequest;
+import com.example.test.exception.DatabaseUnavailableException;
 import com.example.test.exception.DuplicateEmailException;
+import com.example.test.exception.InvalidLookupException;
+import com.example.test.exception.VersionConflictException;
+import com.example.test.id.IdGenerator;
+import com.example.test.outbox.UserEventOutbox;
 import com.example.test.repository.UserRepository;
+import com.example.test.resilience.DatabaseGuard;
+import com.example.test.search.UserSearchBackend;
+import com.example.test.snapshot.UserSnapshotService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +41,31 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;  // mock
 
+    @Mock
+    private IdGenerator idGenerator;
+
+    @Mock
+    private UserSnapshotService snapshotService;  // not serving -> repository path
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<UserSearchBackend> searchBackends;  // none configured -> SQL search
+
+    @Mock
+    private UserCache userCache;  // always misses unless stubbed
+
+    // real breaker: opens after 2 of the last 4 reads fail, stays open for a minute
+    @Spy
+    private DatabaseGuard databaseGuard = new DatabaseGuard(true, 4, 2, 0.5, 2000, 1.0, 60000, 1, 100, 3600000, 1000, 50);
+
+    @Mock
+    private UserEventOutbox outbox;  // rows only, delivery is OutboxPublisher's job
+
+    @Spy
+    private TransactionOperations transactions = TransactionOperations.withoutTransaction();
+
     @InjectMocks
     private UserService userService;        // mock injected here
 
@@ -35,12 +77,15 @@ class UserServiceTest {
         UserCreateRequest req = new UserCreateRequest();
         req.setEmail("test@example.com");
 
-        when(userRepository.createUserUsingProcedure(req)).thenReturn(10L);
+        when(idGenerator.nextId()).thenReturn(10L);
+        when(userRepository.createUserUsingProcedure(10L, req)).thenReturn(10L);
+        when(userRepository.getUserById(10L))
+                .thenReturn(Optional.of(new UserDTO(10L, null, null, "test@example.com", null, LocalDateTime.now())));
 
         Long id = userService.createUser(req);
 
         assertEquals(10L, id);
-        verify(userRepository).createUserUsingProcedure(req);
+        verify(userRepository).createUserUsingProcedure(10L, req);
     }
 
     @Test
@@ -48,10 +93,40 @@ class UserServiceTest {
         UserCreateRequest req = new UserCreateRequest();
         req.setEmail("duplicate@example.com");
 
-        when(userRepository.createUserUsingProcedure(req))
+        when(idGenerator.nextId()).thenReturn(11L);
+        when(userRepository.createUserUsingProcedure(11L, req))
                 .thenThrow(new DuplicateKeyException("Duplicate"));
+        when(userRepository.getUserByEmail("duplicate@example.com"))
+                .thenReturn(Optional.of(new UserDTO(3L, "A", "B", "duplicate@example.com", null, null)));
+
+        assertThrows(DuplicateEmailException.class, () -> userService.createUser(req));
+    }
+
+    @Test
+    void testCreateUser_idCollisionIsNotReportedAsDuplicateEmail() {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setEmail("new@example.com");
+
+        when(idGenerator.nextId()).thenReturn(13L);
+        when(userRepository.createUserUsingProcedure(13L, req))
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint \"users_pkey\""));
+        when(userRepository.getUserByEmail("new@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> userService.createUser(req));
+    }
+
+    @Test
+    void testCreateUser_conflictWithoutException() {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setEmail("duplicate@example.com");
+
+        when(idGenerator.nextId()).thenReturn(12L);
+        when(userRepository.createUserUsingProcedure(12L, req)).thenReturn(null);
 
-        assertThrows(DuplicateKeyException.class, () -> userService.createUser(req));
+        DuplicateEmailException ex = assertThrows(DuplicateEmailException.class, () -> userService.createUser(req));
+
+        assertEquals(0, ex.getStackTrace().length);
+        verifyNoInteractions(eventPublisher);
     }
 
     // -------------------------------------------------------------
@@ -91,6 +166,89 @@ class UserServiceTest {
         assertNull(result);
     }
 
+    @Test
+    void testGetUserById_cacheHitSkipsDatabase() {
+        UserDTO user = new UserDTO(1L, "A", "B", "a@b.com", "123", null);
+        when(userCache.get(1L)).thenReturn(user);
+
+        assertSame(user, userService.getUserById(1L));
+        verify(userRepository, never()).getUserById(any());
+    }
+
+    @Test
+    void testGetUserById_missFillsCacheWithStamp() {
+        UserDTO user = new UserDTO(1L, "A", "B", "a@b.com", "123", null);
+        when(userCache.stamp()).thenReturn(5L);
+        when(userRepository.getUserById(1L)).thenReturn(Optional.of(user));
+
+        userService.getUserById(1L);
+
+        verify(userCache).put(user, 5L);
+    }
+
+    // -------------------------------------------------------------
+    // EXACT LOOKUP BY EMAIL / PHONE
+    // -------------------------------------------------------------
+    @Test
+    void testGetUserByEmail_missRemembersUnderLowerCaseKey() {
+        UserDTO user = new UserDTO(3L, "A", "B", "Ann@X.com", "123", null);
+        when(userCache.stamp()).thenReturn(7L);
+        when(userRepository.getUserByEmail("ANN@x.com")).thenReturn(Optional.of(user));
+
+        assertSame(user, userService.getUserByEmail("ANN@x.com"));
+
+        verify(userCache).remember("email:ann@x.com", List.of(user), 7L);
+    }
+
+    @Test
+    void testGetUserByEmail_cacheHitSkipsDatabase() {
+        UserDTO user = new UserDTO(3L, "A", "B", "ann@x.com", "123", null);
+        when(userCache.lookup(eq("email:ann@x.com"), any())).thenReturn(List.of(user));
+
+        assertSame(user, userService.getUserByEmail("ann@x.com"));
+        verify(userRepository, never()).getUserByEmail(any());
+    }
+
+    @Test
+    void testGetUsersByPhone_normalizesBeforeLookup() {
+        when(userRepository.getUsersByPhone("+15550104477", 10)).thenReturn(List.of());
+
+        assertTrue(userService.getUsersByPhone("(555) 010-4477").isEmpty());
+        assertThrows(InvalidLookupException.class, () -> userService.getUsersByPhone("12-34"));
+    }
+
+    // -------------------------------------------------------------
+    // DATABASE OUTAGE (circuit breaker + stale reads)
+    // -------------------------------------------------------------
+    @Test
+    void testGetUsersPaginated_outageServesLastKnownPage() {
+        List<UserDTO> page = List.of(new UserDTO(1L, "A", "B", "a@b.com", "123", null));
+        when(userRepository.getUsersPaginated(0, 10, "id", "asc"))
+                .thenReturn(page)
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        userService.getUsersPaginated(0, 10, "id", "asc");
+        List<UserDTO> result = userService.getUsersPaginated(0, 10, "id", "asc");
+
+        assertSame(page, result);
+    }
+
+    @Test
+    void testOpenCircuit_servesStaleUserAndRejectsWrites() {
+        UserDTO user = new UserDTO(1L, "A", "B", "a@b.com", "123", null);
+        when(userRepository.getUserById(any())).thenThrow(new DataAccessResourceFailureException("failover"));
+        when(userCache.getStale(1L)).thenReturn(user);
+
+        assertSame(user, userService.getUserById(1L));
+        assertSame(user, userService.getUserById(1L));   // second failure opens the circuit
+        assertSame(user, userService.getUserById(1L));
+        verify(userRepository, times(2)).getUserById(any());
+
+        assertThrows(DatabaseUnavailableException.class, () -> userService.getUserById(2L));
+        assertThrows(DatabaseUnavailableException.class, () -> userService.deleteUser(1L));
+        verify(userRepository, never()).deleteUser(any());
+    }
+
     // -------------------------------------------------------------
     // UPDATE USER
     // -------------------------------------------------------------
@@ -101,6 +259,8 @@ class UserServiceTest {
 
         when(userRepository.emailExistsForAnotherUser("ok@test.com", 1L)).thenReturn(false);
         when(userRepository.updateUser(1L, req)).thenReturn(true);
+        when(userRepository.getUserById(1L))
+                .thenReturn(Optional.of(new UserDTO(1L, null, null, "ok@test.com", null, LocalDateTime.now())));
 
         boolean result = userService.updateUser(1L, req);
 
@@ -129,6 +289,84 @@ class UserServiceTest {
 
         assertTrue(result);
         verify(userRepository).deleteUser(5L);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(5L, null));
+    }
+
+    @Test
+    void testWrites_appendOutboxRowInsideTransaction() {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setEmail("new@test.com");
+        req.setPhone("(555) 010-0000");
+
+        when(idGenerator.nextId()).thenReturn(20L);
+        when(userRepository.createUserUsingProcedure(20L, req)).thenReturn(20L);
+        when(userRepository.deleteUser(20L)).thenReturn(true);
+
+        // the payload is the stored row, not the request
+        UserDTO stored = new UserDTO(20L, null, null, "new@test.com", "+15550100000", LocalDateTime.now());
+        when(userRepository.getUserById(20L)).thenReturn(Optional.of(stored));
+
+        userService.createUser(req);
+        userService.deleteUser(20L);
+
+        verify(outbox).created(stored);
+        verify(outbox).deleted(20L);
+        verify(transactions, times(2)).execute(any());
+    }
+
+    @Test
+    void testWrites_noOutboxRowWhenNothingChanged() {
+        UserCreateRequest req = new UserCreateRequest();
+        req.setEmail("duplicate@example.com");
+
+        when(idGenerator.nextId()).thenReturn(21L);
+        when(userRepository.createUserUsingProcedure(21L, req)).thenReturn(null);
+        when(userRepository.deleteUser(22L)).thenReturn(false);
+
+        assertThrows(DuplicateEmailException.class, () -> userService.createUser(req));
+        assertFalse(userService.deleteUser(22L));
+
+        verifyNoInteractions(outbox);
+    }
+
+    // -------------------------------------------------------------
+    // PATCH USER
+    // -------------------------------------------------------------
+    @Test
+    void testPatchUser_phoneOnlySkipsEmailCheck() {
+        UserPatchRequest req = new UserPatchRequest();
+        req.setPhone("555");
+
+        UserDTO patched = new UserDTO(1L, "A", "B", "a@b.com", "555", null);
+        when(userRepository.patchUser(1L, req, null))
+                .thenReturn(Optional.of(new UserRepository.VersionedUser(patched, 4L)));
+
+        assertEquals(Optional.of(4L), userService.patchUser(1L, req, null));
+        verify(userRepository, never()).emailExistsForAnotherUser(any(), any());
+        verify(eventPublisher).publishEvent(new UserChangedEvent(1L, patched));
+    }
+
+    @Test
+    void testPatchUser_staleVersion() {
+        UserPatchRequest req = new UserPatchRequest();
+        req.setEmail("new@b.com");
+
+        when(userRepository.emailExistsForAnotherUser("new@b.com", 1L)).thenReturn(false);
+        when(userRepository.patchUser(1L, req, 2L)).thenReturn(Optional.empty());
+        when(userRepository.getVersion(1L)).thenReturn(Optional.of(3L));
+
+        assertThrows(VersionConflictException.class, () -> userService.patchUser(1L, req, 2L));
+    }
+
+    @Test
+    void testPatchUser_notFound() {
+        UserPatchRequest req = new UserPatchRequest();
+        req.setFirstName("Z");
+
+        when(userRepository.patchUser(9L, req, null)).thenReturn(Optional.empty());
+
+        assertTrue(userService.patchUser(9L, req, null).isEmpty());
+        verify(userRepository, never()).getVersion(any());
     }
 
     // -------------------------------------------------------------
@@ -158,4 +396,17 @@ class UserServiceTest {
         assertNotNull(result);
         verify(userRepository).searchUsers("abc", 10, 0, "id", "asc");
     }
+
+    @Test
+    void testGetUsers_readySearchBackend() {
+        UserSearchBackend backend = mock(UserSearchBackend.class);
+        when(searchBackends.getIfAvailable()).thenReturn(backend);
+        when(backend.isReady()).thenReturn(true);
+        when(backend.search("abc", "id", "asc", 10, 10)).thenReturn(List.of());
+
+        userService.getUsers(1, 10, "id", "asc", "abc");
+
+        verify(backend).search("abc", "id", "asc", 10, 10);
+        verify(userRepository, never()).searchUsers(any(), anyInt(), anyInt(), any(), any());
+    }
 }
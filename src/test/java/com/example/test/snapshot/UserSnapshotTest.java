@@ -0,0 +1,106 @@
+package com.example.test.snapshot;
+
+import com.example.test.dto.UserDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSnapshotTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    // -------------------------------------------------------------
+    // PAGINATION + SORTING
+    // -------------------------------------------------------------
+    @Test
+    void testPage_sortsLikePostgres() {
+        UserSnapshot snapshot = UserSnapshot.build(List.of(
+                user(3, "Cid", null, 1),
+                user(1, "Ann", "555", 3),
+                user(2, "Bob", "111", 2)
+        ));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(snapshot.page("unknown", "asc", 0, 10)));
+        assertEquals(List.of(3L, 2L), ids(snapshot.page("firstName", "desc", 0, 2)));
+        // phone: NULLS LAST ascending, NULLS FIRST descending
+        assertEquals(List.of(2L, 1L, 3L), ids(snapshot.page("phone", "asc", 0, 10)));
+        assertEquals(List.of(3L, 1L, 2L), ids(snapshot.page("phone", "desc", 0, 10)));
+        assertEquals(List.of(2L, 1L), ids(snapshot.page("createdAt", "asc", 1, 10)));
+    }
+
+    @Test
+    void testPage_sortsTextInCollateCOrder() {
+        // COLLATE "C": uppercase before lowercase, accented letters after 'z'
+        UserSnapshot snapshot = UserSnapshot.build(List.of(
+                user(1, "émile", "1", 1),
+                user(2, "anna", "2", 2),
+                user(3, "Zoe", "3", 3)
+        ));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(snapshot.page("firstName", "asc", 0, 10)));
+    }
+
+    // -------------------------------------------------------------
+    // SEARCH
+    // -------------------------------------------------------------
+    @Test
+    void testSearch_matchesNameOrEmailCaseInsensitively() {
+        UserSnapshot snapshot = UserSnapshot.build(List.of(
+                user(1, "Ann", "1", 1),
+                user(2, "Bob", "2", 2),
+                user(3, "Joanna", "3", 3)
+        ));
+
+        assertEquals(List.of(3L, 1L), ids(snapshot.search("ANN", "id", "desc", 0, 10)));
+        assertEquals(List.of(2L), ids(snapshot.search("bob2@", "id", "asc", 0, 10)));
+        assertEquals(List.of(), ids(snapshot.search("nobody", "id", "asc", 0, 10)));
+    }
+
+    // -------------------------------------------------------------
+    // INCREMENTAL APPLY == FULL REBUILD
+    // -------------------------------------------------------------
+    @Test
+    void testApply_matchesFullBuild() {
+        Random random = new Random(7);
+        List<UserDTO> users = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            users.add(user(id, "N" + random.nextInt(100), random.nextInt(5) == 0 ? null : "" + random.nextInt(1000), random.nextInt(50)));
+        }
+
+        UserSnapshot base = UserSnapshot.build(users);
+
+        List<UserDTO> upserts = List.of(
+                user(10, "Zed", null, 99),          // update
+                user(600, "Aaron", "000", 0)        // insert
+        );
+        Set<Long> deleted = Set.of(20L, 30L);
+
+        List<UserDTO> expected = new ArrayList<>(users);
+        expected.removeIf(u -> u.getId() == 10 || deleted.contains(u.getId()));
+        expected.addAll(upserts);
+
+        UserSnapshot incremental = base.apply(upserts, deleted);
+        UserSnapshot full = UserSnapshot.build(expected);
+
+        assertEquals(full.size(), incremental.size());
+        for (String key : List.of("id", "firstName", "lastName", "email", "phone", "createdAt")) {
+            for (String dir : List.of("asc", "desc")) {
+                assertEquals(ids(full.page(key, dir, 0, 1000)), ids(incremental.page(key, dir, 0, 1000)), key + " " + dir);
+            }
+        }
+    }
+
+    private static UserDTO user(long id, String firstName, String phone, int minutes) {
+        return new UserDTO(id, firstName, "Last" + id, firstName.toLowerCase() + id + "@test.com", phone, T0.plusMinutes(minutes));
+    }
+
+    private static List<Long> ids(List<UserDTO> users) {
+        return users.stream().map(UserDTO::getId).toList();
+    }
+}
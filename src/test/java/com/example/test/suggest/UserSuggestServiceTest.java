@@ -0,0 +1,93 @@
+package com.example.test.suggest;
+
+import com.example.test.dto.UserDTO;
+import com.example.test.dto.UserSuggestionDTO;
+import com.example.test.repository.UserRepository;
+import com.example.test.service.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSuggestServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserSuggestService suggestService;
+
+    @BeforeEach
+    void setUp() {
+        suggestService = new UserSuggestService(userRepository, true, 100);
+    }
+
+    // -------------------------------------------------------------
+    // INDEX LOOKUP
+    // -------------------------------------------------------------
+    @Test
+    void testSuggest_prefixOverNamesAndEmail() {
+        when(userRepository.getUsersAfterId(anyLong(), anyInt())).thenReturn(List.of(
+                user(1L, "Anna", "Smith", "anna@test.com"),
+                user(2L, "Ann", "Jones", "aj@test.com"),
+                user(3L, "Bob", "Annan", "bob@test.com")
+        ));
+        suggestService.rebuild();
+
+        // "ann" < "ann jones" < "anna" < "annan"
+        assertEquals(List.of(2L, 1L, 3L), ids(suggestService.suggest("ANN", 10)));
+        assertEquals(List.of(2L), ids(suggestService.suggest("ann j", 10)));
+        assertEquals(List.of(3L), ids(suggestService.suggest("bob@", 10)));
+        assertEquals(List.of(2L, 1L), ids(suggestService.suggest("ann", 2)));
+        assertEquals("Anna Smith", suggestService.suggest("anna@", 1).get(0).getDisplayName());
+        assertTrue(suggestService.suggest("zzz", 10).isEmpty());
+    }
+
+    // -------------------------------------------------------------
+    // WRITES BETWEEN REBUILDS
+    // -------------------------------------------------------------
+    @Test
+    void testSuggest_followsCreateUpdateDelete() {
+        when(userRepository.getUsersAfterId(anyLong(), anyInt())).thenReturn(List.of(
+                user(1L, "Anna", "Smith", "anna@test.com"),
+                user(2L, "Carl", "Jones", "carl@test.com")
+        ));
+        suggestService.rebuild();
+
+        suggestService.onUserChanged(new UserChangedEvent(3L, user(3L, "Annie", "Hall", "annie@test.com")));
+        suggestService.onUserChanged(new UserChangedEvent(1L, user(1L, "Zoe", "Smith", "zoe@test.com")));
+        suggestService.onUserChanged(new UserChangedEvent(2L, null));
+
+        assertEquals(List.of(3L), ids(suggestService.suggest("ann", 10)));
+        assertEquals(List.of(1L), ids(suggestService.suggest("zoe", 10)));
+        assertTrue(suggestService.suggest("carl", 10).isEmpty());
+    }
+
+    // -------------------------------------------------------------
+    // FALLBACK BEFORE FIRST BUILD
+    // -------------------------------------------------------------
+    @Test
+    void testSuggest_usesSqlUntilIndexed() {
+        when(userRepository.searchUsers("ann", 5, 0, "id", "asc"))
+                .thenReturn(List.of(user(7L, "Ann", "Lee", "ann@test.com")));
+
+        List<UserSuggestionDTO> result = suggestService.suggest(" Ann ", 5);
+
+        assertFalse(suggestService.isReady());
+        assertEquals("Ann Lee", result.get(0).getDisplayName());
+    }
+
+    private static UserDTO user(Long id, String first, String last, String email) {
+        return new UserDTO(id, first, last, email, null, null);
+    }
+
+    private static List<Long> ids(List<UserSuggestionDTO> suggestions) {
+        return suggestions.stream().map(UserSuggestionDTO::getId).toList();
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.test.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scratch Postgres for the opt-in load and benchmark tests, configured with
+ * -Dit.db.url / -Dit.db.user / -Dit.db.password / -Dit.db.rows.
+ *
+ * {@link #resetAndSeed} drops the users schema objects and rebuilds them
+ * from config/db.migration in dependency order, so the application can be
+ * booted against it with every optional feature available.
+ * {@link #ensureGenerated} does the same with a {@link SyntheticUserGenerator}
+ * population and keeps it across runs while size and seed are unchanged.
+ */
+public final class ScratchDatabase {
+
+    /** Applied after seeding, in order (no partitioning, no sharding directory). */
+    public static final List<String> APP_MIGRATIONS = List.of(
+            "create_stored_procedure.sql",
+            "create_id_generator.sql",
+            "create_conflict_free_insert.sql",
+            "create_views.sql",
+            "create_sort_indexes.sql",
+            "create_created_at_brin.sql",
+            "create_contact_lookup.sql",
+            "create_user_changes.sql",
+            "create_change_feed.sql",
+            "create_idempotency_keys.sql",
+            "create_bulk_delete_jobs.sql",
+            "create_signup_stats.sql",
+            "create_user_outbox.sql");
+
+    private static final Path MIGRATIONS = Path.of("config/db.migration");
+    private static final Pattern DOLLAR_TAG = Pattern.compile("\\$[A-Za-z_]*\\$");
+
+    private ScratchDatabase() {
+    }
+
+    public static String url() {
+        return System.getProperty("it.db.url");
+    }
+
+    public static String user() {
+        return System.getProperty("it.db.user", "postgres");
+    }
+
+    public static String password() {
+        return System.getProperty("it.db.password", "");
+    }
+
+    public static int rows() {
+        return Integer.getInteger("it.db.rows", 1_000_000);
+    }
+
+    public static DriverManagerDataSource dataSource() {
+        return new DriverManagerDataSource(url(), user(), password());
+    }
+
+    // -------------------------------------------------------------
+    // RESET + SEED
+    // -------------------------------------------------------------
+    public static void resetAndSeed(JdbcTemplate jdbcTemplate, int rows) {
+        dropSchema(jdbcTemplate);
+        migrate(jdbcTemplate, "create_table.sql");
+
+        // loaded before the change trigger exists
+        jdbcTemplate.update("""
+            INSERT INTO users (id, first_name, last_name, email, phone, created_at)
+            SELECT g,
+                   (ARRAY['Ann','Bob','Carla','Dinesh','Eva','Farah','Gus','Hana','Ivan','Jo'])[1 + g % 10]
+                       || substr(md5(g::text), 1, 6),
+                   'Last' || substr(md5((g * 7)::text), 1, 8),
+                   'user' || g || '@example' || (g % 50) || '.com',
+                   CASE WHEN g % 9 = 0 THEN NULL ELSE '+94' || (700000000 + g) END,
+                   timestamp '2020-01-01' + (g || ' seconds')::interval * 60
+            FROM generate_series(1, ?) AS g
+        """, rows);
+
+        finishSchema(jdbcTemplate);
+    }
+
+    // -------------------------------------------------------------
+    // SYNTHETIC POPULATION (COPY), REUSED WHILE rows + seed MATCH
+    // -------------------------------------------------------------
+    public static void ensureGenerated(DataSource dataSource, long rows, long seed, int threads) throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Boolean current = jdbcTemplate.queryForObject("""
+            SELECT to_regclass('synthetic_dataset') IS NOT NULL AND to_regclass('users') IS NOT NULL
+        """, Boolean.class);
+        if (Boolean.TRUE.equals(current) && jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM synthetic_dataset WHERE rows = ? AND seed = ?", Integer.class, rows, seed) > 0) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+
+        dropSchema(jdbcTemplate);
+        migrate(jdbcTemplate, "create_table.sql");
+        new SyntheticUserGenerator(seed).copyInto(dataSource, rows, threads);
+        long copied = System.currentTimeMillis();
+
+        finishSchema(jdbcTemplate);
+
+        jdbcTemplate.execute("""
+            CREATE TABLE synthetic_dataset (rows bigint NOT NULL, seed bigint NOT NULL,
+                                            copy_ms bigint NOT NULL, total_ms bigint NOT NULL)
+        """);
+        jdbcTemplate.update("INSERT INTO synthetic_dataset VALUES (?, ?, ?, ?)",
+                rows, seed, copied - started, System.currentTimeMillis() - started);
+
+        System.out.printf("generated %d users: COPY %d ms, indexes + migrations %d ms%n",
+                rows, copied - started, System.currentTimeMillis() - copied);
+    }
+
+    private static void dropSchema(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS users, user_changes, user_changes_pruned, user_tombstones, "
+                + "idempotency_keys, bulk_delete_jobs, synthetic_dataset CASCADE");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS users_id_seq CASCADE");
+    }
+
+    private static void finishSchema(JdbcTemplate jdbcTemplate) {
+        migrate(jdbcTemplate, APP_MIGRATIONS.toArray(new String[0]));
+
+        // create_change_feed.sql backfills updated_at through the trigger
+        jdbcTemplate.execute("TRUNCATE user_changes");
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+    }
+
+    // -------------------------------------------------------------
+    // MIGRATIONS (statement split that understands $tag$ bodies)
+    // -------------------------------------------------------------
+    public static void migrate(JdbcTemplate jdbcTemplate, String... files) {
+        for (String file : files) {
+            try {
+                for (String statement : split(Files.readString(MIGRATIONS.resolve(file)))) {
+                    jdbcTemplate.execute(statement);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String dollarTag = null;
+        boolean inQuote = false;
+
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+
+            if (dollarTag != null) {
+                if (script.startsWith(dollarTag, i)) {
+                    current.append(dollarTag);
+                    i += dollarTag.length() - 1;
+                    dollarTag = null;
+                } else {
+                    current.append(c);
+                }
+                continue;
+            }
+            if (inQuote) {
+                current.append(c);
+                inQuote = c != '\'';
+                continue;
+            }
+            if (c == '-' && script.startsWith("--", i)) {
+                int eol = script.indexOf('\n', i);
+                i = eol < 0 ? script.length() : eol;
+                current.append('\n');
+                continue;
+            }
+            if (c == '\'') {
+                inQuote = true;
+            } else if (c == '$') {
+                Matcher m = DOLLAR_TAG.matcher(script).region(i, script.length());
+                if (m.lookingAt()) {
+                    dollarTag = m.group();
+                    current.append(dollarTag);
+                    i += dollarTag.length() - 1;
+                    continue;
+                }
+            } else if (c == ';') {
+                addIfNotBlank(statements, current);
+                current.setLength(0);
+                continue;
+            }
+            current.append(c);
+        }
+        addIfNotBlank(statements, current);
+        return statements;
+    }
+
+    private static void addIfNotBlank(List<String> statements, StringBuilder sql) {
+        String s = sql.toString().trim();
+        if (!s.isEmpty()) {
+            statements.add(s);
+        }
+    }
+}
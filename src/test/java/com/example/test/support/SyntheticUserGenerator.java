@@ -0,0 +1,213 @@
+package com.example.test.support;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills users with a deterministic synthetic population through COPY.
+ *
+ * Row i depends only on (seed, i), so the data set is identical whatever
+ * the thread count; threads stream disjoint id ranges over their own
+ * connections. Names follow a Zipf-like skew (a few very common names, a
+ * long tail), addresses mix free-mail and company domains in several
+ * spellings, ~15% of users have no phone and phones come in the formats
+ * people actually type, and sign-ups grow over five years.
+ *
+ * Load into a table without secondary indexes and build them afterwards.
+ */
+public final class SyntheticUserGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Mohamed", "Wei", "Maria", "Nushi", "Jose", "Anna", "David", "Fatima",
+            "Michael", "Olga", "Ahmed", "Yan", "John", "Sofia", "Carlos", "Priya", "Ali", "Elena",
+            "Luis", "Aisha", "Kenji", "Chloe", "Ivan", "Amara", "Noah", "Hana", "Lucas", "Zoë",
+            "Dinesh", "Ingrid", "Omar", "Sakura", "Pablo", "Nadia", "Tomás", "Leila", "Björn", "Ananya"};
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Wang", "Silva", "Perera", "Kumar", "Garcia", "Nguyen", "Muller", "Rossi", "Kim",
+            "Johnson", "Fernando", "Li", "Martin", "Ivanov", "Khan", "Brown", "Sato", "Lopez", "Singh",
+            "Dubois", "Jansen", "Novak", "Andersson", "Costa", "Hassan", "Tanaka", "O'Brien", "Cohen", "Ali",
+            "Rodriguez", "Jayasuriya", "Kowalski", "Popescu", "Yilmaz", "Moreau", "Schmidt", "Park", "Chen", "Gupta"};
+
+    private static final String[] FIRST_ASCII = ascii(FIRST_NAMES);
+    private static final String[] LAST_ASCII = ascii(LAST_NAMES);
+
+    private static final String[] FREE_MAIL = {"gmail.com", "yahoo.com", "outlook.com", "hotmail.com", "icloud.com", "proton.me"};
+
+    private static final String[] COUNTRY_CODES = {"1", "44", "91", "94", "49", "33", "81", "55"};
+
+    private static final int COMPANY_DOMAINS = 5_000;
+    private static final int BATCH_ROWS = 10_000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final long SPAN_SECONDS = 5L * 365 * 24 * 3600;
+
+    private final long seed;
+    private final double[] firstCdf = zipfCdf(FIRST_NAMES.length);
+    private final double[] lastCdf = zipfCdf(LAST_NAMES.length);
+
+    public SyntheticUserGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // -------------------------------------------------------------
+    // COPY ids 1..rows in parallel ranges
+    // -------------------------------------------------------------
+    public void copyInto(DataSource dataSource, long rows, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> parts = new ArrayList<>();
+            long per = (rows + threads - 1) / threads;
+
+            for (int t = 0; t < threads; t++) {
+                long from = 1 + t * per;
+                long to = Math.min(rows, from + per - 1);
+                if (from <= to) {
+                    parts.add(pool.submit(() -> {
+                        copyRange(dataSource, from, to);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> part : parts) {
+                part.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void copyRange(DataSource dataSource, long from, long to) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement st = connection.createStatement()) {
+                st.execute("SET synchronous_commit = off");
+            }
+
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY users (id, first_name, last_name, email, phone, created_at) FROM STDIN (FORMAT csv)");
+            try {
+                StringBuilder batch = new StringBuilder(BATCH_ROWS * 96);
+                for (long id = from; id <= to; id++) {
+                    appendRow(batch, id);
+                    if ((id - from + 1) % BATCH_ROWS == 0) {
+                        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+                        copy.writeToCopy(bytes, 0, bytes.length);
+                        batch.setLength(0);
+                    }
+                }
+                byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+                copy.writeToCopy(bytes, 0, bytes.length);
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------
+    // ONE ROW (CSV, empty field = NULL)
+    // -------------------------------------------------------------
+    void appendRow(StringBuilder out, long id) {
+        SplittableRandom rnd = new SplittableRandom(seed ^ (id * 0x9E3779B97F4A7C15L));
+
+        int first = pick(firstCdf, rnd.nextDouble());
+        int last = pick(lastCdf, rnd.nextDouble());
+
+        out.append(id).append(',')
+                .append(FIRST_NAMES[first]).append(',')
+                .append(csv(LAST_NAMES[last])).append(',')
+                .append(email(rnd, FIRST_ASCII[first], LAST_ASCII[last], id)).append(',');
+
+        if (rnd.nextInt(100) >= 15) {
+            out.append(phone(rnd));
+        }
+
+        // sqrt skews sign-ups towards the recent end (growth)
+        long offset = (long) (SPAN_SECONDS * Math.sqrt(rnd.nextDouble()));
+        out.append(',').append(EPOCH.plusSeconds(offset)).append('\n');
+    }
+
+    private static String email(SplittableRandom rnd, String f, String l, long id) {
+        String local = switch (rnd.nextInt(4)) {
+            case 0 -> f + "." + l;
+            case 1 -> f.charAt(0) + l;
+            case 2 -> f + l;
+            default -> f + "_" + l.charAt(0);
+        };
+
+        // 60% free mail, the rest spread over a few thousand company domains
+        String domain = rnd.nextInt(100) < 60
+                ? FREE_MAIL[rnd.nextInt(FREE_MAIL.length)]
+                : "corp" + rnd.nextInt(COMPANY_DOMAINS) + ".example.com";
+
+        // the id suffix keeps addresses unique, as real sign-up forms force people to
+        return local + id + "@" + domain;
+    }
+
+    private static String phone(SplittableRandom rnd) {
+        String cc = COUNTRY_CODES[rnd.nextInt(COUNTRY_CODES.length)];
+        String national = Long.toString(rnd.nextLong(100_000_000L, 10_000_000_000L));
+
+        return switch (rnd.nextInt(4)) {
+            case 0 -> "+" + cc + national;
+            case 1 -> "+" + cc + " " + national.substring(0, 3) + " " + national.substring(3);
+            case 2 -> "00" + cc + "-" + national;
+            default -> "0" + national;
+        };
+    }
+
+    // -------------------------------------------------------------
+    // HELPERS
+    // -------------------------------------------------------------
+    private static double[] zipfCdf(int n) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, double u) {
+        for (int i = 0; i < cdf.length; i++) {
+            if (u <= cdf[i]) {
+                return i;
+            }
+        }
+        return cdf.length - 1;
+    }
+
+    // "Zoë" -> "zoe", "O'Brien" -> "obrien" for the local part of addresses
+    private static String[] ascii(String[] names) {
+        String[] out = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            out[i] = Normalizer.normalize(names[i], Normalizer.Form.NFD).replaceAll("[^A-Za-z]", "").toLowerCase();
+        }
+        return out;
+    }
+
+    private static String csv(String value) {
+        return value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                ? "\"" + value.replace("\"", "\"\"") + "\""
+                : value;
+    }
+}
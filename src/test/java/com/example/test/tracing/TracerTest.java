@@ -0,0 +1,156 @@
+package com.example.test.tracing;
+
+import com.example.test.dto.SpanDTO;
+import com.example.test.dto.TraceDTO;
+import com.example.test.jdbc.InstrumentedDataSource;
+import com.example.test.jdbc.JdbcEventListener;
+import com.example.test.jdbc.StatementExecution;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TracerTest {
+
+    private TraceBuffer buffer;
+    private Tracer tracer;
+    private JdbcTracingListener jdbcListener;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new TraceBuffer(new ObjectMapper(), 10, "");
+        tracer = new Tracer(buffer, true, 1.0, 500);
+        jdbcListener = new JdbcTracingListener(tracer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracer.clear();
+    }
+
+    // -------------------------------------------------------------
+    // SPAN TREE
+    // -------------------------------------------------------------
+    @Test
+    void testSpansNestUnderTheCurrentSpan() {
+        Span root = tracer.startTrace("GET /api/users/{id}", null);
+        Span service = tracer.startSpan("UserService.getUserById", "service");
+
+        long start = System.nanoTime();
+        jdbcListener.onConnectionAcquired(start, 1_000_000, false);
+        jdbcListener.onStatementExecuted(new StatementExecution(
+                "SELECT id, email\n  FROM users WHERE id = ?", List.of(1L), start, 2_000_000, false, 1));
+
+        service.end();
+        assertSame(root, tracer.current());
+        root.end();
+        assertNull(tracer.current());
+
+        TraceDTO trace = buffer.find(root.traceId()).orElseThrow();
+        assertEquals(4, trace.getSpanCount());
+
+        SpanDTO serviceSpan = span(trace, "UserService.getUserById");
+        SpanDTO jdbcSpan = span(trace, "jdbc SELECT");
+        assertEquals(root.spanId(), serviceSpan.getParentId());
+        assertEquals(serviceSpan.getSpanId(), jdbcSpan.getParentId());
+        assertEquals(serviceSpan.getSpanId(), span(trace, "pool.acquire").getParentId());
+        assertEquals(1L, jdbcSpan.getTags().get("rows"));
+        assertEquals("SELECT id, email FROM users WHERE id = ?", jdbcSpan.getTags().get("sql"));
+        assertEquals(2.0, jdbcSpan.getDurationMillis());
+    }
+
+    @Test
+    void testNothingRecordedOutsideATrace() {
+        assertNull(tracer.startSpan("UserService.getUserById", "service"));
+
+        jdbcListener.onStatementExecuted(new StatementExecution("SELECT 1", List.of(), System.nanoTime(), 1, false, 1));
+
+        assertTrue(buffer.recent(10, 0).isEmpty());
+    }
+
+    // -------------------------------------------------------------
+    // TRACE CONTEXT PROPAGATION
+    // -------------------------------------------------------------
+    @Test
+    void testIncomingTraceparentIsContinued() {
+        TraceParent incoming = TraceParent.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+
+        Span root = tracer.startTrace("GET /api/users", incoming);
+        root.end();
+
+        TraceDTO trace = buffer.find("4bf92f3577b34da6a3ce929d0e0e4736").orElseThrow();
+        assertEquals("00f067aa0ba902b7", trace.getSpans().get(0).getParentId());
+
+        assertNull(tracer.startTrace("GET /api/users",
+                TraceParent.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00")));
+        assertNull(TraceParent.parse("00-" + "0".repeat(32) + "-00f067aa0ba902b7-01"));
+        assertNull(TraceParent.parse("garbage"));
+    }
+
+    @Test
+    void testBindingSpanEndsOnControllerEntry() {
+        Span root = tracer.startTrace("POST /api/users", null);
+        Span binding = tracer.startSpan("bind UserController.createUser", Tracer.KIND_BINDING);
+
+        tracer.endBinding();
+
+        assertTrue(binding.isEnded());
+        assertSame(root, tracer.current());
+
+        tracer.endBinding();
+        assertFalse(root.isEnded());
+    }
+
+    // -------------------------------------------------------------
+    // JDBC EVENTS (pool wait, rows read)
+    // -------------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInstrumentedDataSourceReportsAcquireAndRowsRead() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+
+        JdbcEventListener listener = mock(JdbcEventListener.class);
+        ObjectProvider<JdbcEventListener> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(inv -> Stream.of(listener));
+
+        InstrumentedDataSource dataSource = new InstrumentedDataSource(target, provider);
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT * FROM users WHERE id > ?")) {
+            ps.setLong(1, 5L);
+            try (ResultSet rs = ps.executeQuery()) {
+                verify(listener, never()).onStatementExecuted(any());
+                while (rs.next()) {
+                    // read all rows
+                }
+            }
+        }
+
+        verify(listener).onConnectionAcquired(anyLong(), anyLong(), eq(false));
+        verify(listener).onStatementExecuted(argThat(e ->
+                e.rows() == 3 && e.params().equals(List.of(5L)) && !e.failed()));
+    }
+
+    private static SpanDTO span(TraceDTO trace, String name) {
+        return trace.getSpans().stream().filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+    }
+}